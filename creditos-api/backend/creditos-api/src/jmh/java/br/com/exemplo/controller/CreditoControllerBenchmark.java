@@ -0,0 +1,88 @@
+package br.com.exemplo.controller;
+
+import br.com.exemplo.cache.RespostaCache;
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.CreditoResponseDTO;
+import br.com.exemplo.metricas.MetricasCreditos;
+import br.com.exemplo.service.CreditoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Despacho ponta a ponta pelo Spring MVC (roteamento, controller, conversão
+ * para JSON) com o serviço substituído por um stub em memória, sem banco nem Kafka.
+ * Com {@code cacheRespostas} ligado, todas as medições depois da primeira são acertos
+ * no cache de respostas serializadas (cópia dos bytes prontos, com ou sem gzip).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreditoControllerBenchmark {
+
+    @Param({"1", "100"})
+    private int creditosPorNfse;
+
+    @Param({"false", "true"})
+    private boolean cacheRespostas;
+
+    @Param({"identity", "gzip"})
+    private String acceptEncoding;
+
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        List<CreditoResponseDTO> creditos = new ArrayList<>(creditosPorNfse);
+        for (int i = 0; i < creditosPorNfse; i++) {
+            creditos.add(new CreditoResponseDTO("CR" + i, "NF001", LocalDate.of(2024, 1, 1).plusDays(i),
+                    new BigDecimal("1500.75"), "ISSQN", i % 2 == 0, new BigDecimal("5.00"),
+                    new BigDecimal("30000.00"), new BigDecimal("5000.00"), new BigDecimal("25000.00")));
+        }
+        CreditoService servico = new CreditoService() {
+            @Override
+            public List<CreditoResponseDTO> buscarCreditosPorNfse(String numeroNfse) {
+                return creditos;
+            }
+
+            @Override
+            public void registrarConsultaPorNfseEmCache(String numeroNfse, int quantidade, long nanos) {
+            }
+        };
+        CreditosProperties properties = new CreditosProperties();
+        properties.getCache().getResposta().setHabilitado(cacheRespostas);
+        CreditoController controller = new CreditoController();
+        ReflectionTestUtils.setField(controller, "creditoService", servico);
+        ReflectionTestUtils.setField(controller, "metricas", new MetricasCreditos(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(controller, "properties", properties);
+        ReflectionTestUtils.setField(controller, "respostaCache", new RespostaCache(properties, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(controller, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(controller, "cborConverter",
+                new MappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).<ObjectMapper>build()));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Benchmark
+    public MvcResult getCreditosPorNfse() throws Exception {
+        return mockMvc.perform(get("/api/creditos/NF001").header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding)).andReturn();
+    }
+}
@@ -0,0 +1,63 @@
+package br.com.exemplo.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização Jackson de CreditoResponseDTO: BigDecimal e LocalDate com @JsonFormat.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreditoResponseDTOSerializacaoBenchmark {
+
+    @Param({"1", "100"})
+    private int creditosPorNfse;
+
+    private ObjectWriter writer;
+    private CreditoResponseDTO dto;
+    private List<CreditoResponseDTO> dtos;
+    private byte[] json;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        writer = objectMapper.writer();
+        dtos = new ArrayList<>(creditosPorNfse);
+        for (int i = 0; i < creditosPorNfse; i++) {
+            dtos.add(new CreditoResponseDTO("CR" + i, "NF001", LocalDate.of(2024, 1, 1).plusDays(i),
+                    new BigDecimal("1500.75"), "ISSQN", i % 2 == 0, new BigDecimal("5.00"),
+                    new BigDecimal("30000.00"), new BigDecimal("5000.00"), new BigDecimal("25000.00")));
+        }
+        dto = dtos.get(0);
+        json = writer.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public byte[] serializarCredito() throws JsonProcessingException {
+        return writer.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public byte[] serializarListaNfse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public CreditoResponseDTO desserializarCredito() throws java.io.IOException {
+        return objectMapper.readValue(json, CreditoResponseDTO.class);
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.exemplo.messaging;
+
+import br.com.exemplo.dto.ConsultaEventDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por requisição da auditoria antes da fila: construção do evento
+ * (LocalDateTime.now()) e montagem da chave Kafka.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsultaEventoBenchmark {
+
+    private ConsultaEventDTO evento;
+
+    @Setup
+    public void setUp() {
+        evento = new ConsultaEventDTO("NUMERO_NFSE", "NF001", 2, "localhost", "API");
+    }
+
+    @Benchmark
+    public ConsultaEventDTO construirEvento() {
+        return new ConsultaEventDTO("NUMERO_NFSE", "NF001", 2, "localhost", "API");
+    }
+
+    @Benchmark
+    public String montarChave() {
+        return ConsultaPublisher.montarChave(evento);
+    }
+
+    @Benchmark
+    public String construirEventoEMontarChave() {
+        return ConsultaPublisher.montarChave(new ConsultaEventDTO("NUMERO_NFSE", "NF001", 2, "localhost", "API"));
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.exemplo.service;
+
+import br.com.exemplo.dto.CreditoResponseDTO;
+import br.com.exemplo.entity.Credito;
+import br.com.exemplo.metricas.MetricasCreditos;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do mapeamento entidade -> DTO, por crédito e para uma NFS-e inteira.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreditoServiceBenchmark {
+
+    @Param({"1", "100"})
+    private int creditosPorNfse;
+
+    private CreditoService creditoService;
+    private Credito credito;
+    private List<Credito> creditos;
+
+    @Setup
+    public void setUp() {
+        creditoService = new CreditoService();
+        ReflectionTestUtils.setField(creditoService, "metricas", new MetricasCreditos(new SimpleMeterRegistry()));
+        creditos = new ArrayList<>(creditosPorNfse);
+        for (int i = 0; i < creditosPorNfse; i++) {
+            creditos.add(new Credito("CR" + i, "NF001", LocalDate.of(2024, 1, 1).plusDays(i),
+                    new BigDecimal("1500.75"), "ISSQN", i % 2 == 0, new BigDecimal("5.00"),
+                    new BigDecimal("30000.00"), new BigDecimal("5000.00"), new BigDecimal("25000.00")));
+        }
+        credito = creditos.get(0);
+    }
+
+    @Benchmark
+    public CreditoResponseDTO mapToDTO() {
+        return creditoService.mapToDTO(credito);
+    }
+
+    @Benchmark
+    public List<CreditoResponseDTO> mapToDTONfse() {
+        List<CreditoResponseDTO> dtos = new ArrayList<>(creditos.size());
+        for (Credito c : creditos) {
+            dtos.add(creditoService.mapToDTO(c));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,65 @@
+package br.com.exemplo.analise;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch com atualização conservadora: estima a frequência de cada chave
+ * em memória fixa ({@code largura * profundidade} contadores), nunca subestimando.
+ * Com atualização conservadora só os contadores abaixo da nova estimativa sobem, o
+ * que reduz a superestimativa das chaves raras que colidem com chaves quentes.
+ *
+ * Não é thread-safe.
+ */
+final class CountMinSketch {
+
+    private final int profundidade;
+    private final int mascara;
+    private final int[] contadores;
+
+    /**
+     * @param largura contadores por linha, arredondado para potência de 2
+     */
+    CountMinSketch(int largura, int profundidade) {
+        if (largura < 1 || profundidade < 1) {
+            throw new IllegalArgumentException("Largura e profundidade devem ser positivas");
+        }
+        int larguraPotencia = Integer.highestOneBit(largura) == largura ? largura : Integer.highestOneBit(largura) << 1;
+        this.profundidade = profundidade;
+        this.mascara = larguraPotencia - 1;
+        this.contadores = new int[larguraPotencia * profundidade];
+    }
+
+    /**
+     * Soma {@code quantidade} ocorrências à chave e devolve a nova estimativa.
+     */
+    long adicionar(long hash, long quantidade) {
+        long estimativa = estimar(hash);
+        long nova = Math.min(Integer.MAX_VALUE, estimativa + quantidade);
+        for (int linha = 0; linha < profundidade; linha++) {
+            int i = indice(hash, linha);
+            if (contadores[i] < nova) {
+                contadores[i] = (int) nova;
+            }
+        }
+        return nova;
+    }
+
+    long estimar(long hash) {
+        long minimo = Long.MAX_VALUE;
+        for (int linha = 0; linha < profundidade; linha++) {
+            minimo = Math.min(minimo, contadores[indice(hash, linha)]);
+        }
+        return minimo;
+    }
+
+    void limpar() {
+        Arrays.fill(contadores, 0);
+    }
+
+    // Kirsch-Mitzenmacher: as funções de cada linha derivam das duas metades de um hash de 64 bits
+    private int indice(long hash, int linha) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return linha * (mascara + 1) + ((h1 + linha * h2) & mascara);
+    }
+}
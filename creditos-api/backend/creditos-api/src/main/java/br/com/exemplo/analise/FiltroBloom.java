@@ -0,0 +1,118 @@
+package br.com.exemplo.analise;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom: responde se uma chave talvez esteja no conjunto ou certamente não
+ * está (sem falsos negativos), em memória fixa. O número de bits é o necessário para a
+ * taxa de falsos positivos pedida na capacidade informada, arredondado para potência
+ * de 2 e limitado a {@code bitsMaximo}; o de funções de hash deriva dos dois.
+ *
+ * É thread-safe e não bloqueia: os bits ficam em um AtomicLongArray e são ligados por
+ * CAS, de modo que várias threads podem adicionar e consultar ao mesmo tempo.
+ */
+public final class FiltroBloom {
+
+    private static final int MAX_FUNCOES = 16;
+    private static final long MAX_BITS = (long) Integer.MAX_VALUE * Long.SIZE;
+
+    private final AtomicLongArray palavras;
+    private final long mascara;
+    private final int funcoes;
+    private final long capacidade;
+    private final LongAdder bitsLigados = new LongAdder();
+    private final LongAdder chaves = new LongAdder();
+
+    public FiltroBloom(long capacidade, double taxaFalsosPositivos, long bitsMaximo) {
+        if (capacidade < 1 || taxaFalsosPositivos <= 0 || taxaFalsosPositivos >= 1 || bitsMaximo < Long.SIZE) {
+            throw new IllegalArgumentException("Capacidade, taxa de falsos positivos ou tamanho do filtro inválidos");
+        }
+        double ideal = -capacidade * Math.log(taxaFalsosPositivos) / (Math.log(2) * Math.log(2));
+        long bits = Math.max(Long.SIZE, Long.highestOneBit((long) Math.ceil(ideal)));
+        if (bits < ideal) {
+            bits <<= 1;
+        }
+        bits = Math.min(bits, Long.highestOneBit(Math.min(bitsMaximo, MAX_BITS)));
+
+        this.palavras = new AtomicLongArray((int) (bits / Long.SIZE));
+        this.mascara = bits - 1;
+        this.funcoes = (int) Math.max(1, Math.min(MAX_FUNCOES, Math.round((double) bits / capacidade * Math.log(2))));
+        this.capacidade = capacidade;
+    }
+
+    /**
+     * Adiciona a chave. Devolve {@code true} se algum bit foi ligado, isto é, se a chave
+     * certamente não estava no filtro.
+     */
+    public boolean adicionar(String chave) {
+        long hash = JanelaConsultas.hash(chave);
+        long passo = passo(hash);
+        boolean nova = false;
+        for (int i = 0; i < funcoes; i++) {
+            long bit = (hash + i * passo) & mascara;
+            int indice = (int) (bit >>> 6);
+            long valor = 1L << bit;
+            long atual = palavras.get(indice);
+            while ((atual & valor) == 0) {
+                if (palavras.compareAndSet(indice, atual, atual | valor)) {
+                    bitsLigados.increment();
+                    nova = true;
+                    break;
+                }
+                atual = palavras.get(indice);
+            }
+        }
+        if (nova) {
+            chaves.increment();
+        }
+        return nova;
+    }
+
+    /**
+     * {@code false} somente se a chave certamente nunca foi adicionada.
+     */
+    public boolean talvezContenha(String chave) {
+        long hash = JanelaConsultas.hash(chave);
+        long passo = passo(hash);
+        for (int i = 0; i < funcoes; i++) {
+            long bit = (hash + i * passo) & mascara;
+            if ((palavras.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Taxa de falsos positivos esperada com a ocupação atual: (bits ligados / bits) ^ funções.
+     */
+    public double taxaFalsosPositivosEstimada() {
+        return Math.pow(bitsLigados.sum() / (double) (mascara + 1), funcoes);
+    }
+
+    /**
+     * Chaves distintas adicionadas (aproximado: uma chave nova cujos bits já estavam
+     * todos ligados, um falso positivo, não é contada).
+     */
+    public long chaves() {
+        return chaves.sum();
+    }
+
+    public long capacidade() {
+        return capacidade;
+    }
+
+    public long bits() {
+        return mascara + 1;
+    }
+
+    public int funcoes() {
+        return funcoes;
+    }
+
+    // Kirsch-Mitzenmacher sobre 64 bits: o passo (ímpar) é o hash com as metades trocadas
+    private static long passo(long hash) {
+        return Long.rotateLeft(hash, 32) | 1;
+    }
+}
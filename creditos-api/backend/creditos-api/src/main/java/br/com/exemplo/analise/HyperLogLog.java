@@ -0,0 +1,67 @@
+package br.com.exemplo.analise;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog para contar chaves distintas em memória fixa (um byte por registrador).
+ * Usa hashes de 64 bits, então dispensa a correção de grandes cardinalidades; abaixo
+ * de 2,5 * registradores a estimativa passa para contagem linear.
+ *
+ * Não é thread-safe.
+ */
+final class HyperLogLog {
+
+    private final int precisao;
+    private final byte[] registradores;
+
+    HyperLogLog(int precisao) {
+        if (precisao < 4 || precisao > 18) {
+            throw new IllegalArgumentException("Precisão do HyperLogLog deve estar entre 4 e 18");
+        }
+        this.precisao = precisao;
+        this.registradores = new byte[1 << precisao];
+    }
+
+    void adicionar(long hash) {
+        int indice = (int) (hash >>> (Long.SIZE - precisao));
+        // Bit de guarda: limita o posto quando os bits restantes são todos zero
+        long resto = (hash << precisao) | (1L << (precisao - 1));
+        byte posto = (byte) (Long.numberOfLeadingZeros(resto) + 1);
+        if (registradores[indice] < posto) {
+            registradores[indice] = posto;
+        }
+    }
+
+    /**
+     * Acumula neste HLL as chaves do outro (união), que deve ter a mesma precisão.
+     */
+    void mesclar(HyperLogLog outro) {
+        for (int i = 0; i < registradores.length; i++) {
+            if (registradores[i] < outro.registradores[i]) {
+                registradores[i] = outro.registradores[i];
+            }
+        }
+    }
+
+    long estimar() {
+        int m = registradores.length;
+        double soma = 0;
+        int zerados = 0;
+        for (byte registrador : registradores) {
+            soma += 1.0 / (1L << registrador);
+            if (registrador == 0) {
+                zerados++;
+            }
+        }
+        double alfa = 0.7213 / (1 + 1.079 / m);
+        double estimativa = alfa * m * m / soma;
+        if (estimativa <= 2.5 * m && zerados > 0) {
+            estimativa = m * Math.log((double) m / zerados);
+        }
+        return Math.round(estimativa);
+    }
+
+    void limpar() {
+        Arrays.fill(registradores, (byte) 0);
+    }
+}
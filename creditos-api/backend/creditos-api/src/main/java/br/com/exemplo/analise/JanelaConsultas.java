@@ -0,0 +1,184 @@
+package br.com.exemplo.analise;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.AnaliseConsultasDTO;
+import br.com.exemplo.dto.ChaveConsultadaDTO;
+import br.com.exemplo.dto.ConsultaEventDTO;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Estatísticas das consultas em janela deslizante: volume por tipo, chaves distintas
+ * (HyperLogLog) e chaves mais consultadas (count-min sketch + top-K).
+ *
+ * A janela é dividida em subjanelas que giram em anel; cada uma tem seus próprios
+ * sketches, zerados quando a subjanela é reaproveitada. A memória é fixa, definida
+ * pela configuração, qualquer que seja o volume de eventos ou de chaves distintas.
+ * O tempo considerado é o de processamento do evento, não o da consulta.
+ */
+public class JanelaConsultas {
+
+    // Tipos além deste limite são somados em OUTROS, mantendo o mapa por subjanela limitado
+    static final int MAX_TIPOS = 16;
+    static final String OUTROS = "OUTROS";
+
+    private static final char SEPARADOR = ':';
+
+    private final long duracaoSubjanela;
+    private final Subjanela[] subjanelas;
+
+    public JanelaConsultas(CreditosProperties.Analise config) {
+        if (config.getSubjanelas() < 1 || config.getTopK() < 1) {
+            throw new IllegalArgumentException("Subjanelas e top-K devem ser positivos");
+        }
+        this.duracaoSubjanela = Math.max(1, config.getJanela().toMillis() / config.getSubjanelas());
+        this.subjanelas = new Subjanela[config.getSubjanelas()];
+        for (int i = 0; i < subjanelas.length; i++) {
+            subjanelas[i] = new Subjanela(config);
+        }
+    }
+
+    /**
+     * Contabiliza um lote de eventos na subjanela corrente. As ocorrências de cada chave
+     * são somadas antes, então cada chave distinta do lote atualiza os sketches uma vez.
+     */
+    public synchronized void registrar(List<ConsultaEventDTO> eventos, long agoraMillis) {
+        Subjanela atual = subjanela(agoraMillis / duracaoSubjanela);
+        Map<String, Long> porChave = new HashMap<>();
+        for (ConsultaEventDTO evento : eventos) {
+            String tipo = evento.getTipoConsulta() == null ? OUTROS : evento.getTipoConsulta();
+            atual.contarTipo(tipo);
+            atual.total++;
+            if (evento.getValorConsultado() != null) {
+                porChave.merge(tipo + SEPARADOR + evento.getValorConsultado(), 1L, Long::sum);
+            }
+        }
+        for (Map.Entry<String, Long> chave : porChave.entrySet()) {
+            long hash = hash(chave.getKey());
+            atual.distintas.adicionar(hash);
+            atual.maisConsultadas.oferecer(chave.getKey(), atual.frequencias.adicionar(hash, chave.getValue()));
+        }
+    }
+
+    /**
+     * Resumo da janela que termina na subjanela corrente, com até {@code limite} chaves
+     * mais consultadas.
+     */
+    public synchronized AnaliseConsultasDTO resumir(int limite, long agoraMillis) {
+        long epocaAtual = agoraMillis / duracaoSubjanela;
+        long epocaInicial = epocaAtual - subjanelas.length + 1;
+
+        List<Subjanela> vigentes = new ArrayList<>(subjanelas.length);
+        for (Subjanela subjanela : subjanelas) {
+            if (subjanela.epoca >= epocaInicial && subjanela.epoca <= epocaAtual) {
+                vigentes.add(subjanela);
+            }
+        }
+
+        AnaliseConsultasDTO resumo = new AnaliseConsultasDTO();
+        resumo.setInicioJanela(Instant.ofEpochMilli(epocaInicial * duracaoSubjanela));
+        resumo.setFimJanela(Instant.ofEpochMilli((epocaAtual + 1) * duracaoSubjanela));
+        if (vigentes.isEmpty()) {
+            return resumo;
+        }
+
+        Map<String, Long> porTipo = new TreeMap<>();
+        HyperLogLog distintas = null;
+        Set<String> candidatas = new HashSet<>();
+        long total = 0;
+        for (Subjanela subjanela : vigentes) {
+            total += subjanela.total;
+            subjanela.porTipo.forEach((tipo, quantidade) -> porTipo.merge(tipo, quantidade, Long::sum));
+            if (distintas == null) {
+                distintas = new HyperLogLog(subjanela.precisao);
+            }
+            distintas.mesclar(subjanela.distintas);
+            subjanela.maisConsultadas.chaves().forEach(candidatas::add);
+        }
+
+        // A frequência na janela é a soma das estimativas das subjanelas (continua sem subestimar)
+        List<ChaveConsultadaDTO> maisConsultadas = new ArrayList<>(candidatas.size());
+        for (String chave : candidatas) {
+            long hash = hash(chave);
+            long estimativa = 0;
+            for (Subjanela subjanela : vigentes) {
+                estimativa += subjanela.frequencias.estimar(hash);
+            }
+            int separador = chave.indexOf(SEPARADOR);
+            maisConsultadas.add(new ChaveConsultadaDTO(chave.substring(0, separador), chave.substring(separador + 1), estimativa));
+        }
+        maisConsultadas.sort(Comparator.comparingLong(ChaveConsultadaDTO::getConsultasEstimadas).reversed()
+                .thenComparing(ChaveConsultadaDTO::getValorConsultado));
+
+        resumo.setTotalConsultas(total);
+        resumo.setConsultasPorTipo(new LinkedHashMap<>(porTipo));
+        resumo.setChavesDistintas(distintas.estimar());
+        resumo.setMaisConsultadas(new ArrayList<>(maisConsultadas.subList(0, Math.min(limite, maisConsultadas.size()))));
+        return resumo;
+    }
+
+    private Subjanela subjanela(long epoca) {
+        Subjanela subjanela = subjanelas[(int) Math.floorMod(epoca, (long) subjanelas.length)];
+        if (subjanela.epoca != epoca) {
+            subjanela.reiniciar(epoca);
+        }
+        return subjanela;
+    }
+
+    // FNV-1a de 64 bits seguido do finalizador do MurmurHash3, que espalha os bits altos usados pelo HLL
+    static long hash(String chave) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < chave.length(); i++) {
+            hash = (hash ^ chave.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Subjanela {
+
+        private final int precisao;
+        private final CountMinSketch frequencias;
+        private final HyperLogLog distintas;
+        private final TopK maisConsultadas;
+        private final Map<String, Long> porTipo = new HashMap<>();
+        private long epoca = Long.MIN_VALUE;
+        private long total;
+
+        Subjanela(CreditosProperties.Analise config) {
+            this.precisao = config.getPrecisao();
+            this.frequencias = new CountMinSketch(config.getLargura(), config.getProfundidade());
+            this.distintas = new HyperLogLog(config.getPrecisao());
+            this.maisConsultadas = new TopK(config.getTopK());
+        }
+
+        void contarTipo(String tipo) {
+            if (!porTipo.containsKey(tipo) && porTipo.size() >= MAX_TIPOS) {
+                tipo = OUTROS;
+            }
+            porTipo.merge(tipo, 1L, Long::sum);
+        }
+
+        void reiniciar(long epoca) {
+            this.epoca = epoca;
+            total = 0;
+            porTipo.clear();
+            frequencias.limpar();
+            distintas.limpar();
+            maisConsultadas.limpar();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.exemplo.analise;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Candidatas às chaves mais frequentes, limitadas a {@code capacidade}. Recebe as
+ * estimativas do {@link CountMinSketch}: uma chave nova só entra se superar a menor
+ * candidata, que então sai.
+ *
+ * O mínimo fica em cache e só é recalculado (varredura das candidatas) quando uma
+ * chave nova o supera, de modo que a grande maioria das chaves frias é descartada
+ * com uma comparação. Não é thread-safe.
+ */
+final class TopK {
+
+    private final int capacidade;
+    private final Map<String, Long> candidatas;
+
+    // Limite inferior do menor valor entre as candidatas (as candidatas só crescem)
+    private long minimo;
+
+    TopK(int capacidade) {
+        this.capacidade = capacidade;
+        this.candidatas = new HashMap<>(capacidade * 2);
+    }
+
+    void oferecer(String chave, long estimativa) {
+        if (candidatas.containsKey(chave) || candidatas.size() < capacidade) {
+            candidatas.put(chave, estimativa);
+            return;
+        }
+        if (estimativa <= minimo) {
+            return;
+        }
+        String menor = null;
+        long valorMenor = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> candidata : candidatas.entrySet()) {
+            if (candidata.getValue() < valorMenor) {
+                valorMenor = candidata.getValue();
+                menor = candidata.getKey();
+            }
+        }
+        if (estimativa > valorMenor) {
+            candidatas.remove(menor);
+            candidatas.put(chave, estimativa);
+        } else {
+            minimo = valorMenor;
+        }
+    }
+
+    Iterable<String> chaves() {
+        return candidatas.keySet();
+    }
+
+    void limpar() {
+        candidatas.clear();
+        minimo = 0;
+    }
+}
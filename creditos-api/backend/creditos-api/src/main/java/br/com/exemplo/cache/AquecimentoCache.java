@@ -0,0 +1,188 @@
+package br.com.exemplo.cache;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.ChaveConsultadaDTO;
+import br.com.exemplo.repository.ChaveQuenteRepository;
+import br.com.exemplo.service.CreditoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Aquece o cache de créditos na subida da aplicação com as chaves mais consultadas
+ * recentemente (tabela chave_quente, gravada pelas instâncias em execução).
+ *
+ * As chaves são carregadas em lotes (uma consulta IN por lote), em paralelo e das mais
+ * para as menos consultadas. Como indicador de saúde fica OUT_OF_SERVICE até o fim do
+ * aquecimento ou do orçamento de tempo; incluído no grupo readiness, segura o tráfego
+ * até lá.
+ */
+@Component
+public class AquecimentoCache implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(AquecimentoCache.class);
+
+    static final String NUMERO_NFSE = "NUMERO_NFSE";
+    static final String NUMERO_CREDITO = "NUMERO_CREDITO";
+
+    /**
+     * Resultado do aquecimento, publicado nos detalhes do health.
+     */
+    record Resultado(int chavesLidas, int chavesCarregadas, boolean orcamentoEsgotado, Duration duracao) {
+    }
+
+    private final CreditoService creditoService;
+    private final ChaveQuenteRepository chaveQuenteRepository;
+    private final CreditosProperties.Aquecimento config;
+    private final Timer duracao;
+    private final Counter carregadas;
+
+    private volatile Resultado resultado;
+
+    @Autowired
+    public AquecimentoCache(CreditoService creditoService, ChaveQuenteRepository chaveQuenteRepository,
+                            CreditosProperties properties, MeterRegistry meterRegistry) {
+        this.creditoService = creditoService;
+        this.chaveQuenteRepository = chaveQuenteRepository;
+        this.config = properties.getCache().getAquecimento();
+        this.duracao = Timer.builder("creditos.cache.aquecimento")
+                .description("Duração do aquecimento do cache na subida")
+                .register(meterRegistry);
+        this.carregadas = Counter.builder("creditos.cache.aquecimento.chaves")
+                .description("Chaves carregadas no cache pelo aquecimento")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!config.isHabilitado()) {
+            resultado = new Resultado(0, 0, false, Duration.ZERO);
+            return;
+        }
+        Thread thread = new Thread(this::aquecer, "cache-aquecimento");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Executa o aquecimento, limitado ao orçamento de tempo. Nunca lança exceção: em
+     * caso de falha a instância fica pronta com o cache como estiver.
+     */
+    Resultado aquecer() {
+        long inicio = System.nanoTime();
+        long prazo = inicio + config.getOrcamento().toNanos();
+        int lidas = 0;
+        int total = 0;
+        boolean esgotado = false;
+
+        AtomicInteger sequencia = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(config.getThreads(), r -> {
+            Thread thread = new Thread(r, "cache-aquecimento-" + sequencia.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<ChaveConsultadaDTO> chaves = chaveQuenteRepository.listarRecentes(
+                    Instant.now().minus(config.getRetencao()), config.getMaxChaves());
+            lidas = chaves.size();
+
+            // Lotes submetidos na ordem de popularidade: os das chaves mais quentes saem primeiro
+            List<Future<Integer>> tarefas = new ArrayList<>();
+            List<String> nfse = new ArrayList<>();
+            List<String> creditos = new ArrayList<>();
+            for (ChaveConsultadaDTO chave : chaves) {
+                if (NUMERO_NFSE.equals(chave.getTipoConsulta())) {
+                    nfse.add(chave.getValorConsultado());
+                    if (nfse.size() == config.getTamanhoLote()) {
+                        tarefas.add(submeterNfse(executor, nfse));
+                        nfse = new ArrayList<>();
+                    }
+                } else if (NUMERO_CREDITO.equals(chave.getTipoConsulta())) {
+                    creditos.add(chave.getValorConsultado());
+                    if (creditos.size() == config.getTamanhoLote()) {
+                        tarefas.add(submeterCreditos(executor, creditos));
+                        creditos = new ArrayList<>();
+                    }
+                }
+            }
+            if (!nfse.isEmpty()) {
+                tarefas.add(submeterNfse(executor, nfse));
+            }
+            if (!creditos.isEmpty()) {
+                tarefas.add(submeterCreditos(executor, creditos));
+            }
+
+            for (Future<Integer> tarefa : tarefas) {
+                try {
+                    total += tarefa.get(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    esgotado = true;
+                    break;
+                } catch (ExecutionException e) {
+                    logger.warn("Falha em um lote do aquecimento do cache: {}", e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("Aquecimento do cache não executado: {}", e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long nanos = System.nanoTime() - inicio;
+        duracao.record(nanos, TimeUnit.NANOSECONDS);
+        carregadas.increment(total);
+        Resultado concluido = new Resultado(lidas, total, esgotado, Duration.ofNanos(nanos));
+        resultado = concluido;
+        if (esgotado) {
+            logger.warn("Orçamento de aquecimento do cache ({}) esgotado: {} de {} chaves carregadas",
+                    config.getOrcamento(), concluido.chavesCarregadas(), lidas);
+        } else {
+            logger.info("Cache aquecido com {} chaves em {} ms", concluido.chavesCarregadas(), concluido.duracao().toMillis());
+        }
+        return concluido;
+    }
+
+    @Override
+    public Health health() {
+        Resultado atual = resultado;
+        if (atual == null) {
+            return Health.outOfService().withDetail("situacao", "aquecendo").build();
+        }
+        return Health.up()
+                .withDetail("chavesLidas", atual.chavesLidas())
+                .withDetail("chavesCarregadas", atual.chavesCarregadas())
+                .withDetail("orcamentoEsgotado", atual.orcamentoEsgotado())
+                .withDetail("duracaoMs", atual.duracao().toMillis())
+                .build();
+    }
+
+    private Future<Integer> submeterNfse(ExecutorService executor, List<String> lote) {
+        return executor.submit(() -> creditoService.preCarregarNfse(lote));
+    }
+
+    private Future<Integer> submeterCreditos(ExecutorService executor, List<String> lote) {
+        return executor.submit(() -> creditoService.preCarregarCreditos(lote));
+    }
+}
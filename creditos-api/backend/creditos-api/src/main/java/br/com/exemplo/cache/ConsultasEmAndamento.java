@@ -0,0 +1,100 @@
+package br.com.exemplo.cache;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.exception.ServicoIndisponivelException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalescência de consultas idênticas simultâneas ("single flight"): a primeira
+ * requisição de uma chave executa a consulta na própria thread e as que chegam
+ * enquanto ela está em andamento aguardam o mesmo resultado, sem ocupar outra
+ * conexão do pool.
+ *
+ * O mapa de consultas em andamento é um ConcurrentHashMap de CompletableFuture:
+ * entrar é um putIfAbsent e a entrada é removida assim que a consulta termina, de
+ * modo que só requisições realmente simultâneas compartilham o resultado. Quem espera
+ * desiste após o timeout com {@link ServicoIndisponivelException} (503); se a consulta
+ * falhar, todos recebem a mesma exceção.
+ */
+@Component
+public class ConsultasEmAndamento {
+
+    private final CreditosProperties.Coalescencia config;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> emAndamento = new ConcurrentHashMap<>();
+    private final Counter compartilhadas;
+    private final Counter timeouts;
+
+    @Autowired
+    public ConsultasEmAndamento(CreditosProperties properties, MeterRegistry meterRegistry) {
+        this.config = properties.getCache().getCoalescencia();
+        this.compartilhadas = Counter.builder("creditos.coalescencia.compartilhadas")
+                .description("Requisições atendidas pelo resultado de uma consulta idêntica em andamento")
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("creditos.coalescencia.timeouts")
+                .description("Esperas por uma consulta em andamento encerradas pelo timeout")
+                .register(meterRegistry);
+        Gauge.builder("creditos.coalescencia.em.andamento", emAndamento, ConcurrentHashMap::size)
+                .description("Consultas distintas em andamento")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa a consulta da chave ou, se já houver uma em andamento, aguarda o resultado dela.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T executar(String chave, Supplier<T> consulta) {
+        if (!config.isHabilitada()) {
+            return consulta.get();
+        }
+        CompletableFuture<Object> propria = new CompletableFuture<>();
+        CompletableFuture<Object> existente = emAndamento.putIfAbsent(chave, propria);
+        if (existente == null) {
+            try {
+                T resultado = consulta.get();
+                propria.complete(resultado);
+                return resultado;
+            } catch (RuntimeException | Error e) {
+                propria.completeExceptionally(e);
+                throw e;
+            } finally {
+                emAndamento.remove(chave, propria);
+            }
+        }
+
+        compartilhadas.increment();
+        try {
+            return (T) existente.get(config.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new ServicoIndisponivelException("Consulta em andamento não concluída em "
+                    + config.getTimeout().toMillis() + " ms", config.getTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera pela consulta interrompida", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (causa instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    int emAndamento() {
+        return emAndamento.size();
+    }
+}
@@ -0,0 +1,220 @@
+package br.com.exemplo.cache;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.CreditoResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache local (read-through) das consultas de créditos.
+ *
+ * Usa a política W-TinyLFU do Caffeine, que admite novas chaves pela frequência
+ * de acesso: varreduras de chaves únicas não expulsam as NFS-e mais consultadas.
+ * Resultados vazios também são armazenados, com um tempo de vida menor.
+ *
+ * As cargas em lote consultam o banco fora do cache: cada invalidação recebe um
+ * número de sequência, registrado na listra da chave, e uma carga só armazena as
+ * chaves cujas listras não foram invalidadas depois da sua {@link #marca()}.
+ *
+ * Recebe as notificações depois do {@link FiltroExistencia} e antes do
+ * {@link RespostaCache}, que é montado a partir deste cache.
+ */
+@Component
+@Order(0)
+public class CreditoCache implements InvalidacaoCache {
+
+    private static final int LISTRAS = 4096;
+
+    private final Cache<String, List<CreditoResponseDTO>> porNfse;
+    private final Cache<String, Optional<CreditoResponseDTO>> porNumero;
+
+    private final AtomicLong sequencia = new AtomicLong();
+    private final AtomicLongArray invalidacoesNfse = new AtomicLongArray(LISTRAS);
+    private final AtomicLongArray invalidacoesNumero = new AtomicLongArray(LISTRAS);
+    private volatile long ultimaInvalidacaoTotal;
+
+    @Autowired
+    public CreditoCache(CreditosProperties properties, MeterRegistry meterRegistry) {
+        CreditosProperties.Cache config = properties.getCache();
+        long ttl = config.getTtl().toNanos();
+        long ttlNegativo = config.getTtlNegativo().toNanos();
+
+        this.porNfse = Caffeine.newBuilder()
+                .maximumWeight(config.getPesoMaximo())
+                .weigher((String chave, List<CreditoResponseDTO> creditos) -> Math.max(1, creditos.size()))
+                .expireAfter(CreditoCache.<List<CreditoResponseDTO>>expiracao(creditos -> creditos.isEmpty() ? ttlNegativo : ttl))
+                .recordStats()
+                .build();
+
+        this.porNumero = Caffeine.newBuilder()
+                .maximumWeight(config.getPesoMaximo())
+                .weigher((String chave, Optional<CreditoResponseDTO> credito) -> 1)
+                .expireAfter(CreditoCache.<Optional<CreditoResponseDTO>>expiracao(credito -> credito.isEmpty() ? ttlNegativo : ttl))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, porNfse, "creditos.nfse");
+        CaffeineCacheMetrics.monitor(meterRegistry, porNumero, "creditos.numero");
+    }
+
+    /**
+     * Retorna os créditos da NFS-e, carregando-os do banco em caso de falta.
+     */
+    public List<CreditoResponseDTO> buscarPorNfse(String numeroNfse, Function<String, List<CreditoResponseDTO>> carregador) {
+        List<CreditoResponseDTO> creditos = nfsePresente(numeroNfse);
+        return creditos != null ? creditos : carregarNfse(numeroNfse, carregador);
+    }
+
+    /**
+     * Retorna o crédito pelo número, carregando-o do banco em caso de falta.
+     */
+    public Optional<CreditoResponseDTO> buscarPorNumero(String numeroCredito,
+                                                         Function<String, Optional<CreditoResponseDTO>> carregador) {
+        Optional<CreditoResponseDTO> credito = numeroPresente(numeroCredito);
+        return credito != null ? credito : carregarNumero(numeroCredito, carregador);
+    }
+
+    /**
+     * Créditos da NFS-e se já estiverem no cache, senão {@code null}.
+     */
+    public List<CreditoResponseDTO> nfsePresente(String numeroNfse) {
+        return porNfse.getIfPresent(numeroNfse);
+    }
+
+    /**
+     * Crédito pelo número se já estiver no cache (inclusive "não encontrado"), senão {@code null}.
+     */
+    public Optional<CreditoResponseDTO> numeroPresente(String numeroCredito) {
+        return porNumero.getIfPresent(numeroCredito);
+    }
+
+    /**
+     * Carrega e armazena os créditos da NFS-e, salvo se outra thread já o tiver feito.
+     * Uma invalidação concorrente aguarda o fim da carga, então o resultado armazenado
+     * nunca é anterior a ela. Não conta acerto nem falta nas estatísticas do cache (a
+     * falta já foi contada por {@link #nfsePresente}).
+     */
+    public List<CreditoResponseDTO> carregarNfse(String numeroNfse, Function<String, List<CreditoResponseDTO>> carregador) {
+        return porNfse.asMap().compute(numeroNfse,
+                (chave, atual) -> atual != null ? atual : List.copyOf(carregador.apply(chave)));
+    }
+
+    /**
+     * Carrega e armazena o crédito pelo número, como em {@link #carregarNfse}.
+     */
+    public Optional<CreditoResponseDTO> carregarNumero(String numeroCredito,
+                                                       Function<String, Optional<CreditoResponseDTO>> carregador) {
+        return porNumero.asMap().compute(numeroCredito,
+                (chave, atual) -> atual != null ? atual : carregador.apply(chave));
+    }
+
+    /**
+     * Retorna apenas as NFS-e já presentes no cache (sem carregar as ausentes).
+     */
+    public Map<String, List<CreditoResponseDTO>> nfsePresentes(Collection<String> numerosNfse) {
+        return porNfse.getAllPresent(numerosNfse);
+    }
+
+    /**
+     * Retorna apenas os créditos já presentes no cache (sem carregar os ausentes).
+     */
+    public Map<String, Optional<CreditoResponseDTO>> numerosPresentes(Collection<String> numerosCredito) {
+        return porNumero.getAllPresent(numerosCredito);
+    }
+
+    /**
+     * Marca a ser obtida antes de consultar o banco em uma carga que termina em
+     * {@link #armazenarNfse}/{@link #armazenarNumero}.
+     */
+    public long marca() {
+        return sequencia.get();
+    }
+
+    /**
+     * Armazena os créditos da NFS-e lidos depois de {@code marca}, a menos que a chave já
+     * esteja no cache ou tenha sido invalidada desde então (o valor lido pode ser anterior
+     * à alteração).
+     */
+    public void armazenarNfse(String numeroNfse, List<CreditoResponseDTO> creditos, long marca) {
+        List<CreditoResponseDTO> copia = List.copyOf(creditos);
+        porNfse.asMap().compute(numeroNfse, (chave, atual) -> atual != null ? atual
+                : valida(invalidacoesNfse, chave, marca) ? copia : null);
+    }
+
+    /**
+     * Armazena o crédito lido depois de {@code marca}, como em {@link #armazenarNfse}.
+     */
+    public void armazenarNumero(String numeroCredito, Optional<CreditoResponseDTO> credito, long marca) {
+        porNumero.asMap().compute(numeroCredito, (chave, atual) -> atual != null ? atual
+                : valida(invalidacoesNumero, chave, marca) ? credito : null);
+    }
+
+    @Override
+    public void invalidar(String numeroCredito, String numeroNfse) {
+        // A sequência é registrada antes da remoção: uma carga em lote concorrente ou
+        // vê a invalidação e não armazena, ou armazena antes e tem a entrada removida
+        long numero = sequencia.incrementAndGet();
+        if (numeroCredito != null) {
+            registrar(invalidacoesNumero, numeroCredito, numero);
+            porNumero.invalidate(numeroCredito);
+        }
+        if (numeroNfse != null) {
+            registrar(invalidacoesNfse, numeroNfse, numero);
+            porNfse.invalidate(numeroNfse);
+        }
+    }
+
+    @Override
+    public void invalidarTudo() {
+        ultimaInvalidacaoTotal = sequencia.incrementAndGet();
+        porNfse.invalidateAll();
+        porNumero.invalidateAll();
+    }
+
+    private boolean valida(AtomicLongArray invalidacoes, String chave, long marca) {
+        return ultimaInvalidacaoTotal <= marca && invalidacoes.get(listra(chave)) <= marca;
+    }
+
+    private static void registrar(AtomicLongArray invalidacoes, String chave, long numero) {
+        invalidacoes.accumulateAndGet(listra(chave), numero, Math::max);
+    }
+
+    private static int listra(String chave) {
+        int hash = chave.hashCode();
+        return (hash ^ (hash >>> 16)) & (LISTRAS - 1);
+    }
+
+    private static <V> Expiry<String, V> expiracao(ToLongFunction<V> ttlPorValor) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String chave, V valor, long agora) {
+                return ttlPorValor.applyAsLong(valor);
+            }
+
+            @Override
+            public long expireAfterUpdate(String chave, V valor, long agora, long duracaoAtual) {
+                return ttlPorValor.applyAsLong(valor);
+            }
+
+            @Override
+            public long expireAfterRead(String chave, V valor, long agora, long duracaoAtual) {
+                return duracaoAtual;
+            }
+        };
+    }
+}
@@ -0,0 +1,313 @@
+package br.com.exemplo.cache;
+
+import br.com.exemplo.analise.FiltroBloom;
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.repository.ChavesCreditoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Filtros de Bloom com os números de crédito e de NFS-e existentes na tabela credito,
+ * consultados antes do banco: uma chave que o filtro dá como ausente é respondida como
+ * não encontrada sem consulta.
+ *
+ * Os filtros são construídos por uma varredura paralela da tabela (faixas de id, uma
+ * conexão por thread) a cada {@link #invalidarTudo()}, que o listener de invalidação
+ * chama sempre que (re)estabelece a escuta, inclusive na subida. Enquanto isso as
+ * chaves notificadas são adicionadas ao filtro em construção, então nenhuma inserção
+ * confirmada depois do início da varredura se perde. Com notificações '*' (TRUNCATE
+ * ou comandos acima do limite de linhas do trigger) não se sabe quais chaves entraram: o filtro deixa de ser usado até a
+ * reconstrução. Exclusões não são removidas (o filtro só cresce) e apenas aumentam
+ * os falsos positivos.
+ *
+ * Sem a invalidação por LISTEN/NOTIFY (desabilitada ou sem o trigger na tabela) as
+ * inserções não chegariam ao filtro, então ele fica desativado.
+ *
+ * Recebe as notificações antes dos demais caches: se o {@link CreditoCache} fosse
+ * esvaziado primeiro, uma consulta nesse intervalo veria a chave recém-inserida como
+ * ausente e armazenaria "não encontrado" até o fim do TTL negativo.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FiltroExistencia implements InvalidacaoCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FiltroExistencia.class);
+
+    private static final int SEGMENTOS_POR_THREAD = 4;
+
+    public enum Tipo {
+        CREDITO,
+        NFSE
+    }
+
+    private record Filtros(FiltroBloom creditos, FiltroBloom nfse) {
+
+        FiltroBloom de(Tipo tipo) {
+            return tipo == Tipo.CREDITO ? creditos : nfse;
+        }
+    }
+
+    private final ChavesCreditoRepository chavesCreditoRepository;
+    private final CreditosProperties.Filtro config;
+    private final boolean habilitado;
+    private final Timer construcao;
+    private final Counter[] ausentes = new Counter[Tipo.values().length];
+    private final Counter[] possiveis = new Counter[Tipo.values().length];
+    private final Counter[] falsosPositivos = new Counter[Tipo.values().length];
+
+    private final Object publicacao = new Object();
+    private final AtomicBoolean agendada = new AtomicBoolean();
+    private final ExecutorService coordenador;
+
+    // Incrementada a cada invalidarTudo: uma construção iniciada antes não é publicada
+    private long geracao;
+    private volatile Filtros atual;
+    private volatile Filtros emConstrucao;
+    private volatile long ultimaContagem;
+
+    @Autowired
+    public FiltroExistencia(ChavesCreditoRepository chavesCreditoRepository, CreditosProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.chavesCreditoRepository = chavesCreditoRepository;
+        this.config = properties.getCache().getFiltro();
+        this.habilitado = config.isHabilitado() && properties.getCache().getInvalidacao().isHabilitada();
+        this.construcao = Timer.builder("creditos.filtro.construcao")
+                .description("Duração da construção do filtro de existência")
+                .register(meterRegistry);
+        for (Tipo tipo : Tipo.values()) {
+            String nome = tipo.name().toLowerCase(Locale.ROOT);
+            ausentes[tipo.ordinal()] = Counter.builder("creditos.filtro.consultas")
+                    .description("Consultas ao filtro de existência por resultado")
+                    .tag("tipo", nome).tag("resultado", "ausente")
+                    .register(meterRegistry);
+            possiveis[tipo.ordinal()] = Counter.builder("creditos.filtro.consultas")
+                    .description("Consultas ao filtro de existência por resultado")
+                    .tag("tipo", nome).tag("resultado", "possivel")
+                    .register(meterRegistry);
+            falsosPositivos[tipo.ordinal()] = Counter.builder("creditos.filtro.falsos.positivos")
+                    .description("Chaves dadas como possíveis pelo filtro e não encontradas no banco")
+                    .tag("tipo", nome)
+                    .register(meterRegistry);
+            Gauge.builder("creditos.filtro.taxa.falsos.positivos", this, filtro -> filtro.taxaEstimada(tipo))
+                    .description("Taxa de falsos positivos esperada com a ocupação atual do filtro")
+                    .tag("tipo", nome)
+                    .register(meterRegistry);
+        }
+        Gauge.builder("creditos.filtro.disponivel", this, filtro -> filtro.disponivel() ? 1 : 0)
+                .description("1 quando o filtro de existência está construído e em uso")
+                .register(meterRegistry);
+        this.coordenador = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "filtro-existencia");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * {@code false} somente se a chave certamente não existe na tabela. Sem filtro
+     * construído, sempre {@code true}.
+     */
+    public boolean podeExistir(Tipo tipo, String chave) {
+        Filtros filtros = atual;
+        if (filtros == null) {
+            return true;
+        }
+        if (filtros.de(tipo).talvezContenha(chave)) {
+            possiveis[tipo.ordinal()].increment();
+            return true;
+        }
+        ausentes[tipo.ordinal()].increment();
+        return false;
+    }
+
+    /**
+     * Registra uma chave não encontrada no banco; se o filtro a dava como possível,
+     * conta um falso positivo.
+     */
+    public void registrarNaoEncontrada(Tipo tipo, String chave) {
+        Filtros filtros = atual;
+        if (filtros != null && filtros.de(tipo).talvezContenha(chave)) {
+            falsosPositivos[tipo.ordinal()].increment();
+        }
+    }
+
+    public boolean disponivel() {
+        return atual != null;
+    }
+
+    /**
+     * Chaves notificadas (inseridas, alteradas ou excluídas) entram no filtro: adicionar
+     * uma chave que não existe apenas gera um falso positivo.
+     */
+    @Override
+    public void invalidar(String numeroCredito, String numeroNfse) {
+        // Nesta ordem: quem não vê o filtro em construção vê o já publicado
+        adicionar(emConstrucao, numeroCredito, numeroNfse);
+        Filtros filtros = atual;
+        if (filtros != null && adicionar(filtros, numeroCredito, numeroNfse) && acimaDaCapacidade(filtros)) {
+            solicitarConstrucao();
+        }
+    }
+
+    @Override
+    public void invalidarTudo() {
+        if (!habilitado) {
+            return;
+        }
+        synchronized (publicacao) {
+            geracao++;
+            atual = null;
+        }
+        solicitarConstrucao();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        coordenador.shutdownNow();
+    }
+
+    /**
+     * Constrói os filtros a partir da tabela e os publica, a menos que tenha havido um
+     * {@link #invalidarTudo()} durante a varredura. Nunca lança exceção: em caso de
+     * falha o filtro fica fora de uso até a próxima solicitação.
+     *
+     * @return {@code true} se os novos filtros foram publicados
+     */
+    boolean construir() {
+        agendada.set(false);
+        long geracaoLida;
+        synchronized (publicacao) {
+            geracaoLida = geracao;
+        }
+        long inicio = System.nanoTime();
+        try {
+            if (!chavesCreditoRepository.invalidacaoInstalada()) {
+                logger.warn("Tabela credito sem o trigger de invalidação: filtro de existência desativado");
+                return false;
+            }
+            long linhas = Math.max(chavesCreditoRepository.estimarLinhas(), ultimaContagem);
+            long capacidade = Math.max(config.getCapacidadeMinima(), (long) (linhas * config.getFolga()));
+            long bitsMaximo = config.getBytesMaximo() * Byte.SIZE;
+            Filtros novos = new Filtros(new FiltroBloom(capacidade, config.getTaxaFalsosPositivos(), bitsMaximo),
+                    new FiltroBloom(capacidade, config.getTaxaFalsosPositivos(), bitsMaximo));
+            emConstrucao = novos;
+            percorrerTabela(novos);
+            ultimaContagem = novos.creditos().chaves();
+
+            synchronized (publicacao) {
+                if (geracao != geracaoLida) {
+                    return false;
+                }
+                atual = novos;
+            }
+            long nanos = System.nanoTime() - inicio;
+            construcao.record(nanos, TimeUnit.NANOSECONDS);
+            logger.info("Filtro de existência construído com {} créditos e {} NFS-e em {} ms ({} bits, {} funções)",
+                    novos.creditos().chaves(), novos.nfse().chaves(), TimeUnit.NANOSECONDS.toMillis(nanos),
+                    novos.creditos().bits(), novos.creditos().funcoes());
+            if (acimaDaCapacidade(novos)) {
+                // Estatísticas da tabela desatualizadas: refaz com a contagem da varredura
+                solicitarConstrucao();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (RuntimeException e) {
+            logger.warn("Falha na construção do filtro de existência: {}", e.getMessage());
+            return false;
+        } finally {
+            emConstrucao = null;
+        }
+    }
+
+    private void percorrerTabela(Filtros filtros) throws InterruptedException {
+        long[] ids = chavesCreditoRepository.intervaloIds();
+        if (ids == null) {
+            return;
+        }
+        int threads = Math.max(1, config.getThreads());
+        long segmentos = (long) threads * SEGMENTOS_POR_THREAD;
+        long tamanho = Math.max(1, (ids[1] - ids[0]) / segmentos + 1);
+
+        AtomicInteger sequencia = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "filtro-existencia-" + sequencia.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (long inicio = ids[0]; inicio <= ids[1]; inicio += tamanho) {
+                long idInicial = inicio;
+                long idFinal = Math.min(ids[1] + 1, inicio + tamanho);
+                tarefas.add(executor.submit(() -> chavesCreditoRepository.percorrerChaves(idInicial, idFinal,
+                        config.getTamanhoFetch(), (numeroCredito, numeroNfse) -> adicionar(filtros, numeroCredito, numeroNfse))));
+            }
+            for (Future<?> tarefa : tarefas) {
+                try {
+                    tarefa.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void solicitarConstrucao() {
+        if (agendada.compareAndSet(false, true)) {
+            try {
+                coordenador.execute(this::construir);
+            } catch (RejectedExecutionException e) {
+                agendada.set(false);
+            }
+        }
+    }
+
+    private static boolean adicionar(Filtros filtros, String numeroCredito, String numeroNfse) {
+        if (filtros == null) {
+            return false;
+        }
+        boolean nova = false;
+        if (numeroCredito != null) {
+            nova = filtros.creditos().adicionar(numeroCredito);
+        }
+        if (numeroNfse != null) {
+            nova |= filtros.nfse().adicionar(numeroNfse);
+        }
+        return nova;
+    }
+
+    private static boolean acimaDaCapacidade(Filtros filtros) {
+        return filtros.creditos().chaves() > filtros.creditos().capacidade()
+                || filtros.nfse().chaves() > filtros.nfse().capacidade();
+    }
+
+    private double taxaEstimada(Tipo tipo) {
+        Filtros filtros = atual;
+        return filtros == null ? Double.NaN : filtros.de(tipo).taxaFalsosPositivosEstimada();
+    }
+}
@@ -0,0 +1,17 @@
+package br.com.exemplo.cache;
+
+/**
+ * Cache local que deve ser invalidado quando linhas da tabela credito mudam.
+ */
+public interface InvalidacaoCache {
+
+    /**
+     * Remove as entradas de um crédito e da NFS-e a que ele pertence.
+     */
+    void invalidar(String numeroCredito, String numeroNfse);
+
+    /**
+     * Remove todas as entradas (alterações em massa ou perda de notificações).
+     */
+    void invalidarTudo();
+}
@@ -0,0 +1,151 @@
+package br.com.exemplo.cache;
+
+import br.com.exemplo.config.CreditosProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escuta o canal LISTEN/NOTIFY alimentado pelos triggers da tabela credito e
+ * invalida os caches locais desta instância.
+ *
+ * Usa uma conexão dedicada (fora do pool Hikari), mantida aberta enquanto a
+ * aplicação estiver ativa. Se a conexão cair, notificações podem ter sido
+ * perdidas: todos os caches são esvaziados e a escuta é restabelecida.
+ *
+ * Cada notificação é aplicada aos caches na ordem de {@code @Order}: o filtro de
+ * existência registra as chaves novas antes que os caches de consulta as esvaziem, e
+ * o cache de dados é esvaziado antes do cache de respostas montadas a partir dele.
+ */
+@Component
+@ConditionalOnProperty(prefix = "creditos.cache.invalidacao", name = "habilitada", havingValue = "true", matchIfMissing = true)
+public class InvalidacaoCacheListener implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvalidacaoCacheListener.class);
+    private static final String INVALIDAR_TUDO = "*";
+
+    private final List<InvalidacaoCache> caches;
+    private final DataSourceProperties dataSourceProperties;
+    private final CreditosProperties.Invalidacao config;
+    private final ObjectMapper objectMapper;
+
+    private volatile boolean executando;
+    private Thread thread;
+
+    @Autowired
+    public InvalidacaoCacheListener(List<InvalidacaoCache> caches, DataSourceProperties dataSourceProperties,
+                                    CreditosProperties properties, ObjectMapper objectMapper) {
+        this.caches = new ArrayList<>(caches);
+        AnnotationAwareOrderComparator.sort(this.caches);
+        this.dataSourceProperties = dataSourceProperties;
+        this.config = properties.getCache().getInvalidacao();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void start() {
+        executando = true;
+        thread = new Thread(this::escutar, "credito-invalidacao");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        executando = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executando;
+    }
+
+    private void escutar() {
+        while (executando) {
+            try (Connection conexao = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = conexao.createStatement()) {
+                    statement.execute("LISTEN " + config.getCanal());
+                }
+                // Alterações feitas enquanto não havia escuta não foram notificadas
+                invalidarTudo();
+                logger.info("Escutando invalidações de cache no canal {}", config.getCanal());
+
+                PGConnection pgConnection = conexao.unwrap(PGConnection.class);
+                int timeout = (int) config.getIntervaloLeitura().toMillis();
+                while (executando) {
+                    PGNotification[] notificacoes = pgConnection.getNotifications(timeout);
+                    if (notificacoes != null) {
+                        for (PGNotification notificacao : notificacoes) {
+                            processarNotificacao(notificacao.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!executando) {
+                    return;
+                }
+                logger.warn("Conexão de invalidação de cache indisponível, nova tentativa em {}",
+                        config.getIntervaloReconexao(), e);
+                invalidarTudo();
+                aguardarReconexao();
+            }
+        }
+    }
+
+    /**
+     * Aplica uma notificação: '*' esvazia os caches; um array JSON de
+     * {numeroCredito, numeroNfse} invalida apenas as chaves afetadas.
+     */
+    void processarNotificacao(String payload) {
+        if (payload == null || payload.isBlank() || INVALIDAR_TUDO.equals(payload)) {
+            invalidarTudo();
+            return;
+        }
+        try {
+            for (JsonNode chave : objectMapper.readTree(payload)) {
+                String numeroCredito = chave.path("numeroCredito").asText(null);
+                String numeroNfse = chave.path("numeroNfse").asText(null);
+                for (InvalidacaoCache cache : caches) {
+                    cache.invalidar(numeroCredito, numeroNfse);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Payload de invalidação inválido - esvaziando caches: {}", payload, e);
+            invalidarTudo();
+        }
+    }
+
+    private void invalidarTudo() {
+        for (InvalidacaoCache cache : caches) {
+            cache.invalidarTudo();
+        }
+    }
+
+    private void aguardarReconexao() {
+        try {
+            Thread.sleep(config.getIntervaloReconexao().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
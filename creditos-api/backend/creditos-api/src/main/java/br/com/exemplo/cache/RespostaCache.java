@@ -0,0 +1,205 @@
+package br.com.exemplo.cache;
+
+import br.com.exemplo.config.CreditosProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache das respostas já serializadas das consultas por NFS-e e por número do crédito.
+ *
+ * Guarda os bytes finais de cada representação (JSON, CBOR) e, acima de um tamanho
+ * mínimo, a variante comprimida em gzip, junto com o ETag e o Last-Modified. Em um
+ * acerto o controller só copia os bytes para a resposta: não há busca no
+ * {@link CreditoCache}, serialização nem compressão.
+ *
+ * É invalidado pelos mesmos ganchos do {@link CreditoCache}. Como a resposta é
+ * serializada fora do cache, cada invalidação recebe um número de sequência,
+ * registrado na listra da chave consultada, como no {@link CreditoCache}: uma
+ * resposta montada antes de uma invalidação da sua chave não permanece armazenada,
+ * e invalidações de outras chaves não a descartam.
+ *
+ * Recebe as notificações depois do {@link CreditoCache}: se fosse invalidado antes,
+ * uma consulta nesse intervalo obteria a marca já avançada, leria a entrada antiga
+ * do cache de dados e armazenaria a resposta desatualizada até o fim do TTL.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class RespostaCache implements InvalidacaoCache {
+
+    private static final int LISTRAS = 4096;
+
+    private static final List<MediaType> REPRESENTACOES = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR);
+
+    public enum TipoResposta {
+        NFSE, CREDITO
+    }
+
+    /**
+     * Chave da resposta: tipo da consulta, valor consultado e representação.
+     */
+    public record Chave(TipoResposta tipo, String valor, MediaType representacao) {
+    }
+
+    /**
+     * Resposta pronta para escrita. {@code corpoGzip} é null quando o corpo é pequeno
+     * demais para compensar a compressão.
+     */
+    public record RespostaSerializada(byte[] corpo, byte[] corpoGzip, MediaType tipoConteudo,
+                                      String etag, String etagGzip, Instant ultimaAlteracao, int quantidade) {
+
+        int peso() {
+            return corpo.length + (corpoGzip == null ? 0 : corpoGzip.length);
+        }
+    }
+
+    private final Cache<Chave, RespostaSerializada> respostas;
+    private final AtomicLong sequencia = new AtomicLong();
+    private final AtomicLongArray[] invalidacoes = {new AtomicLongArray(LISTRAS), new AtomicLongArray(LISTRAS)};
+    private volatile long ultimaInvalidacaoTotal;
+    private final boolean habilitado;
+    private final int tamanhoMinimoCompressao;
+
+    @Autowired
+    public RespostaCache(CreditosProperties properties, MeterRegistry meterRegistry) {
+        CreditosProperties.Cache config = properties.getCache();
+        CreditosProperties.Resposta resposta = config.getResposta();
+        long ttl = config.getTtl().toNanos();
+        long ttlNegativo = config.getTtlNegativo().toNanos();
+        this.habilitado = resposta.isHabilitado();
+        this.tamanhoMinimoCompressao = resposta.getTamanhoMinimoCompressao();
+
+        this.respostas = Caffeine.newBuilder()
+                .maximumWeight(resposta.getBytesMaximo())
+                .weigher((Chave chave, RespostaSerializada valor) -> valor.peso())
+                .expireAfter(new Expiry<Chave, RespostaSerializada>() {
+                    @Override
+                    public long expireAfterCreate(Chave chave, RespostaSerializada valor, long agora) {
+                        return valor.quantidade() == 0 ? ttlNegativo : ttl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Chave chave, RespostaSerializada valor, long agora, long duracaoAtual) {
+                        return valor.quantidade() == 0 ? ttlNegativo : ttl;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Chave chave, RespostaSerializada valor, long agora, long duracaoAtual) {
+                        return duracaoAtual;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, respostas, "creditos.resposta");
+    }
+
+    /**
+     * Resposta armazenada para a chave, ou null.
+     */
+    public RespostaSerializada buscar(Chave chave) {
+        return habilitado ? respostas.getIfPresent(chave) : null;
+    }
+
+    /**
+     * Marca a ser obtida antes de buscar os dados que serão serializados e repassada
+     * a {@link #armazenar}.
+     */
+    public long marca() {
+        return sequencia.get();
+    }
+
+    /**
+     * Monta a resposta (com a variante gzip, se couber) e a armazena, a menos que a chave
+     * tenha sido invalidada desde {@code marca}. A resposta é devolvida em qualquer caso.
+     */
+    public RespostaSerializada armazenar(Chave chave, byte[] corpo, String etag, Instant ultimaAlteracao,
+                                         int quantidade, long marca) {
+        byte[] corpoGzip = corpo.length >= tamanhoMinimoCompressao ? gzip(corpo) : null;
+        RespostaSerializada resposta = new RespostaSerializada(corpo, corpoGzip, chave.representacao(),
+                etag, etagGzip(etag), ultimaAlteracao, quantidade);
+        if (!habilitado || !valida(chave, marca)) {
+            return resposta;
+        }
+        // A verificação dentro do compute é atômica com a remoção feita por invalidar()
+        respostas.asMap().compute(chave, (c, atual) -> valida(c, marca) ? resposta : atual);
+        return resposta;
+    }
+
+    @Override
+    public void invalidar(String numeroCredito, String numeroNfse) {
+        // A sequência é registrada antes da remoção, como no CreditoCache
+        long numero = sequencia.incrementAndGet();
+        if (numeroCredito != null) {
+            registrar(TipoResposta.CREDITO, numeroCredito, numero);
+        }
+        if (numeroNfse != null) {
+            registrar(TipoResposta.NFSE, numeroNfse, numero);
+        }
+        for (MediaType representacao : REPRESENTACOES) {
+            if (numeroCredito != null) {
+                respostas.invalidate(new Chave(TipoResposta.CREDITO, numeroCredito, representacao));
+            }
+            if (numeroNfse != null) {
+                respostas.invalidate(new Chave(TipoResposta.NFSE, numeroNfse, representacao));
+            }
+        }
+    }
+
+    @Override
+    public void invalidarTudo() {
+        ultimaInvalidacaoTotal = sequencia.incrementAndGet();
+        respostas.invalidateAll();
+    }
+
+    private boolean valida(Chave chave, long marca) {
+        return ultimaInvalidacaoTotal <= marca
+                && invalidacoes[chave.tipo().ordinal()].get(listra(chave.valor())) <= marca;
+    }
+
+    private void registrar(TipoResposta tipo, String valor, long numero) {
+        invalidacoes[tipo.ordinal()].accumulateAndGet(listra(valor), numero, Math::max);
+    }
+
+    private static int listra(String valor) {
+        int hash = valor.hashCode();
+        return (hash ^ (hash >>> 16)) & (LISTRAS - 1);
+    }
+
+    private static byte[] gzip(byte[] corpo) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(corpo.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(corpo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+
+    /**
+     * ETag da variante gzip: "1-json-abc" -> "1-json-abc-gzip". Variantes com
+     * Content-Encoding distinto não podem compartilhar ETag forte.
+     */
+    public static String etagGzip(String etag) {
+        if (etag.endsWith("\"")) {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+        return etag + "-gzip";
+    }
+}
@@ -0,0 +1,86 @@
+package br.com.exemplo.cache;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.ChaveConsultadaDTO;
+import br.com.exemplo.repository.ChaveQuenteRepository;
+import br.com.exemplo.service.AnaliseConsultasService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grava periodicamente na tabela chave_quente as chaves mais consultadas da janela
+ * corrente de {@link AnaliseConsultasService}, e remove as que não aparecem há mais
+ * que a retenção. É a fonte do {@link AquecimentoCache} das instâncias que sobem depois.
+ */
+@Component
+@ConditionalOnProperty(name = "creditos.analise.habilitada", havingValue = "true")
+public class SnapshotChavesQuentes implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotChavesQuentes.class);
+
+    private final AnaliseConsultasService analiseConsultasService;
+    private final ChaveQuenteRepository chaveQuenteRepository;
+    private final CreditosProperties.Aquecimento config;
+
+    private ScheduledExecutorService agendador;
+
+    @Autowired
+    public SnapshotChavesQuentes(AnaliseConsultasService analiseConsultasService,
+                                 ChaveQuenteRepository chaveQuenteRepository, CreditosProperties properties) {
+        this.analiseConsultasService = analiseConsultasService;
+        this.chaveQuenteRepository = chaveQuenteRepository;
+        this.config = properties.getCache().getAquecimento();
+    }
+
+    /**
+     * Grava as chaves mais consultadas da janela corrente.
+     *
+     * @return quantidade de chaves gravadas
+     */
+    int gravar() {
+        List<ChaveConsultadaDTO> chaves = analiseConsultasService.resumir(null).getMaisConsultadas();
+        chaveQuenteRepository.gravar(chaves);
+        chaveQuenteRepository.removerAnteriores(Instant.now().minus(config.getRetencao()));
+        return chaves.size();
+    }
+
+    @Override
+    public void start() {
+        long intervalo = config.getIntervaloSnapshot().toMillis();
+        agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "chave-quente-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(() -> {
+            try {
+                gravar();
+            } catch (Exception e) {
+                logger.warn("Falha ao gravar o snapshot de chaves quentes: {}", e.getMessage());
+            }
+        }, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+            agendador = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return agendador != null;
+    }
+}
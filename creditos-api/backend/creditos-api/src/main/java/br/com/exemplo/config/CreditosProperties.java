@@ -0,0 +1,1172 @@
+package br.com.exemplo.config;
+
+import br.com.exemplo.messaging.ModoEntregaAuditoria;
+import br.com.exemplo.messaging.PoliticaOverflow;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Propriedades de configuração da API de créditos (prefixo "creditos").
+ */
+@Component
+@ConfigurationProperties(prefix = "creditos")
+public class CreditosProperties {
+
+    private final Lote lote = new Lote();
+    private final Cache cache = new Cache();
+    private final Paginacao paginacao = new Paginacao();
+    private final Auditoria auditoria = new Auditoria();
+    private final Gravacao gravacao = new Gravacao();
+    private final Replicas replicas = new Replicas();
+    private final Http http = new Http();
+    private final Importacao importacao = new Importacao();
+    private final Analise analise = new Analise();
+    private final Limite limite = new Limite();
+
+    public Lote getLote() {
+        return lote;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Paginacao getPaginacao() {
+        return paginacao;
+    }
+
+    public Auditoria getAuditoria() {
+        return auditoria;
+    }
+
+    public Gravacao getGravacao() {
+        return gravacao;
+    }
+
+    public Importacao getImportacao() {
+        return importacao;
+    }
+
+    public Analise getAnalise() {
+        return analise;
+    }
+
+    public Replicas getReplicas() {
+        return replicas;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public Limite getLimite() {
+        return limite;
+    }
+
+    /**
+     * Limites da consulta em lote.
+     */
+    public static class Lote {
+
+        // Quantidade máxima de chaves (NFS-e + créditos) por requisição
+        private int maxChaves = 500;
+
+        public int getMaxChaves() {
+            return maxChaves;
+        }
+
+        public void setMaxChaves(int maxChaves) {
+            this.maxChaves = maxChaves;
+        }
+    }
+
+    /**
+     * Paginação por cursor (keyset) dos créditos de uma NFS-e.
+     */
+    public static class Paginacao {
+
+        private int tamanhoPadrao = 50;
+
+        // Tamanhos maiores são reduzidos a este limite
+        private int tamanhoMaximo = 500;
+
+        public int getTamanhoPadrao() {
+            return tamanhoPadrao;
+        }
+
+        public void setTamanhoPadrao(int tamanhoPadrao) {
+            this.tamanhoPadrao = tamanhoPadrao;
+        }
+
+        public int getTamanhoMaximo() {
+            return tamanhoMaximo;
+        }
+
+        public void setTamanhoMaximo(int tamanhoMaximo) {
+            this.tamanhoMaximo = tamanhoMaximo;
+        }
+    }
+
+    /**
+     * Cache local de consultas em frente ao repositório.
+     */
+    public static class Cache {
+
+        // Peso máximo do cache: cada crédito armazenado conta 1 (consultas vazias contam 1)
+        private long pesoMaximo = 100_000;
+
+        // Tempo de vida dos resultados encontrados
+        private Duration ttl = Duration.ofMinutes(5);
+
+        // Tempo de vida dos resultados "não encontrado" (cache negativo)
+        private Duration ttlNegativo = Duration.ofSeconds(30);
+
+        private final Invalidacao invalidacao = new Invalidacao();
+
+        private final Resposta resposta = new Resposta();
+
+        private final Aquecimento aquecimento = new Aquecimento();
+
+        private final Filtro filtro = new Filtro();
+
+        private final Coalescencia coalescencia = new Coalescencia();
+
+        public long getPesoMaximo() {
+            return pesoMaximo;
+        }
+
+        public void setPesoMaximo(long pesoMaximo) {
+            this.pesoMaximo = pesoMaximo;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getTtlNegativo() {
+            return ttlNegativo;
+        }
+
+        public void setTtlNegativo(Duration ttlNegativo) {
+            this.ttlNegativo = ttlNegativo;
+        }
+
+        public Invalidacao getInvalidacao() {
+            return invalidacao;
+        }
+
+        public Resposta getResposta() {
+            return resposta;
+        }
+
+        public Aquecimento getAquecimento() {
+            return aquecimento;
+        }
+
+        public Filtro getFiltro() {
+            return filtro;
+        }
+
+        public Coalescencia getCoalescencia() {
+            return coalescencia;
+        }
+    }
+
+    /**
+     * Compartilhamento de uma consulta ao banco entre requisições idênticas simultâneas.
+     */
+    public static class Coalescencia {
+
+        private boolean habilitada = true;
+
+        // Espera máxima de uma requisição pela consulta idêntica em andamento (depois, 503)
+        private Duration timeout = Duration.ofSeconds(5);
+
+        public boolean isHabilitada() {
+            return habilitada;
+        }
+
+        public void setHabilitada(boolean habilitada) {
+            this.habilitada = habilitada;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    /**
+     * Filtro de Bloom com os números de crédito e de NFS-e existentes, consultado antes
+     * do banco. Depende da invalidação por LISTEN/NOTIFY para acompanhar as inserções.
+     */
+    public static class Filtro {
+
+        private boolean habilitado = true;
+
+        // Taxa de falsos positivos desejada na capacidade calculada
+        private double taxaFalsosPositivos = 0.01;
+
+        // Capacidade = max(capacidadeMinima, linhas da tabela * folga)
+        private long capacidadeMinima = 1_000_000;
+        private double folga = 1.5;
+
+        // Limite de memória de cada filtro (créditos e NFS-e)
+        private long bytesMaximo = 128L * 1024 * 1024;
+
+        // Conexões usadas na varredura da tabela, cada uma com uma faixa de ids
+        private int threads = 4;
+        private int tamanhoFetch = 10_000;
+
+        public boolean isHabilitado() {
+            return habilitado;
+        }
+
+        public void setHabilitado(boolean habilitado) {
+            this.habilitado = habilitado;
+        }
+
+        public double getTaxaFalsosPositivos() {
+            return taxaFalsosPositivos;
+        }
+
+        public void setTaxaFalsosPositivos(double taxaFalsosPositivos) {
+            this.taxaFalsosPositivos = taxaFalsosPositivos;
+        }
+
+        public long getCapacidadeMinima() {
+            return capacidadeMinima;
+        }
+
+        public void setCapacidadeMinima(long capacidadeMinima) {
+            this.capacidadeMinima = capacidadeMinima;
+        }
+
+        public double getFolga() {
+            return folga;
+        }
+
+        public void setFolga(double folga) {
+            this.folga = folga;
+        }
+
+        public long getBytesMaximo() {
+            return bytesMaximo;
+        }
+
+        public void setBytesMaximo(long bytesMaximo) {
+            this.bytesMaximo = bytesMaximo;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getTamanhoFetch() {
+            return tamanhoFetch;
+        }
+
+        public void setTamanhoFetch(int tamanhoFetch) {
+            this.tamanhoFetch = tamanhoFetch;
+        }
+    }
+
+    /**
+     * Pré-carga do cache na subida a partir do snapshot das chaves mais consultadas.
+     */
+    public static class Aquecimento {
+
+        private boolean habilitado = true;
+
+        // Chaves mais consultadas lidas do snapshot
+        private int maxChaves = 5000;
+
+        // Chaves por consulta IN ao banco e consultas em paralelo
+        private int tamanhoLote = 200;
+        private int threads = 4;
+
+        // Tempo máximo de aquecimento; esgotado, a instância fica pronta com o que carregou
+        private Duration orcamento = Duration.ofSeconds(30);
+
+        // Frequência de gravação do snapshot e idade máxima das chaves usadas no aquecimento
+        private Duration intervaloSnapshot = Duration.ofMinutes(1);
+        private Duration retencao = Duration.ofHours(1);
+
+        public boolean isHabilitado() {
+            return habilitado;
+        }
+
+        public void setHabilitado(boolean habilitado) {
+            this.habilitado = habilitado;
+        }
+
+        public int getMaxChaves() {
+            return maxChaves;
+        }
+
+        public void setMaxChaves(int maxChaves) {
+            this.maxChaves = maxChaves;
+        }
+
+        public int getTamanhoLote() {
+            return tamanhoLote;
+        }
+
+        public void setTamanhoLote(int tamanhoLote) {
+            this.tamanhoLote = tamanhoLote;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public Duration getOrcamento() {
+            return orcamento;
+        }
+
+        public void setOrcamento(Duration orcamento) {
+            this.orcamento = orcamento;
+        }
+
+        public Duration getIntervaloSnapshot() {
+            return intervaloSnapshot;
+        }
+
+        public void setIntervaloSnapshot(Duration intervaloSnapshot) {
+            this.intervaloSnapshot = intervaloSnapshot;
+        }
+
+        public Duration getRetencao() {
+            return retencao;
+        }
+
+        public void setRetencao(Duration retencao) {
+            this.retencao = retencao;
+        }
+    }
+
+    /**
+     * Cache das respostas já serializadas (JSON/CBOR, com variante gzip) das consultas.
+     */
+    public static class Resposta {
+
+        private boolean habilitado = true;
+
+        // Soma dos bytes armazenados (corpo + variante comprimida)
+        private long bytesMaximo = 64L * 1024 * 1024;
+
+        // Corpos menores que isto não ganham variante gzip
+        private int tamanhoMinimoCompressao = 1024;
+
+        public boolean isHabilitado() {
+            return habilitado;
+        }
+
+        public void setHabilitado(boolean habilitado) {
+            this.habilitado = habilitado;
+        }
+
+        public long getBytesMaximo() {
+            return bytesMaximo;
+        }
+
+        public void setBytesMaximo(long bytesMaximo) {
+            this.bytesMaximo = bytesMaximo;
+        }
+
+        public int getTamanhoMinimoCompressao() {
+            return tamanhoMinimoCompressao;
+        }
+
+        public void setTamanhoMinimoCompressao(int tamanhoMinimoCompressao) {
+            this.tamanhoMinimoCompressao = tamanhoMinimoCompressao;
+        }
+    }
+
+    /**
+     * Canal LISTEN/NOTIFY usado para invalidar o cache em todas as instâncias.
+     */
+    public static class Invalidacao {
+
+        private boolean habilitada = true;
+
+        private String canal = "credito_invalidacao";
+
+        // Tempo máximo de espera por notificações em cada ciclo de leitura
+        private Duration intervaloLeitura = Duration.ofMillis(500);
+
+        // Espera antes de tentar reconectar após uma falha
+        private Duration intervaloReconexao = Duration.ofSeconds(5);
+
+        public boolean isHabilitada() {
+            return habilitada;
+        }
+
+        public void setHabilitada(boolean habilitada) {
+            this.habilitada = habilitada;
+        }
+
+        public String getCanal() {
+            return canal;
+        }
+
+        public void setCanal(String canal) {
+            this.canal = canal;
+        }
+
+        public Duration getIntervaloLeitura() {
+            return intervaloLeitura;
+        }
+
+        public void setIntervaloLeitura(Duration intervaloLeitura) {
+            this.intervaloLeitura = intervaloLeitura;
+        }
+
+        public Duration getIntervaloReconexao() {
+            return intervaloReconexao;
+        }
+
+        public void setIntervaloReconexao(Duration intervaloReconexao) {
+            this.intervaloReconexao = intervaloReconexao;
+        }
+    }
+
+    /**
+     * Publicação assíncrona dos eventos de auditoria de consulta.
+     */
+    public static class Auditoria {
+
+        // Capacidade da fila em memória entre as requisições e o enviador
+        private int capacidadeFila = 10_000;
+
+        private PoliticaOverflow politicaOverflow = PoliticaOverflow.DESCARTAR_MAIS_ANTIGO;
+
+        // Espera máxima por espaço na fila com a política BLOQUEAR
+        private Duration timeoutBloqueio = Duration.ofMillis(50);
+
+        // Quantidade máxima de eventos retirados da fila a cada envio
+        private int tamanhoLote = 500;
+
+        // Tempo máximo para esvaziar a fila no desligamento da aplicação
+        private Duration timeoutDrenagem = Duration.ofSeconds(10);
+
+        private ModoEntregaAuditoria modo = ModoEntregaAuditoria.DIRETO;
+
+        private final Spool spool = new Spool();
+
+        private final Outbox outbox = new Outbox();
+
+        public int getCapacidadeFila() {
+            return capacidadeFila;
+        }
+
+        public void setCapacidadeFila(int capacidadeFila) {
+            this.capacidadeFila = capacidadeFila;
+        }
+
+        public PoliticaOverflow getPoliticaOverflow() {
+            return politicaOverflow;
+        }
+
+        public void setPoliticaOverflow(PoliticaOverflow politicaOverflow) {
+            this.politicaOverflow = politicaOverflow;
+        }
+
+        public Duration getTimeoutBloqueio() {
+            return timeoutBloqueio;
+        }
+
+        public void setTimeoutBloqueio(Duration timeoutBloqueio) {
+            this.timeoutBloqueio = timeoutBloqueio;
+        }
+
+        public int getTamanhoLote() {
+            return tamanhoLote;
+        }
+
+        public void setTamanhoLote(int tamanhoLote) {
+            this.tamanhoLote = tamanhoLote;
+        }
+
+        public Duration getTimeoutDrenagem() {
+            return timeoutDrenagem;
+        }
+
+        public void setTimeoutDrenagem(Duration timeoutDrenagem) {
+            this.timeoutDrenagem = timeoutDrenagem;
+        }
+
+        public ModoEntregaAuditoria getModo() {
+            return modo;
+        }
+
+        public void setModo(ModoEntregaAuditoria modo) {
+            this.modo = modo;
+        }
+
+        public Spool getSpool() {
+            return spool;
+        }
+
+        public Outbox getOutbox() {
+            return outbox;
+        }
+    }
+
+    /**
+     * Tabela outbox e relay de publicação, usados no modo OUTBOX.
+     */
+    public static class Outbox {
+
+        // Threads de relay por instância; instâncias diferentes também podem rodar relays
+        private int workers = 2;
+
+        // Linhas bloqueadas e publicadas por transação do relay
+        private int tamanhoLote = 1000;
+
+        // Pausa do relay quando a tabela está vazia
+        private Duration intervaloLeitura = Duration.ofMillis(200);
+
+        // Espera máxima pela confirmação do broker para cada lote
+        private Duration timeoutEnvio = Duration.ofSeconds(10);
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getTamanhoLote() {
+            return tamanhoLote;
+        }
+
+        public void setTamanhoLote(int tamanhoLote) {
+            this.tamanhoLote = tamanhoLote;
+        }
+
+        public Duration getIntervaloLeitura() {
+            return intervaloLeitura;
+        }
+
+        public void setIntervaloLeitura(Duration intervaloLeitura) {
+            this.intervaloLeitura = intervaloLeitura;
+        }
+
+        public Duration getTimeoutEnvio() {
+            return timeoutEnvio;
+        }
+
+        public void setTimeoutEnvio(Duration timeoutEnvio) {
+            this.timeoutEnvio = timeoutEnvio;
+        }
+    }
+
+    /**
+     * Spool local em disco para eventos de auditoria que não chegaram ao broker.
+     */
+    public static class Spool {
+
+        private boolean habilitado = true;
+
+        private String diretorio = System.getProperty("java.io.tmpdir") + "/creditos-api/spool";
+
+        // Tamanho de cada arquivo de segmento mapeado em memória
+        private int tamanhoSegmento = 16 * 1024 * 1024;
+
+        // Intervalo entre as tentativas de reenvio ao broker
+        private Duration intervaloReenvio = Duration.ofSeconds(5);
+
+        // Espera máxima pela confirmação do broker para cada lote reenviado
+        private Duration timeoutReenvio = Duration.ofSeconds(10);
+
+        // Eventos anexados entre duas sincronizações (force) do segmento ativo com o disco
+        private int eventosPorSincronizacao = 256;
+
+        // Intervalo máximo entre a gravação de um evento e sua sincronização com o disco
+        private Duration intervaloSincronizacao = Duration.ofSeconds(1);
+
+        public boolean isHabilitado() {
+            return habilitado;
+        }
+
+        public void setHabilitado(boolean habilitado) {
+            this.habilitado = habilitado;
+        }
+
+        public String getDiretorio() {
+            return diretorio;
+        }
+
+        public void setDiretorio(String diretorio) {
+            this.diretorio = diretorio;
+        }
+
+        public int getTamanhoSegmento() {
+            return tamanhoSegmento;
+        }
+
+        public void setTamanhoSegmento(int tamanhoSegmento) {
+            this.tamanhoSegmento = tamanhoSegmento;
+        }
+
+        public Duration getIntervaloReenvio() {
+            return intervaloReenvio;
+        }
+
+        public void setIntervaloReenvio(Duration intervaloReenvio) {
+            this.intervaloReenvio = intervaloReenvio;
+        }
+
+        public Duration getTimeoutReenvio() {
+            return timeoutReenvio;
+        }
+
+        public void setTimeoutReenvio(Duration timeoutReenvio) {
+            this.timeoutReenvio = timeoutReenvio;
+        }
+
+        public int getEventosPorSincronizacao() {
+            return eventosPorSincronizacao;
+        }
+
+        public void setEventosPorSincronizacao(int eventosPorSincronizacao) {
+            this.eventosPorSincronizacao = eventosPorSincronizacao;
+        }
+
+        public Duration getIntervaloSincronizacao() {
+            return intervaloSincronizacao;
+        }
+
+        public void setIntervaloSincronizacao(Duration intervaloSincronizacao) {
+            this.intervaloSincronizacao = intervaloSincronizacao;
+        }
+    }
+
+    /**
+     * Cabeçalhos de cache HTTP das consultas e do CORS.
+     */
+    public static class Http {
+
+        // max-age do Cache-Control das consultas; depois disso o cliente revalida com If-None-Match
+        private Duration maxAge = Duration.ofSeconds(60);
+
+        // Tempo que o navegador pode reaproveitar a resposta do preflight (OPTIONS) do CORS
+        private Duration maxAgePreflight = Duration.ofHours(1);
+
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+
+        public Duration getMaxAgePreflight() {
+            return maxAgePreflight;
+        }
+
+        public void setMaxAgePreflight(Duration maxAgePreflight) {
+            this.maxAgePreflight = maxAgePreflight;
+        }
+    }
+
+    /**
+     * Gravação de créditos em lote pelo JPA.
+     */
+    public static class Gravacao {
+
+        // Entidades por flush/clear; deve acompanhar hibernate.jdbc.batch_size e o INCREMENT da sequence
+        private int tamanhoLote = 50;
+
+        public int getTamanhoLote() {
+            return tamanhoLote;
+        }
+
+        public void setTamanhoLote(int tamanhoLote) {
+            this.tamanhoLote = tamanhoLote;
+        }
+    }
+
+    /**
+     * Importação em massa de créditos via COPY.
+     */
+    public static class Importacao {
+
+        // Quantidade máxima de linhas rejeitadas detalhadas na resposta (o total é sempre informado)
+        private int maxRejeicoesReportadas = 1000;
+
+        // Bytes acumulados antes de cada envio ao COPY
+        private int tamanhoBufferCopy = 256 * 1024;
+
+        public int getMaxRejeicoesReportadas() {
+            return maxRejeicoesReportadas;
+        }
+
+        public void setMaxRejeicoesReportadas(int maxRejeicoesReportadas) {
+            this.maxRejeicoesReportadas = maxRejeicoesReportadas;
+        }
+
+        public int getTamanhoBufferCopy() {
+            return tamanhoBufferCopy;
+        }
+
+        public void setTamanhoBufferCopy(int tamanhoBufferCopy) {
+            this.tamanhoBufferCopy = tamanhoBufferCopy;
+        }
+    }
+
+    /**
+     * Réplicas de leitura do PostgreSQL: transações somente leitura são roteadas para elas.
+     */
+    public static class Replicas {
+
+        private boolean habilitadas = false;
+
+        private List<No> nos = new ArrayList<>();
+
+        // Réplicas com atraso de replicação acima deste limite deixam de receber leituras
+        private Duration atrasoMaximo = Duration.ofSeconds(5);
+
+        // Intervalo entre as medições de atraso de cada réplica
+        private Duration intervaloVerificacao = Duration.ofSeconds(1);
+
+        private final Hedge hedge = new Hedge();
+
+        public boolean isHabilitadas() {
+            return habilitadas;
+        }
+
+        public void setHabilitadas(boolean habilitadas) {
+            this.habilitadas = habilitadas;
+        }
+
+        public List<No> getNos() {
+            return nos;
+        }
+
+        public void setNos(List<No> nos) {
+            this.nos = nos;
+        }
+
+        public Duration getAtrasoMaximo() {
+            return atrasoMaximo;
+        }
+
+        public void setAtrasoMaximo(Duration atrasoMaximo) {
+            this.atrasoMaximo = atrasoMaximo;
+        }
+
+        public Duration getIntervaloVerificacao() {
+            return intervaloVerificacao;
+        }
+
+        public void setIntervaloVerificacao(Duration intervaloVerificacao) {
+            this.intervaloVerificacao = intervaloVerificacao;
+        }
+
+        public Hedge getHedge() {
+            return hedge;
+        }
+    }
+
+    /**
+     * Conexão com uma réplica; usuário e senha vazios reaproveitam os do datasource principal.
+     */
+    public static class No {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+
+    /**
+     * Leituras "hedged": se a réplica não responder dentro do orçamento, uma segunda
+     * tentativa é enviada a outro nó e vale a primeira resposta.
+     */
+    public static class Hedge {
+
+        private boolean habilitado = false;
+
+        // Percentil da latência das leituras usado como orçamento da primeira tentativa
+        private double percentil = 0.95;
+
+        // Orçamento usado enquanto não há amostras suficientes para o percentil
+        private Duration orcamentoInicial = Duration.ofMillis(50);
+
+        // Limite inferior do orçamento, para não duplicar leituras que já são rápidas
+        private Duration orcamentoMinimo = Duration.ofMillis(2);
+
+        private long amostrasMinimas = 100;
+
+        // Threads que executam as tentativas (cada uma ocupa uma conexão enquanto roda)
+        private int threads = 16;
+
+        public boolean isHabilitado() {
+            return habilitado;
+        }
+
+        public void setHabilitado(boolean habilitado) {
+            this.habilitado = habilitado;
+        }
+
+        public double getPercentil() {
+            return percentil;
+        }
+
+        public void setPercentil(double percentil) {
+            this.percentil = percentil;
+        }
+
+        public Duration getOrcamentoInicial() {
+            return orcamentoInicial;
+        }
+
+        public void setOrcamentoInicial(Duration orcamentoInicial) {
+            this.orcamentoInicial = orcamentoInicial;
+        }
+
+        public Duration getOrcamentoMinimo() {
+            return orcamentoMinimo;
+        }
+
+        public void setOrcamentoMinimo(Duration orcamentoMinimo) {
+            this.orcamentoMinimo = orcamentoMinimo;
+        }
+
+        public long getAmostrasMinimas() {
+            return amostrasMinimas;
+        }
+
+        public void setAmostrasMinimas(long amostrasMinimas) {
+            this.amostrasMinimas = amostrasMinimas;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+    }
+
+    /**
+     * Estatísticas de chaves mais consultadas e volume, calculadas a partir do tópico
+     * consulta-creditos em janela deslizante e com memória fixa.
+     */
+    public static class Analise {
+
+        private boolean habilitada = true;
+
+        // Grupo do consumidor; sem valor usa spring.kafka.consumer.group-id (partições divididas entre instâncias)
+        private String grupo;
+
+        // Extensão da janela deslizante e em quantas subjanelas ela avança
+        private Duration janela = Duration.ofMinutes(1);
+        private int subjanelas = 6;
+
+        // Count-min sketch de cada subjanela: erro ~ e/largura do total, com probabilidade 1 - e^-profundidade
+        private int largura = 16384;
+        private int profundidade = 4;
+
+        // HyperLogLog com 2^precisao registradores (erro padrão ~ 1,04/sqrt(2^precisao))
+        private int precisao = 14;
+
+        // Candidatas a chave mais consultada mantidas por subjanela
+        private int topK = 100;
+
+        public boolean isHabilitada() {
+            return habilitada;
+        }
+
+        public void setHabilitada(boolean habilitada) {
+            this.habilitada = habilitada;
+        }
+
+        public String getGrupo() {
+            return grupo;
+        }
+
+        public void setGrupo(String grupo) {
+            this.grupo = grupo;
+        }
+
+        public Duration getJanela() {
+            return janela;
+        }
+
+        public void setJanela(Duration janela) {
+            this.janela = janela;
+        }
+
+        public int getSubjanelas() {
+            return subjanelas;
+        }
+
+        public void setSubjanelas(int subjanelas) {
+            this.subjanelas = subjanelas;
+        }
+
+        public int getLargura() {
+            return largura;
+        }
+
+        public void setLargura(int largura) {
+            this.largura = largura;
+        }
+
+        public int getProfundidade() {
+            return profundidade;
+        }
+
+        public void setProfundidade(int profundidade) {
+            this.profundidade = profundidade;
+        }
+
+        public int getPrecisao() {
+            return precisao;
+        }
+
+        public void setPrecisao(int precisao) {
+            this.precisao = precisao;
+        }
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+    }
+
+    /**
+     * Proteção contra sobrecarga em /api/creditos/** (exceto a importação): limite adaptativo
+     * de requisições simultâneas e baldes de fichas por cliente.
+     */
+    public static class Limite {
+
+        private boolean habilitado = true;
+
+        private final Concorrencia concorrencia = new Concorrencia();
+
+        private final Cliente cliente = new Cliente();
+
+        public boolean isHabilitado() {
+            return habilitado;
+        }
+
+        public void setHabilitado(boolean habilitado) {
+            this.habilitado = habilitado;
+        }
+
+        public Concorrencia getConcorrencia() {
+            return concorrencia;
+        }
+
+        public Cliente getCliente() {
+            return cliente;
+        }
+    }
+
+    /**
+     * Limite de requisições simultâneas ajustado pelo gradiente da latência.
+     */
+    public static class Concorrencia {
+
+        private int limiteInicial = 20;
+        private int limiteMinimo = 4;
+        private int limiteMaximo = 200;
+
+        // O limite só cai quando a latência recente passa de tolerancia * latência de referência
+        private double tolerancia = 1.5;
+
+        // Amostras por ajuste do limite e janela (em ajustes) da média da latência de referência
+        private int amostrasPorJanela = 20;
+        private int janelasReferencia = 60;
+
+        // Peso de cada ajuste no novo limite (0 a 1)
+        private double suavizacao = 0.2;
+
+        // Retry-After das requisições recusadas por excesso de concorrência
+        private Duration tentarNovamenteEm = Duration.ofSeconds(1);
+
+        public int getLimiteInicial() {
+            return limiteInicial;
+        }
+
+        public void setLimiteInicial(int limiteInicial) {
+            this.limiteInicial = limiteInicial;
+        }
+
+        public int getLimiteMinimo() {
+            return limiteMinimo;
+        }
+
+        public void setLimiteMinimo(int limiteMinimo) {
+            this.limiteMinimo = limiteMinimo;
+        }
+
+        public int getLimiteMaximo() {
+            return limiteMaximo;
+        }
+
+        public void setLimiteMaximo(int limiteMaximo) {
+            this.limiteMaximo = limiteMaximo;
+        }
+
+        public double getTolerancia() {
+            return tolerancia;
+        }
+
+        public void setTolerancia(double tolerancia) {
+            this.tolerancia = tolerancia;
+        }
+
+        public int getAmostrasPorJanela() {
+            return amostrasPorJanela;
+        }
+
+        public void setAmostrasPorJanela(int amostrasPorJanela) {
+            this.amostrasPorJanela = amostrasPorJanela;
+        }
+
+        public int getJanelasReferencia() {
+            return janelasReferencia;
+        }
+
+        public void setJanelasReferencia(int janelasReferencia) {
+            this.janelasReferencia = janelasReferencia;
+        }
+
+        public double getSuavizacao() {
+            return suavizacao;
+        }
+
+        public void setSuavizacao(double suavizacao) {
+            this.suavizacao = suavizacao;
+        }
+
+        public Duration getTentarNovamenteEm() {
+            return tentarNovamenteEm;
+        }
+
+        public void setTentarNovamenteEm(Duration tentarNovamenteEm) {
+            this.tentarNovamenteEm = tentarNovamenteEm;
+        }
+    }
+
+    /**
+     * Balde de fichas por cliente (taxa sustentada e rajada).
+     */
+    public static class Cliente {
+
+        private boolean habilitado = true;
+
+        // Fichas repostas por segundo e capacidade do balde
+        private double taxa = 100;
+        private int rajada = 200;
+
+        // Cabeçalho que identifica o cliente (ex.: definido pelo gateway); vazio usa o IP de origem
+        private String cabecalho = "";
+
+        // Listras (travas independentes) e total de clientes mantidos em memória
+        private int listras = 64;
+        private int maxClientes = 100_000;
+
+        public boolean isHabilitado() {
+            return habilitado;
+        }
+
+        public void setHabilitado(boolean habilitado) {
+            this.habilitado = habilitado;
+        }
+
+        public double getTaxa() {
+            return taxa;
+        }
+
+        public void setTaxa(double taxa) {
+            this.taxa = taxa;
+        }
+
+        public int getRajada() {
+            return rajada;
+        }
+
+        public void setRajada(int rajada) {
+            this.rajada = rajada;
+        }
+
+        public String getCabecalho() {
+            return cabecalho;
+        }
+
+        public void setCabecalho(String cabecalho) {
+            this.cabecalho = cabecalho;
+        }
+
+        public int getListras() {
+            return listras;
+        }
+
+        public void setListras(int listras) {
+            this.listras = listras;
+        }
+
+        public int getMaxClientes() {
+            return maxClientes;
+        }
+
+        public void setMaxClientes(int maxClientes) {
+            this.maxClientes = maxClientes;
+        }
+    }
+}
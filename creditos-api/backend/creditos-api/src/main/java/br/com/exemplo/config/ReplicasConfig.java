@@ -0,0 +1,82 @@
+package br.com.exemplo.config;
+
+import br.com.exemplo.replicas.DataSourceReplicas;
+import br.com.exemplo.replicas.MonitorReplicas;
+import br.com.exemplo.replicas.NoLeitura;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Roteamento de leituras para réplicas do PostgreSQL (creditos.replicas.habilitadas=true).
+ *
+ * O DataSource principal é um LazyConnectionDataSourceProxy: a conexão física só é
+ * obtida no primeiro comando, quando já se sabe se a transação é somente leitura.
+ * Transações readOnly (consultas do CreditoRepository) usam o {@link DataSourceReplicas};
+ * as demais, inclusive a importação e o outbox, seguem no primário.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "creditos.replicas", name = "habilitadas", havingValue = "true")
+public class ReplicasConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    @Bean
+    public DataSourceReplicas dataSourceReplicas(HikariDataSource dataSourcePrimario,
+                                                 DataSourceProperties dataSourceProperties,
+                                                 CreditosProperties properties) {
+        CreditosProperties.Replicas config = properties.getReplicas();
+        List<NoLeitura> nos = new ArrayList<>();
+        for (int i = 0; i < config.getNos().size(); i++) {
+            CreditosProperties.No no = config.getNos().get(i);
+            String nome = "replica-" + (i + 1);
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(no.getUrl())
+                    .username(StringUtils.hasText(no.getUsername()) ? no.getUsername() : dataSourceProperties.determineUsername())
+                    .password(StringUtils.hasText(no.getPassword()) ? no.getPassword() : dataSourceProperties.determinePassword())
+                    .build();
+            pool.setPoolName(nome);
+            pool.setReadOnly(true);
+            // Réplica fora do ar não deve impedir a subida da aplicação
+            pool.setInitializationFailTimeout(-1);
+            nos.add(DataSourceReplicas.replica(nome, pool));
+        }
+        return new DataSourceReplicas(nos, dataSourcePrimario, config.getAtrasoMaximo());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource dataSourcePrimario, DataSourceReplicas dataSourceReplicas) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(dataSourcePrimario);
+        dataSource.setReadOnlyDataSource(dataSourceReplicas);
+        return dataSource;
+    }
+
+    @Bean
+    public MonitorReplicas monitorReplicas(DataSourceReplicas dataSourceReplicas, CreditosProperties properties,
+                                           MeterRegistry meterRegistry) {
+        return new MonitorReplicas(dataSourceReplicas, properties.getReplicas().getIntervaloVerificacao(), meterRegistry);
+    }
+}
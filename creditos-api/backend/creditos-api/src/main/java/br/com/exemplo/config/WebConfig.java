@@ -1,18 +1,40 @@
 package br.com.exemplo.config;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    @Autowired
+    private CreditosProperties properties;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
                 .allowedOrigins("http://localhost:4200", "http://localhost:80", "http://localhost")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
-                .allowCredentials(true);
+                // Cabeçalhos de cache e de correlação legíveis pelo JavaScript da UI
+                .exposedHeaders("ETag", "Last-Modified", "X-Correlation-ID")
+                .allowCredentials(true)
+                // Sem isso o X-Correlation-ID da UI gera um OPTIONS antes de cada chamada
+                .maxAge(properties.getHttp().getMaxAgePreflight().toSeconds());
+    }
+
+    /**
+     * Respostas em CBOR (Accept: application/cbor) para chamadas entre serviços: BigDecimal
+     * vira fração decimal binária em vez de texto e o payload fica menor. Usa a mesma
+     * configuração Jackson do JSON; o JSON continua sendo o padrão para Accept genérico.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
     }
 }
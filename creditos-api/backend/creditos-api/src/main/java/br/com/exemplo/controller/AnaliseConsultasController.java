@@ -0,0 +1,27 @@
+package br.com.exemplo.controller;
+
+import br.com.exemplo.dto.AnaliseConsultasDTO;
+import br.com.exemplo.service.AnaliseConsultasService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/creditos/analise")
+public class AnaliseConsultasController {
+
+    @Autowired
+    private AnaliseConsultasService analiseConsultasService;
+
+    /**
+     * Endpoint para obter as NFS-e e créditos mais consultados, o volume por tipo de
+     * consulta e a quantidade de chaves distintas na janela deslizante corrente.
+     */
+    @GetMapping("/consultas")
+    public ResponseEntity<AnaliseConsultasDTO> getAnaliseConsultas(@RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(analiseConsultasService.resumir(limite));
+    }
+}
@@ -0,0 +1,176 @@
+package br.com.exemplo.controller;
+
+import br.com.exemplo.dto.CreditoResponseDTO;
+import br.com.exemplo.dto.VersaoCreditoDTO;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ETag e Last-Modified das consultas de créditos, calculados a partir da versão e da
+ * data de alteração de cada crédito, sem serializar a resposta.
+ */
+final class CabecalhosCache {
+
+    // Muda quando o formato do JSON de resposta muda, invalidando os ETags já emitidos
+    private static final String VERSAO_REPRESENTACAO = "1";
+
+    // Representações das consultas, na ordem de preferência dos conversores do Spring
+    private static final List<MediaType> REPRESENTACOES = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR);
+
+    private static final long FNV_BASE = 0xcbf29ce484222325L;
+    private static final long FNV_PRIMO = 0x100000001b3L;
+
+    private CabecalhosCache() {
+    }
+
+    /**
+     * ETag forte: muda sempre que algum crédito da resposta é incluído, removido ou alterado,
+     * e difere entre representações (JSON, CBOR) do mesmo conteúdo.
+     */
+    static String etag(List<CreditoResponseDTO> creditos, MediaType representacao) {
+        List<VersaoCreditoDTO> versoes = new ArrayList<>(creditos.size());
+        for (CreditoResponseDTO credito : creditos) {
+            versoes.add(new VersaoCreditoDTO(credito.getNumeroCredito(), credito.getVersao(), credito.getAtualizadoEm()));
+        }
+        return etagVersoes(versoes, representacao);
+    }
+
+    static String etag(CreditoResponseDTO credito, MediaType representacao) {
+        return etag(List.of(credito), representacao);
+    }
+
+    /**
+     * O mesmo ETag de {@link #etag(List, MediaType)}, a partir apenas das versões dos créditos.
+     */
+    static String etagVersoes(List<VersaoCreditoDTO> versoes, MediaType representacao) {
+        long hash = misturar(FNV_BASE, versoes.size());
+        for (VersaoCreditoDTO credito : versoes) {
+            for (byte b : credito.getNumeroCredito().getBytes(StandardCharsets.UTF_8)) {
+                hash = (hash ^ (b & 0xff)) * FNV_PRIMO;
+            }
+            hash = misturar(hash, credito.getVersao());
+            OffsetDateTime atualizadoEm = credito.getAtualizadoEm();
+            hash = misturar(hash, atualizadoEm == null ? 0 : atualizadoEm.toInstant().toEpochMilli());
+        }
+        return "\"" + VERSAO_REPRESENTACAO + "-" + representacao.getSubtype() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * ETag do If-None-Match que corresponde a {@code etag} ou à sua variante gzip, em
+     * comparação fraca (como o Spring faz para If-None-Match), ou null se nenhum corresponde.
+     */
+    static String correspondente(String ifNoneMatch, String etag, String etagGzip) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return null;
+        }
+        for (String item : ifNoneMatch.split(",")) {
+            String candidato = item.trim();
+            if (candidato.equals("*")) {
+                return etag;
+            }
+            if (candidato.startsWith("W/")) {
+                candidato = candidato.substring(2);
+            }
+            if (candidato.equals(etag) || candidato.equals(etagGzip)) {
+                return candidato;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Representação que a negociação de conteúdo vai escolher para o cabeçalho Accept,
+     * necessária antes da resposta para compor o ETag. Segue a mesma regra do Spring:
+     * tipos aceitos ordenados por qualidade e especificidade, JSON em caso de empate.
+     */
+    static MediaType representacao(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> aceitos;
+        try {
+            aceitos = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> candidatos = new ArrayList<>();
+        for (MediaType aceito : aceitos) {
+            for (MediaType produzido : REPRESENTACOES) {
+                if (aceito.isCompatibleWith(produzido) && aceito.getQualityValue() > 0) {
+                    candidatos.add(produzido.copyQualityValue(aceito));
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(candidatos);
+        for (MediaType candidato : candidatos) {
+            if (candidato.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return MediaType.APPLICATION_CBOR;
+            }
+            if (candidato.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * Se o cabeçalho Accept-Encoding admite gzip (ou "*") com qualidade maior que zero.
+     */
+    static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        for (String item : acceptEncoding.split(",")) {
+            String[] partes = item.split(";");
+            String codificacao = partes[0].trim();
+            if (!codificacao.equalsIgnoreCase("gzip") && !codificacao.equals("*")) {
+                continue;
+            }
+            double qualidade = 1.0;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.startsWith("q=")) {
+                    try {
+                        qualidade = Double.parseDouble(parametro.substring(2));
+                    } catch (NumberFormatException e) {
+                        qualidade = 0;
+                    }
+                }
+            }
+            if (qualidade > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Maior data de alteração entre os créditos, ou null se nenhuma for conhecida.
+     */
+    static Instant ultimaAlteracao(List<CreditoResponseDTO> creditos) {
+        Instant ultima = null;
+        for (CreditoResponseDTO credito : creditos) {
+            if (credito.getAtualizadoEm() != null) {
+                Instant instante = credito.getAtualizadoEm().toInstant();
+                if (ultima == null || instante.isAfter(ultima)) {
+                    ultima = instante;
+                }
+            }
+        }
+        return ultima;
+    }
+
+    private static long misturar(long hash, long valor) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash ^ ((valor >>> (i * 8)) & 0xff)) * FNV_PRIMO;
+        }
+        return hash;
+    }
+}
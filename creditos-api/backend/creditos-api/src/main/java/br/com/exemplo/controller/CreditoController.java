@@ -4,13 +4,34 @@
  */
 package br.com.exemplo.controller;
 
+import br.com.exemplo.cache.RespostaCache;
+import br.com.exemplo.cache.RespostaCache.Chave;
+import br.com.exemplo.cache.RespostaCache.RespostaSerializada;
+import br.com.exemplo.cache.RespostaCache.TipoResposta;
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.ConsultaLoteRequestDTO;
+import br.com.exemplo.dto.ConsultaLoteResponseDTO;
 import br.com.exemplo.dto.CreditoResponseDTO;
+import br.com.exemplo.dto.PaginaCreditosDTO;
+import br.com.exemplo.dto.VersaoCreditoDTO;
+import br.com.exemplo.metricas.MetricasCreditos;
+import br.com.exemplo.metricas.MetricasCreditos.Endpoint;
 import br.com.exemplo.service.CreditoService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/creditos")
@@ -19,26 +40,197 @@ public class CreditoController {
     @Autowired
     private CreditoService creditoService;
 
+    @Autowired
+    private MetricasCreditos metricas;
+
+    @Autowired
+    private CreditosProperties properties;
+
+    @Autowired
+    private RespostaCache respostaCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
     /**
      * Endpoint para obter lista de créditos por número da NFS-e.
      */
     @GetMapping("/{numeroNfse}")
-    public ResponseEntity<List<CreditoResponseDTO>> getCreditosPorNfse(@PathVariable String numeroNfse) {
-        List<CreditoResponseDTO> creditos = creditoService.buscarCreditosPorNfse(numeroNfse);
-        return ResponseEntity.ok(creditos);
+    public ResponseEntity<byte[]> getCreditosPorNfse(@PathVariable String numeroNfse,
+                                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                     @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        long inicio = System.nanoTime();
+        try {
+            Chave chave = new Chave(TipoResposta.NFSE, numeroNfse, CabecalhosCache.representacao(accept));
+            RespostaSerializada resposta = respostaCache.buscar(chave);
+            if (resposta != null) {
+                creditoService.registrarConsultaPorNfseEmCache(numeroNfse, resposta.quantidade(), System.nanoTime() - inicio);
+                return responder(resposta, acceptEncoding);
+            }
+
+            if (ifNoneMatch != null) {
+                List<VersaoCreditoDTO> versoes = creditoService.buscarVersoesPorNfse(numeroNfse);
+                ResponseEntity<byte[]> naoModificada = naoModificada(ifNoneMatch,
+                        CabecalhosCache.etagVersoes(versoes, chave.representacao()));
+                if (naoModificada != null) {
+                    creditoService.registrarConsultaPorNfseEmCache(numeroNfse, versoes.size(), System.nanoTime() - inicio);
+                    return naoModificada;
+                }
+            }
+
+            long marca = respostaCache.marca();
+            List<CreditoResponseDTO> creditos = creditoService.buscarCreditosPorNfse(numeroNfse);
+            resposta = respostaCache.armazenar(chave, serializar(creditos, chave.representacao()),
+                    CabecalhosCache.etag(creditos, chave.representacao()),
+                    CabecalhosCache.ultimaAlteracao(creditos), creditos.size(), marca);
+            return responder(resposta, acceptEncoding);
+        } finally {
+            metricas.registrarEndpoint(Endpoint.NFSE, System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Endpoint para obter os créditos de uma NFS-e página a página, por cursor.
+     */
+    @GetMapping("/{numeroNfse}/pagina")
+    public ResponseEntity<PaginaCreditosDTO> getPaginaCreditosPorNfse(@PathVariable String numeroNfse,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer tamanho) {
+        long inicio = System.nanoTime();
+        try {
+            return ResponseEntity.ok(creditoService.buscarPaginaPorNfse(numeroNfse, cursor, tamanho));
+        } finally {
+            metricas.registrarEndpoint(Endpoint.PAGINA, System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Endpoint para obter os créditos de uma NFS-e em streaming (NDJSON), sem
+     * carregar a lista inteira em memória.
+     */
+    @GetMapping(value = "/{numeroNfse}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCreditosPorNfse(@PathVariable String numeroNfse) {
+        // Mede a escrita completa da resposta, que acontece depois do retorno do método
+        StreamingResponseBody corpo = saida -> {
+            long inicio = System.nanoTime();
+            try {
+                creditoService.escreverCreditosPorNfse(numeroNfse, saida);
+            } finally {
+                metricas.registrarEndpoint(Endpoint.STREAM, System.nanoTime() - inicio);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(corpo);
     }
 
     /**
      * Endpoint para obter detalhe de crédito por número do crédito.
      */
     @GetMapping("/credito/{numeroCredito}")
-    public ResponseEntity<CreditoResponseDTO> getCreditoPorNumero(@PathVariable String numeroCredito) {
-        java.util.Optional<CreditoResponseDTO> credito = creditoService.buscarCreditoPorNumero(numeroCredito);
-        
-        if (credito.isPresent()) {
-            return ResponseEntity.ok(credito.get());
-        } else {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<byte[]> getCreditoPorNumero(@PathVariable String numeroCredito,
+                                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        long inicio = System.nanoTime();
+        try {
+            Chave chave = new Chave(TipoResposta.CREDITO, numeroCredito, CabecalhosCache.representacao(accept));
+            RespostaSerializada resposta = respostaCache.buscar(chave);
+            if (resposta != null) {
+                creditoService.registrarConsultaPorNumeroEmCache(numeroCredito, System.nanoTime() - inicio);
+                return responder(resposta, acceptEncoding);
+            }
+
+            if (ifNoneMatch != null) {
+                Optional<VersaoCreditoDTO> versao = creditoService.buscarVersaoPorNumero(numeroCredito);
+                ResponseEntity<byte[]> naoModificada = versao.isEmpty() ? null : naoModificada(ifNoneMatch,
+                        CabecalhosCache.etagVersoes(List.of(versao.get()), chave.representacao()));
+                if (naoModificada != null) {
+                    creditoService.registrarConsultaPorNumeroEmCache(numeroCredito, System.nanoTime() - inicio);
+                    return naoModificada;
+                }
+            }
+
+            long marca = respostaCache.marca();
+            Optional<CreditoResponseDTO> credito = creditoService.buscarCreditoPorNumero(numeroCredito);
+
+            if (credito.isPresent()) {
+                // Só créditos encontrados entram no cache de respostas; o 404 continua no cache de dados
+                resposta = respostaCache.armazenar(chave, serializar(credito.get(), chave.representacao()),
+                        CabecalhosCache.etag(credito.get(), chave.representacao()),
+                        CabecalhosCache.ultimaAlteracao(List.of(credito.get())), 1, marca);
+                return responder(resposta, acceptEncoding);
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        } finally {
+            metricas.registrarEndpoint(Endpoint.CREDITO, System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Endpoint para consultar várias NFS-e e/ou números de crédito em uma única requisição.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ConsultaLoteResponseDTO> getCreditosEmLote(@RequestBody ConsultaLoteRequestDTO requisicao) {
+        long inicio = System.nanoTime();
+        try {
+            return ResponseEntity.ok(creditoService.buscarEmLote(requisicao));
+        } finally {
+            metricas.registrarEndpoint(Endpoint.LOTE, System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Resposta 200 com os bytes já serializados, ETag, Last-Modified e Cache-Control.
+     * Usa a variante gzip quando existe e o cliente a aceita. Se a requisição trouxer
+     * If-None-Match (ou If-Modified-Since) compatível, o Spring responde 304 a partir
+     * desses cabeçalhos, sem escrever o corpo.
+     */
+    private ResponseEntity<byte[]> responder(RespostaSerializada resposta, String acceptEncoding) {
+        boolean gzip = resposta.corpoGzip() != null && CabecalhosCache.aceitaGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder builder = cabecalhosCache(ResponseEntity.ok(), gzip ? resposta.etagGzip() : resposta.etag())
+                .contentType(resposta.tipoConteudo());
+        if (resposta.ultimaAlteracao() != null) {
+            builder.lastModified(resposta.ultimaAlteracao());
+        }
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return builder.body(resposta.corpoGzip());
+        }
+        return builder.body(resposta.corpo());
+    }
+
+    /**
+     * 304 quando o If-None-Match traz o ETag atual (calculado só das versões dos créditos)
+     * ou sua variante gzip: a revalidação dispensa a consulta completa e a serialização
+     * que o Spring faria antes de descartar o corpo. Devolve null se a resposta mudou.
+     */
+    private ResponseEntity<byte[]> naoModificada(String ifNoneMatch, String etag) {
+        String correspondente = CabecalhosCache.correspondente(ifNoneMatch, etag, RespostaCache.etagGzip(etag));
+        if (correspondente == null) {
+            return null;
+        }
+        return cabecalhosCache(ResponseEntity.status(HttpStatus.NOT_MODIFIED), correspondente).build();
+    }
+
+    private ResponseEntity.BodyBuilder cabecalhosCache(ResponseEntity.BodyBuilder builder, String etag) {
+        return builder.eTag(etag)
+                // JSON/CBOR e identidade/gzip compartilham a URL; caches intermediários devem separá-los
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .cacheControl(CacheControl.maxAge(properties.getHttp().getMaxAge()).mustRevalidate());
+    }
+
+    private byte[] serializar(Object corpo, MediaType representacao) {
+        ObjectMapper mapper = MediaType.APPLICATION_CBOR.equals(representacao) ? cborConverter.getObjectMapper() : objectMapper;
+        try {
+            return mapper.writeValueAsBytes(corpo);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
         }
     }
 }
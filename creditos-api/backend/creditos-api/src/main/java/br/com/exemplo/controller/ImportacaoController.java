@@ -0,0 +1,39 @@
+package br.com.exemplo.controller;
+
+import br.com.exemplo.dto.ImportacaoResultadoDTO;
+import br.com.exemplo.service.ImportacaoCreditoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+
+@RestController
+@RequestMapping("/api/creditos/importacao")
+public class ImportacaoController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    @Autowired
+    private ImportacaoCreditoService importacaoCreditoService;
+
+    /**
+     * Endpoint para importar créditos em massa a partir de CSV (com cabeçalho) ou
+     * NDJSON. O corpo é lido em streaming, sem ser carregado em memória.
+     */
+    @PostMapping(consumes = {TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportacaoResultadoDTO> importarCreditos(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                   InputStream corpo) throws IOException, SQLException {
+        ImportacaoCreditoService.Formato formato = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? ImportacaoCreditoService.Formato.NDJSON
+                : ImportacaoCreditoService.Formato.CSV;
+        return ResponseEntity.ok(importacaoCreditoService.importar(corpo, formato));
+    }
+}
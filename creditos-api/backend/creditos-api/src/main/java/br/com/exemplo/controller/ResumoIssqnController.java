@@ -0,0 +1,45 @@
+package br.com.exemplo.controller;
+
+import br.com.exemplo.dto.ResumoIssqnDTO;
+import br.com.exemplo.metricas.MetricasCreditos;
+import br.com.exemplo.metricas.MetricasCreditos.Endpoint;
+import br.com.exemplo.service.ResumoIssqnService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/creditos/resumos")
+public class ResumoIssqnController {
+
+    @Autowired
+    private ResumoIssqnService resumoIssqnService;
+
+    @Autowired
+    private MetricasCreditos metricas;
+
+    /**
+     * Endpoint para obter os totais de ISSQN por tipo de crédito, mês de constituição
+     * e Simples Nacional, com filtros opcionais por período (yyyy-MM), tipo e regime.
+     */
+    @GetMapping("/issqn")
+    public ResponseEntity<List<ResumoIssqnDTO>> getResumoIssqn(@RequestParam(required = false) String agrupar,
+                                                               @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth de,
+                                                               @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth ate,
+                                                               @RequestParam(required = false) String tipoCredito,
+                                                               @RequestParam(required = false) Boolean simplesNacional) {
+        long inicio = System.nanoTime();
+        try {
+            return ResponseEntity.ok(resumoIssqnService.totalizar(agrupar, de, ate, tipoCredito, simplesNacional));
+        } finally {
+            metricas.registrarEndpoint(Endpoint.RESUMO, System.nanoTime() - inicio);
+        }
+    }
+}
@@ -19,8 +19,9 @@ public class SecurityConfig {
         http
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(authz -> authz
-                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/health/liveness", "/actuator/health/readiness").permitAll()
                 .requestMatchers("/actuator/**").authenticated()
+                .requestMatchers("/api/creditos/importacao/**").authenticated()
                 .anyRequest().permitAll()
             )
             .httpBasic(httpBasic -> httpBasic.realmName("Actuator"));
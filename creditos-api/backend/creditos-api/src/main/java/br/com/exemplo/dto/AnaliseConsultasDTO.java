@@ -0,0 +1,72 @@
+package br.com.exemplo.dto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class AnaliseConsultasDTO {
+
+    private Instant inicioJanela;
+    private Instant fimJanela;
+    private long totalConsultas;
+    private Map<String, Long> consultasPorTipo = new LinkedHashMap<>();
+
+    // Estimativa do HyperLogLog (erro padrão de ~1% com a precisão padrão)
+    private long chavesDistintas;
+
+    private List<ChaveConsultadaDTO> maisConsultadas = new ArrayList<>();
+
+    // Construtor padrão
+    public AnaliseConsultasDTO() {}
+
+    // Getters e Setters
+    public Instant getInicioJanela() {
+        return inicioJanela;
+    }
+
+    public void setInicioJanela(Instant inicioJanela) {
+        this.inicioJanela = inicioJanela;
+    }
+
+    public Instant getFimJanela() {
+        return fimJanela;
+    }
+
+    public void setFimJanela(Instant fimJanela) {
+        this.fimJanela = fimJanela;
+    }
+
+    public long getTotalConsultas() {
+        return totalConsultas;
+    }
+
+    public void setTotalConsultas(long totalConsultas) {
+        this.totalConsultas = totalConsultas;
+    }
+
+    public Map<String, Long> getConsultasPorTipo() {
+        return consultasPorTipo;
+    }
+
+    public void setConsultasPorTipo(Map<String, Long> consultasPorTipo) {
+        this.consultasPorTipo = consultasPorTipo;
+    }
+
+    public long getChavesDistintas() {
+        return chavesDistintas;
+    }
+
+    public void setChavesDistintas(long chavesDistintas) {
+        this.chavesDistintas = chavesDistintas;
+    }
+
+    public List<ChaveConsultadaDTO> getMaisConsultadas() {
+        return maisConsultadas;
+    }
+
+    public void setMaisConsultadas(List<ChaveConsultadaDTO> maisConsultadas) {
+        this.maisConsultadas = maisConsultadas;
+    }
+}
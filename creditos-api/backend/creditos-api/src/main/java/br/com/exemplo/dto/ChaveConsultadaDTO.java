@@ -0,0 +1,45 @@
+package br.com.exemplo.dto;
+
+public class ChaveConsultadaDTO {
+
+    private String tipoConsulta;
+    private String valorConsultado;
+
+    // Estimativa do count-min sketch: pode superar, mas nunca ficar abaixo, da contagem real
+    private long consultasEstimadas;
+
+    // Construtor padrão
+    public ChaveConsultadaDTO() {}
+
+    // Construtor completo
+    public ChaveConsultadaDTO(String tipoConsulta, String valorConsultado, long consultasEstimadas) {
+        this.tipoConsulta = tipoConsulta;
+        this.valorConsultado = valorConsultado;
+        this.consultasEstimadas = consultasEstimadas;
+    }
+
+    // Getters e Setters
+    public String getTipoConsulta() {
+        return tipoConsulta;
+    }
+
+    public void setTipoConsulta(String tipoConsulta) {
+        this.tipoConsulta = tipoConsulta;
+    }
+
+    public String getValorConsultado() {
+        return valorConsultado;
+    }
+
+    public void setValorConsultado(String valorConsultado) {
+        this.valorConsultado = valorConsultado;
+    }
+
+    public long getConsultasEstimadas() {
+        return consultasEstimadas;
+    }
+
+    public void setConsultasEstimadas(long consultasEstimadas) {
+        this.consultasEstimadas = consultasEstimadas;
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.exemplo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ConsultaLoteRequestDTO {
+
+    private List<String> numerosNfse = new ArrayList<>();
+    private List<String> numerosCredito = new ArrayList<>();
+
+    // Construtor padrão
+    public ConsultaLoteRequestDTO() {}
+
+    // Construtor completo
+    public ConsultaLoteRequestDTO(List<String> numerosNfse, List<String> numerosCredito) {
+        this.numerosNfse = numerosNfse;
+        this.numerosCredito = numerosCredito;
+    }
+
+    // Getters e Setters
+    public List<String> getNumerosNfse() {
+        return numerosNfse;
+    }
+
+    public void setNumerosNfse(List<String> numerosNfse) {
+        this.numerosNfse = numerosNfse;
+    }
+
+    public List<String> getNumerosCredito() {
+        return numerosCredito;
+    }
+
+    public void setNumerosCredito(List<String> numerosCredito) {
+        this.numerosCredito = numerosCredito;
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.exemplo.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ConsultaLoteResponseDTO {
+
+    // Créditos agrupados pela NFS-e consultada (somente NFS-e encontradas)
+    private Map<String, List<CreditoResponseDTO>> creditosPorNfse = new LinkedHashMap<>();
+
+    // Créditos indexados pelo número do crédito consultado (somente encontrados)
+    private Map<String, CreditoResponseDTO> creditosPorNumero = new LinkedHashMap<>();
+
+    private List<String> nfseNaoEncontradas = new ArrayList<>();
+    private List<String> creditosNaoEncontrados = new ArrayList<>();
+
+    // Construtor padrão
+    public ConsultaLoteResponseDTO() {}
+
+    // Getters e Setters
+    public Map<String, List<CreditoResponseDTO>> getCreditosPorNfse() {
+        return creditosPorNfse;
+    }
+
+    public void setCreditosPorNfse(Map<String, List<CreditoResponseDTO>> creditosPorNfse) {
+        this.creditosPorNfse = creditosPorNfse;
+    }
+
+    public Map<String, CreditoResponseDTO> getCreditosPorNumero() {
+        return creditosPorNumero;
+    }
+
+    public void setCreditosPorNumero(Map<String, CreditoResponseDTO> creditosPorNumero) {
+        this.creditosPorNumero = creditosPorNumero;
+    }
+
+    public List<String> getNfseNaoEncontradas() {
+        return nfseNaoEncontradas;
+    }
+
+    public void setNfseNaoEncontradas(List<String> nfseNaoEncontradas) {
+        this.nfseNaoEncontradas = nfseNaoEncontradas;
+    }
+
+    public List<String> getCreditosNaoEncontrados() {
+        return creditosNaoEncontrados;
+    }
+
+    public void setCreditosNaoEncontrados(List<String> creditosNaoEncontrados) {
+        this.creditosNaoEncontrados = creditosNaoEncontrados;
+    }
+}
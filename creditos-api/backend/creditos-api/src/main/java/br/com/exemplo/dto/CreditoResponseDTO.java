@@ -1,8 +1,10 @@
 package br.com.exemplo.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 
 public class CreditoResponseDTO {
 
@@ -20,6 +22,13 @@ public class CreditoResponseDTO {
     private BigDecimal valorDeducao;
     private BigDecimal baseCalculo;
 
+    // Usados apenas nos cabeçalhos HTTP de cache (ETag/Last-Modified), fora do corpo da resposta
+    @JsonIgnore
+    private long versao;
+
+    @JsonIgnore
+    private OffsetDateTime atualizadoEm;
+
     // Construtor padrão
     public CreditoResponseDTO() {}
 
@@ -40,6 +49,17 @@ public class CreditoResponseDTO {
         this.baseCalculo = baseCalculo;
     }
 
+    // Construtor usado pela projeção JPQL, com os campos de versionamento
+    public CreditoResponseDTO(String numeroCredito, String numeroNfse, LocalDate dataConstituicao,
+                             BigDecimal valorIssqn, String tipoCredito, boolean simplesNacional,
+                             BigDecimal aliquota, BigDecimal valorFaturado, BigDecimal valorDeducao,
+                             BigDecimal baseCalculo, long versao, OffsetDateTime atualizadoEm) {
+        this(numeroCredito, numeroNfse, dataConstituicao, valorIssqn, tipoCredito, simplesNacional,
+                aliquota, valorFaturado, valorDeducao, baseCalculo);
+        this.versao = versao;
+        this.atualizadoEm = atualizadoEm;
+    }
+
     // Getters e Setters
     public String getNumeroCredito() {
         return numeroCredito;
@@ -120,4 +140,20 @@ public class CreditoResponseDTO {
     public void setBaseCalculo(BigDecimal baseCalculo) {
         this.baseCalculo = baseCalculo;
     }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(long versao) {
+        this.versao = versao;
+    }
+
+    public OffsetDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(OffsetDateTime atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
 }
@@ -0,0 +1,59 @@
+package br.com.exemplo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportacaoResultadoDTO {
+
+    private long linhasLidas;
+    private long inseridos;
+    private long atualizados;
+    private long rejeitados;
+
+    // Detalhe das primeiras linhas rejeitadas (limitado por creditos.importacao.max-rejeicoes-reportadas)
+    private List<RejeicaoImportacaoDTO> rejeicoes = new ArrayList<>();
+
+    // Construtor padrão
+    public ImportacaoResultadoDTO() {}
+
+    // Getters e Setters
+    public long getLinhasLidas() {
+        return linhasLidas;
+    }
+
+    public void setLinhasLidas(long linhasLidas) {
+        this.linhasLidas = linhasLidas;
+    }
+
+    public long getInseridos() {
+        return inseridos;
+    }
+
+    public void setInseridos(long inseridos) {
+        this.inseridos = inseridos;
+    }
+
+    public long getAtualizados() {
+        return atualizados;
+    }
+
+    public void setAtualizados(long atualizados) {
+        this.atualizados = atualizados;
+    }
+
+    public long getRejeitados() {
+        return rejeitados;
+    }
+
+    public void setRejeitados(long rejeitados) {
+        this.rejeitados = rejeitados;
+    }
+
+    public List<RejeicaoImportacaoDTO> getRejeicoes() {
+        return rejeicoes;
+    }
+
+    public void setRejeicoes(List<RejeicaoImportacaoDTO> rejeicoes) {
+        this.rejeicoes = rejeicoes;
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.exemplo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PaginaCreditosDTO {
+
+    private List<CreditoResponseDTO> creditos = new ArrayList<>();
+    private int tamanhoPagina;
+    private boolean possuiMais;
+
+    // Cursor opaco a ser enviado para obter a próxima página (nulo na última página)
+    private String proximoCursor;
+
+    // Construtor padrão
+    public PaginaCreditosDTO() {}
+
+    // Construtor completo
+    public PaginaCreditosDTO(List<CreditoResponseDTO> creditos, int tamanhoPagina, String proximoCursor) {
+        this.creditos = creditos;
+        this.tamanhoPagina = tamanhoPagina;
+        this.proximoCursor = proximoCursor;
+        this.possuiMais = proximoCursor != null;
+    }
+
+    // Getters e Setters
+    public List<CreditoResponseDTO> getCreditos() {
+        return creditos;
+    }
+
+    public void setCreditos(List<CreditoResponseDTO> creditos) {
+        this.creditos = creditos;
+    }
+
+    public int getTamanhoPagina() {
+        return tamanhoPagina;
+    }
+
+    public void setTamanhoPagina(int tamanhoPagina) {
+        this.tamanhoPagina = tamanhoPagina;
+    }
+
+    public boolean isPossuiMais() {
+        return possuiMais;
+    }
+
+    public void setPossuiMais(boolean possuiMais) {
+        this.possuiMais = possuiMais;
+    }
+
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+
+    public void setProximoCursor(String proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.exemplo.dto;
+
+public class RejeicaoImportacaoDTO {
+
+    // Número da linha no arquivo enviado (a partir de 1, contando o cabeçalho do CSV)
+    private long linha;
+    private String motivo;
+
+    // Construtor padrão
+    public RejeicaoImportacaoDTO() {}
+
+    public RejeicaoImportacaoDTO(long linha, String motivo) {
+        this.linha = linha;
+        this.motivo = motivo;
+    }
+
+    // Getters e Setters
+    public long getLinha() {
+        return linha;
+    }
+
+    public void setLinha(long linha) {
+        this.linha = linha;
+    }
+
+    public String getMotivo() {
+        return motivo;
+    }
+
+    public void setMotivo(String motivo) {
+        this.motivo = motivo;
+    }
+}
@@ -0,0 +1,98 @@
+package br.com.exemplo.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Totais de um grupo do resumo de ISSQN. As dimensões fora do agrupamento pedido
+ * ficam nulas e não aparecem no JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResumoIssqnDTO {
+
+    private String tipoCredito;
+
+    @JsonFormat(pattern = "yyyy-MM")
+    private YearMonth mes;
+
+    private String simplesNacional;
+    private long quantidade;
+    private BigDecimal totalValorIssqn;
+    private BigDecimal totalValorFaturado;
+    private BigDecimal totalBaseCalculo;
+
+    // Construtor padrão
+    public ResumoIssqnDTO() {}
+
+    // Construtor completo
+    public ResumoIssqnDTO(String tipoCredito, YearMonth mes, Boolean simplesNacional, long quantidade,
+                          BigDecimal totalValorIssqn, BigDecimal totalValorFaturado, BigDecimal totalBaseCalculo) {
+        this.tipoCredito = tipoCredito;
+        this.mes = mes;
+        this.simplesNacional = simplesNacional == null ? null : simplesNacional ? "Sim" : "Não";
+        this.quantidade = quantidade;
+        this.totalValorIssqn = totalValorIssqn;
+        this.totalValorFaturado = totalValorFaturado;
+        this.totalBaseCalculo = totalBaseCalculo;
+    }
+
+    // Getters e Setters
+    public String getTipoCredito() {
+        return tipoCredito;
+    }
+
+    public void setTipoCredito(String tipoCredito) {
+        this.tipoCredito = tipoCredito;
+    }
+
+    public YearMonth getMes() {
+        return mes;
+    }
+
+    public void setMes(YearMonth mes) {
+        this.mes = mes;
+    }
+
+    public String getSimplesNacional() {
+        return simplesNacional;
+    }
+
+    public void setSimplesNacional(String simplesNacional) {
+        this.simplesNacional = simplesNacional;
+    }
+
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(long quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public BigDecimal getTotalValorIssqn() {
+        return totalValorIssqn;
+    }
+
+    public void setTotalValorIssqn(BigDecimal totalValorIssqn) {
+        this.totalValorIssqn = totalValorIssqn;
+    }
+
+    public BigDecimal getTotalValorFaturado() {
+        return totalValorFaturado;
+    }
+
+    public void setTotalValorFaturado(BigDecimal totalValorFaturado) {
+        this.totalValorFaturado = totalValorFaturado;
+    }
+
+    public BigDecimal getTotalBaseCalculo() {
+        return totalBaseCalculo;
+    }
+
+    public void setTotalBaseCalculo(BigDecimal totalBaseCalculo) {
+        this.totalBaseCalculo = totalBaseCalculo;
+    }
+}
@@ -0,0 +1,49 @@
+package br.com.exemplo.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Campos de versionamento de um crédito, suficientes para calcular o ETag de uma
+ * consulta sem carregar nem serializar o crédito inteiro.
+ */
+public class VersaoCreditoDTO {
+
+    private String numeroCredito;
+    private long versao;
+    private OffsetDateTime atualizadoEm;
+
+    // Construtor padrão
+    public VersaoCreditoDTO() {}
+
+    // Construtor usado pela projeção JPQL
+    public VersaoCreditoDTO(String numeroCredito, long versao, OffsetDateTime atualizadoEm) {
+        this.numeroCredito = numeroCredito;
+        this.versao = versao;
+        this.atualizadoEm = atualizadoEm;
+    }
+
+    // Getters e Setters
+    public String getNumeroCredito() {
+        return numeroCredito;
+    }
+
+    public void setNumeroCredito(String numeroCredito) {
+        this.numeroCredito = numeroCredito;
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(long versao) {
+        this.versao = versao;
+    }
+
+    public OffsetDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(OffsetDateTime atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
+}
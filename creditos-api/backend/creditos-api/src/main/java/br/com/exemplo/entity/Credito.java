@@ -1,18 +1,24 @@
 package br.com.exemplo.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 
 @Entity
 @Table(name = "credito")
 public class Credito {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence com alocação em bloco (pooled): os ids são conhecidos antes do INSERT,
+    // o que permite ao Hibernate agrupar as inserções em batches JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "credito_id_gen")
+    @SequenceGenerator(name = "credito_id_gen", sequenceName = "credito_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(name = "numero_credito", nullable = false)
+    @Column(name = "numero_credito", nullable = false, unique = true)
     private String numeroCredito;
 
     @Column(name = "numero_nfse", nullable = false)
@@ -42,6 +48,17 @@ public class Credito {
     @Column(name = "base_calculo", precision = 15, scale = 2, nullable = false)
     private BigDecimal baseCalculo;
 
+    // Incrementada a cada UPDATE (pelo Hibernate e pelo trigger da tabela); compõe o ETag
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "versao", nullable = false)
+    private long versao;
+
+    // Mantido pelo banco (DEFAULT no INSERT, trigger no UPDATE); vira o Last-Modified
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "atualizado_em", nullable = false, insertable = false, updatable = false)
+    private OffsetDateTime atualizadoEm;
+
     // Construtores
     public Credito() {}
 
@@ -149,4 +166,20 @@ public class Credito {
     public void setBaseCalculo(BigDecimal baseCalculo) {
         this.baseCalculo = baseCalculo;
     }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(long versao) {
+        this.versao = versao;
+    }
+
+    public OffsetDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(OffsetDateTime atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
 }
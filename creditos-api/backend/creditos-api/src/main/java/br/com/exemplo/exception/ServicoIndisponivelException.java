@@ -0,0 +1,21 @@
+package br.com.exemplo.exception;
+
+import java.time.Duration;
+
+/**
+ * Requisição recusada por sobrecarga ou por espera esgotada; respondida com 503 e
+ * Retry-After pelo {@link GlobalExceptionHandler}.
+ */
+public class ServicoIndisponivelException extends RuntimeException {
+
+    private final Duration tentarNovamenteEm;
+
+    public ServicoIndisponivelException(String message, Duration tentarNovamenteEm) {
+        super(message);
+        this.tentarNovamenteEm = tentarNovamenteEm;
+    }
+
+    public Duration getTentarNovamenteEm() {
+        return tentarNovamenteEm;
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.exemplo.limite;
+
+import br.com.exemplo.config.CreditosProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Baldes de fichas por cliente: cada requisição consome uma ficha, repostas à
+ * {@code taxa} por segundo até a capacidade {@code rajada}. Um cliente abusivo esgota
+ * o próprio balde sem afetar os demais.
+ *
+ * O estado é dividido em listras, cada uma com sua trava e seu mapa de baldes; clientes
+ * de listras diferentes nunca disputam a mesma trava. Cada listra guarda no máximo
+ * {@code maxClientes / listras} baldes e descarta o usado há mais tempo (LRU): um
+ * cliente descartado volta com o balde cheio, o que só o favorece.
+ */
+public class BaldesCliente {
+
+    private final Listra[] listras;
+    private final int mascara;
+    private final double fichasPorNano;
+    private final double capacidade;
+
+    public BaldesCliente(CreditosProperties.Cliente config) {
+        if (config.getTaxa() <= 0 || config.getRajada() < 1 || config.getListras() < 1) {
+            throw new IllegalArgumentException("Taxa, rajada e listras devem ser positivas");
+        }
+        int quantidade = Integer.highestOneBit(config.getListras()) == config.getListras()
+                ? config.getListras() : Integer.highestOneBit(config.getListras()) << 1;
+        int porListra = Math.max(1, config.getMaxClientes() / quantidade);
+        this.listras = new Listra[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            listras[i] = new Listra(porListra);
+        }
+        this.mascara = quantidade - 1;
+        this.fichasPorNano = config.getTaxa() / 1_000_000_000.0;
+        this.capacidade = config.getRajada();
+    }
+
+    /**
+     * Consome uma ficha do cliente.
+     *
+     * @return 0 se havia ficha; senão, nanossegundos até a próxima ficha
+     */
+    public long tentarConsumir(String cliente, long agoraNanos) {
+        int hash = cliente.hashCode();
+        Listra listra = listras[(hash ^ (hash >>> 16)) & mascara];
+        synchronized (listra) {
+            Balde balde = listra.baldes.get(cliente);
+            if (balde == null) {
+                balde = new Balde(capacidade, agoraNanos);
+                listra.baldes.put(cliente, balde);
+            } else if (agoraNanos > balde.atualizadoEm) {
+                balde.fichas = Math.min(capacidade, balde.fichas + (agoraNanos - balde.atualizadoEm) * fichasPorNano);
+                balde.atualizadoEm = agoraNanos;
+            }
+            if (balde.fichas >= 1) {
+                balde.fichas -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - balde.fichas) / fichasPorNano));
+        }
+    }
+
+    int clientes() {
+        int total = 0;
+        for (Listra listra : listras) {
+            synchronized (listra) {
+                total += listra.baldes.size();
+            }
+        }
+        return total;
+    }
+
+    private static final class Listra {
+
+        private final LinkedHashMap<String, Balde> baldes;
+
+        Listra(int maxBaldes) {
+            this.baldes = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Balde> maisAntigo) {
+                    return size() > maxBaldes;
+                }
+            };
+        }
+    }
+
+    private static final class Balde {
+
+        private double fichas;
+        private long atualizadoEm;
+
+        Balde(double fichas, long atualizadoEm) {
+            this.fichas = fichas;
+            this.atualizadoEm = atualizadoEm;
+        }
+    }
+}
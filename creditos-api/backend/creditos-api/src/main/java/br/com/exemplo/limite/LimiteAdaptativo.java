@@ -0,0 +1,123 @@
+package br.com.exemplo.limite;
+
+import br.com.exemplo.config.CreditosProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de requisições simultâneas ajustado pela latência medida (algoritmo de
+ * gradiente, como o Gradient2 do concurrency-limits da Netflix).
+ *
+ * A cada janela de amostras compara a latência média da janela com a de referência
+ * (média móvel exponencial das janelas anteriores): enquanto a razão fica dentro da
+ * tolerância o limite cresce em torno de sqrt(limite) por ajuste; acima dela o limite
+ * cai proporcionalmente, até a metade por ajuste. Requisições que passariam do limite
+ * são recusadas em vez de esperar na fila do pool de conexões.
+ *
+ * Adquirir e liberar são lock-free (CAS no contador); só o fechamento de cada janela
+ * de amostras é sincronizado.
+ */
+public class LimiteAdaptativo {
+
+    // Gradiente mínimo: o limite cai no máximo pela metade em um ajuste
+    private static final double GRADIENTE_MINIMO = 0.5;
+
+    private final CreditosProperties.Concorrencia config;
+    private final double alfaReferencia;
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private volatile int limite;
+
+    // Protegidos por this
+    private double latenciaReferencia;
+    private long somaLatencias;
+    private int amostras;
+    private int maxEmAndamento;
+
+    public LimiteAdaptativo(CreditosProperties.Concorrencia config) {
+        if (config.getLimiteMinimo() < 1 || config.getLimiteMaximo() < config.getLimiteMinimo()
+                || config.getAmostrasPorJanela() < 1 || config.getJanelasReferencia() < 1) {
+            throw new IllegalArgumentException("Configuração do limite de concorrência inválida");
+        }
+        this.config = config;
+        this.alfaReferencia = 2.0 / (config.getJanelasReferencia() + 1);
+        this.limite = Math.max(config.getLimiteMinimo(), Math.min(config.getLimiteMaximo(), config.getLimiteInicial()));
+    }
+
+    /**
+     * Reserva uma vaga se houver. Devolve a quantidade em andamento incluindo esta
+     * requisição, ou 0 se o limite foi atingido.
+     */
+    public int tentarAdquirir() {
+        while (true) {
+            int atual = emAndamento.get();
+            if (atual >= limite) {
+                return 0;
+            }
+            if (emAndamento.compareAndSet(atual, atual + 1)) {
+                return atual + 1;
+            }
+        }
+    }
+
+    /**
+     * Libera a vaga sem amostra de latência (requisições cuja duração não reflete a
+     * carga, como respostas em streaming).
+     */
+    public void liberar() {
+        emAndamento.decrementAndGet();
+    }
+
+    /**
+     * Libera a vaga e registra a latência da requisição.
+     *
+     * @param emAndamentoNaAquisicao valor devolvido por {@link #tentarAdquirir()}
+     */
+    public void liberar(long latenciaNanos, int emAndamentoNaAquisicao) {
+        emAndamento.decrementAndGet();
+        registrarAmostra(latenciaNanos, emAndamentoNaAquisicao);
+    }
+
+    private synchronized void registrarAmostra(long latenciaNanos, int emAndamentoNaAquisicao) {
+        somaLatencias += Math.max(1, latenciaNanos);
+        maxEmAndamento = Math.max(maxEmAndamento, emAndamentoNaAquisicao);
+        if (++amostras < config.getAmostrasPorJanela()) {
+            return;
+        }
+        double latenciaJanela = (double) somaLatencias / amostras;
+        int demanda = maxEmAndamento;
+        somaLatencias = 0;
+        amostras = 0;
+        maxEmAndamento = 0;
+
+        if (latenciaReferencia == 0) {
+            latenciaReferencia = latenciaJanela;
+            return;
+        }
+        latenciaReferencia += (latenciaJanela - latenciaReferencia) * alfaReferencia;
+        // Depois de um período de latência alta a referência fica inflada: aproxima-a da atual
+        if (latenciaReferencia > 2 * latenciaJanela) {
+            latenciaReferencia *= 0.95;
+        }
+
+        // Com menos da metade do limite em uso a latência não diz nada sobre ele
+        int atual = limite;
+        if (demanda < atual / 2) {
+            return;
+        }
+        double gradiente = Math.max(GRADIENTE_MINIMO,
+                Math.min(1.0, config.getTolerancia() * latenciaReferencia / latenciaJanela));
+        double novo = atual * gradiente + Math.sqrt(atual);
+        novo = atual * (1 - config.getSuavizacao()) + novo * config.getSuavizacao();
+        // Arredonda no sentido do ajuste: com limites pequenos o passo suavizado é menor que 1
+        long arredondado = (long) (novo >= atual ? Math.ceil(novo) : Math.floor(novo));
+        limite = (int) Math.max(config.getLimiteMinimo(), Math.min(config.getLimiteMaximo(), arredondado));
+    }
+
+    public int limite() {
+        return limite;
+    }
+
+    public int emAndamento() {
+        return emAndamento.get();
+    }
+}
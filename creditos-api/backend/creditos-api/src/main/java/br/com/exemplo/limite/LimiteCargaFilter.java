@@ -0,0 +1,182 @@
+package br.com.exemplo.limite;
+
+import br.com.exemplo.config.CreditosProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proteção contra sobrecarga das consultas em /api/creditos/** (a importação, longa e
+ * autenticada, e os preflights do CORS ficam de fora). Roda antes de qualquer outro filtro:
+ *
+ * 1. balde de fichas do cliente: sem ficha, 429 com o tempo até a próxima em Retry-After;
+ * 2. limite adaptativo de concorrência: acima dele, 503 imediato com Retry-After, em
+ *    vez de a requisição esperar por uma conexão do Hikari até o timeout.
+ *
+ * Sem cabeçalho configurado, o cliente é o IP remoto: atrás do balanceador ele só é o IP
+ * real com server.forward-headers-strategy=native, que o corrige antes dos filtros.
+ *
+ * As respostas em streaming (processamento assíncrono) ocupam a vaga até terminarem,
+ * mas não entram nas amostras de latência, pois sua duração depende do volume enviado.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LimiteCargaFilter extends OncePerRequestFilter {
+
+    private static final String PREFIXO = "/api/creditos/";
+    private static final String PREFIXO_IMPORTACAO = "/api/creditos/importacao";
+
+    private final CreditosProperties.Limite config;
+    private final ObjectMapper objectMapper;
+    private final LimiteAdaptativo limite;
+    private final BaldesCliente baldes;
+    private final Counter rejeitadasConcorrencia;
+    private final Counter rejeitadasCliente;
+
+    @Autowired
+    public LimiteCargaFilter(CreditosProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.config = properties.getLimite();
+        this.objectMapper = objectMapper;
+        this.limite = new LimiteAdaptativo(config.getConcorrencia());
+        this.baldes = config.getCliente().isHabilitado() ? new BaldesCliente(config.getCliente()) : null;
+
+        Gauge.builder("creditos.limite.concorrencia", limite, LimiteAdaptativo::limite)
+                .description("Limite atual de requisições simultâneas")
+                .register(meterRegistry);
+        Gauge.builder("creditos.limite.em.andamento", limite, LimiteAdaptativo::emAndamento)
+                .description("Requisições em andamento sob o limite de concorrência")
+                .register(meterRegistry);
+        this.rejeitadasConcorrencia = Counter.builder("creditos.limite.rejeicoes")
+                .description("Requisições recusadas pela proteção contra sobrecarga")
+                .tag("motivo", "concorrencia")
+                .register(meterRegistry);
+        this.rejeitadasCliente = Counter.builder("creditos.limite.rejeicoes")
+                .description("Requisições recusadas pela proteção contra sobrecarga")
+                .tag("motivo", "cliente")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Preflights não chegam ao controller e não devem consumir fichas nem vagas
+        if (!config.isHabilitado() || CorsUtils.isPreFlightRequest(request)) {
+            return true;
+        }
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        return !caminho.startsWith(PREFIXO) || caminho.startsWith(PREFIXO_IMPORTACAO);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (baldes != null) {
+            long espera = baldes.tentarConsumir(cliente(request), System.nanoTime());
+            if (espera > 0) {
+                rejeitadasCliente.increment();
+                recusar(request, response, HttpStatus.TOO_MANY_REQUESTS, espera,
+                        "Limite de requisições do cliente excedido");
+                return;
+            }
+        }
+
+        int emAndamento = limite.tentarAdquirir();
+        if (emAndamento == 0) {
+            rejeitadasConcorrencia.increment();
+            recusar(request, response, HttpStatus.SERVICE_UNAVAILABLE,
+                    config.getConcorrencia().getTentarNovamenteEm().toNanos(), "Servidor sobrecarregado");
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        boolean assincrona = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                assincrona = true;
+                request.getAsyncContext().addListener(new LiberacaoAssincrona());
+            }
+        } finally {
+            if (!assincrona) {
+                limite.liberar(System.nanoTime() - inicio, emAndamento);
+            }
+        }
+    }
+
+    private String cliente(HttpServletRequest request) {
+        String cabecalho = config.getCliente().getCabecalho();
+        if (StringUtils.hasText(cabecalho)) {
+            String valor = request.getHeader(cabecalho);
+            if (StringUtils.hasText(valor)) {
+                return valor;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void recusar(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                         long esperaNanos, String mensagem) throws IOException {
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("message", mensagem);
+        errorDetails.put("details", "uri=" + request.getRequestURI());
+        errorDetails.put("status", status.value());
+
+        response.setStatus(status.value());
+        // Retry-After em segundos inteiros, arredondado para cima
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, (esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorDetails);
+    }
+
+    LimiteAdaptativo limite() {
+        return limite;
+    }
+
+    /**
+     * Libera a vaga de uma resposta assíncrona quando ela termina (onComplete é chamado
+     * também depois de erro ou timeout).
+     */
+    private final class LiberacaoAssincrona implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limite.liberar();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.exemplo.messaging;
+
+import br.com.exemplo.dto.ConsultaEventDTO;
+import br.com.exemplo.service.AnaliseConsultasService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Consome o tópico consulta-creditos em lotes (até spring.kafka.consumer.max-poll-records
+ * por poll) e alimenta as estatísticas de consulta.
+ *
+ * Usa o grupo spring.kafka.consumer.group-id, então as partições são divididas entre
+ * as instâncias e cada uma vê uma amostra do tráfego. Para que cada instância veja o
+ * tópico inteiro, configure um grupo próprio em creditos.analise.grupo.
+ */
+@Component
+@ConditionalOnProperty(name = "creditos.analise.habilitada", havingValue = "true")
+public class ConsultaAnaliseListener {
+
+    @Autowired
+    private AnaliseConsultasService analiseConsultasService;
+
+    @KafkaListener(topics = ConsultaPublisher.TOPIC_CONSULTA_CREDITOS,
+            groupId = "${creditos.analise.grupo:${spring.kafka.consumer.group-id}}",
+            batch = "true")
+    public void consumir(List<ConsultaEventDTO> eventos) {
+        analiseConsultasService.registrar(eventos);
+    }
+}
@@ -1,51 +1,262 @@
 package br.com.exemplo.messaging;
 
+import br.com.exemplo.config.CreditosProperties;
 import br.com.exemplo.dto.ConsultaEventDTO;
+import br.com.exemplo.metricas.MetricasCreditos;
+import br.com.exemplo.repository.OutboxConsultaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.CompletableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Publica os eventos de auditoria de consulta no Kafka sem bloquear as requisições.
+ *
+ * As requisições apenas enfileiram o evento em uma fila circular limitada; uma
+ * thread dedicada retira os eventos em lotes e os entrega ao KafkaTemplate, que
+ * agrupa os registros no produtor. Quando a fila está cheia, a política de
+ * overflow configurada decide qual evento é descartado.
+ *
+ * Eventos recusados pelo broker vão para o {@link SpoolEventosConsulta} e são
+ * reenviados pelo {@link ReenvioSpoolConsulta}. Enquanto houver eventos no spool,
+ * os novos também são gravados nele para preservar a ordem de entrega.
+ *
+ * No modo {@link ModoEntregaAuditoria#OUTBOX} cada lote é gravado de uma vez na
+ * tabela outbox_consulta e a publicação fica a cargo do {@link RelayOutboxConsulta}.
+ */
 @Service
-public class ConsultaPublisher {
+public class ConsultaPublisher implements SmartLifecycle {
 
     private static final Logger logger = LoggerFactory.getLogger(ConsultaPublisher.class);
-    private static final String TOPIC_CONSULTA_CREDITOS = "consulta-creditos";
+    static final String TOPIC_CONSULTA_CREDITOS = "consulta-creditos";
+    private static final long ESPERA_POR_EVENTOS_MS = 100;
+
+    private final KafkaTemplate<String, ConsultaEventDTO> kafkaTemplate;
+    private final CreditosProperties.Auditoria config;
+    private final SpoolEventosConsulta spool;
+    private final OutboxConsultaRepository outboxRepository;
+    private final BlockingQueue<ConsultaEventDTO> fila;
+    private final Counter descartados;
+    private final Counter enviados;
+    private final Counter falhas;
+    private final Timer envioConfirmado;
+    private final Timer envioFalho;
+
+    private volatile boolean executando;
+    private Thread enviador;
 
     @Autowired
-    private KafkaTemplate<String, ConsultaEventDTO> kafkaTemplate;
+    public ConsultaPublisher(KafkaTemplate<String, ConsultaEventDTO> kafkaTemplate, CreditosProperties properties,
+                             MeterRegistry meterRegistry, SpoolEventosConsulta spool,
+                             OutboxConsultaRepository outboxRepository) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.spool = spool;
+        this.outboxRepository = outboxRepository;
+        this.config = properties.getAuditoria();
+        this.fila = new ArrayBlockingQueue<>(config.getCapacidadeFila());
+
+        Gauge.builder("creditos.auditoria.fila.tamanho", fila, BlockingQueue::size)
+                .description("Eventos de auditoria aguardando envio")
+                .register(meterRegistry);
+        this.descartados = Counter.builder("creditos.auditoria.eventos.descartados")
+                .description("Eventos descartados por fila cheia")
+                .tag("politica", config.getPoliticaOverflow().name())
+                .register(meterRegistry);
+        this.enviados = Counter.builder("creditos.auditoria.eventos.enviados")
+                .description("Eventos confirmados pelo broker")
+                .register(meterRegistry);
+        this.falhas = Counter.builder("creditos.auditoria.eventos.falhas")
+                .description("Eventos cujo envio ao broker falhou")
+                .register(meterRegistry);
+        this.envioConfirmado = MetricasCreditos.temporizador("creditos.auditoria.envio",
+                "Tempo entre o envio ao produtor e a confirmação do broker", meterRegistry, "resultado", "sucesso");
+        this.envioFalho = MetricasCreditos.temporizador("creditos.auditoria.envio",
+                "Tempo entre o envio ao produtor e a confirmação do broker", meterRegistry, "resultado", "falha");
+    }
 
     /**
-     * Publica evento de consulta no tópico Kafka
+     * Enfileira o evento de consulta para publicação assíncrona no tópico Kafka.
+     * Nunca lança exceção nem espera pelo broker.
      */
     public void publishConsultaEvent(ConsultaEventDTO evento) {
+        // Validação defensiva - evita NPE
+        if (evento == null || evento.getTipoConsulta() == null || evento.getTimestampConsulta() == null) {
+            logger.warn("Evento inválido ou com campos nulos - ignorando publicação");
+            return;
+        }
+
+        switch (config.getPoliticaOverflow()) {
+            case DESCARTAR_MAIS_NOVO -> {
+                if (!fila.offer(evento)) {
+                    descartados.increment();
+                }
+            }
+            case DESCARTAR_MAIS_ANTIGO -> {
+                while (!fila.offer(evento)) {
+                    if (fila.poll() != null) {
+                        descartados.increment();
+                    }
+                }
+            }
+            case BLOQUEAR -> {
+                try {
+                    if (!fila.offer(evento, config.getTimeoutBloqueio().toNanos(), TimeUnit.NANOSECONDS)) {
+                        descartados.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    descartados.increment();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        executando = true;
+        enviador = new Thread(this::enviarContinuamente, "consulta-publisher");
+        enviador.setDaemon(true);
+        enviador.start();
+    }
+
+    /**
+     * Para de aguardar novos eventos e envia o que restou na fila antes do
+     * encerramento do produtor Kafka.
+     */
+    @Override
+    public void stop() {
+        executando = false;
+        if (enviador == null) {
+            return;
+        }
         try {
-            // Validação defensiva - evita NPE
-            if (evento == null || evento.getTipoConsulta() == null || evento.getTimestampConsulta() == null) {
-                logger.warn("Evento inválido ou com campos nulos - ignorando publicação");
+            enviador.join(config.getTimeoutDrenagem().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!fila.isEmpty()) {
+            logger.warn("{} eventos de auditoria não foram enviados no desligamento", fila.size());
+        }
+        spool.sincronizar();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executando;
+    }
+
+    /**
+     * Para depois do servidor web, para que as últimas requisições ainda sejam auditadas.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void enviarContinuamente() {
+        while (executando) {
+            try {
+                ConsultaEventDTO primeiro = fila.poll(ESPERA_POR_EVENTOS_MS, TimeUnit.MILLISECONDS);
+                if (primeiro != null) {
+                    List<ConsultaEventDTO> lote = new ArrayList<>(config.getTamanhoLote());
+                    lote.add(primeiro);
+                    fila.drainTo(lote, config.getTamanhoLote() - 1);
+                    enviarLote(lote);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Erro inesperado no envio de eventos de consulta", e);
+            }
+        }
+        while (drenarFila() > 0) {
+            // envia o restante da fila no desligamento
+        }
+        kafkaTemplate.flush();
+    }
+
+    /**
+     * Retira um lote da fila e o envia.
+     *
+     * @return quantidade de eventos retirados
+     */
+    int drenarFila() {
+        List<ConsultaEventDTO> lote = new ArrayList<>();
+        fila.drainTo(lote, config.getTamanhoLote());
+        enviarLote(lote);
+        return lote.size();
+    }
+
+    private void enviarLote(List<ConsultaEventDTO> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        if (config.getModo() == ModoEntregaAuditoria.OUTBOX) {
+            try {
+                outboxRepository.inserir(lote);
                 return;
+            } catch (Exception e) {
+                logger.warn("Falha ao gravar {} eventos na outbox - enviando direto ao Kafka", lote.size(), e);
             }
-            
-            String key = evento.getTipoConsulta() + "_" + evento.getTimestampConsulta().toString();
-            
-            CompletableFuture<SendResult<String, ConsultaEventDTO>> future = 
-                kafkaTemplate.send(TOPIC_CONSULTA_CREDITOS, key, evento);
-            
-            future.thenAccept(result -> {
-                logger.info("Evento de consulta enviado com sucesso: {} no offset: {}", 
-                           evento.getValorConsultado(), result.getRecordMetadata().offset());
-            }).exceptionally(failure -> {
-                logger.error("Falha ao enviar evento de consulta: {}", evento.getValorConsultado(), failure);
-                throw new RuntimeException("Kafka indisponível", failure);
-            });
-            
+        }
+        for (ConsultaEventDTO evento : lote) {
+            enviar(evento);
+        }
+    }
+
+    private void enviar(ConsultaEventDTO evento) {
+        if (spool.possuiPendentes()) {
+            gravarNoSpool(evento);
+            return;
+        }
+        long inicio = System.nanoTime();
+        try {
+            kafkaTemplate.send(TOPIC_CONSULTA_CREDITOS, montarChave(evento), evento)
+                    .whenComplete((result, failure) -> {
+                        (failure == null ? envioConfirmado : envioFalho)
+                                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                        if (failure == null) {
+                            enviados.increment();
+                            logger.debug("Evento de consulta enviado com sucesso: {} no offset: {}",
+                                    evento.getValorConsultado(), result.getRecordMetadata().offset());
+                        } else {
+                            falhas.increment();
+                            logger.warn("Falha ao enviar evento de consulta: {} - gravando no spool",
+                                    evento.getValorConsultado(), failure);
+                            gravarNoSpool(evento);
+                        }
+                    });
         } catch (Exception e) {
-            logger.error("Erro ao publicar evento de consulta no Kafka", e);
-            throw new RuntimeException("Kafka indisponível", e);
+            falhas.increment();
+            logger.warn("Erro ao publicar evento de consulta no Kafka - gravando no spool", e);
+            gravarNoSpool(evento);
+        }
+    }
+
+    private void gravarNoSpool(ConsultaEventDTO evento) {
+        if (!spool.anexar(evento)) {
+            logger.error("Evento de consulta perdido: {}", evento.getValorConsultado());
         }
     }
+
+    static String montarChave(ConsultaEventDTO evento) {
+        return evento.getTipoConsulta() + "_" + evento.getTimestampConsulta().toString();
+    }
+
+    int tamanhoFila() {
+        return fila.size();
+    }
 }
@@ -0,0 +1,13 @@
+package br.com.exemplo.messaging;
+
+/**
+ * Como os eventos de auditoria retirados da fila chegam ao tópico Kafka.
+ */
+public enum ModoEntregaAuditoria {
+
+    // Envia direto pelo KafkaTemplate
+    DIRETO,
+
+    // Grava na tabela outbox_consulta; o RelayOutboxConsulta publica no Kafka
+    OUTBOX
+}
@@ -0,0 +1,168 @@
+package br.com.exemplo.messaging;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.ConsultaEventDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reenvia periodicamente ao Kafka os eventos gravados no spool, em ordem.
+ *
+ * Cada lote é enviado e aguardado; apenas o prefixo confirmado pelo broker é
+ * marcado como entregue. Na primeira falha o reenvio para até o próximo ciclo,
+ * mantendo o restante no spool.
+ *
+ * Também sincroniza com o disco, a cada {@code intervalo-sincronizacao}, os eventos
+ * anexados ao spool desde a última sincronização.
+ */
+@Component
+public class ReenvioSpoolConsulta implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReenvioSpoolConsulta.class);
+
+    private final KafkaTemplate<String, ConsultaEventDTO> kafkaTemplate;
+    private final SpoolEventosConsulta spool;
+    private final CreditosProperties.Auditoria config;
+    private final Counter reenviados;
+
+    private ScheduledExecutorService agendador;
+    private ScheduledExecutorService sincronizador;
+
+    @Autowired
+    public ReenvioSpoolConsulta(KafkaTemplate<String, ConsultaEventDTO> kafkaTemplate, SpoolEventosConsulta spool,
+                                CreditosProperties properties, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.spool = spool;
+        this.config = properties.getAuditoria();
+
+        Gauge.builder("creditos.auditoria.spool.pendentes", spool, SpoolEventosConsulta::getPendentes)
+                .description("Eventos de auditoria no spool aguardando reenvio")
+                .register(meterRegistry);
+        this.reenviados = Counter.builder("creditos.auditoria.spool.reenviados")
+                .description("Eventos do spool confirmados pelo broker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reenvia os eventos pendentes até esvaziar o spool ou encontrar uma falha.
+     *
+     * @return quantidade de eventos confirmados
+     */
+    int reenviarPendentes() {
+        int total = 0;
+        while (spool.possuiPendentes()) {
+            SpoolEventosConsulta.Lote lote = spool.lerProximos(config.getTamanhoLote());
+            if (lote.isEmpty()) {
+                break;
+            }
+
+            List<CompletableFuture<?>> envios = new ArrayList<>(lote.getEventos().size());
+            for (ConsultaEventDTO evento : lote.getEventos()) {
+                try {
+                    envios.add(kafkaTemplate.send(ConsultaPublisher.TOPIC_CONSULTA_CREDITOS,
+                            ConsultaPublisher.montarChave(evento), evento));
+                } catch (Exception e) {
+                    envios.add(CompletableFuture.failedFuture(e));
+                    break;
+                }
+            }
+
+            int confirmados = 0;
+            long prazo = System.nanoTime() + config.getSpool().getTimeoutReenvio().toNanos();
+            for (CompletableFuture<?> envio : envios) {
+                try {
+                    envio.get(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    confirmados++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    logger.warn("Broker indisponível para reenvio do spool de auditoria: {}", e.getMessage());
+                    break;
+                }
+            }
+
+            spool.confirmar(lote, confirmados);
+            reenviados.increment(confirmados);
+            total += confirmados;
+            if (confirmados < lote.getEventos().size()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.info("{} eventos de auditoria reenviados a partir do spool", total);
+        }
+        return total;
+    }
+
+    @Override
+    public void start() {
+        long intervalo = config.getSpool().getIntervaloReenvio().toMillis();
+        agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "consulta-spool-reenvio");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(() -> {
+            try {
+                reenviarPendentes();
+            } catch (Exception e) {
+                logger.error("Erro inesperado no reenvio do spool de auditoria", e);
+            }
+        }, intervalo, intervalo, TimeUnit.MILLISECONDS);
+
+        // Em uma thread própria: o reenvio pode ficar bloqueado à espera do broker
+        long intervaloSincronizacao = config.getSpool().getIntervaloSincronizacao().toMillis();
+        sincronizador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "consulta-spool-sincronizacao");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sincronizador.scheduleWithFixedDelay(() -> {
+            try {
+                spool.sincronizarAnexados();
+            } catch (Exception e) {
+                logger.error("Erro ao sincronizar o spool de auditoria com o disco", e);
+            }
+        }, intervaloSincronizacao, intervaloSincronizacao, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+            agendador = null;
+        }
+        if (sincronizador != null) {
+            sincronizador.shutdownNow();
+            sincronizador = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return agendador != null;
+    }
+
+    /**
+     * Para junto com o publicador, antes do encerramento do produtor Kafka.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,165 @@
+package br.com.exemplo.messaging;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.ConsultaEventDTO;
+import br.com.exemplo.repository.OutboxConsultaRepository;
+import br.com.exemplo.repository.OutboxConsultaRepository.RegistroOutbox;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publica no Kafka os eventos gravados na tabela outbox_consulta.
+ *
+ * Cada worker, em uma transação, bloqueia um lote com FOR UPDATE SKIP LOCKED,
+ * envia todos os eventos de uma vez (o produtor os agrupa em batches), aguarda
+ * as confirmações e apaga as linhas. Workers de outras threads ou instâncias
+ * pulam as linhas bloqueadas, então não há trabalho duplicado; se o envio
+ * falhar, o rollback libera o lote para uma nova tentativa.
+ */
+@Component
+@ConditionalOnProperty(name = "creditos.auditoria.modo", havingValue = "OUTBOX")
+public class RelayOutboxConsulta implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelayOutboxConsulta.class);
+
+    private final KafkaTemplate<String, ConsultaEventDTO> kafkaTemplate;
+    private final OutboxConsultaRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CreditosProperties.Outbox config;
+    private final Counter publicados;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean executando;
+
+    @Autowired
+    public RelayOutboxConsulta(KafkaTemplate<String, ConsultaEventDTO> kafkaTemplate,
+                               OutboxConsultaRepository outboxRepository,
+                               PlatformTransactionManager transactionManager,
+                               CreditosProperties properties, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.outboxRepository = outboxRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = properties.getAuditoria().getOutbox();
+        this.publicados = Counter.builder("creditos.auditoria.outbox.publicados")
+                .description("Eventos da outbox confirmados pelo broker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publica um lote da outbox.
+     *
+     * @return quantidade de eventos publicados e removidos
+     */
+    int publicarLote() {
+        Integer total = transactionTemplate.execute(status -> {
+            List<RegistroOutbox> registros = outboxRepository.bloquearProximos(config.getTamanhoLote());
+            if (registros.isEmpty()) {
+                return 0;
+            }
+
+            CompletableFuture<?>[] envios = new CompletableFuture<?>[registros.size()];
+            List<Long> ids = new ArrayList<>(registros.size());
+            for (int i = 0; i < registros.size(); i++) {
+                ConsultaEventDTO evento = registros.get(i).evento();
+                envios[i] = kafkaTemplate.send(ConsultaPublisher.TOPIC_CONSULTA_CREDITOS,
+                        ConsultaPublisher.montarChave(evento), evento);
+                ids.add(registros.get(i).id());
+            }
+            aguardar(CompletableFuture.allOf(envios));
+
+            outboxRepository.remover(ids);
+            return registros.size();
+        });
+        int publicadosNoLote = total == null ? 0 : total;
+        publicados.increment(publicadosNoLote);
+        return publicadosNoLote;
+    }
+
+    private void aguardar(CompletableFuture<Void> envios) {
+        try {
+            envios.get(config.getTimeoutEnvio().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Relay da outbox interrompido", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Broker não confirmou o lote da outbox", e);
+        }
+    }
+
+    private void executar() {
+        while (executando) {
+            try {
+                if (publicarLote() == 0) {
+                    Thread.sleep(config.getIntervaloLeitura().toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.warn("Falha ao publicar lote da outbox - nova tentativa em {}", config.getIntervaloLeitura(), e);
+                try {
+                    Thread.sleep(config.getIntervaloLeitura().toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        executando = true;
+        for (int i = 0; i < config.getWorkers(); i++) {
+            Thread worker = new Thread(this::executar, "outbox-relay-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @Override
+    public void stop() {
+        executando = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(config.getTimeoutEnvio().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executando;
+    }
+
+    /**
+     * Para junto com o publicador, antes do encerramento do produtor Kafka.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,376 @@
+package br.com.exemplo.messaging;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.ConsultaEventDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Spool local, somente de anexação, para eventos de auditoria que não puderam
+ * ser entregues ao Kafka.
+ *
+ * Os eventos são gravados em segmentos de tamanho fixo mapeados em memória
+ * ({@code 00000000000000000000.seg}, ...). Cada segmento tem um cabeçalho com a
+ * posição de leitura já confirmada, seguido de registros
+ * {@code [tamanho:int][crc32:int][payload]}. O tamanho é escrito por último e
+ * funciona como marcador de registro completo: uma escrita interrompida deixa
+ * tamanho zero e é ignorada na recuperação. Segmentos totalmente reenviados são
+ * apagados.
+ *
+ * Um evento anexado sobrevive a uma queda do processo assim que {@link #anexar}
+ * retorna, pois as páginas mapeadas já estão no cache do sistema operacional. Contra
+ * queda do sistema operacional ou falta de energia ele só está protegido depois de
+ * {@code force()}, feito a cada {@code eventos-por-sincronizacao} eventos, a cada
+ * {@code intervalo-sincronizacao} (por {@link ReenvioSpoolConsulta}) e na troca de
+ * segmento: é isso que pode se perder nesses casos.
+ */
+@Component
+public class SpoolEventosConsulta {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpoolEventosConsulta.class);
+
+    private static final int MAGICO = 0x43524544;
+    private static final int VERSAO = 1;
+    private static final int POSICAO_LEITURA = 8;
+    private static final int CABECALHO = 16;
+    private static final int CABECALHO_REGISTRO = 8;
+    private static final String EXTENSAO = ".seg";
+
+    private final boolean habilitado;
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+    private final int eventosPorSincronizacao;
+    private final TreeMap<Long, Segmento> segmentos = new TreeMap<>();
+
+    private Segmento ativo;
+    private int naoSincronizados;
+    private final AtomicLong pendentes = new AtomicLong();
+
+    @Autowired
+    public SpoolEventosConsulta(CreditosProperties properties) {
+        CreditosProperties.Spool config = properties.getAuditoria().getSpool();
+        this.habilitado = config.isHabilitado();
+        this.diretorio = Paths.get(config.getDiretorio());
+        this.tamanhoSegmento = config.getTamanhoSegmento();
+        this.eventosPorSincronizacao = config.getEventosPorSincronizacao();
+
+        if (!habilitado) {
+            return;
+        }
+        try {
+            Files.createDirectories(diretorio);
+            try (Stream<Path> arquivos = Files.list(diretorio)) {
+                for (Path arquivo : arquivos.filter(a -> a.getFileName().toString().endsWith(EXTENSAO)).sorted().toList()) {
+                    Segmento segmento = abrir(arquivo);
+                    segmentos.put(segmento.sequencia, segmento);
+                    pendentes.addAndGet(segmento.registrosPendentes);
+                }
+            }
+            removerSegmentosConsumidos();
+            ativo = segmentos.isEmpty() ? criarSegmento(0) : segmentos.lastEntry().getValue();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o spool de auditoria em " + diretorio, e);
+        }
+        if (pendentes.get() > 0) {
+            logger.info("Spool de auditoria recuperado com {} eventos pendentes", pendentes.get());
+        }
+    }
+
+    /**
+     * Grava o evento no fim do spool.
+     *
+     * @return false se o spool estiver desabilitado ou o evento não puder ser gravado
+     */
+    public synchronized boolean anexar(ConsultaEventDTO evento) {
+        if (!habilitado) {
+            return false;
+        }
+        byte[] payload = codificar(evento);
+        int tamanhoRegistro = CABECALHO_REGISTRO + payload.length;
+        if (tamanhoRegistro > tamanhoSegmento - CABECALHO) {
+            logger.error("Evento de auditoria maior que o segmento do spool - descartado: {}", evento.getValorConsultado());
+            return false;
+        }
+        try {
+            if (tamanhoSegmento - ativo.posicaoEscrita < tamanhoRegistro) {
+                ativo.buffer.force();
+                naoSincronizados = 0;
+                ativo = criarSegmento(ativo.sequencia + 1);
+            }
+        } catch (IOException e) {
+            logger.error("Não foi possível criar novo segmento do spool de auditoria", e);
+            return false;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        int posicao = ativo.posicaoEscrita;
+        ativo.buffer.put(posicao + CABECALHO_REGISTRO, payload);
+        ativo.buffer.putInt(posicao + 4, (int) crc.getValue());
+        ativo.buffer.putInt(posicao, payload.length);
+        ativo.posicaoEscrita = posicao + tamanhoRegistro;
+        pendentes.incrementAndGet();
+        if (++naoSincronizados >= eventosPorSincronizacao) {
+            sincronizarAnexados();
+        }
+        return true;
+    }
+
+    /**
+     * Lê, sem consumir, até {@code maximo} eventos pendentes a partir do mais antigo.
+     */
+    public synchronized Lote lerProximos(int maximo) {
+        for (Segmento segmento : segmentos.values()) {
+            if (segmento.posicaoLeitura >= segmento.posicaoEscrita) {
+                continue;
+            }
+            List<ConsultaEventDTO> eventos = new ArrayList<>();
+            List<Integer> posicoesFinais = new ArrayList<>();
+            int posicao = segmento.posicaoLeitura;
+            while (posicao < segmento.posicaoEscrita && eventos.size() < maximo) {
+                int tamanho = segmento.buffer.getInt(posicao);
+                byte[] payload = new byte[tamanho];
+                segmento.buffer.get(posicao + CABECALHO_REGISTRO, payload);
+                eventos.add(decodificar(payload));
+                posicao += CABECALHO_REGISTRO + tamanho;
+                posicoesFinais.add(posicao);
+            }
+            return new Lote(segmento, eventos, posicoesFinais);
+        }
+        return new Lote(null, List.of(), List.of());
+    }
+
+    /**
+     * Marca como entregues os {@code quantidade} primeiros eventos do lote.
+     */
+    public synchronized void confirmar(Lote lote, int quantidade) {
+        if (quantidade <= 0 || lote.segmento == null) {
+            return;
+        }
+        Segmento segmento = lote.segmento;
+        int posicao = lote.posicoesFinais.get(quantidade - 1);
+        segmento.posicaoLeitura = posicao;
+        segmento.buffer.putLong(POSICAO_LEITURA, posicao);
+        pendentes.addAndGet(-quantidade);
+        removerSegmentosConsumidos();
+    }
+
+    public boolean possuiPendentes() {
+        return pendentes.get() > 0;
+    }
+
+    public long getPendentes() {
+        return pendentes.get();
+    }
+
+    /**
+     * Força em disco o segmento ativo se houver eventos anexados desde a última sincronização.
+     */
+    public synchronized void sincronizarAnexados() {
+        if (naoSincronizados > 0) {
+            ativo.buffer.force();
+            naoSincronizados = 0;
+        }
+    }
+
+    /**
+     * Força a gravação em disco das páginas modificadas.
+     */
+    public synchronized void sincronizar() {
+        for (Segmento segmento : segmentos.values()) {
+            segmento.buffer.force();
+        }
+        naoSincronizados = 0;
+    }
+
+    private void removerSegmentosConsumidos() {
+        var iterator = segmentos.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Segmento> entrada = iterator.next();
+            Segmento segmento = entrada.getValue();
+            boolean consumido = segmento.posicaoLeitura >= segmento.posicaoEscrita;
+            if (!consumido || segmento == ativo || entrada.getKey().equals(segmentos.lastKey())) {
+                break;
+            }
+            iterator.remove();
+            try {
+                Files.deleteIfExists(segmento.arquivo);
+            } catch (IOException e) {
+                logger.warn("Não foi possível apagar o segmento consumido {}", segmento.arquivo, e);
+            }
+        }
+    }
+
+    private Segmento criarSegmento(long sequencia) throws IOException {
+        Path arquivo = diretorio.resolve(String.format("%020d%s", sequencia, EXTENSAO));
+        Segmento segmento = abrir(arquivo);
+        segmentos.put(sequencia, segmento);
+        return segmento;
+    }
+
+    private Segmento abrir(Path arquivo) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+        }
+        String nome = arquivo.getFileName().toString();
+        Segmento segmento = new Segmento(Long.parseLong(nome.substring(0, nome.length() - EXTENSAO.length())), arquivo, buffer);
+
+        if (buffer.getInt(0) != MAGICO) {
+            buffer.putInt(0, MAGICO);
+            buffer.putInt(4, VERSAO);
+            buffer.putLong(POSICAO_LEITURA, CABECALHO);
+        }
+        long posicaoLeitura = buffer.getLong(POSICAO_LEITURA);
+        segmento.posicaoLeitura = (int) Math.max(CABECALHO, Math.min(posicaoLeitura, tamanhoSegmento));
+
+        // Recupera a posição de escrita: percorre os registros completos e íntegros
+        int posicao = CABECALHO;
+        CRC32 crc = new CRC32();
+        while (posicao + CABECALHO_REGISTRO <= tamanhoSegmento) {
+            int tamanho = buffer.getInt(posicao);
+            if (tamanho <= 0 || posicao + CABECALHO_REGISTRO + tamanho > tamanhoSegmento) {
+                break;
+            }
+            byte[] payload = new byte[tamanho];
+            buffer.get(posicao + CABECALHO_REGISTRO, payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(posicao + 4)) {
+                logger.warn("Registro corrompido no spool {} na posição {} - ignorando o restante", arquivo, posicao);
+                break;
+            }
+            if (posicao >= segmento.posicaoLeitura) {
+                segmento.registrosPendentes++;
+            }
+            posicao += CABECALHO_REGISTRO + tamanho;
+        }
+        segmento.posicaoEscrita = posicao;
+        segmento.posicaoLeitura = Math.min(segmento.posicaoLeitura, posicao);
+        return segmento;
+    }
+
+    static byte[] codificar(ConsultaEventDTO evento) {
+        byte[] tipo = bytes(evento.getTipoConsulta());
+        byte[] valor = bytes(evento.getValorConsultado());
+        byte[] ip = bytes(evento.getEnderecoIp());
+        byte[] userAgent = bytes(evento.getUserAgent());
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 4 + 4 + 4 * 2 + tamanho(tipo) + tamanho(valor) + tamanho(ip) + tamanho(userAgent));
+
+        LocalDateTime timestamp = evento.getTimestampConsulta();
+        buffer.putLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(timestamp.getNano());
+        buffer.putInt(evento.getQuantidadeResultados());
+        escrever(buffer, tipo);
+        escrever(buffer, valor);
+        escrever(buffer, ip);
+        escrever(buffer, userAgent);
+        return buffer.array();
+    }
+
+    static ConsultaEventDTO decodificar(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        ConsultaEventDTO evento = new ConsultaEventDTO();
+        evento.setTimestampConsulta(timestamp);
+        evento.setQuantidadeResultados(buffer.getInt());
+        evento.setTipoConsulta(ler(buffer));
+        evento.setValorConsultado(ler(buffer));
+        evento.setEnderecoIp(ler(buffer));
+        evento.setUserAgent(ler(buffer));
+        return evento;
+    }
+
+    private static byte[] bytes(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= Short.MAX_VALUE ? bytes : Arrays.copyOf(bytes, Short.MAX_VALUE);
+    }
+
+    private static int tamanho(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void escrever(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort((short) -1);
+        } else {
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static String ler(ByteBuffer buffer) {
+        short tamanho = buffer.getShort();
+        if (tamanho < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[tamanho];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Segmento {
+        private final long sequencia;
+        private final Path arquivo;
+        private final MappedByteBuffer buffer;
+        private int posicaoLeitura;
+        private int posicaoEscrita;
+        private long registrosPendentes;
+
+        private Segmento(long sequencia, Path arquivo, MappedByteBuffer buffer) {
+            this.sequencia = sequencia;
+            this.arquivo = arquivo;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Eventos lidos do spool e ainda não confirmados.
+     */
+    public static final class Lote {
+        private final Segmento segmento;
+        private final List<ConsultaEventDTO> eventos;
+        private final List<Integer> posicoesFinais;
+
+        private Lote(Segmento segmento, List<ConsultaEventDTO> eventos, List<Integer> posicoesFinais) {
+            this.segmento = segmento;
+            this.eventos = eventos;
+            this.posicoesFinais = posicoesFinais;
+        }
+
+        public List<ConsultaEventDTO> getEventos() {
+            return eventos;
+        }
+
+        public boolean isEmpty() {
+            return eventos.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package br.com.exemplo.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temporizadores da API de créditos, registrados uma única vez na inicialização.
+ *
+ * Cada combinação de tags tem seu Timer pré-criado e indexado por enum, de modo
+ * que registrar uma medição é apenas {@code System.nanoTime()} e
+ * {@code Timer.record}, sem montar tags nem alocar objetos por requisição.
+ */
+@Component
+public class MetricasCreditos {
+
+    /**
+     * Limites dos buckets de histograma publicados (SLOs de latência).
+     */
+    public static final Duration[] SLOS = {
+            Duration.ofMillis(1), Duration.ofMillis(2), Duration.ofMillis(5), Duration.ofMillis(10),
+            Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+            Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ofSeconds(5)
+    };
+
+    public enum Endpoint {
+        NFSE, PAGINA, STREAM, CREDITO, LOTE, RESUMO
+    }
+
+    public enum TipoConsulta {
+        NFSE, CREDITO, LOTE
+    }
+
+    private final Timer[] endpoints;
+    private final Timer[][] consultas;
+    private final Timer mapeamento;
+
+    @Autowired
+    public MetricasCreditos(MeterRegistry meterRegistry) {
+        endpoints = new Timer[Endpoint.values().length];
+        for (Endpoint endpoint : Endpoint.values()) {
+            endpoints[endpoint.ordinal()] = temporizador("creditos.http.endpoint",
+                    "Tempo de resposta dos endpoints de consulta de créditos", meterRegistry,
+                    "endpoint", endpoint.name().toLowerCase(Locale.ROOT));
+        }
+
+        consultas = new Timer[TipoConsulta.values().length][2];
+        for (TipoConsulta tipo : TipoConsulta.values()) {
+            for (boolean acerto : new boolean[]{false, true}) {
+                consultas[tipo.ordinal()][acerto ? 1 : 0] = temporizador("creditos.consulta",
+                        "Tempo das consultas de créditos no serviço", meterRegistry,
+                        "tipo", tipo.name().toLowerCase(Locale.ROOT), "cache", acerto ? "hit" : "miss");
+            }
+        }
+
+        mapeamento = temporizador("creditos.mapeamento", "Tempo do mapeamento entidade -> DTO", meterRegistry);
+    }
+
+    /**
+     * Cria um Timer com os buckets de SLO publicados.
+     */
+    public static Timer temporizador(String nome, String descricao, MeterRegistry meterRegistry, String... tags) {
+        return Timer.builder(nome)
+                .description(descricao)
+                .tags(tags)
+                .serviceLevelObjectives(SLOS)
+                .register(meterRegistry);
+    }
+
+    public void registrarEndpoint(Endpoint endpoint, long nanos) {
+        endpoints[endpoint.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void registrarConsulta(TipoConsulta tipo, boolean acertoCache, long nanos) {
+        consultas[tipo.ordinal()][acertoCache ? 1 : 0].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void registrarMapeamento(long nanos) {
+        mapeamento.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,71 @@
+package br.com.exemplo.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adiciona aos repositórios Spring Data um interceptor que mede cada método de
+ * consulta no Timer "creditos.repositorio.consulta" (tags repositorio e metodo).
+ *
+ * Os Timers ficam em um mapa por Method: após a primeira chamada de cada método,
+ * a medição não aloca. Para métodos que retornam Stream é medida apenas a
+ * abertura do cursor.
+ */
+@Component
+public class MetricasRepositorioPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public MetricasRepositorioPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, informacao) -> proxyFactory.addAdvice(new TemporizadorRepositorio(
+                            meterRegistry, informacao.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    static final class TemporizadorRepositorio implements MethodInterceptor {
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+        private final String repositorio;
+        private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+        TemporizadorRepositorio(ObjectProvider<MeterRegistry> meterRegistry, String repositorio) {
+            this.meterRegistry = meterRegistry;
+            this.repositorio = repositorio;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Timer timer = timers.get(invocation.getMethod());
+            if (timer == null) {
+                timer = timers.computeIfAbsent(invocation.getMethod(), metodo -> MetricasCreditos.temporizador(
+                        "creditos.repositorio.consulta", "Tempo das consultas dos repositórios",
+                        meterRegistry.getObject(), "repositorio", repositorio, "metodo", metodo.getName()));
+            }
+            long inicio = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package br.com.exemplo.replicas;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * DataSource das transações somente leitura.
+ *
+ * Cada conexão vai para uma réplica disponível com atraso de replicação dentro do
+ * limite configurado, em rodízio. Se nenhuma réplica se qualifica, a leitura cai no
+ * primário. Uma tentativa pode fixar o nó na thread corrente com
+ * {@link #executarEm(NoLeitura, Supplier)}, o que é usado pelas leituras hedged.
+ */
+public class DataSourceReplicas extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceReplicas.class);
+
+    private static final ThreadLocal<NoLeitura> NO_FIXADO = new ThreadLocal<>();
+
+    // Sem WAL pendente de aplicação a réplica está em dia, mesmo que o último commit
+    // replicado seja antigo (primário ocioso)
+    static final String CONSULTA_ATRASO = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE COALESCE(EXTRACT(EPOCH FROM clock_timestamp() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END""";
+
+    private final List<NoLeitura> replicas;
+    private final NoLeitura primario;
+    private final long atrasoMaximoMillis;
+    private final AtomicInteger proxima = new AtomicInteger();
+
+    public DataSourceReplicas(List<NoLeitura> replicas, DataSource primario, Duration atrasoMaximo) {
+        this.replicas = List.copyOf(replicas);
+        this.primario = new NoLeitura("primario", primario, true);
+        this.atrasoMaximoMillis = atrasoMaximo.toMillis();
+    }
+
+    /**
+     * Cria o nó de uma réplica a partir do seu pool de conexões.
+     */
+    public static NoLeitura replica(String nome, DataSource dataSource) {
+        return new NoLeitura(nome, dataSource, false);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return noAtual().getDataSource().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return noAtual().getDataSource().getConnection(username, password);
+    }
+
+    private NoLeitura noAtual() {
+        NoLeitura fixado = NO_FIXADO.get();
+        return fixado != null ? fixado : escolher(null);
+    }
+
+    /**
+     * Escolhe, em rodízio, uma réplica elegível diferente de {@code excluir}; sem
+     * réplica elegível, devolve o primário (a menos que ele seja o excluído, caso em
+     * que devolve null).
+     */
+    public NoLeitura escolher(NoLeitura excluir) {
+        int total = replicas.size();
+        if (total > 0) {
+            int inicio = Math.floorMod(proxima.getAndIncrement(), total);
+            for (int i = 0; i < total; i++) {
+                NoLeitura no = replicas.get((inicio + i) % total);
+                if (no != excluir && elegivel(no)) {
+                    return no;
+                }
+            }
+        }
+        return excluir == primario ? null : primario;
+    }
+
+    /**
+     * Executa a consulta com todas as conexões somente leitura da thread corrente indo para {@code no}.
+     */
+    public <T> T executarEm(NoLeitura no, Supplier<T> consulta) {
+        NoLeitura anterior = NO_FIXADO.get();
+        NO_FIXADO.set(no);
+        try {
+            return consulta.get();
+        } finally {
+            if (anterior == null) {
+                NO_FIXADO.remove();
+            } else {
+                NO_FIXADO.set(anterior);
+            }
+        }
+    }
+
+    /**
+     * Mede o atraso de replicação de cada réplica; réplicas inacessíveis ficam indisponíveis.
+     */
+    void verificarAtrasos() {
+        for (NoLeitura no : replicas) {
+            try (Connection conexao = no.getDataSource().getConnection();
+                 Statement statement = conexao.createStatement();
+                 ResultSet resultado = statement.executeQuery(CONSULTA_ATRASO)) {
+                resultado.next();
+                no.atualizar(true, Math.round(resultado.getDouble(1)));
+            } catch (SQLException e) {
+                if (no.isDisponivel()) {
+                    logger.warn("Réplica {} indisponível para leitura: {}", no.getNome(), e.getMessage());
+                }
+                no.atualizar(false, no.getAtrasoMillis());
+            }
+        }
+    }
+
+    public List<NoLeitura> getReplicas() {
+        return replicas;
+    }
+
+    public NoLeitura getPrimario() {
+        return primario;
+    }
+
+    private boolean elegivel(NoLeitura no) {
+        return no.isDisponivel() && no.getAtrasoMillis() <= atrasoMaximoMillis;
+    }
+
+    /**
+     * Fecha os pools das réplicas; o pool do primário pertence ao datasource principal.
+     */
+    @Override
+    public void close() throws Exception {
+        for (NoLeitura no : replicas) {
+            if (no.getDataSource() instanceof AutoCloseable pool) {
+                pool.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package br.com.exemplo.replicas;
+
+import br.com.exemplo.config.CreditosProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Executa leituras nas réplicas com "hedging": a primeira tentativa vai para uma
+ * réplica e, se não responder dentro do orçamento (percentil configurado da latência
+ * recente das tentativas), uma segunda tentativa é enviada a outro nó. Vale a
+ * primeira resposta bem-sucedida; a outra tentativa termina em segundo plano e é
+ * descartada.
+ *
+ * Sem réplicas configuradas ou com o hedge desligado, a consulta roda direto na
+ * thread chamadora.
+ *
+ * As cargas do cache local usam {@link #executarNoPrimario}: uma réplica pode estar
+ * até {@code atraso-maximo} atrás da alteração que invalidou a entrada, e a versão
+ * antiga ficaria no cache por um TTL inteiro.
+ */
+@Component
+public class LeituraHedged implements DisposableBean {
+
+    private final CreditosProperties.Hedge config;
+    private final DataSourceReplicas roteamento;
+    private final DataSourceReplicas replicas;
+    private final Timer latencia;
+    private final Counter hedges;
+    private final Counter vitoriasSegunda;
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public LeituraHedged(CreditosProperties properties, ObjectProvider<DataSourceReplicas> replicas,
+                         MeterRegistry meterRegistry) {
+        this.config = properties.getReplicas().getHedge();
+        this.roteamento = replicas.getIfAvailable();
+        this.replicas = config.isHabilitado() ? roteamento : null;
+
+        this.latencia = Timer.builder("creditos.replicas.leitura")
+                .description("Latência de cada tentativa de leitura em um nó")
+                .publishPercentiles(config.getPercentil())
+                .register(meterRegistry);
+        this.hedges = Counter.builder("creditos.replicas.hedge")
+                .description("Segundas tentativas enviadas por estouro do orçamento")
+                .register(meterRegistry);
+        this.vitoriasSegunda = Counter.builder("creditos.replicas.hedge.vitorias")
+                .description("Leituras respondidas pela segunda tentativa")
+                .register(meterRegistry);
+
+        if (this.replicas != null) {
+            AtomicInteger sequencia = new AtomicInteger();
+            // Sem fila: uma tentativa que não encontra thread livre não pode esperar atrás das outras
+            this.executor = new ThreadPoolExecutor(config.getThreads(), config.getThreads(), 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), r -> {
+                        Thread thread = new Thread(r, "leitura-hedged-" + sequencia.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            this.executor.allowCoreThreadTimeOut(true);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    public <T> T executar(Supplier<T> consulta) {
+        if (executor == null) {
+            return consulta.get();
+        }
+
+        NoLeitura primeiro = replicas.escolher(null);
+        CompletableFuture<T> primeira;
+        try {
+            primeira = tentar(primeiro, consulta);
+        } catch (RejectedExecutionException e) {
+            return replicas.executarEm(primeiro, consulta);
+        }
+
+        try {
+            try {
+                return primeira.get(orcamentoNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                NoLeitura segundo = replicas.escolher(primeiro);
+                if (segundo == null) {
+                    return primeira.get();
+                }
+                CompletableFuture<T> segunda;
+                try {
+                    segunda = tentar(segundo, consulta);
+                } catch (RejectedExecutionException rejeitada) {
+                    return primeira.get();
+                }
+                hedges.increment();
+                return primeiraResposta(primeira, segunda).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Leitura interrompida", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (causa instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    /**
+     * Executa a consulta no primário, inclusive as transações somente leitura que ela abrir.
+     */
+    public <T> T executarNoPrimario(Supplier<T> consulta) {
+        if (roteamento == null) {
+            return consulta.get();
+        }
+        return roteamento.executarEm(roteamento.getPrimario(), consulta);
+    }
+
+    /**
+     * Orçamento da primeira tentativa: percentil da latência recente, nunca abaixo do mínimo.
+     */
+    long orcamentoNanos() {
+        long minimo = config.getOrcamentoMinimo().toNanos();
+        if (latencia.count() < config.getAmostrasMinimas()) {
+            return Math.max(minimo, config.getOrcamentoInicial().toNanos());
+        }
+        ValueAtPercentile[] percentis = latencia.takeSnapshot().percentileValues();
+        if (percentis.length == 0) {
+            return Math.max(minimo, config.getOrcamentoInicial().toNanos());
+        }
+        return Math.max(minimo, (long) percentis[0].value(TimeUnit.NANOSECONDS));
+    }
+
+    private <T> CompletableFuture<T> tentar(NoLeitura no, Supplier<T> consulta) {
+        return CompletableFuture.supplyAsync(() -> {
+            long inicio = System.nanoTime();
+            T resultado = replicas.executarEm(no, consulta);
+            latencia.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return resultado;
+        }, executor);
+    }
+
+    /**
+     * Completa com a primeira tentativa bem-sucedida; falha apenas se as duas falharem.
+     */
+    private <T> CompletableFuture<T> primeiraResposta(CompletableFuture<T> primeira, CompletableFuture<T> segunda) {
+        CompletableFuture<T> resposta = new CompletableFuture<>();
+        AtomicBoolean decidida = new AtomicBoolean();
+        AtomicInteger falhas = new AtomicInteger();
+        primeira.whenComplete((valor, erro) -> {
+            if (erro == null) {
+                if (decidida.compareAndSet(false, true)) {
+                    resposta.complete(valor);
+                }
+            } else if (falhas.incrementAndGet() == 2) {
+                resposta.completeExceptionally(causa(erro));
+            }
+        });
+        segunda.whenComplete((valor, erro) -> {
+            if (erro == null) {
+                if (decidida.compareAndSet(false, true)) {
+                    vitoriasSegunda.increment();
+                    resposta.complete(valor);
+                }
+            } else if (falhas.incrementAndGet() == 2) {
+                resposta.completeExceptionally(causa(erro));
+            }
+        });
+        return resposta;
+    }
+
+    private static Throwable causa(Throwable erro) {
+        return erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package br.com.exemplo.replicas;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede periodicamente o atraso de replicação das réplicas de leitura.
+ */
+public class MonitorReplicas implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonitorReplicas.class);
+
+    private final DataSourceReplicas replicas;
+    private final Duration intervalo;
+
+    private ScheduledExecutorService agendador;
+
+    public MonitorReplicas(DataSourceReplicas replicas, Duration intervalo, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        this.intervalo = intervalo;
+
+        for (NoLeitura no : replicas.getReplicas()) {
+            Gauge.builder("creditos.replicas.atraso", no, NoLeitura::getAtrasoMillis)
+                    .description("Atraso de replicação medido na réplica (ms)")
+                    .tag("replica", no.getNome())
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge.builder("creditos.replicas.disponivel", no, n -> n.isDisponivel() ? 1 : 0)
+                    .description("1 quando a réplica respondeu à última verificação")
+                    .tag("replica", no.getNome())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void start() {
+        // A primeira medição é síncrona: até ela, todas as leituras iriam para o primário
+        replicas.verificarAtrasos();
+        agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replicas-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodo = intervalo.toMillis();
+        agendador.scheduleWithFixedDelay(() -> {
+            try {
+                replicas.verificarAtrasos();
+            } catch (Exception e) {
+                logger.error("Erro inesperado ao verificar as réplicas de leitura", e);
+            }
+        }, periodo, periodo, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+            agendador = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return agendador != null;
+    }
+}
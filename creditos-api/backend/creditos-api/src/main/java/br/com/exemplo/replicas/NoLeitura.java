@@ -0,0 +1,55 @@
+package br.com.exemplo.replicas;
+
+import javax.sql.DataSource;
+
+/**
+ * Nó que pode atender leituras: uma réplica ou o próprio primário (usado como último recurso).
+ * Disponibilidade e atraso são atualizados pelo {@link MonitorReplicas}.
+ */
+public final class NoLeitura {
+
+    private final String nome;
+    private final DataSource dataSource;
+    private final boolean primario;
+
+    private volatile boolean disponivel;
+    private volatile long atrasoMillis;
+
+    NoLeitura(String nome, DataSource dataSource, boolean primario) {
+        this.nome = nome;
+        this.dataSource = dataSource;
+        this.primario = primario;
+        // O primário nunca tem atraso; réplicas só entram em uso após a primeira medição
+        this.disponivel = primario;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isPrimario() {
+        return primario;
+    }
+
+    public boolean isDisponivel() {
+        return disponivel;
+    }
+
+    public long getAtrasoMillis() {
+        return atrasoMillis;
+    }
+
+    void atualizar(boolean disponivel, long atrasoMillis) {
+        this.atrasoMillis = atrasoMillis;
+        this.disponivel = disponivel;
+    }
+
+    @Override
+    public String toString() {
+        return nome;
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.exemplo.repository;
+
+import br.com.exemplo.dto.ChaveConsultadaDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Acesso à tabela chave_quente (snapshot das chaves mais consultadas) via JDBC.
+ */
+@Repository
+public class ChaveQuenteRepository {
+
+    // Com várias instâncias gravando, vale a contagem da gravação mais recente
+    private static final String GRAVAR = "INSERT INTO chave_quente (tipo_consulta, valor_consultado, consultas, atualizado_em) "
+            + "VALUES (?, ?, ?, now()) ON CONFLICT (tipo_consulta, valor_consultado) "
+            + "DO UPDATE SET consultas = EXCLUDED.consultas, atualizado_em = EXCLUDED.atualizado_em";
+
+    private static final String REMOVER_ANTERIORES = "DELETE FROM chave_quente WHERE atualizado_em < ?";
+
+    private static final String LISTAR_RECENTES = "SELECT tipo_consulta, valor_consultado, consultas FROM chave_quente "
+            + "WHERE atualizado_em >= ? ORDER BY consultas DESC LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Grava as chaves em um único batch JDBC, em ordem de chave para que instâncias
+     * gravando ao mesmo tempo bloqueiem as linhas na mesma ordem.
+     */
+    public void gravar(List<ChaveConsultadaDTO> chaves) {
+        if (chaves.isEmpty()) {
+            return;
+        }
+        List<ChaveConsultadaDTO> ordenadas = chaves.stream()
+                .sorted((a, b) -> a.getTipoConsulta().equals(b.getTipoConsulta())
+                        ? a.getValorConsultado().compareTo(b.getValorConsultado())
+                        : a.getTipoConsulta().compareTo(b.getTipoConsulta()))
+                .toList();
+        jdbcTemplate.batchUpdate(GRAVAR, ordenadas, ordenadas.size(), (ps, chave) -> {
+            ps.setString(1, chave.getTipoConsulta());
+            ps.setString(2, chave.getValorConsultado());
+            ps.setLong(3, chave.getConsultasEstimadas());
+        });
+    }
+
+    /**
+     * Remove as chaves não regravadas desde {@code limite}.
+     */
+    public int removerAnteriores(Instant limite) {
+        return jdbcTemplate.update(REMOVER_ANTERIORES, Timestamp.from(limite));
+    }
+
+    /**
+     * Chaves gravadas desde {@code desde}, das mais para as menos consultadas.
+     */
+    public List<ChaveConsultadaDTO> listarRecentes(Instant desde, int limite) {
+        return jdbcTemplate.query(LISTAR_RECENTES, (rs, rowNum) -> new ChaveConsultadaDTO(
+                rs.getString("tipo_consulta"), rs.getString("valor_consultado"), rs.getLong("consultas")),
+                Timestamp.from(desde), limite);
+    }
+}
@@ -0,0 +1,89 @@
+package br.com.exemplo.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Leitura das chaves de negócio (numero_credito, numero_nfse) da tabela credito via
+ * JDBC, para a construção do filtro de existência. Sempre no primário: as leituras
+ * não são readOnly, então não vão para as réplicas.
+ */
+@Repository
+public class ChavesCreditoRepository {
+
+    private static final String INVALIDACAO_INSTALADA = "SELECT EXISTS (SELECT 1 FROM pg_trigger "
+            + "WHERE tgrelid = to_regclass('credito') AND tgname = 'trg_credito_invalidacao_insert')";
+
+    // reltuples é -1 enquanto a tabela não passou por VACUUM/ANALYZE
+    private static final String ESTIMAR_LINHAS = "SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE oid = to_regclass('credito')";
+
+    private static final String INTERVALO_IDS = "SELECT min(id), max(id) FROM credito";
+
+    private static final String CHAVES_POR_FAIXA = "SELECT numero_credito, numero_nfse FROM credito WHERE id >= ? AND id < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Indica se a tabela credito tem o trigger que notifica as inserções no canal de
+     * invalidação (ausente quando o schema é criado pelo Hibernate).
+     */
+    public boolean invalidacaoInstalada() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(INVALIDACAO_INSTALADA, Boolean.class));
+    }
+
+    /**
+     * Quantidade de linhas segundo as estatísticas do planejador (sem varrer a tabela).
+     */
+    public long estimarLinhas() {
+        List<Long> linhas = jdbcTemplate.queryForList(ESTIMAR_LINHAS, Long.class);
+        return linhas.isEmpty() ? 0 : linhas.get(0);
+    }
+
+    /**
+     * Menor e maior id da tabela, ou {@code null} se ela estiver vazia.
+     */
+    public long[] intervaloIds() {
+        return jdbcTemplate.query(INTERVALO_IDS, rs -> {
+            rs.next();
+            long minimo = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{minimo, rs.getLong(2)};
+        });
+    }
+
+    /**
+     * Percorre as chaves dos créditos com id em [idInicial, idFinal) em streaming: com
+     * autocommit desligado o driver usa um cursor e traz {@code tamanhoFetch} linhas por vez.
+     */
+    public void percorrerChaves(long idInicial, long idFinal, int tamanhoFetch, BiConsumer<String, String> consumidor) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexao -> {
+            boolean autoCommit = conexao.getAutoCommit();
+            conexao.setAutoCommit(false);
+            try (PreparedStatement statement = conexao.prepareStatement(CHAVES_POR_FAIXA)) {
+                statement.setFetchSize(tamanhoFetch);
+                statement.setLong(1, idInicial);
+                statement.setLong(2, idFinal);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        consumidor.accept(rs.getString(1), rs.getString(2));
+                    }
+                }
+                conexao.commit();
+            } catch (SQLException | RuntimeException e) {
+                conexao.rollback();
+                throw e;
+            } finally {
+                conexao.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+}
@@ -1,29 +1,149 @@
 package br.com.exemplo.repository;
 
+import br.com.exemplo.dto.CreditoResponseDTO;
+import br.com.exemplo.dto.VersaoCreditoDTO;
 import br.com.exemplo.entity.Credito;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CreditoRepository extends JpaRepository<Credito, Long> {
 
+    /**
+     * Projeção direta em CreditoResponseDTO: não cria entidades gerenciadas nem
+     * registra nada no contexto de persistência para dirty checking.
+     */
+    String PROJECAO_DTO = "SELECT new br.com.exemplo.dto.CreditoResponseDTO(c.numeroCredito, c.numeroNfse, "
+            + "c.dataConstituicao, c.valorIssqn, c.tipoCredito, c.simplesNacional, c.aliquota, c.valorFaturado, "
+            + "c.valorDeducao, c.baseCalculo, c.versao, c.atualizadoEm) FROM Credito c ";
+
+    /**
+     * Projeção só com os campos que compõem o ETag das consultas.
+     */
+    String PROJECAO_VERSAO = "SELECT new br.com.exemplo.dto.VersaoCreditoDTO(c.numeroCredito, c.versao, c.atualizadoEm) "
+            + "FROM Credito c ";
+
     /**
      * Busca créditos pelo número da NFS-e
      */
     @Query("SELECT c FROM Credito c WHERE c.numeroNfse = :numeroNfse ORDER BY c.dataConstituicao DESC")
     List<Credito> findByNumeroNfse(@Param("numeroNfse") String numeroNfse);
 
+    /**
+     * Busca créditos pelo número da NFS-e, já projetados no DTO de resposta
+     */
+    @Transactional(readOnly = true)
+    @Query(PROJECAO_DTO + "WHERE c.numeroNfse = :numeroNfse ORDER BY c.dataConstituicao DESC")
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    List<CreditoResponseDTO> findDtoByNumeroNfse(@Param("numeroNfse") String numeroNfse);
+
+    /**
+     * Busca um crédito pelo número, já projetado no DTO de resposta
+     */
+    @Transactional(readOnly = true)
+    @Query(PROJECAO_DTO + "WHERE c.numeroCredito = :numeroCredito")
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    Optional<CreditoResponseDTO> findDtoByNumeroCredito(@Param("numeroCredito") String numeroCredito);
+
+    /**
+     * Versões dos créditos de uma NFS-e, na mesma ordem de {@link #findDtoByNumeroNfse}
+     */
+    @Transactional(readOnly = true)
+    @Query(PROJECAO_VERSAO + "WHERE c.numeroNfse = :numeroNfse ORDER BY c.dataConstituicao DESC")
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    List<VersaoCreditoDTO> findVersoesByNumeroNfse(@Param("numeroNfse") String numeroNfse);
+
+    /**
+     * Versão de um crédito pelo número
+     */
+    @Transactional(readOnly = true)
+    @Query(PROJECAO_VERSAO + "WHERE c.numeroCredito = :numeroCredito")
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    Optional<VersaoCreditoDTO> findVersaoByNumeroCredito(@Param("numeroCredito") String numeroCredito);
+
+    /**
+     * Percorre os créditos de uma NFS-e sob demanda, sem materializar a lista inteira.
+     * Deve ser consumido dentro de uma transação (o cursor do PostgreSQL só respeita
+     * o fetch size com autocommit desligado) e fechado ao final.
+     */
+    @Query(PROJECAO_DTO + "WHERE c.numeroNfse = :numeroNfse ORDER BY c.dataConstituicao DESC")
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "MANUAL"),
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<CreditoResponseDTO> streamDtoByNumeroNfse(@Param("numeroNfse") String numeroNfse);
+
+    /**
+     * Primeira página dos créditos de uma NFS-e, ordenada por (dataConstituicao, id) decrescentes
+     */
+    @Query("SELECT c FROM Credito c WHERE c.numeroNfse = :numeroNfse ORDER BY c.dataConstituicao DESC, c.id DESC")
+    List<Credito> findPrimeiraPaginaByNumeroNfse(@Param("numeroNfse") String numeroNfse, Limit limite);
+
+    /**
+     * Página seguinte ao cursor (data, id), usando o índice (numero_nfse, data_constituicao, id).
+     * A condição "data <= :data" delimita o início da varredura no índice, de modo que páginas
+     * profundas custam o mesmo que a primeira.
+     */
+    @Query("SELECT c FROM Credito c WHERE c.numeroNfse = :numeroNfse AND c.dataConstituicao <= :data "
+            + "AND (c.dataConstituicao < :data OR c.id < :id) ORDER BY c.dataConstituicao DESC, c.id DESC")
+    List<Credito> findPaginaByNumeroNfseApos(@Param("numeroNfse") String numeroNfse, @Param("data") LocalDate data,
+                                             @Param("id") Long id, Limit limite);
+
     /**
      * Busca um crédito específico pelo número do crédito
      */
     @Query("SELECT c FROM Credito c WHERE c.numeroCredito = :numeroCredito")
     Optional<Credito> findByNumeroCredito(@Param("numeroCredito") String numeroCredito);
 
+    /**
+     * Busca, em uma única consulta, os créditos de várias NFS-e
+     */
+    @Transactional(readOnly = true)
+    @Query(PROJECAO_DTO + "WHERE c.numeroNfse IN :numerosNfse ORDER BY c.dataConstituicao DESC")
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    List<CreditoResponseDTO> findDtoByNumeroNfseIn(@Param("numerosNfse") Collection<String> numerosNfse);
+
+    /**
+     * Busca, em uma única consulta, vários créditos pelos seus números
+     */
+    @Transactional(readOnly = true)
+    @Query(PROJECAO_DTO + "WHERE c.numeroCredito IN :numerosCredito")
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    List<CreditoResponseDTO> findDtoByNumeroCreditoIn(@Param("numerosCredito") Collection<String> numerosCredito);
+
     /**
      * Verifica se existe um crédito com o número específico
      */
@@ -0,0 +1,87 @@
+package br.com.exemplo.repository;
+
+import br.com.exemplo.dto.ConsultaEventDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Acesso à tabela outbox_consulta via JDBC: os eventos de auditoria não são
+ * entidades JPA e as operações são todas em lote.
+ */
+@Repository
+public class OutboxConsultaRepository {
+
+    private static final String INSERIR = "INSERT INTO outbox_consulta "
+            + "(tipo_consulta, valor_consultado, quantidade_resultados, timestamp_consulta, endereco_ip, user_agent) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    // SKIP LOCKED: cada relay pega linhas diferentes, sem esperar pelos outros
+    private static final String BLOQUEAR_PROXIMOS = "SELECT id, tipo_consulta, valor_consultado, "
+            + "quantidade_resultados, timestamp_consulta, endereco_ip, user_agent FROM outbox_consulta "
+            + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String REMOVER = "DELETE FROM outbox_consulta WHERE id = ANY (?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Grava os eventos em um único batch JDBC.
+     */
+    public void inserir(List<ConsultaEventDTO> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERIR, eventos, eventos.size(), (ps, evento) -> {
+            ps.setString(1, evento.getTipoConsulta());
+            ps.setString(2, evento.getValorConsultado());
+            ps.setInt(3, evento.getQuantidadeResultados());
+            ps.setTimestamp(4, Timestamp.valueOf(evento.getTimestampConsulta()));
+            ps.setString(5, evento.getEnderecoIp());
+            ps.setString(6, evento.getUserAgent());
+        });
+    }
+
+    /**
+     * Bloqueia até {@code limite} eventos ainda não reclamados por outra transação.
+     * Deve ser chamado dentro de uma transação, que mantém o bloqueio até o commit.
+     */
+    public List<RegistroOutbox> bloquearProximos(int limite) {
+        return jdbcTemplate.query(BLOQUEAR_PROXIMOS, (rs, rowNum) -> {
+            ConsultaEventDTO evento = new ConsultaEventDTO();
+            evento.setTipoConsulta(rs.getString("tipo_consulta"));
+            evento.setValorConsultado(rs.getString("valor_consultado"));
+            evento.setQuantidadeResultados(rs.getInt("quantidade_resultados"));
+            evento.setTimestampConsulta(rs.getTimestamp("timestamp_consulta").toLocalDateTime());
+            evento.setEnderecoIp(rs.getString("endereco_ip"));
+            evento.setUserAgent(rs.getString("user_agent"));
+            return new RegistroOutbox(rs.getLong("id"), evento);
+        }, limite);
+    }
+
+    public int remover(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(REMOVER);
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+    }
+
+    public long contar() {
+        Long total = jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_consulta", Long.class);
+        return total == null ? 0 : total;
+    }
+
+    /**
+     * Linha da outbox: id para a remoção e o evento a publicar.
+     */
+    public record RegistroOutbox(long id, ConsultaEventDTO evento) {
+    }
+}
@@ -0,0 +1,93 @@
+package br.com.exemplo.repository;
+
+import br.com.exemplo.dto.ResumoIssqnDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Consulta a tabela resumo_issqn via JDBC. O resumo é mantido pelos triggers da tabela
+ * credito (um grupo por tipo de crédito, mês e Simples Nacional), então os totais
+ * são somas sobre poucas linhas, independentemente do volume de créditos.
+ */
+@Repository
+public class ResumoIssqnRepository {
+
+    /**
+     * Dimensões pelas quais os totais podem ser agrupados.
+     */
+    public enum Dimensao {
+        TIPO_CREDITO("tipo_credito"),
+        MES("mes"),
+        SIMPLES_NACIONAL("simples_nacional");
+
+        private final String coluna;
+
+        Dimensao(String coluna) {
+            this.coluna = coluna;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Soma os grupos do resumo que atendem aos filtros (nulos são ignorados), agrupando
+     * apenas pelas dimensões informadas, em ordem crescente de cada uma.
+     */
+    public List<ResumoIssqnDTO> totalizar(Set<Dimensao> dimensoes, YearMonth de, YearMonth ate,
+                                          String tipoCredito, Boolean simplesNacional) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (Dimensao dimensao : dimensoes) {
+            sql.append(dimensao.coluna).append(", ");
+        }
+        sql.append("sum(quantidade) AS quantidade, sum(total_valor_issqn) AS total_valor_issqn, ")
+                .append("sum(total_valor_faturado) AS total_valor_faturado, sum(total_base_calculo) AS total_base_calculo ")
+                .append("FROM resumo_issqn WHERE true");
+
+        List<Object> parametros = new ArrayList<>();
+        if (de != null) {
+            sql.append(" AND mes >= ?");
+            parametros.add(Date.valueOf(de.atDay(1)));
+        }
+        if (ate != null) {
+            sql.append(" AND mes <= ?");
+            parametros.add(Date.valueOf(ate.atDay(1)));
+        }
+        if (tipoCredito != null) {
+            sql.append(" AND tipo_credito = ?");
+            parametros.add(tipoCredito);
+        }
+        if (simplesNacional != null) {
+            sql.append(" AND simples_nacional = ?");
+            parametros.add(simplesNacional);
+        }
+        if (!dimensoes.isEmpty()) {
+            String colunas = dimensoes.stream().map(dimensao -> dimensao.coluna).collect(Collectors.joining(", "));
+            sql.append(" GROUP BY ").append(colunas).append(" ORDER BY ").append(colunas);
+        }
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            LocalDate mes = dimensoes.contains(Dimensao.MES) ? rs.getDate("mes").toLocalDate() : null;
+            return new ResumoIssqnDTO(
+                    dimensoes.contains(Dimensao.TIPO_CREDITO) ? rs.getString("tipo_credito") : null,
+                    mes == null ? null : YearMonth.from(mes),
+                    dimensoes.contains(Dimensao.SIMPLES_NACIONAL) ? rs.getBoolean("simples_nacional") : null,
+                    rs.getLong("quantidade"),
+                    rs.getBigDecimal("total_valor_issqn"),
+                    rs.getBigDecimal("total_valor_faturado"),
+                    rs.getBigDecimal("total_base_calculo"));
+        }, parametros.toArray()).stream()
+                // Sem agrupamento e sem linhas, o SUM devolve uma linha de nulos
+                .filter(resumo -> resumo.getTotalValorIssqn() != null)
+                .toList();
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.exemplo.service;
+
+import br.com.exemplo.analise.JanelaConsultas;
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.AnaliseConsultasDTO;
+import br.com.exemplo.dto.ConsultaEventDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chaves mais consultadas, volume e chaves distintas das consultas de créditos, a partir
+ * dos eventos de auditoria consumidos do tópico consulta-creditos.
+ */
+@Service
+public class AnaliseConsultasService {
+
+    private final JanelaConsultas janela;
+    private final int topK;
+    private final Counter eventos;
+    private final Counter invalidos;
+
+    @Autowired
+    public AnaliseConsultasService(CreditosProperties properties, MeterRegistry meterRegistry) {
+        this.janela = new JanelaConsultas(properties.getAnalise());
+        this.topK = properties.getAnalise().getTopK();
+        this.eventos = Counter.builder("creditos.analise.eventos")
+                .description("Eventos de consulta contabilizados nas estatísticas")
+                .register(meterRegistry);
+        this.invalidos = Counter.builder("creditos.analise.eventos.invalidos")
+                .description("Registros do tópico descartados por falha de desserialização")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Contabiliza um lote do tópico. Registros que não puderam ser desserializados
+     * chegam como null e são apenas contados.
+     */
+    public void registrar(List<ConsultaEventDTO> lote) {
+        List<ConsultaEventDTO> validos = new ArrayList<>(lote.size());
+        for (ConsultaEventDTO evento : lote) {
+            if (evento != null) {
+                validos.add(evento);
+            }
+        }
+        janela.registrar(validos, System.currentTimeMillis());
+        eventos.increment(validos.size());
+        invalidos.increment(lote.size() - validos.size());
+    }
+
+    /**
+     * Resumo da janela corrente com as {@code limite} chaves mais consultadas
+     * (no máximo creditos.analise.top-k).
+     */
+    public AnaliseConsultasDTO resumir(Integer limite) {
+        int quantidade = limite == null ? topK : limite;
+        if (quantidade < 1 || quantidade > topK) {
+            throw new IllegalArgumentException("Limite deve estar entre 1 e " + topK);
+        }
+        return janela.resumir(quantidade, System.currentTimeMillis());
+    }
+}
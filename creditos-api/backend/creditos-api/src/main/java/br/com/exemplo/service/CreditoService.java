@@ -1,15 +1,47 @@
 package br.com.exemplo.service;
 
+import br.com.exemplo.cache.ConsultasEmAndamento;
+import br.com.exemplo.cache.CreditoCache;
+import br.com.exemplo.cache.FiltroExistencia;
+import br.com.exemplo.config.CreditosProperties;
 import br.com.exemplo.dto.ConsultaEventDTO;
+import br.com.exemplo.dto.ConsultaLoteRequestDTO;
+import br.com.exemplo.dto.ConsultaLoteResponseDTO;
 import br.com.exemplo.dto.CreditoResponseDTO;
+import br.com.exemplo.dto.PaginaCreditosDTO;
+import br.com.exemplo.dto.VersaoCreditoDTO;
 import br.com.exemplo.entity.Credito;
 import br.com.exemplo.messaging.ConsultaPublisher;
+import br.com.exemplo.metricas.MetricasCreditos;
+import br.com.exemplo.metricas.MetricasCreditos.TipoConsulta;
+import br.com.exemplo.replicas.LeituraHedged;
 import br.com.exemplo.repository.CreditoRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Iterator;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class CreditoService {
@@ -20,34 +52,396 @@ public class CreditoService {
     @Autowired
     private ConsultaPublisher consultaPublisher;
 
+    @Autowired
+    private CreditosProperties properties;
+
+    @Autowired
+    private CreditoCache creditoCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MetricasCreditos metricas;
+
+    @Autowired
+    private LeituraHedged leituraHedged;
+
+    @Autowired
+    private FiltroExistencia filtroExistencia;
+
+    @Autowired
+    private ConsultasEmAndamento consultasEmAndamento;
+
     /**
      * Obtém uma lista de créditos com base no número da NFS-e.
      */
     public List<CreditoResponseDTO> buscarCreditosPorNfse(String numeroNfse) {
-        List<Credito> creditos = creditoRepository.findByNumeroNfse(numeroNfse);
+        long inicio = System.nanoTime();
+        List<CreditoResponseDTO> creditos = creditoCache.nfsePresente(numeroNfse);
+        boolean acertoCache = creditos != null;
+        if (!acertoCache) {
+            // Requisições simultâneas pela mesma NFS-e compartilham uma única carga
+            creditos = consultasEmAndamento.executar("nfse:" + numeroNfse,
+                    () -> creditoCache.carregarNfse(numeroNfse, this::carregarPorNfse));
+        }
+        metricas.registrarConsulta(TipoConsulta.NFSE, acertoCache, System.nanoTime() - inicio);
         consultaPublisher.publishConsultaEvent(new ConsultaEventDTO("NUMERO_NFSE", numeroNfse, creditos.size(), "localhost", "API"));
-        return creditos.stream().map(this::mapToDTO).collect(Collectors.toList());
+        return creditos;
     }
 
     /**
      * Obtém os detalhes de um crédito com base no número do crédito.
      */
     public java.util.Optional<CreditoResponseDTO> buscarCreditoPorNumero(String numeroCredito) {
-        java.util.Optional<Credito> creditoOpt = creditoRepository.findByNumeroCredito(numeroCredito);
+        long inicio = System.nanoTime();
+        java.util.Optional<CreditoResponseDTO> creditoOpt = creditoCache.numeroPresente(numeroCredito);
+        boolean acertoCache = creditoOpt != null;
+        if (!acertoCache) {
+            creditoOpt = consultasEmAndamento.executar("credito:" + numeroCredito,
+                    () -> creditoCache.carregarNumero(numeroCredito, this::carregarPorNumero));
+        }
+        metricas.registrarConsulta(TipoConsulta.CREDITO, acertoCache, System.nanoTime() - inicio);
         
         if (creditoOpt.isPresent()) {
             consultaPublisher.publishConsultaEvent(new ConsultaEventDTO("NUMERO_CREDITO", numeroCredito, 1, "localhost", "API"));
-            return java.util.Optional.of(mapToDTO(creditoOpt.get()));
         }
         
-        return java.util.Optional.empty();
+        return creditoOpt;
+    }
+
+    /**
+     * Registra uma consulta por NFS-e respondida sem montar a resposta (cache de respostas
+     * serializadas ou revalidação por ETag): mesmas métricas (como acerto de cache) e
+     * mesmo evento de auditoria de {@link #buscarCreditosPorNfse}.
+     */
+    public void registrarConsultaPorNfseEmCache(String numeroNfse, int quantidade, long nanos) {
+        metricas.registrarConsulta(TipoConsulta.NFSE, true, nanos);
+        consultaPublisher.publishConsultaEvent(new ConsultaEventDTO("NUMERO_NFSE", numeroNfse, quantidade, "localhost", "API"));
+    }
+
+    /**
+     * Registra uma consulta por número do crédito respondida sem montar a resposta,
+     * como em {@link #registrarConsultaPorNfseEmCache}.
+     */
+    public void registrarConsultaPorNumeroEmCache(String numeroCredito, long nanos) {
+        metricas.registrarConsulta(TipoConsulta.CREDITO, true, nanos);
+        consultaPublisher.publishConsultaEvent(new ConsultaEventDTO("NUMERO_CREDITO", numeroCredito, 1, "localhost", "API"));
+    }
+
+    /**
+     * Versões dos créditos da NFS-e, para validar o ETag de uma revalidação sem montar a
+     * resposta: vêm do cache local quando presentes; senão, de uma consulta só às colunas
+     * de versão, no primário como as cargas do cache (uma réplica atrasada confirmaria
+     * um ETag já substituído).
+     */
+    public List<VersaoCreditoDTO> buscarVersoesPorNfse(String numeroNfse) {
+        List<CreditoResponseDTO> creditos = creditoCache.nfsePresente(numeroNfse);
+        if (creditos != null) {
+            return creditos.stream().map(this::versao).collect(Collectors.toList());
+        }
+        if (!filtroExistencia.podeExistir(FiltroExistencia.Tipo.NFSE, numeroNfse)) {
+            return List.of();
+        }
+        return leituraHedged.executarNoPrimario(() -> creditoRepository.findVersoesByNumeroNfse(numeroNfse));
+    }
+
+    /**
+     * Versão do crédito, como em {@link #buscarVersoesPorNfse}.
+     */
+    public Optional<VersaoCreditoDTO> buscarVersaoPorNumero(String numeroCredito) {
+        Optional<CreditoResponseDTO> credito = creditoCache.numeroPresente(numeroCredito);
+        if (credito != null) {
+            return credito.map(this::versao);
+        }
+        if (!filtroExistencia.podeExistir(FiltroExistencia.Tipo.CREDITO, numeroCredito)) {
+            return Optional.empty();
+        }
+        return leituraHedged.executarNoPrimario(() -> creditoRepository.findVersaoByNumeroCredito(numeroCredito));
+    }
+
+    /**
+     * Obtém uma página dos créditos da NFS-e usando paginação por cursor (keyset).
+     * O cursor é opaco para o cliente e codifica a posição (dataConstituicao, id)
+     * do último crédito devolvido.
+     */
+    public PaginaCreditosDTO buscarPaginaPorNfse(String numeroNfse, String cursor, Integer tamanho) {
+        int tamanhoPagina = tamanho == null ? properties.getPaginacao().getTamanhoPadrao() : tamanho;
+        if (tamanhoPagina < 1) {
+            throw new IllegalArgumentException("Tamanho de página deve ser maior que zero");
+        }
+        tamanhoPagina = Math.min(tamanhoPagina, properties.getPaginacao().getTamanhoMaximo());
+
+        // Busca um item a mais para saber se existe próxima página
+        Limit limite = Limit.of(tamanhoPagina + 1);
+        List<Credito> creditos;
+        if (!filtroExistencia.podeExistir(FiltroExistencia.Tipo.NFSE, numeroNfse)) {
+            creditos = List.of();
+        } else if (cursor == null || cursor.isBlank()) {
+            creditos = consultasEmAndamento.executar("pagina:" + numeroNfse + "|" + limite.max(),
+                    () -> leituraHedged.executar(() -> creditoRepository.findPrimeiraPaginaByNumeroNfse(numeroNfse, limite)));
+        } else {
+            Credito posicao = decodificarCursor(cursor);
+            creditos = consultasEmAndamento.executar("pagina:" + numeroNfse + "|" + limite.max() + "|" + cursor,
+                    () -> leituraHedged.executar(() -> creditoRepository.findPaginaByNumeroNfseApos(
+                            numeroNfse, posicao.getDataConstituicao(), posicao.getId(), limite)));
+        }
+
+        String proximoCursor = null;
+        if (creditos.size() > tamanhoPagina) {
+            creditos = creditos.subList(0, tamanhoPagina);
+            proximoCursor = codificarCursor(creditos.get(tamanhoPagina - 1));
+        }
+
+        consultaPublisher.publishConsultaEvent(new ConsultaEventDTO("NUMERO_NFSE", numeroNfse, creditos.size(), "localhost", "API"));
+        return new PaginaCreditosDTO(creditos.stream().map(this::mapToDTO).collect(Collectors.toList()), tamanhoPagina, proximoCursor);
+    }
+
+    /**
+     * Escreve os créditos da NFS-e diretamente na saída, um JSON por linha (NDJSON),
+     * à medida que são lidos do banco. O consumo de memória não depende da
+     * quantidade de créditos: as linhas são projetadas direto no DTO, sem entidades
+     * acumuladas no contexto de persistência.
+     *
+     * @return quantidade de créditos escritos
+     */
+    @Transactional(readOnly = true)
+    public long escreverCreditosPorNfse(String numeroNfse, OutputStream saida) throws IOException {
+        long quantidade = 0;
+        try (Stream<CreditoResponseDTO> creditos = filtroExistencia.podeExistir(FiltroExistencia.Tipo.NFSE, numeroNfse)
+                ? creditoRepository.streamDtoByNumeroNfse(numeroNfse) : Stream.empty();
+             SequenceWriter writer = objectMapper.writer()
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .withRootValueSeparator("\n")
+                     .writeValues(saida)) {
+            Iterator<CreditoResponseDTO> iterator = creditos.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                quantidade++;
+            }
+        }
+        if (quantidade > 0) {
+            saida.write('\n');
+        }
+        saida.flush();
+        consultaPublisher.publishConsultaEvent(new ConsultaEventDTO("NUMERO_NFSE", numeroNfse, (int) quantidade, "localhost", "API"));
+        return quantidade;
+    }
+
+    /**
+     * Consulta várias NFS-e e números de crédito de uma só vez, com uma única
+     * consulta ao banco por tipo de chave.
+     */
+    public ConsultaLoteResponseDTO buscarEmLote(ConsultaLoteRequestDTO requisicao) {
+        long inicio = System.nanoTime();
+        boolean acertoCache = true;
+        Set<String> numerosNfse = normalizarChaves(requisicao.getNumerosNfse());
+        Set<String> numerosCredito = normalizarChaves(requisicao.getNumerosCredito());
+
+        int totalChaves = numerosNfse.size() + numerosCredito.size();
+        if (totalChaves == 0) {
+            throw new IllegalArgumentException("Informe ao menos um número de NFS-e ou de crédito");
+        }
+        if (totalChaves > properties.getLote().getMaxChaves()) {
+            throw new IllegalArgumentException("Quantidade de chaves (" + totalChaves
+                    + ") excede o limite de " + properties.getLote().getMaxChaves() + " por requisição");
+        }
+
+        ConsultaLoteResponseDTO resposta = new ConsultaLoteResponseDTO();
+
+        if (!numerosNfse.isEmpty()) {
+            Map<String, List<CreditoResponseDTO>> porNfse = new HashMap<>(creditoCache.nfsePresentes(numerosNfse));
+            Set<String> ausentes = new LinkedHashSet<>(numerosNfse);
+            ausentes.removeAll(porNfse.keySet());
+
+            if (!ausentes.isEmpty()) {
+                acertoCache = false;
+                porNfse.putAll(carregarNfseEmLote(ausentes));
+            }
+
+            for (String numeroNfse : numerosNfse) {
+                List<CreditoResponseDTO> creditos = porNfse.getOrDefault(numeroNfse, List.of());
+                if (creditos.isEmpty()) {
+                    resposta.getNfseNaoEncontradas().add(numeroNfse);
+                } else {
+                    resposta.getCreditosPorNfse().put(numeroNfse, creditos);
+                }
+                consultaPublisher.publishConsultaEvent(new ConsultaEventDTO("NUMERO_NFSE", numeroNfse, creditos.size(), "localhost", "API"));
+            }
+        }
+
+        if (!numerosCredito.isEmpty()) {
+            Map<String, Optional<CreditoResponseDTO>> porNumero = new HashMap<>(creditoCache.numerosPresentes(numerosCredito));
+            Set<String> ausentes = new LinkedHashSet<>(numerosCredito);
+            ausentes.removeAll(porNumero.keySet());
+
+            if (!ausentes.isEmpty()) {
+                acertoCache = false;
+                porNumero.putAll(carregarNumerosEmLote(ausentes));
+            }
+
+            for (String numeroCredito : numerosCredito) {
+                CreditoResponseDTO credito = porNumero.get(numeroCredito).orElse(null);
+                if (credito == null) {
+                    resposta.getCreditosNaoEncontrados().add(numeroCredito);
+                } else {
+                    resposta.getCreditosPorNumero().put(numeroCredito, credito);
+                    consultaPublisher.publishConsultaEvent(new ConsultaEventDTO("NUMERO_CREDITO", numeroCredito, 1, "localhost", "API"));
+                }
+            }
+        }
+
+        metricas.registrarConsulta(TipoConsulta.LOTE, acertoCache, System.nanoTime() - inicio);
+        return resposta;
+    }
+
+    /**
+     * Pré-carrega no cache as NFS-e que ainda não estão nele, com uma consulta ao banco
+     * para todas (aquecimento do cache). Não publica eventos de auditoria.
+     *
+     * @return quantidade de NFS-e carregadas do banco
+     */
+    public int preCarregarNfse(Collection<String> numerosNfse) {
+        Set<String> ausentes = normalizarChaves(numerosNfse);
+        ausentes.removeAll(creditoCache.nfsePresentes(ausentes).keySet());
+        return ausentes.isEmpty() ? 0 : carregarNfseEmLote(ausentes).size();
+    }
+
+    /**
+     * Pré-carrega no cache os créditos que ainda não estão nele, como em {@link #preCarregarNfse}.
+     *
+     * @return quantidade de números de crédito carregados do banco
+     */
+    public int preCarregarCreditos(Collection<String> numerosCredito) {
+        Set<String> ausentes = normalizarChaves(numerosCredito);
+        ausentes.removeAll(creditoCache.numerosPresentes(ausentes).keySet());
+        return ausentes.isEmpty() ? 0 : carregarNumerosEmLote(ausentes).size();
+    }
+
+    /**
+     * Busca as NFS-e em uma única consulta e as armazena no cache, inclusive as não encontradas.
+     * As que o filtro de existência dá como ausentes não entram na consulta.
+     *
+     * As cargas do cache leem do primário: uma réplica atrasada devolveria a versão
+     * anterior à alteração que acabou de invalidar a entrada.
+     */
+    private Map<String, List<CreditoResponseDTO>> carregarNfseEmLote(Set<String> numerosNfse) {
+        Set<String> possiveis = filtrarPossiveis(FiltroExistencia.Tipo.NFSE, numerosNfse);
+        long marca = creditoCache.marca();
+        Map<String, List<CreditoResponseDTO>> carregados = possiveis.isEmpty() ? Map.of() : leituraHedged
+                .executarNoPrimario(() -> creditoRepository.findDtoByNumeroNfseIn(possiveis)).stream()
+                .collect(Collectors.groupingBy(CreditoResponseDTO::getNumeroNfse));
+        Map<String, List<CreditoResponseDTO>> porNfse = new HashMap<>();
+        for (String numeroNfse : numerosNfse) {
+            List<CreditoResponseDTO> creditos = carregados.getOrDefault(numeroNfse, List.of());
+            if (creditos.isEmpty() && possiveis.contains(numeroNfse)) {
+                filtroExistencia.registrarNaoEncontrada(FiltroExistencia.Tipo.NFSE, numeroNfse);
+            }
+            creditoCache.armazenarNfse(numeroNfse, creditos, marca);
+            porNfse.put(numeroNfse, creditos);
+        }
+        return porNfse;
+    }
+
+    /**
+     * Busca os créditos em uma única consulta e os armazena no cache, inclusive os não encontrados.
+     */
+    private Map<String, Optional<CreditoResponseDTO>> carregarNumerosEmLote(Set<String> numerosCredito) {
+        Set<String> possiveis = filtrarPossiveis(FiltroExistencia.Tipo.CREDITO, numerosCredito);
+        long marca = creditoCache.marca();
+        Map<String, CreditoResponseDTO> carregados = possiveis.isEmpty() ? Map.of() : leituraHedged
+                .executarNoPrimario(() -> creditoRepository.findDtoByNumeroCreditoIn(possiveis)).stream()
+                .collect(Collectors.toMap(CreditoResponseDTO::getNumeroCredito, Function.identity(), (a, b) -> a));
+        Map<String, Optional<CreditoResponseDTO>> porNumero = new HashMap<>();
+        for (String numeroCredito : numerosCredito) {
+            Optional<CreditoResponseDTO> credito = Optional.ofNullable(carregados.get(numeroCredito));
+            if (credito.isEmpty() && possiveis.contains(numeroCredito)) {
+                filtroExistencia.registrarNaoEncontrada(FiltroExistencia.Tipo.CREDITO, numeroCredito);
+            }
+            creditoCache.armazenarNumero(numeroCredito, credito, marca);
+            porNumero.put(numeroCredito, credito);
+        }
+        return porNumero;
+    }
+
+    private List<CreditoResponseDTO> carregarPorNfse(String numeroNfse) {
+        if (!filtroExistencia.podeExistir(FiltroExistencia.Tipo.NFSE, numeroNfse)) {
+            return List.of();
+        }
+        List<CreditoResponseDTO> creditos = leituraHedged.executarNoPrimario(() -> creditoRepository.findDtoByNumeroNfse(numeroNfse));
+        if (creditos.isEmpty()) {
+            filtroExistencia.registrarNaoEncontrada(FiltroExistencia.Tipo.NFSE, numeroNfse);
+        }
+        return creditos;
+    }
+
+    private Optional<CreditoResponseDTO> carregarPorNumero(String numeroCredito) {
+        if (!filtroExistencia.podeExistir(FiltroExistencia.Tipo.CREDITO, numeroCredito)) {
+            return Optional.empty();
+        }
+        Optional<CreditoResponseDTO> credito = leituraHedged.executarNoPrimario(() -> creditoRepository.findDtoByNumeroCredito(numeroCredito));
+        if (credito.isEmpty()) {
+            filtroExistencia.registrarNaoEncontrada(FiltroExistencia.Tipo.CREDITO, numeroCredito);
+        }
+        return credito;
+    }
+
+    /**
+     * Chaves que o filtro de existência não descarta (as demais certamente não existem).
+     */
+    private Set<String> filtrarPossiveis(FiltroExistencia.Tipo tipo, Set<String> chaves) {
+        Set<String> possiveis = new LinkedHashSet<>();
+        for (String chave : chaves) {
+            if (filtroExistencia.podeExistir(tipo, chave)) {
+                possiveis.add(chave);
+            }
+        }
+        return possiveis;
+    }
+
+    private String codificarCursor(Credito credito) {
+        String posicao = credito.getDataConstituicao() + "|" + credito.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(posicao.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Credito decodificarCursor(String cursor) {
+        try {
+            String posicao = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = posicao.indexOf('|');
+            Credito credito = new Credito();
+            credito.setDataConstituicao(LocalDate.parse(posicao.substring(0, separador)));
+            credito.setId(Long.parseLong(posicao.substring(separador + 1)));
+            return credito;
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido");
+        }
+    }
+
+    /**
+     * Remove chaves nulas, vazias e duplicadas, preservando a ordem da requisição.
+     */
+    private Set<String> normalizarChaves(Collection<String> chaves) {
+        Set<String> normalizadas = new LinkedHashSet<>();
+        if (chaves != null) {
+            for (String chave : chaves) {
+                if (chave != null && !chave.isBlank()) {
+                    normalizadas.add(chave.trim());
+                }
+            }
+        }
+        return normalizadas;
+    }
+
+    private VersaoCreditoDTO versao(CreditoResponseDTO credito) {
+        return new VersaoCreditoDTO(credito.getNumeroCredito(), credito.getVersao(), credito.getAtualizadoEm());
     }
 
     /**
      * Mapeia uma entidade Credito para um DTO de resposta.
      */
-    private CreditoResponseDTO mapToDTO(Credito credito) {
-        return new CreditoResponseDTO(
+    CreditoResponseDTO mapToDTO(Credito credito) {
+        long inicio = System.nanoTime();
+        CreditoResponseDTO dto = new CreditoResponseDTO(
                 credito.getNumeroCredito(),
                 credito.getNumeroNfse(),
                 credito.getDataConstituicao(),
@@ -57,7 +451,11 @@ public class CreditoService {
                 credito.getAliquota(),
                 credito.getValorFaturado(),
                 credito.getValorDeducao(),
-                credito.getBaseCalculo()
+                credito.getBaseCalculo(),
+                credito.getVersao(),
+                credito.getAtualizadoEm()
         );
+        metricas.registrarMapeamento(System.nanoTime() - inicio);
+        return dto;
     }
 }
@@ -0,0 +1,52 @@
+package br.com.exemplo.service;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.entity.Credito;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Gravação de créditos em lote pelo JPA.
+ *
+ * Os ids vêm da sequence credito_id_seq com alocação em bloco, então o Hibernate não
+ * precisa executar cada INSERT para descobrir a chave e consegue agrupá-los em batches
+ * JDBC (hibernate.jdbc.batch_size, order_inserts). A cada lote o contexto de persistência
+ * é descarregado e limpo para que a memória não cresça com o tamanho da lista.
+ */
+@Service
+public class GravacaoCreditoService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CreditosProperties properties;
+
+    /**
+     * Insere os créditos informados em uma única transação e devolve a quantidade gravada.
+     * Os ids gerados ficam disponíveis nas próprias instâncias da lista.
+     */
+    @Transactional
+    public int salvarEmLote(List<Credito> creditos) {
+        int tamanhoLote = Math.max(1, properties.getGravacao().getTamanhoLote());
+        int pendentes = 0;
+        for (Credito credito : creditos) {
+            entityManager.persist(credito);
+            if (++pendentes == tamanhoLote) {
+                entityManager.flush();
+                entityManager.clear();
+                pendentes = 0;
+            }
+        }
+        if (pendentes > 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return creditos.size();
+    }
+}
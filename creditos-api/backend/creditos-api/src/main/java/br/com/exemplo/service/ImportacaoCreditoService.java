@@ -0,0 +1,163 @@
+package br.com.exemplo.service;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.ImportacaoResultadoDTO;
+import br.com.exemplo.dto.RejeicaoImportacaoDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Importação em massa de créditos.
+ *
+ * O arquivo é validado linha a linha e enviado por COPY para uma tabela temporária
+ * de staging; ao final, um único INSERT ... ON CONFLICT (numero_credito) mescla a
+ * staging em credito. Tudo roda em uma transação: ou o arquivo inteiro (menos as
+ * linhas rejeitadas) é aplicado, ou nada é. Se o mesmo crédito aparecer mais de
+ * uma vez no arquivo, vale a última ocorrência.
+ *
+ * Créditos já existentes e idênticos aos do arquivo não são regravados: reimportar o
+ * mesmo arquivo não gera versões novas (ETag/Last-Modified), notificações de
+ * invalidação de cache nem tuplas mortas, e essas linhas não contam como atualizadas.
+ */
+@Service
+public class ImportacaoCreditoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacaoCreditoService.class);
+
+    public enum Formato {
+        CSV, NDJSON
+    }
+
+    private static final String COLUNAS = "numero_credito, numero_nfse, data_constituicao, valor_issqn, tipo_credito, "
+            + "simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo";
+
+    private static final String CRIAR_STAGING = """
+            CREATE TEMP TABLE credito_importacao (
+                linha BIGINT NOT NULL,
+                numero_credito VARCHAR(50) NOT NULL,
+                numero_nfse VARCHAR(50) NOT NULL,
+                data_constituicao DATE NOT NULL,
+                valor_issqn DECIMAL(15, 2) NOT NULL,
+                tipo_credito VARCHAR(50) NOT NULL,
+                simples_nacional BOOLEAN NOT NULL,
+                aliquota DECIMAL(5, 2) NOT NULL,
+                valor_faturado DECIMAL(15, 2) NOT NULL,
+                valor_deducao DECIMAL(15, 2) NOT NULL,
+                base_calculo DECIMAL(15, 2) NOT NULL
+            ) ON COMMIT DROP""";
+
+    private static final String COPY_STAGING = "COPY credito_importacao (linha, " + COLUNAS + ") FROM STDIN WITH (FORMAT csv)";
+
+    // xmax = 0 identifica as linhas inseridas; nas atualizadas xmax é o id da transação atual.
+    // Conflitos sem diferença não passam pelo WHERE: não são gravados nem retornados.
+    private static final String MESCLAR = """
+            WITH mesclados AS (
+                INSERT INTO credito (%1$s)
+                SELECT DISTINCT ON (numero_credito) %1$s
+                  FROM credito_importacao
+                 ORDER BY numero_credito, linha DESC
+                ON CONFLICT (numero_credito) DO UPDATE SET
+                    numero_nfse = EXCLUDED.numero_nfse,
+                    data_constituicao = EXCLUDED.data_constituicao,
+                    valor_issqn = EXCLUDED.valor_issqn,
+                    tipo_credito = EXCLUDED.tipo_credito,
+                    simples_nacional = EXCLUDED.simples_nacional,
+                    aliquota = EXCLUDED.aliquota,
+                    valor_faturado = EXCLUDED.valor_faturado,
+                    valor_deducao = EXCLUDED.valor_deducao,
+                    base_calculo = EXCLUDED.base_calculo
+                WHERE (credito.numero_nfse, credito.data_constituicao, credito.valor_issqn, credito.tipo_credito,
+                       credito.simples_nacional, credito.aliquota, credito.valor_faturado, credito.valor_deducao,
+                       credito.base_calculo)
+                      IS DISTINCT FROM
+                      (EXCLUDED.numero_nfse, EXCLUDED.data_constituicao, EXCLUDED.valor_issqn, EXCLUDED.tipo_credito,
+                       EXCLUDED.simples_nacional, EXCLUDED.aliquota, EXCLUDED.valor_faturado, EXCLUDED.valor_deducao,
+                       EXCLUDED.base_calculo)
+                RETURNING (xmax = 0) AS inserido
+            )
+            SELECT count(*) FILTER (WHERE inserido), count(*) FILTER (WHERE NOT inserido) FROM mesclados""".formatted(COLUNAS);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CreditosProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Importa o arquivo recebido em streaming.
+     */
+    public ImportacaoResultadoDTO importar(InputStream entrada, Formato formato) throws IOException, SQLException {
+        ImportacaoResultadoDTO resultado = new ImportacaoResultadoDTO();
+        int maxRejeicoes = properties.getImportacao().getMaxRejeicoesReportadas();
+        BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        LeitorImportacaoCreditos importacao = new LeitorImportacaoCreditos(leitor, formato, objectMapper);
+
+        try (Connection conexao = dataSource.getConnection()) {
+            boolean autoCommit = conexao.getAutoCommit();
+            conexao.setAutoCommit(false);
+            try {
+                try (Statement statement = conexao.createStatement()) {
+                    statement.execute(CRIAR_STAGING);
+                }
+
+                CopyIn copy = conexao.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+                try {
+                    importacao.ler(new StringBuilder(properties.getImportacao().getTamanhoBufferCopy() + 1024),
+                            properties.getImportacao().getTamanhoBufferCopy(),
+                            buffer -> {
+                                byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+                                copy.writeToCopy(bytes, 0, bytes.length);
+                            },
+                            (linha, motivo) -> {
+                                resultado.setRejeitados(resultado.getRejeitados() + 1);
+                                if (resultado.getRejeicoes().size() < maxRejeicoes) {
+                                    resultado.getRejeicoes().add(new RejeicaoImportacaoDTO(linha, motivo));
+                                }
+                            });
+                    copy.endCopy();
+                } finally {
+                    if (copy.isActive()) {
+                        copy.cancelCopy();
+                    }
+                }
+
+                try (Statement statement = conexao.createStatement();
+                     ResultSet contagem = statement.executeQuery(MESCLAR)) {
+                    contagem.next();
+                    resultado.setInseridos(contagem.getLong(1));
+                    resultado.setAtualizados(contagem.getLong(2));
+                }
+                conexao.commit();
+            } catch (IOException | SQLException | RuntimeException e) {
+                conexao.rollback();
+                throw e;
+            } finally {
+                conexao.setAutoCommit(autoCommit);
+            }
+        }
+
+        resultado.setLinhasLidas(importacao.getLinhasLidas());
+        logger.info("Importação concluída: {} linhas lidas, {} inseridos, {} atualizados, {} rejeitados",
+                resultado.getLinhasLidas(), resultado.getInseridos(), resultado.getAtualizados(), resultado.getRejeitados());
+        return resultado;
+    }
+}
@@ -0,0 +1,298 @@
+package br.com.exemplo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lê um arquivo de créditos (CSV com cabeçalho ou NDJSON) linha a linha, valida
+ * cada registro e o reescreve em CSV canônico para o COPY da tabela de staging.
+ *
+ * Nada é acumulado além da linha corrente e do buffer de envio, então o consumo
+ * de memória não depende do tamanho do arquivo. Campos CSV entre aspas são
+ * aceitos, mas não podem conter quebras de linha.
+ */
+class LeitorImportacaoCreditos {
+
+    /**
+     * Campos do registro, na ordem das colunas da staging (após a coluna linha).
+     */
+    static final String[] CAMPOS = {"numeroCredito", "numeroNfse", "dataConstituicao", "valorIssqn", "tipoCredito",
+            "simplesNacional", "aliquota", "valorFaturado", "valorDeducao", "baseCalculo"};
+
+    private static final int TAMANHO_MAXIMO_TEXTO = 50;
+    private static final BigDecimal LIMITE_VALOR = new BigDecimal("10000000000000"); // DECIMAL(15, 2)
+    private static final BigDecimal LIMITE_ALIQUOTA = new BigDecimal("1000"); // DECIMAL(5, 2)
+
+    @FunctionalInterface
+    interface Descarga {
+        void descarregar(StringBuilder buffer) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface Rejeicao {
+        void rejeitar(long linha, String motivo);
+    }
+
+    private final BufferedReader leitor;
+    private final ImportacaoCreditoService.Formato formato;
+    private final ObjectMapper objectMapper;
+    private final String[] valores = new String[CAMPOS.length];
+
+    private int[] indicesCsv;
+    private long linhasLidas;
+
+    LeitorImportacaoCreditos(BufferedReader leitor, ImportacaoCreditoService.Formato formato, ObjectMapper objectMapper) {
+        this.leitor = leitor;
+        this.formato = formato;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Lê toda a entrada. As linhas válidas são anexadas ao buffer, que é entregue à
+     * descarga sempre que passa do limite (e uma última vez no fim).
+     */
+    void ler(StringBuilder buffer, int limite, Descarga descarga, Rejeicao rejeicao) throws IOException, SQLException {
+        long numeroLinha = 0;
+        if (formato == ImportacaoCreditoService.Formato.CSV) {
+            String cabecalho = leitor.readLine();
+            numeroLinha++;
+            if (cabecalho == null) {
+                throw new IllegalArgumentException("Arquivo CSV vazio: o cabeçalho é obrigatório");
+            }
+            indicesCsv = mapearCabecalho(cabecalho);
+        }
+
+        String linha;
+        while ((linha = leitor.readLine()) != null) {
+            numeroLinha++;
+            if (linha.isBlank()) {
+                continue;
+            }
+            linhasLidas++;
+            String erro = formato == ImportacaoCreditoService.Formato.CSV ? extrairCsv(linha) : extrairJson(linha);
+            if (erro == null) {
+                erro = validar();
+            }
+            if (erro != null) {
+                rejeicao.rejeitar(numeroLinha, erro);
+                continue;
+            }
+            escrever(buffer, numeroLinha);
+            if (buffer.length() >= limite) {
+                descarga.descarregar(buffer);
+                buffer.setLength(0);
+            }
+        }
+        if (buffer.length() > 0) {
+            descarga.descarregar(buffer);
+            buffer.setLength(0);
+        }
+    }
+
+    long getLinhasLidas() {
+        return linhasLidas;
+    }
+
+    private int[] mapearCabecalho(String cabecalho) {
+        List<String> colunas = dividirCsv(cabecalho);
+        if (colunas == null) {
+            throw new IllegalArgumentException("Cabeçalho CSV inválido");
+        }
+        int[] indices = new int[CAMPOS.length];
+        Arrays.fill(indices, -1);
+        for (int coluna = 0; coluna < colunas.size(); coluna++) {
+            String nome = colunas.get(coluna).trim().replace("_", "").toLowerCase(Locale.ROOT);
+            for (int campo = 0; campo < CAMPOS.length; campo++) {
+                if (CAMPOS[campo].toLowerCase(Locale.ROOT).equals(nome)) {
+                    indices[campo] = coluna;
+                }
+            }
+        }
+        for (int campo = 0; campo < CAMPOS.length; campo++) {
+            if (indices[campo] < 0) {
+                throw new IllegalArgumentException("Coluna obrigatória ausente no cabeçalho CSV: " + CAMPOS[campo]);
+            }
+        }
+        return indices;
+    }
+
+    private String extrairCsv(String linha) {
+        List<String> colunas = dividirCsv(linha);
+        if (colunas == null) {
+            return "Aspas não fechadas";
+        }
+        for (int campo = 0; campo < CAMPOS.length; campo++) {
+            int indice = indicesCsv[campo];
+            valores[campo] = indice < colunas.size() ? colunas.get(indice).trim() : null;
+        }
+        return null;
+    }
+
+    private String extrairJson(String linha) {
+        JsonNode registro;
+        try {
+            registro = objectMapper.readTree(linha);
+        } catch (IOException e) {
+            return "JSON inválido";
+        }
+        if (registro == null || !registro.isObject()) {
+            return "Linha não é um objeto JSON";
+        }
+        for (int campo = 0; campo < CAMPOS.length; campo++) {
+            JsonNode valor = registro.get(CAMPOS[campo]);
+            if (valor == null || valor.isNull()) {
+                valores[campo] = null;
+            } else {
+                valores[campo] = valor.isNumber() ? valor.decimalValue().toPlainString() : valor.asText().trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Valida e normaliza os valores extraídos.
+     *
+     * @return motivo da rejeição, ou null se o registro for válido
+     */
+    private String validar() {
+        for (int campo : new int[]{0, 1, 4}) {
+            String texto = valores[campo];
+            if (texto == null || texto.isEmpty()) {
+                return "Campo obrigatório ausente: " + CAMPOS[campo];
+            }
+            if (texto.length() > TAMANHO_MAXIMO_TEXTO) {
+                return "Campo " + CAMPOS[campo] + " excede " + TAMANHO_MAXIMO_TEXTO + " caracteres";
+            }
+        }
+
+        try {
+            valores[2] = LocalDate.parse(obrigatorio(2)).toString();
+        } catch (DateTimeParseException e) {
+            return "Data inválida em dataConstituicao (esperado yyyy-MM-dd)";
+        } catch (IllegalStateException e) {
+            return e.getMessage();
+        }
+
+        String simples = valores[5] == null ? "" : valores[5].toLowerCase(Locale.ROOT);
+        switch (simples) {
+            case "true", "sim", "s" -> valores[5] = "true";
+            case "false", "não", "nao", "n" -> valores[5] = "false";
+            default -> {
+                return "Valor inválido em simplesNacional (esperado true/false ou Sim/Não)";
+            }
+        }
+
+        for (int campo : new int[]{3, 6, 7, 8, 9}) {
+            String erro = validarDecimal(campo, campo == 6 ? LIMITE_ALIQUOTA : LIMITE_VALOR);
+            if (erro != null) {
+                return erro;
+            }
+        }
+        return null;
+    }
+
+    private String obrigatorio(int campo) {
+        if (valores[campo] == null || valores[campo].isEmpty()) {
+            throw new IllegalStateException("Campo obrigatório ausente: " + CAMPOS[campo]);
+        }
+        return valores[campo];
+    }
+
+    private String validarDecimal(int campo, BigDecimal limite) {
+        BigDecimal valor;
+        try {
+            valor = new BigDecimal(obrigatorio(campo));
+        } catch (NumberFormatException e) {
+            return "Número inválido em " + CAMPOS[campo];
+        } catch (IllegalStateException e) {
+            return e.getMessage();
+        }
+        if (valor.signum() < 0) {
+            return "Valor negativo em " + CAMPOS[campo];
+        }
+        if (valor.scale() > 2 && valor.stripTrailingZeros().scale() > 2) {
+            return "Mais de duas casas decimais em " + CAMPOS[campo];
+        }
+        if (valor.compareTo(limite) >= 0) {
+            return "Valor fora do limite em " + CAMPOS[campo];
+        }
+        valores[campo] = valor.toPlainString();
+        return null;
+    }
+
+    private void escrever(StringBuilder buffer, long numeroLinha) {
+        buffer.append(numeroLinha);
+        for (String valor : valores) {
+            buffer.append(',');
+            escreverCampo(buffer, valor);
+        }
+        buffer.append('\n');
+    }
+
+    private static void escreverCampo(StringBuilder buffer, String valor) {
+        boolean precisaAspas = valor.isEmpty() || valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0
+                || valor.indexOf('\r') >= 0 || valor.indexOf('\n') >= 0;
+        if (!precisaAspas) {
+            buffer.append(valor);
+            return;
+        }
+        buffer.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        buffer.append('"');
+    }
+
+    /**
+     * Divide uma linha CSV (separador vírgula, aspas duplas com escape "").
+     *
+     * @return colunas, ou null se houver aspas não fechadas
+     */
+    static List<String> dividirCsv(String linha) {
+        List<String> colunas = new ArrayList<>(CAMPOS.length);
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"') {
+                    if (i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                        atual.append('"');
+                        i++;
+                    } else {
+                        entreAspas = false;
+                    }
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                colunas.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        if (entreAspas) {
+            return null;
+        }
+        colunas.add(atual.toString());
+        return colunas;
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.exemplo.service;
+
+import br.com.exemplo.dto.ResumoIssqnDTO;
+import br.com.exemplo.repository.ResumoIssqnRepository;
+import br.com.exemplo.repository.ResumoIssqnRepository.Dimensao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@Service
+public class ResumoIssqnService {
+
+    @Autowired
+    private ResumoIssqnRepository resumoIssqnRepository;
+
+    /**
+     * Totais de valor do ISSQN, valor faturado e base de cálculo agrupados pelas dimensões
+     * pedidas ("tipoCredito", "mes", "simplesNacional", separadas por vírgula; todas quando
+     * omitido). Lê o resumo mantido pelos triggers, sem varrer a tabela credito.
+     */
+    @Transactional(readOnly = true)
+    public List<ResumoIssqnDTO> totalizar(String agrupamento, YearMonth de, YearMonth ate,
+                                          String tipoCredito, Boolean simplesNacional) {
+        if (de != null && ate != null && de.isAfter(ate)) {
+            throw new IllegalArgumentException("Mês inicial posterior ao mês final");
+        }
+        return resumoIssqnRepository.totalizar(dimensoes(agrupamento), de, ate, tipoCredito, simplesNacional);
+    }
+
+    private static Set<Dimensao> dimensoes(String agrupamento) {
+        if (agrupamento == null || agrupamento.isBlank()) {
+            return EnumSet.allOf(Dimensao.class);
+        }
+        Set<Dimensao> dimensoes = EnumSet.noneOf(Dimensao.class);
+        for (String nome : agrupamento.split(",")) {
+            switch (nome.trim().toLowerCase(Locale.ROOT)) {
+                case "tipocredito" -> dimensoes.add(Dimensao.TIPO_CREDITO);
+                case "mes" -> dimensoes.add(Dimensao.MES);
+                case "simplesnacional" -> dimensoes.add(Dimensao.SIMPLES_NACIONAL);
+                case "" -> { }
+                default -> throw new IllegalArgumentException("Agrupamento inválido: " + nome.trim());
+            }
+        }
+        return dimensoes;
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.exemplo.analise;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FiltroBloomTest {
+
+    @Test
+    void naoDeveTerFalsosNegativosEDeveRespeitarTaxaDeFalsosPositivos() {
+        // Given
+        FiltroBloom filtro = new FiltroBloom(100_000, 0.01, Long.MAX_VALUE);
+        for (int i = 0; i < 100_000; i++) {
+            filtro.adicionar("CR-" + i);
+        }
+
+        // When
+        int falsosPositivos = 0;
+        for (int i = 0; i < 100_000; i++) {
+            assertThat(filtro.talvezContenha("CR-" + i)).isTrue();
+            if (filtro.talvezContenha("AUSENTE-" + i)) {
+                falsosPositivos++;
+            }
+        }
+
+        // Then
+        assertThat(falsosPositivos / 100_000.0).isLessThan(0.01);
+        assertThat(filtro.taxaFalsosPositivosEstimada()).isLessThan(0.01);
+        // Chaves novas cujos bits já estavam ligados não são contadas
+        assertThat(filtro.chaves()).isBetween(99_000L, 100_000L);
+    }
+
+    @Test
+    void deveDegradarQuandoLimitadoPeloTamanhoMaximo() {
+        // Given: 8 mil bits para 10 mil chaves
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01, 8_192);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.adicionar("NF-" + i);
+        }
+
+        // Then
+        assertThat(filtro.bits()).isEqualTo(8_192);
+        assertThat(filtro.funcoes()).isEqualTo(1);
+        assertThat(filtro.taxaFalsosPositivosEstimada()).isGreaterThan(0.5);
+    }
+
+    @Test
+    void deveIndicarSeAChaveEraNova() {
+        FiltroBloom filtro = new FiltroBloom(1_000, 0.01, Long.MAX_VALUE);
+
+        assertThat(filtro.adicionar("CR-1")).isTrue();
+        assertThat(filtro.adicionar("CR-1")).isFalse();
+        assertThat(filtro.chaves()).isEqualTo(1);
+    }
+
+    @Test
+    void deveAceitarAdicoesConcorrentes() throws Exception {
+        // Given
+        FiltroBloom filtro = new FiltroBloom(200_000, 0.01, Long.MAX_VALUE);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // When
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        filtro.adicionar("CR-" + thread + "-" + i);
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then: nenhum bit perdido por corrida entre as threads
+        for (int t = 0; t < 4; t++) {
+            for (int i = 0; i < 50_000; i++) {
+                assertThat(filtro.talvezContenha("CR-" + t + "-" + i)).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void deveRejeitarParametrosInvalidos() {
+        assertThatThrownBy(() -> new FiltroBloom(0, 0.01, Long.MAX_VALUE)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new FiltroBloom(1_000, 1.0, Long.MAX_VALUE)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
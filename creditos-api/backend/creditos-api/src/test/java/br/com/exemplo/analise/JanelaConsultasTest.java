@@ -0,0 +1,136 @@
+package br.com.exemplo.analise;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.AnaliseConsultasDTO;
+import br.com.exemplo.dto.ChaveConsultadaDTO;
+import br.com.exemplo.dto.ConsultaEventDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class JanelaConsultasTest {
+
+    // Início de uma subjanela de 10s
+    private static final long AGORA = 1_700_000_000_000L;
+
+    private CreditosProperties.Analise config;
+    private JanelaConsultas janela;
+
+    @BeforeEach
+    void setUp() {
+        config = new CreditosProperties().getAnalise();
+        config.setJanela(Duration.ofSeconds(60));
+        config.setSubjanelas(6);
+        config.setLargura(1024);
+        config.setTopK(10);
+        janela = new JanelaConsultas(config);
+    }
+
+    @Test
+    void deveEncontrarChavesQuentesEmMeioACaudaLonga() {
+        // Given: 3 NFS-e quentes e 20 mil chaves consultadas uma vez cada
+        List<ConsultaEventDTO> eventos = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            eventos.add(evento("NUMERO_NFSE", "FRIA-" + i));
+        }
+        for (int i = 0; i < 500; i++) {
+            eventos.add(evento("NUMERO_NFSE", "QUENTE-1"));
+            if (i < 300) {
+                eventos.add(evento("NUMERO_NFSE", "QUENTE-2"));
+            }
+            if (i < 200) {
+                eventos.add(evento("NUMERO_CREDITO", "QUENTE-3"));
+            }
+        }
+        Collections.shuffle(eventos, new Random(42));
+
+        // When: lotes como os entregues pelo consumidor
+        for (int i = 0; i < eventos.size(); i += 500) {
+            janela.registrar(eventos.subList(i, Math.min(i + 500, eventos.size())), AGORA);
+        }
+        AnaliseConsultasDTO resumo = janela.resumir(3, AGORA);
+
+        // Then
+        assertThat(resumo.getMaisConsultadas()).extracting(ChaveConsultadaDTO::getValorConsultado)
+                .containsExactly("QUENTE-1", "QUENTE-2", "QUENTE-3");
+        assertThat(resumo.getMaisConsultadas().get(2).getTipoConsulta()).isEqualTo("NUMERO_CREDITO");
+        // Count-min nunca subestima
+        assertThat(resumo.getMaisConsultadas().get(0).getConsultasEstimadas()).isGreaterThanOrEqualTo(500);
+        assertThat(resumo.getTotalConsultas()).isEqualTo(21_000);
+        assertThat(resumo.getConsultasPorTipo()).containsEntry("NUMERO_NFSE", 20_800L).containsEntry("NUMERO_CREDITO", 200L);
+        assertThat(resumo.getChavesDistintas()).isCloseTo(20_003L, within(600L));
+    }
+
+    @Test
+    void deveDescartarSubjanelasForaDaJanela() {
+        // Given
+        janela.registrar(List.of(evento("NUMERO_NFSE", "ANTIGA")), AGORA);
+        janela.registrar(List.of(evento("NUMERO_NFSE", "RECENTE")), AGORA + 50_000);
+
+        // When: 60s depois a primeira subjanela saiu da janela
+        AnaliseConsultasDTO resumo = janela.resumir(10, AGORA + 60_000);
+
+        // Then
+        assertThat(resumo.getTotalConsultas()).isEqualTo(1);
+        assertThat(resumo.getMaisConsultadas()).extracting(ChaveConsultadaDTO::getValorConsultado).containsExactly("RECENTE");
+        assertThat(resumo.getChavesDistintas()).isEqualTo(1);
+    }
+
+    @Test
+    void deveSomarSubjanelasDaMesmaJanela() {
+        // Given
+        janela.registrar(List.of(evento("NUMERO_NFSE", "7891011"), evento("NUMERO_NFSE", "7891011")), AGORA);
+        janela.registrar(List.of(evento("NUMERO_NFSE", "7891011")), AGORA + 20_000);
+
+        // When
+        AnaliseConsultasDTO resumo = janela.resumir(10, AGORA + 20_000);
+
+        // Then
+        assertThat(resumo.getMaisConsultadas().get(0).getConsultasEstimadas()).isEqualTo(3);
+        assertThat(resumo.getChavesDistintas()).isEqualTo(1);
+        assertThat(resumo.getFimJanela()).isAfter(resumo.getInicioJanela());
+    }
+
+    @Test
+    void deveLimitarQuantidadeDeTiposPorSubjanela() {
+        // Given
+        List<ConsultaEventDTO> eventos = new ArrayList<>();
+        for (int i = 0; i < JanelaConsultas.MAX_TIPOS + 5; i++) {
+            eventos.add(evento("TIPO_" + i, "X"));
+        }
+
+        // When
+        janela.registrar(eventos, AGORA);
+
+        // Then
+        AnaliseConsultasDTO resumo = janela.resumir(10, AGORA);
+        assertThat(resumo.getConsultasPorTipo()).containsEntry(JanelaConsultas.OUTROS, 5L);
+        assertThat(resumo.getConsultasPorTipo()).hasSize(JanelaConsultas.MAX_TIPOS + 1);
+    }
+
+    @Test
+    void hyperLogLogDeveEstimarCardinalidadeComErroPequeno() {
+        // Given
+        HyperLogLog hll = new HyperLogLog(14);
+
+        // When
+        for (int i = 0; i < 1_000_000; i++) {
+            hll.adicionar(JanelaConsultas.hash("NUMERO_NFSE:" + i));
+        }
+
+        // Then: erro padrão teórico de ~0,8% com 2^14 registradores
+        assertThat(hll.estimar()).isCloseTo(1_000_000L, within(30_000L));
+    }
+
+    private static ConsultaEventDTO evento(String tipo, String valor) {
+        return new ConsultaEventDTO(tipo, valor, 1, "localhost", "API");
+    }
+}
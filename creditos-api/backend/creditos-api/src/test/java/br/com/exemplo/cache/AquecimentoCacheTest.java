@@ -0,0 +1,111 @@
+package br.com.exemplo.cache;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.ChaveConsultadaDTO;
+import br.com.exemplo.repository.ChaveQuenteRepository;
+import br.com.exemplo.service.CreditoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class AquecimentoCacheTest {
+
+    private CreditoService creditoService;
+    private ChaveQuenteRepository chaveQuenteRepository;
+    private CreditosProperties properties;
+    private AquecimentoCache aquecimentoCache;
+
+    @BeforeEach
+    void setUp() {
+        creditoService = mock(CreditoService.class);
+        chaveQuenteRepository = mock(ChaveQuenteRepository.class);
+        properties = new CreditosProperties();
+        properties.getCache().getAquecimento().setTamanhoLote(2);
+        aquecimentoCache = new AquecimentoCache(creditoService, chaveQuenteRepository, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void deveCarregarChavesEmLotesPorTipo() {
+        // Given
+        when(chaveQuenteRepository.listarRecentes(any(), anyInt())).thenReturn(List.of(
+                nfse("N1"), nfse("N2"), credito("C1"), nfse("N3"),
+                new ChaveConsultadaDTO("LOTE", "ignorada", 1)));
+        when(creditoService.preCarregarNfse(any())).thenAnswer(invocacao -> ((List<?>) invocacao.getArgument(0)).size());
+        when(creditoService.preCarregarCreditos(any())).thenAnswer(invocacao -> ((List<?>) invocacao.getArgument(0)).size());
+
+        // When
+        AquecimentoCache.Resultado resultado = aquecimentoCache.aquecer();
+
+        // Then
+        verify(creditoService).preCarregarNfse(List.of("N1", "N2"));
+        verify(creditoService).preCarregarNfse(List.of("N3"));
+        verify(creditoService).preCarregarCreditos(List.of("C1"));
+        assertEquals(5, resultado.chavesLidas());
+        assertEquals(4, resultado.chavesCarregadas());
+        assertFalse(resultado.orcamentoEsgotado());
+    }
+
+    @Test
+    void deveFicarForaDeServicoAteConcluir() {
+        // Given
+        when(chaveQuenteRepository.listarRecentes(any(), anyInt())).thenReturn(List.of());
+
+        // When / Then
+        assertEquals(Status.OUT_OF_SERVICE, aquecimentoCache.health().getStatus());
+        aquecimentoCache.aquecer();
+        assertEquals(Status.UP, aquecimentoCache.health().getStatus());
+    }
+
+    @Test
+    void deveFicarProntoQuandoOrcamentoEsgota() {
+        // Given
+        properties.getCache().getAquecimento().setOrcamento(Duration.ofMillis(100));
+        when(chaveQuenteRepository.listarRecentes(any(), anyInt())).thenReturn(List.of(nfse("N1")));
+        when(creditoService.preCarregarNfse(any())).thenAnswer(invocacao -> {
+            Thread.sleep(5_000);
+            return 1;
+        });
+
+        // When
+        long inicio = System.nanoTime();
+        AquecimentoCache.Resultado resultado = aquecimentoCache.aquecer();
+
+        // Then
+        assertTrue(resultado.orcamentoEsgotado());
+        assertTrue(Duration.ofNanos(System.nanoTime() - inicio).toMillis() < 2_000);
+        assertEquals(Status.UP, aquecimentoCache.health().getStatus());
+    }
+
+    @Test
+    void deveFicarProntoQuandoSnapshotIndisponivel() {
+        // Given
+        when(chaveQuenteRepository.listarRecentes(any(), anyInt()))
+                .thenThrow(new DataAccessResourceFailureException("sem conexão"));
+
+        // When
+        AquecimentoCache.Resultado resultado = aquecimentoCache.aquecer();
+
+        // Then
+        assertEquals(0, resultado.chavesCarregadas());
+        assertEquals(Status.UP, aquecimentoCache.health().getStatus());
+        verifyNoInteractions(creditoService);
+    }
+
+    private static ChaveConsultadaDTO nfse(String valor) {
+        return new ChaveConsultadaDTO(AquecimentoCache.NUMERO_NFSE, valor, 10);
+    }
+
+    private static ChaveConsultadaDTO credito(String valor) {
+        return new ChaveConsultadaDTO(AquecimentoCache.NUMERO_CREDITO, valor, 10);
+    }
+}
@@ -0,0 +1,148 @@
+package br.com.exemplo.cache;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.exception.ServicoIndisponivelException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsultasEmAndamentoTest {
+
+    private CreditosProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ConsultasEmAndamento consultas;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CreditosProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        consultas = new ConsultasEmAndamento(properties, meterRegistry);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void deveCompartilharResultadoDaConsultaEmAndamento() throws Exception {
+        // Given: a primeira chamada fica em andamento até ser liberada
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger execucoes = new AtomicInteger();
+        Future<String> primeira = executor.submit(() -> consultas.executar("nfse:1", () -> {
+            execucoes.incrementAndGet();
+            iniciada.countDown();
+            aguardar(liberar);
+            return "resultado";
+        }));
+        iniciada.await(5, TimeUnit.SECONDS);
+
+        // When
+        Future<String> segunda = executor.submit(() -> consultas.executar("nfse:1", () -> {
+            execucoes.incrementAndGet();
+            return "outro";
+        }));
+        aguardarCompartilhadas(1);
+        liberar.countDown();
+
+        // Then
+        assertEquals("resultado", primeira.get(5, TimeUnit.SECONDS));
+        assertEquals("resultado", segunda.get(5, TimeUnit.SECONDS));
+        assertEquals(1, execucoes.get());
+        assertEquals(0, consultas.emAndamento());
+    }
+
+    @Test
+    void naoDeveCompartilharChavesDiferentesNemConsultasJaConcluidas() {
+        assertEquals("a", consultas.executar("nfse:1", () -> "a"));
+        assertEquals("b", consultas.executar("nfse:1", () -> "b"));
+        assertEquals("c", consultas.executar("nfse:2", () -> "c"));
+        assertEquals(0.0, meterRegistry.get("creditos.coalescencia.compartilhadas").counter().count());
+    }
+
+    @Test
+    void devePropagarFalhaParaTodosOsParticipantes() throws Exception {
+        // Given
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Future<String> primeira = executor.submit(() -> consultas.<String>executar("nfse:1", () -> {
+            iniciada.countDown();
+            aguardar(liberar);
+            throw new IllegalStateException("banco indisponível");
+        }));
+        iniciada.await(5, TimeUnit.SECONDS);
+
+        // When
+        Future<String> segunda = executor.submit(() -> consultas.executar("nfse:1", () -> "nunca executada"));
+        aguardarCompartilhadas(1);
+        liberar.countDown();
+
+        // Then
+        ExecutionException primeiraFalha = assertThrows(ExecutionException.class, () -> primeira.get(5, TimeUnit.SECONDS));
+        ExecutionException segundaFalha = assertThrows(ExecutionException.class, () -> segunda.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, primeiraFalha.getCause());
+        assertSame(primeiraFalha.getCause(), segundaFalha.getCause());
+        // A falha não fica registrada: a próxima chamada executa de novo
+        assertEquals("ok", consultas.executar("nfse:1", () -> "ok"));
+    }
+
+    @Test
+    void deveDesistirAposTimeoutComServicoIndisponivel() throws Exception {
+        // Given
+        properties.getCache().getCoalescencia().setTimeout(Duration.ofMillis(50));
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Future<String> primeira = executor.submit(() -> consultas.executar("nfse:1", () -> {
+            iniciada.countDown();
+            aguardar(liberar);
+            return "lento";
+        }));
+        iniciada.await(5, TimeUnit.SECONDS);
+
+        // When / Then
+        ServicoIndisponivelException erro = assertThrows(ServicoIndisponivelException.class,
+                () -> consultas.executar("nfse:1", () -> "nunca executada"));
+        assertEquals(Duration.ofMillis(50), erro.getTentarNovamenteEm());
+        assertEquals(1.0, meterRegistry.get("creditos.coalescencia.timeouts").counter().count());
+
+        liberar.countDown();
+        assertEquals("lento", primeira.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void deveExecutarDiretoQuandoDesabilitada() {
+        properties.getCache().getCoalescencia().setHabilitada(false);
+
+        assertEquals("a", consultas.executar("nfse:1", () -> "a"));
+        assertEquals(0, consultas.emAndamento());
+    }
+
+    private void aguardarCompartilhadas(int quantidade) throws InterruptedException {
+        while (meterRegistry.get("creditos.coalescencia.compartilhadas").counter().count() < quantidade) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
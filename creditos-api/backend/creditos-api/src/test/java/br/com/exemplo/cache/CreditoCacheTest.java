@@ -0,0 +1,120 @@
+package br.com.exemplo.cache;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.CreditoResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CreditoCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CreditoCache creditoCache;
+    private CreditoResponseDTO credito;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        creditoCache = new CreditoCache(new CreditosProperties(), meterRegistry);
+        credito = new CreditoResponseDTO("123456", "7891011", LocalDate.of(2024, 2, 25),
+                new BigDecimal("1500.75"), "ISSQN", true, new BigDecimal("5.0"),
+                new BigDecimal("30000.00"), new BigDecimal("5000.00"), new BigDecimal("25000.00"));
+    }
+
+    @Test
+    void deveCarregarApenasUmaVezPorChave() {
+        AtomicInteger carregamentos = new AtomicInteger();
+
+        creditoCache.buscarPorNfse("7891011", chave -> { carregamentos.incrementAndGet(); return List.of(credito); });
+        List<CreditoResponseDTO> resultado = creditoCache.buscarPorNfse("7891011",
+                chave -> { carregamentos.incrementAndGet(); return List.of(); });
+
+        assertEquals(1, carregamentos.get());
+        assertEquals(1, resultado.size());
+    }
+
+    @Test
+    void deveArmazenarResultadoNaoEncontrado() {
+        AtomicInteger carregamentos = new AtomicInteger();
+
+        creditoCache.buscarPorNumero("999999", chave -> { carregamentos.incrementAndGet(); return Optional.empty(); });
+        Optional<CreditoResponseDTO> resultado = creditoCache.buscarPorNumero("999999",
+                chave -> { carregamentos.incrementAndGet(); return Optional.of(credito); });
+
+        assertEquals(1, carregamentos.get());
+        assertTrue(resultado.isEmpty());
+    }
+
+    @Test
+    void deveInvalidarCreditoENfse() {
+        creditoCache.armazenarNfse("7891011", List.of(credito), creditoCache.marca());
+        creditoCache.armazenarNumero("123456", Optional.of(credito), creditoCache.marca());
+
+        creditoCache.invalidar("123456", "7891011");
+
+        assertTrue(creditoCache.nfsePresentes(List.of("7891011")).isEmpty());
+        assertTrue(creditoCache.numerosPresentes(List.of("123456")).isEmpty());
+    }
+
+    @Test
+    void naoDeveArmazenarCargaEmLoteInvalidadaDuranteAConsulta() {
+        // Given: a carga em lote marca antes do SELECT e a invalidação chega antes do armazenamento
+        long marca = creditoCache.marca();
+        creditoCache.invalidar("123456", "7891011");
+
+        // When
+        creditoCache.armazenarNfse("7891011", List.of(credito), marca);
+        creditoCache.armazenarNumero("123456", Optional.of(credito), marca);
+        creditoCache.armazenarNfse("1122334", List.of(), marca);
+
+        // Then: só a chave não invalidada é armazenada
+        assertNull(creditoCache.nfsePresente("7891011"));
+        assertNull(creditoCache.numeroPresente("123456"));
+        assertEquals(List.of(), creditoCache.nfsePresente("1122334"));
+    }
+
+    @Test
+    void naoDeveArmazenarCargaEmLoteAnteriorAInvalidacaoTotal() {
+        // Given
+        long marca = creditoCache.marca();
+        creditoCache.invalidarTudo();
+
+        // When
+        creditoCache.armazenarNumero("123456", Optional.of(credito), marca);
+
+        // Then
+        assertNull(creditoCache.numeroPresente("123456"));
+    }
+
+    @Test
+    void naoDeveSobrescreverEntradaCarregadaDepoisDaInvalidacao() {
+        // Given: uma consulta individual já recarregou a chave
+        long marca = creditoCache.marca();
+        creditoCache.carregarNumero("123456", chave -> Optional.of(credito));
+
+        // When
+        creditoCache.armazenarNumero("123456", Optional.empty(), marca);
+
+        // Then
+        assertEquals(Optional.of(credito), creditoCache.numeroPresente("123456"));
+    }
+
+    @Test
+    void deveExporMetricasDeAcertoEFalha() {
+        creditoCache.buscarPorNfse("7891011", chave -> List.of(credito));
+        creditoCache.buscarPorNfse("7891011", chave -> List.of(credito));
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "creditos.nfse").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "creditos.nfse").tag("result", "miss")
+                .functionCounter().count());
+    }
+}
@@ -0,0 +1,154 @@
+package br.com.exemplo.cache;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.repository.ChavesCreditoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class FiltroExistenciaTest {
+
+    private ChavesCreditoRepository chavesCreditoRepository;
+    private CreditosProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private FiltroExistencia filtro;
+
+    @BeforeEach
+    void setUp() {
+        chavesCreditoRepository = mock(ChavesCreditoRepository.class);
+        properties = new CreditosProperties();
+        properties.getCache().getFiltro().setCapacidadeMinima(1_000);
+        properties.getCache().getFiltro().setThreads(2);
+        meterRegistry = new SimpleMeterRegistry();
+        filtro = new FiltroExistencia(chavesCreditoRepository, properties, meterRegistry);
+
+        // Tabela com ids 1..100: CR-1..CR-100, duas por NFS-e
+        when(chavesCreditoRepository.invalidacaoInstalada()).thenReturn(true);
+        when(chavesCreditoRepository.intervaloIds()).thenReturn(new long[]{1, 100});
+        doAnswer(invocacao -> {
+            long inicio = invocacao.getArgument(0);
+            long fim = invocacao.getArgument(1);
+            BiConsumer<String, String> consumidor = invocacao.getArgument(3);
+            for (long id = inicio; id < fim; id++) {
+                consumidor.accept("CR-" + id, "NF-" + (id + 1) / 2);
+            }
+            return null;
+        }).when(chavesCreditoRepository).percorrerChaves(anyLong(), anyLong(), anyInt(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        filtro.encerrar();
+    }
+
+    @Test
+    void naoDeveDescartarChavesAntesDaConstrucao() {
+        assertFalse(filtro.disponivel());
+        assertTrue(filtro.podeExistir(FiltroExistencia.Tipo.CREDITO, "CR-999"));
+    }
+
+    @Test
+    void deveConstruirAPartirDeTodasAsFaixasDeIds() {
+        // When
+        assertTrue(filtro.construir());
+
+        // Then
+        assertTrue(filtro.disponivel());
+        for (int id = 1; id <= 100; id++) {
+            assertTrue(filtro.podeExistir(FiltroExistencia.Tipo.CREDITO, "CR-" + id));
+        }
+        assertTrue(filtro.podeExistir(FiltroExistencia.Tipo.NFSE, "NF-50"));
+        assertFalse(filtro.podeExistir(FiltroExistencia.Tipo.NFSE, "NF-51"));
+        verify(chavesCreditoRepository, times(8)).percorrerChaves(anyLong(), anyLong(), anyInt(), any());
+        assertEquals(1.0, meterRegistry.get("creditos.filtro.consultas").tag("tipo", "nfse").tag("resultado", "ausente").counter().count());
+        assertTrue(meterRegistry.get("creditos.filtro.taxa.falsos.positivos").tag("tipo", "credito").gauge().value() < 0.01);
+    }
+
+    @Test
+    void deveAdicionarChavesNotificadas() {
+        // Given
+        filtro.construir();
+        assertFalse(filtro.podeExistir(FiltroExistencia.Tipo.CREDITO, "CR-NOVO"));
+
+        // When
+        filtro.invalidar("CR-NOVO", "NF-NOVA");
+
+        // Then
+        assertTrue(filtro.podeExistir(FiltroExistencia.Tipo.CREDITO, "CR-NOVO"));
+        assertTrue(filtro.podeExistir(FiltroExistencia.Tipo.NFSE, "NF-NOVA"));
+    }
+
+    @Test
+    void deveContarFalsosPositivos() {
+        // Given
+        filtro.construir();
+
+        // When: chave presente no filtro, mas excluída do banco
+        filtro.registrarNaoEncontrada(FiltroExistencia.Tipo.CREDITO, "CR-1");
+        filtro.registrarNaoEncontrada(FiltroExistencia.Tipo.CREDITO, "CR-999");
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("creditos.filtro.falsos.positivos").tag("tipo", "credito").counter().count());
+    }
+
+    @Test
+    void deveDeixarDeUsarOFiltroAposAlteracaoEmMassa() {
+        // Given: a reconstrução disparada encontra a tabela sem o trigger e não publica
+        filtro.construir();
+        when(chavesCreditoRepository.invalidacaoInstalada()).thenReturn(false);
+
+        // When
+        filtro.invalidarTudo();
+
+        // Then
+        assertFalse(filtro.disponivel());
+        assertTrue(filtro.podeExistir(FiltroExistencia.Tipo.CREDITO, "CR-999"));
+    }
+
+    @Test
+    void naoDevePublicarConstrucaoConcorrenteComAlteracaoEmMassa() {
+        // Given: '*' chega durante a varredura; a reconstrução reagendada não publica
+        when(chavesCreditoRepository.invalidacaoInstalada()).thenReturn(true, false);
+        doAnswer(invocacao -> {
+            filtro.invalidarTudo();
+            return null;
+        }).when(chavesCreditoRepository).percorrerChaves(anyLong(), anyLong(), anyInt(), any());
+
+        // When / Then
+        assertFalse(filtro.construir());
+        assertFalse(filtro.disponivel());
+    }
+
+    @Test
+    void naoDeveConstruirSemTriggerDeInvalidacao() {
+        when(chavesCreditoRepository.invalidacaoInstalada()).thenReturn(false);
+
+        assertFalse(filtro.construir());
+        assertFalse(filtro.disponivel());
+        verify(chavesCreditoRepository, never()).percorrerChaves(anyLong(), anyLong(), anyInt(), any());
+    }
+
+    @Test
+    void deveIgnorarAlteracaoEmMassaQuandoInvalidacaoDesabilitada() {
+        // Given
+        properties.getCache().getInvalidacao().setHabilitada(false);
+        FiltroExistencia desabilitado = new FiltroExistencia(chavesCreditoRepository, properties, new SimpleMeterRegistry());
+
+        // When
+        desabilitado.invalidarTudo();
+        desabilitado.encerrar();
+
+        // Then
+        verifyNoInteractions(chavesCreditoRepository);
+        assertFalse(desabilitado.disponivel());
+    }
+}
@@ -0,0 +1,132 @@
+package br.com.exemplo.cache;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.CreditoResponseDTO;
+import br.com.exemplo.repository.ChavesCreditoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvalidacaoCacheListenerTest {
+
+    @Mock
+    private InvalidacaoCache cache;
+
+    private InvalidacaoCacheListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new InvalidacaoCacheListener(List.of(cache), new DataSourceProperties(),
+                new CreditosProperties(), new ObjectMapper());
+    }
+
+    @Test
+    void deveInvalidarChavesDoPayload() {
+        listener.processarNotificacao("[{\"numeroCredito\":\"123456\",\"numeroNfse\":\"7891011\"},"
+                + "{\"numeroCredito\":\"654321\",\"numeroNfse\":\"1122334\"}]");
+
+        verify(cache).invalidar("123456", "7891011");
+        verify(cache).invalidar("654321", "1122334");
+        verify(cache, never()).invalidarTudo();
+    }
+
+    @Test
+    void deveInvalidarTudoQuandoPayloadForCuringa() {
+        listener.processarNotificacao("*");
+
+        verify(cache).invalidarTudo();
+        verify(cache, never()).invalidar(any(), any());
+    }
+
+    @Test
+    void deveInvalidarTudoQuandoPayloadForInvalido() {
+        listener.processarNotificacao("{nao-e-json");
+
+        verify(cache).invalidarTudo();
+    }
+
+    @Test
+    void deveAtualizarFiltroDeExistenciaAntesDeEsvaziarCacheDeConsultas() throws Exception {
+        // Given: filtro construído sem o crédito, que acaba de ser inserido; caches
+        // registrados fora de ordem
+        CreditosProperties properties = new CreditosProperties();
+        ChavesCreditoRepository chavesCreditoRepository = mock(ChavesCreditoRepository.class);
+        when(chavesCreditoRepository.invalidacaoInstalada()).thenReturn(true);
+        FiltroExistencia filtro = spy(new FiltroExistencia(chavesCreditoRepository, properties, new SimpleMeterRegistry()));
+        assertTrue(filtro.construir());
+        CreditoCache creditoCache = new CreditoCache(properties, new SimpleMeterRegistry());
+        InvalidacaoCacheListener ordenado = new InvalidacaoCacheListener(List.of(creditoCache, filtro),
+                new DataSourceProperties(), properties, new ObjectMapper());
+
+        // A notificação para antes de atualizar o filtro até a consulta concorrente terminar
+        CountDownLatch notificacaoIniciada = new CountDownLatch(1);
+        CountDownLatch consultaFeita = new CountDownLatch(1);
+        doAnswer(invocacao -> {
+            notificacaoIniciada.countDown();
+            consultaFeita.await(5, TimeUnit.SECONDS);
+            return invocacao.callRealMethod();
+        }).when(filtro).invalidar("123456", "7891011");
+        CreditoResponseDTO inserido = new CreditoResponseDTO("123456", "7891011", LocalDate.of(2024, 2, 25),
+                new BigDecimal("1500.75"), "ISSQN", true, new BigDecimal("5.0"),
+                new BigDecimal("30000.00"), new BigDecimal("5000.00"), new BigDecimal("25000.00"));
+
+        // When: a consulta cai no intervalo e armazena "não encontrado"
+        Thread notificacao = new Thread(() -> ordenado.processarNotificacao(
+                "[{\"numeroCredito\":\"123456\",\"numeroNfse\":\"7891011\"}]"));
+        notificacao.start();
+        assertTrue(notificacaoIniciada.await(5, TimeUnit.SECONDS));
+        assertEquals(Optional.empty(), creditoCache.carregarNumero("123456",
+                chave -> filtro.podeExistir(FiltroExistencia.Tipo.CREDITO, chave) ? Optional.of(inserido) : Optional.empty()));
+        consultaFeita.countDown();
+        notificacao.join(5_000);
+
+        // Then: o esvaziamento do cache vem depois e descarta a entrada negativa
+        assertNull(creditoCache.numeroPresente("123456"));
+        assertEquals(Optional.of(inserido), creditoCache.carregarNumero("123456",
+                chave -> filtro.podeExistir(FiltroExistencia.Tipo.CREDITO, chave) ? Optional.of(inserido) : Optional.empty()));
+        filtro.encerrar();
+    }
+
+    @Test
+    void deveAplicarNotificacoesDoFiltroAoCacheDeRespostas() {
+        // Given: caches registrados na ordem inversa
+        CreditosProperties properties = new CreditosProperties();
+        FiltroExistencia filtro = spy(new FiltroExistencia(mock(ChavesCreditoRepository.class), properties,
+                new SimpleMeterRegistry()));
+        CreditoCache creditoCache = spy(new CreditoCache(properties, new SimpleMeterRegistry()));
+        RespostaCache respostaCache = spy(new RespostaCache(properties, new SimpleMeterRegistry()));
+        InvalidacaoCacheListener ordenado = new InvalidacaoCacheListener(List.of(respostaCache, creditoCache, filtro),
+                new DataSourceProperties(), properties, new ObjectMapper());
+
+        // When
+        ordenado.processarNotificacao("[{\"numeroCredito\":\"123456\",\"numeroNfse\":\"7891011\"}]");
+        ordenado.processarNotificacao("*");
+
+        // Then: filtro de existência, cache de dados e, por último, cache de respostas
+        InOrder ordem = inOrder(filtro, creditoCache, respostaCache);
+        ordem.verify(filtro).invalidar("123456", "7891011");
+        ordem.verify(creditoCache).invalidar("123456", "7891011");
+        ordem.verify(respostaCache).invalidar("123456", "7891011");
+        ordem.verify(filtro).invalidarTudo();
+        ordem.verify(creditoCache).invalidarTudo();
+        ordem.verify(respostaCache).invalidarTudo();
+        filtro.encerrar();
+    }
+}
@@ -0,0 +1,133 @@
+package br.com.exemplo.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Notificações do trigger de invalidação do schema real (infra/initdb).
+ */
+@Testcontainers
+class InvalidacaoTriggerIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.5")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withCopyFileToContainer(MountableFile.forHostPath("../../infra/initdb/01-schema.sql"),
+                    "/docker-entrypoint-initdb.d/01-schema.sql");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Connection escuta;
+    private Connection escrita;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        escrita = DriverManager.getConnection(postgres.getJdbcUrl(), "test", "test");
+        executar("TRUNCATE credito");
+        escuta = DriverManager.getConnection(postgres.getJdbcUrl(), "test", "test");
+        try (Statement statement = escuta.createStatement()) {
+            statement.execute("LISTEN credito_invalidacao");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        escuta.close();
+        escrita.close();
+    }
+
+    @Test
+    void deveNotificarChavesDeCargaEmMassaEmLotesDentroDoLimiteDoPayload() throws Exception {
+        // When: um único comando com 5.000 linhas, como a importação
+        executar("""
+                INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn, tipo_credito,
+                                     simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo)
+                SELECT 'CR-' || i, 'NF-' || (i / 2), DATE '2024-01-01', 10.00, 'ISSQN', false, 2.0, 500.00, 0.00, 500.00
+                  FROM generate_series(1, 5000) i
+                """);
+
+        // Then: nenhum '*', vários NOTIFY com todas as chaves
+        List<String> payloads = notificacoes();
+        assertThat(payloads).hasSizeGreaterThan(1).doesNotContain("*");
+        Set<String> creditos = new HashSet<>();
+        for (String payload : payloads) {
+            assertThat(payload.getBytes(StandardCharsets.UTF_8).length).isLessThan(8000);
+            for (JsonNode chave : objectMapper.readTree(payload)) {
+                creditos.add(chave.path("numeroCredito").asText());
+            }
+        }
+        assertThat(creditos).hasSize(5000).contains("CR-1", "CR-5000");
+    }
+
+    @Test
+    void deveNotificarChavesAntigasENovasNaAtualizacao() throws Exception {
+        // Given
+        executar("""
+                INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn, tipo_credito,
+                                     simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo)
+                VALUES ('123456', '7891011', '2024-02-25', 1500.75, 'ISSQN', true, 5.0, 30000.00, 5000.00, 25000.00)
+                """);
+        notificacoes();
+
+        // When: o crédito muda de NFS-e
+        executar("UPDATE credito SET numero_nfse = '1122334' WHERE numero_credito = '123456'");
+
+        // Then
+        List<String> payloads = notificacoes();
+        assertThat(payloads).hasSize(1);
+        Set<String> nfse = new HashSet<>();
+        for (JsonNode chave : objectMapper.readTree(payloads.get(0))) {
+            nfse.add(chave.path("numeroNfse").asText());
+        }
+        assertThat(nfse).containsExactlyInAnyOrder("7891011", "1122334");
+    }
+
+    @Test
+    void deveInvalidarTudoNoTruncate() throws Exception {
+        // When
+        executar("TRUNCATE credito");
+
+        // Then
+        assertThat(notificacoes()).containsExactly("*");
+    }
+
+    private void executar(String sql) throws SQLException {
+        try (Statement statement = escrita.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private List<String> notificacoes() throws SQLException {
+        List<String> payloads = new ArrayList<>();
+        PGNotification[] recebidas;
+        while ((recebidas = escuta.unwrap(PGConnection.class).getNotifications(500)) != null && recebidas.length > 0) {
+            for (PGNotification notificacao : recebidas) {
+                payloads.add(notificacao.getParameter());
+            }
+        }
+        return payloads;
+    }
+}
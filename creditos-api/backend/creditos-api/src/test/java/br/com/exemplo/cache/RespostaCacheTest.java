@@ -0,0 +1,136 @@
+package br.com.exemplo.cache;
+
+import br.com.exemplo.cache.RespostaCache.Chave;
+import br.com.exemplo.cache.RespostaCache.RespostaSerializada;
+import br.com.exemplo.cache.RespostaCache.TipoResposta;
+import br.com.exemplo.config.CreditosProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RespostaCacheTest {
+
+    private static final Chave NFSE_JSON = new Chave(TipoResposta.NFSE, "7891011", MediaType.APPLICATION_JSON);
+    private static final Chave NFSE_CBOR = new Chave(TipoResposta.NFSE, "7891011", MediaType.APPLICATION_CBOR);
+    private static final Chave CREDITO_JSON = new Chave(TipoResposta.CREDITO, "123456", MediaType.APPLICATION_JSON);
+
+    private CreditosProperties properties;
+    private RespostaCache respostaCache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CreditosProperties();
+        properties.getCache().getResposta().setTamanhoMinimoCompressao(100);
+        respostaCache = new RespostaCache(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void deveDevolverOsMesmosBytesArmazenados() {
+        // Given
+        byte[] corpo = "[{\"numeroCredito\":\"123456\"}]".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        respostaCache.armazenar(NFSE_JSON, corpo, "\"1-json-abc\"", Instant.EPOCH, 1, respostaCache.marca());
+        RespostaSerializada resposta = respostaCache.buscar(NFSE_JSON);
+
+        // Then
+        assertNotNull(resposta);
+        assertSame(corpo, resposta.corpo());
+        assertEquals(MediaType.APPLICATION_JSON, resposta.tipoConteudo());
+        assertEquals("\"1-json-abc\"", resposta.etag());
+        assertNull(respostaCache.buscar(NFSE_CBOR));
+    }
+
+    @Test
+    void deveComprimirApenasCorposAcimaDoTamanhoMinimo() throws IOException {
+        // Given
+        byte[] pequeno = "[]".getBytes(StandardCharsets.UTF_8);
+        byte[] grande = "{\"numeroCredito\":\"123456\"},".repeat(20).getBytes(StandardCharsets.UTF_8);
+
+        // When
+        RespostaSerializada semGzip = respostaCache.armazenar(CREDITO_JSON, pequeno, "\"a\"", null, 0, respostaCache.marca());
+        RespostaSerializada comGzip = respostaCache.armazenar(NFSE_JSON, grande, "\"1-json-abc\"", null, 20, respostaCache.marca());
+
+        // Then
+        assertNull(semGzip.corpoGzip());
+        assertNotNull(comGzip.corpoGzip());
+        assertTrue(comGzip.corpoGzip().length < grande.length);
+        assertEquals("\"1-json-abc-gzip\"", comGzip.etagGzip());
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(comGzip.corpoGzip()))) {
+            assertArrayEquals(grande, gzip.readAllBytes());
+        }
+    }
+
+    @Test
+    void deveInvalidarTodasAsRepresentacoesDaChave() {
+        // Given
+        byte[] corpo = new byte[]{1, 2, 3};
+        respostaCache.armazenar(NFSE_JSON, corpo, "\"a\"", null, 1, respostaCache.marca());
+        respostaCache.armazenar(NFSE_CBOR, corpo, "\"b\"", null, 1, respostaCache.marca());
+        respostaCache.armazenar(CREDITO_JSON, corpo, "\"c\"", null, 1, respostaCache.marca());
+
+        // When
+        respostaCache.invalidar(null, "7891011");
+
+        // Then
+        assertNull(respostaCache.buscar(NFSE_JSON));
+        assertNull(respostaCache.buscar(NFSE_CBOR));
+        assertNotNull(respostaCache.buscar(CREDITO_JSON));
+
+        respostaCache.invalidarTudo();
+        assertNull(respostaCache.buscar(CREDITO_JSON));
+    }
+
+    @Test
+    void naoDeveArmazenarRespostaMontadaAntesDeUmaInvalidacao() {
+        // Given: marca lida antes de consultar os dados
+        long marca = respostaCache.marca();
+        respostaCache.invalidar("123456", "7891011");
+
+        // When
+        RespostaSerializada resposta = respostaCache.armazenar(NFSE_JSON, new byte[]{1}, "\"a\"", null, 1, marca);
+
+        // Then: a requisição atual ainda é respondida, mas nada fica no cache
+        assertNotNull(resposta);
+        assertNull(respostaCache.buscar(NFSE_JSON));
+    }
+
+    @Test
+    void deveArmazenarRespostaQuandoOutraChaveForInvalidada() {
+        // Given: marca lida antes de consultar os dados
+        long marca = respostaCache.marca();
+        respostaCache.invalidar("654321", "1122334");
+
+        // When
+        respostaCache.armazenar(NFSE_JSON, new byte[]{1}, "\"a\"", null, 1, marca);
+
+        // Then: só invalidações da própria chave descartam a resposta
+        assertNotNull(respostaCache.buscar(NFSE_JSON));
+
+        respostaCache.invalidarTudo();
+        respostaCache.armazenar(CREDITO_JSON, new byte[]{1}, "\"b\"", null, 1, marca);
+        assertNull(respostaCache.buscar(CREDITO_JSON));
+    }
+
+    @Test
+    void naoDeveArmazenarQuandoDesabilitado() {
+        // Given
+        properties.getCache().getResposta().setHabilitado(false);
+        RespostaCache desabilitado = new RespostaCache(properties, new SimpleMeterRegistry());
+
+        // When
+        desabilitado.armazenar(NFSE_JSON, new byte[]{1}, "\"a\"", null, 1, desabilitado.marca());
+
+        // Then
+        assertNull(desabilitado.buscar(NFSE_JSON));
+    }
+}
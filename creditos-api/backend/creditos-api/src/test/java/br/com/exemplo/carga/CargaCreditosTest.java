@@ -0,0 +1,131 @@
+package br.com.exemplo.carga;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.ConfluentKafkaContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Teste de carga reprodutível dos endpoints de consulta contra PostgreSQL 17 e
+ * Kafka em Testcontainers, com chegadas em malha aberta a taxa fixa.
+ *
+ * A massa vem do {@link GeradorMassaCreditos}. A popularidade das NFS-e consultadas
+ * segue Zipf (poucas chaves quentes, cauda longa) e uma fração das consultas usa
+ * chaves inexistentes. Latências p50/p99/p99.9
+ * e taxa de erros são impressas e gravadas em target/carga/*.hgrm.
+ *
+ * Executar com:
+ * ./mvnw test -Dtest=CargaCreditosTest -Dbenchmark=true -Dcarga.linhas=10000000 -Dcarga.taxa=500 -Dcarga.duracao=60
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CargaCreditosTest {
+
+    private static final long LINHAS = Long.getLong("carga.linhas", 1_000_000L);
+    private static final int THREADS_CARGA_INICIAL = Runtime.getRuntime().availableProcessors();
+    private static final int TAXA = Integer.getInteger("carga.taxa", 500);
+    private static final Duration DURACAO = Duration.ofSeconds(Integer.getInteger("carga.duracao", 30));
+    private static final Duration AQUECIMENTO = Duration.ofSeconds(10);
+    private static final double FRACAO_INEXISTENTES = 0.05;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.5")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Container
+    static ConfluentKafkaContainer kafka = new ConfluentKafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.4.0"));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
+        registry.add("creditos.cache.invalidacao.habilitada", () -> "false");
+        registry.add("creditos.limite.habilitado", () -> "false"); // Mede a capacidade, sem proteção de sobrecarga
+    }
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private static int totalNfse;
+
+    private void popular() throws Exception {
+        Long existentes = jdbcTemplate.queryForObject("SELECT count(DISTINCT numero_nfse) FROM credito", Long.class);
+        totalNfse = existentes != null && existentes > 0
+                ? existentes.intValue()
+                : (int) new GeradorMassaCreditos(dataSource, LINHAS, THREADS_CARGA_INICIAL).gerar();
+    }
+
+    private URI uri(String caminho) {
+        return URI.create("http://localhost:" + porta + "/api/creditos/" + caminho);
+    }
+
+    private URI proximaNfse(DistribuicaoZipf popularidade) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < FRACAO_INEXISTENTES) {
+            return uri("NF-INEXISTENTE-" + random.nextInt());
+        }
+        return uri("NF" + popularidade.amostrar(random));
+    }
+
+    private URI proximoCredito(DistribuicaoZipf popularidade) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < FRACAO_INEXISTENTES) {
+            return uri("credito/CR-INEXISTENTE-" + random.nextInt());
+        }
+        return uri("credito/CR" + popularidade.amostrar(random) + "-1");
+    }
+
+    @Test
+    void medirLatenciaDosEndpointsDeConsulta() throws Exception {
+        popular();
+        DistribuicaoZipf nfsePopulares = new DistribuicaoZipf(totalNfse, 1.1);
+        GeradorCargaAberta gerador = new GeradorCargaAberta(Duration.ofSeconds(10));
+
+        // Aquecimento do JIT, pools e caches; o resultado é descartado
+        gerador.executar("aquecimento", () -> proximaNfse(nfsePopulares), status -> true, TAXA, AQUECIMENTO);
+
+        List<ResultadoCarga> resultados = List.of(
+                gerador.executar("consulta-por-nfse", () -> proximaNfse(nfsePopulares),
+                        status -> status == 200, TAXA, DURACAO),
+                gerador.executar("consulta-por-credito", () -> proximoCredito(nfsePopulares),
+                        status -> status == 200 || status == 404, TAXA, DURACAO));
+
+        Path diretorio = Path.of("target", "carga");
+        for (ResultadoCarga resultado : resultados) {
+            System.out.println(resultado.resumo());
+            System.out.println("  histograma: " + resultado.gravarHgrm(diretorio).toAbsolutePath());
+        }
+
+        assertThat(resultados).allSatisfy(resultado -> assertThat(resultado.requisicoes()).isPositive());
+    }
+}
@@ -0,0 +1,40 @@
+package br.com.exemplo.carga;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Amostragem de ranks 1..n com distribuição de Zipf (P(k) proporcional a 1/k^s),
+ * por busca binária na função de distribuição acumulada pré-calculada.
+ */
+public class DistribuicaoZipf {
+
+    private final double[] acumulada;
+
+    public DistribuicaoZipf(int n, double expoente) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n deve ser positivo");
+        }
+        acumulada = new double[n];
+        double soma = 0;
+        for (int k = 1; k <= n; k++) {
+            soma += 1.0 / Math.pow(k, expoente);
+            acumulada[k - 1] = soma;
+        }
+        for (int i = 0; i < n; i++) {
+            acumulada[i] /= soma;
+        }
+    }
+
+    /**
+     * @return rank sorteado, entre 1 e n
+     */
+    public int amostrar(RandomGenerator random) {
+        int indice = Arrays.binarySearch(acumulada, random.nextDouble());
+        return (indice >= 0 ? indice : -indice - 1) + 1;
+    }
+
+    public int tamanho() {
+        return acumulada.length;
+    }
+}
@@ -0,0 +1,81 @@
+package br.com.exemplo.carga;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Gerador de carga em malha aberta: as requisições partem em instantes fixos
+ * (taxa constante), independentemente de as anteriores já terem respondido.
+ *
+ * A latência é medida a partir do instante planejado de envio, e não do envio
+ * efetivo, para não esconder filas quando o servidor atrasa (coordinated omission).
+ */
+public class GeradorCargaAberta {
+
+    private static final long MAXIMO_LATENCIA_NS = TimeUnit.MINUTES.toNanos(1);
+
+    private final HttpClient httpClient;
+    private final Duration timeoutRequisicao;
+
+    public GeradorCargaAberta(Duration timeoutRequisicao) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.timeoutRequisicao = timeoutRequisicao;
+    }
+
+    /**
+     * Dispara requisições GET para as URIs fornecidas na taxa e duração indicadas.
+     *
+     * @param nome         identifica o cenário no relatório
+     * @param uris         fornece a próxima URI a consultar
+     * @param statusValido diz se um status HTTP conta como sucesso
+     */
+    public ResultadoCarga executar(String nome, Supplier<URI> uris, IntPredicate statusValido,
+                                   int requisicoesPorSegundo, Duration duracao) throws InterruptedException {
+        Histogram latencias = new ConcurrentHistogram(MAXIMO_LATENCIA_NS, 3);
+        AtomicLong erros = new AtomicLong();
+        long intervaloNs = TimeUnit.SECONDS.toNanos(1) / requisicoesPorSegundo;
+        long total = duracao.toNanos() / intervaloNs;
+        CountDownLatch pendentes = new CountDownLatch((int) total);
+
+        long inicio = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long planejado = inicio + i * intervaloNs;
+            long espera = planejado - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+
+            HttpRequest requisicao = HttpRequest.newBuilder(uris.get())
+                    .timeout(timeoutRequisicao)
+                    .GET()
+                    .build();
+            httpClient.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((resposta, falha) -> {
+                        latencias.recordValue(Math.min(System.nanoTime() - planejado, MAXIMO_LATENCIA_NS));
+                        if (falha != null || !statusValido.test(resposta.statusCode())) {
+                            erros.incrementAndGet();
+                        }
+                        pendentes.countDown();
+                    });
+        }
+        pendentes.await(timeoutRequisicao.toNanos() + TimeUnit.SECONDS.toNanos(5), TimeUnit.NANOSECONDS);
+        long decorrido = System.nanoTime() - inicio;
+
+        return new ResultadoCarga(nome, requisicoesPorSegundo, total, erros.get(), decorrido, latencias);
+    }
+}
@@ -0,0 +1,208 @@
+package br.com.exemplo.carga;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Gera massa sintética na tabela credito via COPY, com várias conexões em paralelo.
+ *
+ * As NFS-e são numeradas de 1 a N ("NF1", "NF2", ...) e a quantidade de créditos
+ * de cada uma segue Zipf: a maioria tem um crédito, poucas têm dezenas. Os créditos
+ * de uma NFS-e são "CR{nfse}-1", "CR{nfse}-2", ... Cada NFS-e é gerada a partir da
+ * semente e do próprio número, então a massa é a mesma em qualquer execução,
+ * independentemente da quantidade de threads.
+ *
+ * Uso avulso contra o banco local:
+ * java -cp ... br.com.exemplo.carga.GeradorMassaCreditos jdbc:postgresql://localhost:5432/creditos usuario senha 10000000
+ */
+public class GeradorMassaCreditos {
+
+    private static final String COPY = "COPY credito (numero_credito, numero_nfse, data_constituicao, valor_issqn, "
+            + "tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo) "
+            + "FROM STDIN WITH (FORMAT csv)";
+    private static final int TAMANHO_BUFFER = 256 * 1024;
+    private static final LocalDate INICIO_DATAS = LocalDate.of(2020, 1, 1);
+    private static final int DIAS = 5 * 365;
+
+    private final ConexaoFactory conexoes;
+    private final long linhas;
+    private final int threads;
+    private final DistribuicaoZipf creditosPorNfse;
+    private final long semente;
+
+    private long proximaNfse;
+    private long linhasRestantes;
+
+    public GeradorMassaCreditos(DataSource dataSource, long linhas, int threads) {
+        this(dataSource::getConnection, linhas, threads, 100, 1.6, 42L);
+    }
+
+    public GeradorMassaCreditos(ConexaoFactory conexoes, long linhas, int threads, int maximoPorNfse,
+                                double expoenteZipf, long semente) {
+        this.conexoes = conexoes;
+        this.linhas = linhas;
+        this.threads = threads;
+        this.creditosPorNfse = new DistribuicaoZipf(maximoPorNfse, expoenteZipf);
+        this.semente = semente;
+    }
+
+    /**
+     * Carrega as linhas e atualiza as estatísticas da tabela.
+     *
+     * @return quantidade de NFS-e geradas (numeradas de 1 a N)
+     */
+    public long gerar() throws SQLException, InterruptedException {
+        synchronized (this) {
+            proximaNfse = 1;
+            linhasRestantes = linhas;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> escritores = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                escritores.add(executor.submit(this::escrever));
+            }
+            for (Future<Long> escritor : escritores) {
+                escritor.get();
+            }
+        } catch (ExecutionException e) {
+            throw new SQLException("Falha ao gerar massa de créditos", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (Connection conexao = conexoes.abrir(); Statement statement = conexao.createStatement()) {
+            statement.execute("ANALYZE credito");
+        }
+        synchronized (this) {
+            return proximaNfse - 1;
+        }
+    }
+
+    /**
+     * Reserva a próxima NFS-e e a quantidade de créditos dela dentro do orçamento de linhas.
+     *
+     * @return {nfse, quantidade} ou null quando o orçamento acabou
+     */
+    private synchronized long[] reservar() {
+        if (linhasRestantes <= 0) {
+            return null;
+        }
+        long nfse = proximaNfse++;
+        long quantidade = Math.min(creditosPorNfse.amostrar(random(nfse)), linhasRestantes);
+        linhasRestantes -= quantidade;
+        return new long[]{nfse, quantidade};
+    }
+
+    private SplittableRandom random(long nfse) {
+        return new SplittableRandom(semente ^ (nfse * 0x9E3779B97F4A7C15L));
+    }
+
+    private long escrever() throws SQLException {
+        long escritas = 0;
+        try (Connection conexao = conexoes.abrir()) {
+            CopyManager copyManager = conexao.unwrap(PGConnection.class).getCopyAPI();
+            CopyIn copy = copyManager.copyIn(COPY);
+            try {
+                StringBuilder buffer = new StringBuilder(TAMANHO_BUFFER + 1024);
+                long[] reserva;
+                while ((reserva = reservar()) != null) {
+                    SplittableRandom random = random(reserva[0]);
+                    random.nextDouble(); // já usado no sorteio da quantidade
+                    for (int i = 1; i <= reserva[1]; i++) {
+                        linha(buffer, reserva[0], i, random);
+                    }
+                    escritas += reserva[1];
+                    if (buffer.length() >= TAMANHO_BUFFER) {
+                        enviar(copy, buffer);
+                    }
+                }
+                enviar(copy, buffer);
+                copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        }
+        return escritas;
+    }
+
+    private static void enviar(CopyIn copy, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Valores com forma realista: faturamento log-normal, alíquota de ISS entre 2% e
+     * 5%, dedução em cerca de 30% das notas e datas espalhadas por cinco anos.
+     */
+    private static void linha(StringBuilder buffer, long nfse, int sequencia, SplittableRandom random) {
+        long faturadoCentavos = Math.max(1_000, Math.min(1_000_000_000L,
+                (long) Math.exp(11 + 1.3 * gaussiano(random))));
+        BigDecimal faturado = BigDecimal.valueOf(faturadoCentavos, 2);
+        BigDecimal deducao = random.nextInt(10) < 3
+                ? BigDecimal.valueOf(faturadoCentavos * random.nextInt(1, 31) / 100, 2)
+                : BigDecimal.ZERO.setScale(2);
+        BigDecimal base = faturado.subtract(deducao);
+        BigDecimal aliquota = BigDecimal.valueOf(random.nextInt(200, 501), 2);
+        BigDecimal issqn = base.multiply(aliquota).movePointLeft(2).setScale(2, RoundingMode.HALF_UP);
+
+        buffer.append("CR").append(nfse).append('-').append(sequencia).append(',')
+                .append("NF").append(nfse).append(',')
+                .append(INICIO_DATAS.plusDays(random.nextInt(DIAS))).append(',')
+                .append(issqn.toPlainString()).append(',')
+                .append(random.nextInt(10) < 8 ? "ISSQN" : "Outros").append(',')
+                .append(random.nextInt(10) < 6 ? "true" : "false").append(',')
+                .append(aliquota.toPlainString()).append(',')
+                .append(faturado.toPlainString()).append(',')
+                .append(deducao.toPlainString()).append(',')
+                .append(base.toPlainString()).append('\n');
+    }
+
+    private static double gaussiano(SplittableRandom random) {
+        // Box-Muller; SplittableRandom não tem nextGaussian sem alocação de estado extra
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    @FunctionalInterface
+    public interface ConexaoFactory {
+        Connection abrir() throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Uso: GeradorMassaCreditos <jdbc-url> <usuario> <senha> <linhas> [threads]");
+            System.exit(1);
+        }
+        long linhas = Long.parseLong(args[3]);
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        GeradorMassaCreditos gerador = new GeradorMassaCreditos(
+                () -> DriverManager.getConnection(args[0], args[1], args[2]), linhas, threads, 100, 1.6, 42L);
+
+        long inicio = System.nanoTime();
+        long nfse = gerador.gerar();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%,d créditos em %,d NFS-e carregados em %.1f s (%,.0f linhas/s)%n",
+                linhas, nfse, segundos, linhas / segundos);
+    }
+}
@@ -0,0 +1,81 @@
+package br.com.exemplo.carga;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GeradorMassaCreditosIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.5")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("TRUNCATE credito");
+    }
+
+    @Test
+    void deveCarregarAQuantidadeExataDeLinhasComNfseContiguas() throws Exception {
+        // When
+        long nfse = new GeradorMassaCreditos(dataSource, 20_000, 4).gerar();
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM credito", Long.class)).isEqualTo(20_000);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(DISTINCT numero_nfse) FROM credito", Long.class))
+                .isEqualTo(nfse);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(DISTINCT numero_credito) FROM credito", Long.class))
+                .isEqualTo(20_000);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM credito WHERE numero_nfse = ?", Long.class, "NF" + nfse)).isPositive();
+    }
+
+    @Test
+    void deveGerarAMesmaMassaIndependenteDasThreads() throws Exception {
+        // Given
+        new GeradorMassaCreditos(dataSource, 5_000, 1).gerar();
+        String somaUmaThread = jdbcTemplate.queryForObject("SELECT sum(valor_issqn)::text FROM credito", String.class);
+        jdbcTemplate.execute("TRUNCATE credito");
+
+        // When
+        new GeradorMassaCreditos(dataSource, 5_000, 4).gerar();
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject("SELECT sum(valor_issqn)::text FROM credito", String.class))
+                .isEqualTo(somaUmaThread);
+    }
+}
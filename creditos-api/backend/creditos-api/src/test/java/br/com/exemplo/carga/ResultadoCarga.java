@@ -0,0 +1,49 @@
+package br.com.exemplo.carga;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Resultado de um cenário de carga: latências em HdrHistogram e contagem de erros.
+ */
+public record ResultadoCarga(String nome, int taxaAlvo, long requisicoes, long erros, long duracaoNs,
+                             Histogram latencias) {
+
+    private static final double NS_POR_MS = 1_000_000.0;
+
+    public double taxaErros() {
+        return requisicoes == 0 ? 0 : (double) erros / requisicoes;
+    }
+
+    public double vazao() {
+        return requisicoes / (duracaoNs / 1e9);
+    }
+
+    public String resumo() {
+        return String.format(Locale.ROOT,
+                "%-28s alvo=%5d req/s  vazão=%8.1f req/s  erros=%.3f%%  p50=%8.3f ms  p99=%8.3f ms  p99.9=%8.3f ms  máx=%8.3f ms",
+                nome, taxaAlvo, vazao(), taxaErros() * 100,
+                latencias.getValueAtPercentile(50) / NS_POR_MS,
+                latencias.getValueAtPercentile(99) / NS_POR_MS,
+                latencias.getValueAtPercentile(99.9) / NS_POR_MS,
+                latencias.getMaxValue() / NS_POR_MS);
+    }
+
+    /**
+     * Grava a distribuição de percentis no formato .hgrm (em ms), que pode ser
+     * comparado entre execuções no HdrHistogram plotter.
+     */
+    public Path gravarHgrm(Path diretorio) throws IOException {
+        Files.createDirectories(diretorio);
+        Path arquivo = diretorio.resolve(nome + ".hgrm");
+        try (PrintStream saida = new PrintStream(Files.newOutputStream(arquivo))) {
+            latencias.outputPercentileDistribution(saida, NS_POR_MS);
+        }
+        return arquivo;
+    }
+}
@@ -0,0 +1,116 @@
+package br.com.exemplo.controller;
+
+import br.com.exemplo.dto.CreditoResponseDTO;
+import br.com.exemplo.dto.VersaoCreditoDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CabecalhosCacheTest {
+
+    private static final MediaType JSON = MediaType.APPLICATION_JSON;
+    private static final OffsetDateTime CRIACAO = OffsetDateTime.of(2024, 2, 25, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    void deveGerarMesmoEtagParaMesmoConteudo() {
+        // Given
+        List<CreditoResponseDTO> primeira = List.of(credito("123456", 0, CRIACAO), credito("789012", 0, CRIACAO));
+        List<CreditoResponseDTO> segunda = List.of(credito("123456", 0, CRIACAO), credito("789012", 0, CRIACAO));
+
+        // When / Then
+        assertThat(CabecalhosCache.etag(primeira, JSON)).isEqualTo(CabecalhosCache.etag(segunda, JSON));
+        assertThat(CabecalhosCache.etag(primeira, JSON)).startsWith("\"").endsWith("\"").doesNotStartWith("W/");
+    }
+
+    @Test
+    void deveMudarEtagQuandoCreditoMudaOuLista() {
+        // Given
+        String original = CabecalhosCache.etag(List.of(credito("123456", 0, CRIACAO)), JSON);
+
+        // When / Then
+        assertThat(CabecalhosCache.etag(List.of(credito("123456", 1, CRIACAO.plusSeconds(1))), JSON)).isNotEqualTo(original);
+        assertThat(CabecalhosCache.etag(List.of(credito("123456", 0, CRIACAO), credito("789012", 0, CRIACAO)), JSON))
+                .isNotEqualTo(original);
+        assertThat(CabecalhosCache.etag(List.of(), JSON)).isNotEqualTo(original);
+    }
+
+    @Test
+    void deveUsarAMaiorDataDeAlteracao() {
+        // Given
+        List<CreditoResponseDTO> creditos = List.of(credito("123456", 0, CRIACAO),
+                credito("789012", 2, CRIACAO.plusDays(3)), credito("345678", 0, null));
+
+        // When / Then
+        assertThat(CabecalhosCache.ultimaAlteracao(creditos)).isEqualTo(CRIACAO.plusDays(3).toInstant());
+        assertThat(CabecalhosCache.ultimaAlteracao(List.of())).isNull();
+    }
+
+    @Test
+    void deveDiferenciarEtagPorRepresentacao() {
+        // Given
+        List<CreditoResponseDTO> creditos = List.of(credito("123456", 0, CRIACAO));
+
+        // When / Then
+        assertThat(CabecalhosCache.etag(creditos, MediaType.APPLICATION_CBOR))
+                .isNotEqualTo(CabecalhosCache.etag(creditos, JSON));
+    }
+
+    @Test
+    void deveEscolherRepresentacaoComoANegociacaoDeConteudo() {
+        // When / Then
+        assertThat(CabecalhosCache.representacao(null)).isEqualTo(JSON);
+        assertThat(CabecalhosCache.representacao("*/*")).isEqualTo(JSON);
+        assertThat(CabecalhosCache.representacao("application/cbor")).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(CabecalhosCache.representacao("application/json;q=0.5, application/cbor"))
+                .isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(CabecalhosCache.representacao("application/cbor;q=0.5, application/json")).isEqualTo(JSON);
+        assertThat(CabecalhosCache.representacao("application/cbor, */*;q=0.1")).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(CabecalhosCache.representacao("isto não é um media type")).isEqualTo(JSON);
+    }
+
+    @Test
+    void deveReconhecerGzipNoAcceptEncoding() {
+        // When / Then
+        assertThat(CabecalhosCache.aceitaGzip(null)).isFalse();
+        assertThat(CabecalhosCache.aceitaGzip("identity")).isFalse();
+        assertThat(CabecalhosCache.aceitaGzip("gzip, deflate, br")).isTrue();
+        assertThat(CabecalhosCache.aceitaGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(CabecalhosCache.aceitaGzip("*")).isTrue();
+        assertThat(CabecalhosCache.aceitaGzip("gzip;q=0")).isFalse();
+        assertThat(CabecalhosCache.aceitaGzip("gzip;q=x")).isFalse();
+    }
+
+    @Test
+    void deveCalcularOMesmoEtagAPartirDasVersoes() {
+        // Given
+        List<CreditoResponseDTO> creditos = List.of(credito("123456", 3, CRIACAO), credito("789012", 0, null));
+        List<VersaoCreditoDTO> versoes = List.of(new VersaoCreditoDTO("123456", 3, CRIACAO),
+                new VersaoCreditoDTO("789012", 0, null));
+
+        // When / Then
+        assertThat(CabecalhosCache.etagVersoes(versoes, JSON)).isEqualTo(CabecalhosCache.etag(creditos, JSON));
+    }
+
+    @Test
+    void deveEncontrarEtagCorrespondenteNoIfNoneMatch() {
+        // When / Then
+        assertThat(CabecalhosCache.correspondente("\"a\"", "\"a\"", "\"a-gzip\"")).isEqualTo("\"a\"");
+        assertThat(CabecalhosCache.correspondente("\"x\", W/\"a-gzip\"", "\"a\"", "\"a-gzip\"")).isEqualTo("\"a-gzip\"");
+        assertThat(CabecalhosCache.correspondente("*", "\"a\"", "\"a-gzip\"")).isEqualTo("\"a\"");
+        assertThat(CabecalhosCache.correspondente("\"b\"", "\"a\"", "\"a-gzip\"")).isNull();
+        assertThat(CabecalhosCache.correspondente(" ", "\"a\"", "\"a-gzip\"")).isNull();
+    }
+
+    private static CreditoResponseDTO credito(String numero, long versao, OffsetDateTime atualizadoEm) {
+        return new CreditoResponseDTO(numero, "7891011", LocalDate.of(2024, 2, 25), new BigDecimal("1500.75"),
+                "ISSQN", true, new BigDecimal("5.0"), new BigDecimal("30000.00"), new BigDecimal("5000.00"),
+                new BigDecimal("25000.00"), versao, atualizadoEm);
+    }
+}
@@ -1,8 +1,11 @@
 package br.com.exemplo.controller;
 
+import br.com.exemplo.cache.RespostaCache;
+import br.com.exemplo.dto.CreditoResponseDTO;
 import br.com.exemplo.entity.Credito;
 import br.com.exemplo.repository.CreditoRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +16,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
@@ -20,11 +24,16 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -46,6 +55,9 @@ class CreditoControllerIntegrationTest {
         registry.add("spring.datasource.password", postgres::getPassword);
         registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
         registry.add("spring.kafka.bootstrap-servers", () -> "localhost:9093"); // Porta diferente para testes
+        registry.add("creditos.analise.habilitada", () -> "false"); // Sem broker, sem consumidor de análise
+        // Toda resposta ganha variante gzip, mesmo as pequenas dos dados de teste
+        registry.add("creditos.cache.resposta.tamanho-minimo-compressao", () -> "0");
     }
 
     @Autowired
@@ -57,6 +69,9 @@ class CreditoControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private RespostaCache respostaCache;
+
     @MockBean
     private br.com.exemplo.messaging.ConsultaPublisher consultaPublisher;
 
@@ -138,6 +153,108 @@ class CreditoControllerIntegrationTest {
                 .andExpect(jsonPath("$.baseCalculo").value(25000.00));
     }
 
+    @Test
+    void deveResponder304QuandoEtagNaoMudou() throws Exception {
+        MvcResult primeira = mockMvc.perform(get("/api/creditos/7891011"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(header().string("Cache-Control", "max-age=60, must-revalidate"))
+                .andReturn();
+        String etag = primeira.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/creditos/7891011").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void deveResponder304SemMontarRespostaForaDoCacheDeRespostas() throws Exception {
+        String etagNfse = mockMvc.perform(get("/api/creditos/7891011").header("Accept-Encoding", "gzip"))
+                .andReturn().getResponse().getHeader("ETag");
+        String etagCredito = mockMvc.perform(get("/api/creditos/credito/123456"))
+                .andReturn().getResponse().getHeader("ETag");
+        respostaCache.invalidarTudo();
+
+        mockMvc.perform(get("/api/creditos/7891011").header("If-None-Match", etagNfse))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etagNfse))
+                .andExpect(header().string("Cache-Control", "max-age=60, must-revalidate"))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/creditos/credito/123456").header("If-None-Match", etagCredito))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etagCredito));
+        mockMvc.perform(get("/api/creditos/credito/999999").header("If-None-Match", etagCredito))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deveResponder304ParaCreditoComEtagConhecido() throws Exception {
+        String etag = mockMvc.perform(get("/api/creditos/credito/123456"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/creditos/credito/123456").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/creditos/credito/123456").header("If-None-Match", "\"outro\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.versao").doesNotExist());
+    }
+
+    @Test
+    void deveRetornarCreditoEmCborQuandoSolicitado() throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/api/creditos/credito/123456")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("Vary", org.hamcrest.Matchers.containsString("Accept")))
+                .andReturn();
+        String etagJson = mockMvc.perform(get("/api/creditos/credito/123456").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getHeader("ETag");
+
+        CreditoResponseDTO credito = new CBORMapper().findAndRegisterModules()
+                .readValue(resultado.getResponse().getContentAsByteArray(), CreditoResponseDTO.class);
+        org.assertj.core.api.Assertions.assertThat(credito.getNumeroCredito()).isEqualTo("123456");
+        org.assertj.core.api.Assertions.assertThat(credito.getValorIssqn()).isEqualByComparingTo("1500.75");
+        org.assertj.core.api.Assertions.assertThat(resultado.getResponse().getHeader("ETag")).isNotEqualTo(etagJson);
+    }
+
+    @Test
+    void deveRetornarCreditosComprimidosQuandoClienteAceitaGzip() throws Exception {
+        MvcResult semCompressao = mockMvc.perform(get("/api/creditos/7891011"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andReturn();
+        MvcResult comCompressao = mockMvc.perform(get("/api/creditos/7891011").header("Accept-Encoding", "br, gzip"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", org.hamcrest.Matchers.containsString("Accept-Encoding")))
+                .andReturn();
+
+        byte[] descomprimido;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(comCompressao.getResponse().getContentAsByteArray()))) {
+            descomprimido = gzip.readAllBytes();
+        }
+        org.assertj.core.api.Assertions.assertThat(descomprimido).isEqualTo(semCompressao.getResponse().getContentAsByteArray());
+        org.assertj.core.api.Assertions.assertThat(comCompressao.getResponse().getHeader("ETag"))
+                .isNotEqualTo(semCompressao.getResponse().getHeader("ETag"));
+
+        mockMvc.perform(get("/api/creditos/7891011").header("Accept-Encoding", "gzip;q=0"))
+                .andExpect(header().doesNotExist("Content-Encoding"));
+    }
+
+    @Test
+    void deveInformarMaxAgeNoPreflightCors() throws Exception {
+        mockMvc.perform(options("/api/creditos/7891011")
+                        .header("Origin", "http://localhost:4200")
+                        .header("Access-Control-Request-Method", "GET")
+                        .header("Access-Control-Request-Headers", "X-Correlation-ID"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Access-Control-Max-Age", "3600"));
+    }
+
     @Test
     void deveRetornar404QuandoCreditoNaoEncontrado() throws Exception {
         mockMvc.perform(get("/api/creditos/credito/999999")
@@ -145,4 +262,40 @@ class CreditoControllerIntegrationTest {
                 .andExpect(status().isNotFound());
         // Não há body na resposta 404, conforme implementação no Controller
     }
+
+    @Test
+    void deveRetornarCreditosEmLote() throws Exception {
+        String corpo = "{\"numerosNfse\": [\"7891011\", \"000000\"], \"numerosCredito\": [\"123456\", \"999999\"]}";
+
+        mockMvc.perform(post("/api/creditos/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(corpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.creditosPorNfse.7891011", hasSize(2)))
+                .andExpect(jsonPath("$.creditosPorNumero.123456.numeroNfse").value("7891011"))
+                .andExpect(jsonPath("$.nfseNaoEncontradas[0]").value("000000"))
+                .andExpect(jsonPath("$.creditosNaoEncontrados[0]").value("999999"));
+    }
+
+    @Test
+    void deveRetornar400QuandoLoteVazio() throws Exception {
+        mockMvc.perform(post("/api/creditos/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deveRetornarCreditosPorNfseEmStreaming() throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/api/creditos/7891011/stream")
+                .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+        // O corpo é escrito em outra thread/transação e não enxerga os dados
+        // da transação do teste; o conteúdo é coberto em CreditoServiceTest
+    }
 }
@@ -0,0 +1,114 @@
+package br.com.exemplo.controller;
+
+import br.com.exemplo.entity.Credito;
+import br.com.exemplo.repository.CreditoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@Testcontainers
+class ImportacaoControllerIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.5")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.kafka.bootstrap-servers", () -> "localhost:9093"); // Porta diferente para testes
+        registry.add("creditos.analise.habilitada", () -> "false"); // Sem broker, sem consumidor de análise
+    }
+
+    private static final String CABECALHO = "numeroCredito,numeroNfse,dataConstituicao,valorIssqn,tipoCredito,"
+            + "simplesNacional,aliquota,valorFaturado,valorDeducao,baseCalculo\n";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private CreditoRepository creditoRepository;
+
+    @MockBean
+    private br.com.exemplo.messaging.ConsultaPublisher consultaPublisher;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+        creditoRepository.deleteAll();
+        creditoRepository.save(new Credito("123456", "7891011", java.time.LocalDate.of(2024, 2, 25),
+                new BigDecimal("1500.75"), "ISSQN", true, new BigDecimal("5.00"),
+                new BigDecimal("30000.00"), new BigDecimal("5000.00"), new BigDecimal("25000.00")));
+    }
+
+    @Test
+    void deveInserirAtualizarERejeitarLinhasDoCsv() throws Exception {
+        String csv = CABECALHO
+                + "123456,7891011,2024-02-25,1600.00,ISSQN,true,5.00,32000.00,0,32000.00\n"
+                + "999001,NF-NOVA,2024-03-01,100.00,Outros,false,2.00,5000.00,0,5000.00\n"
+                + "999002,NF-NOVA,data-invalida,100.00,Outros,false,2.00,5000.00,0,5000.00\n";
+
+        mockMvc.perform(post("/api/creditos/importacao")
+                        .with(httpBasic("admin", "admin123"))
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.linhasLidas").value(3))
+                .andExpect(jsonPath("$.inseridos").value(1))
+                .andExpect(jsonPath("$.atualizados").value(1))
+                .andExpect(jsonPath("$.rejeitados").value(1))
+                .andExpect(jsonPath("$.rejeicoes[0].linha").value(4));
+
+        assertThat(creditoRepository.findByNumeroCredito("123456")).get()
+                .extracting(Credito::getValorIssqn).isEqualTo(new BigDecimal("1600.00"));
+        assertThat(creditoRepository.existsByNumeroCredito("999001")).isTrue();
+    }
+
+    @Test
+    void deveImportarNdjson() throws Exception {
+        String ndjson = """
+                {"numeroCredito":"999003","numeroNfse":"NF-JSON","dataConstituicao":"2024-04-01","valorIssqn":50.00,"tipoCredito":"ISSQN","simplesNacional":"Sim","aliquota":2.5,"valorFaturado":2000.00,"valorDeducao":0,"baseCalculo":2000.00}
+                """;
+
+        mockMvc.perform(post("/api/creditos/importacao")
+                        .with(httpBasic("admin", "admin123"))
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inseridos").value(1));
+    }
+
+    @Test
+    void deveExigirAutenticacao() throws Exception {
+        mockMvc.perform(post("/api/creditos/importacao")
+                        .contentType("text/csv")
+                        .content(CABECALHO))
+                .andExpect(status().isUnauthorized());
+    }
+}
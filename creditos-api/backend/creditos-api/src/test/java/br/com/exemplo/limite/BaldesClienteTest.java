@@ -0,0 +1,80 @@
+package br.com.exemplo.limite;
+
+import br.com.exemplo.config.CreditosProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaldesClienteTest {
+
+    private static final long SEGUNDO = 1_000_000_000L;
+
+    private CreditosProperties.Cliente config;
+
+    @BeforeEach
+    void setUp() {
+        config = new CreditosProperties().getLimite().getCliente();
+        config.setTaxa(10);
+        config.setRajada(3);
+        config.setListras(4);
+    }
+
+    @Test
+    void deveAceitarRajadaERecusarComTempoAteProximaFicha() {
+        // Given
+        BaldesCliente baldes = new BaldesCliente(config);
+
+        // When / Then
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, baldes.tentarConsumir("10.0.0.1", 0));
+        }
+        assertEquals(SEGUNDO / 10, baldes.tentarConsumir("10.0.0.1", 0));
+        assertEquals(SEGUNDO / 20, baldes.tentarConsumir("10.0.0.1", SEGUNDO / 20));
+        assertEquals(0, baldes.tentarConsumir("10.0.0.1", SEGUNDO / 10));
+    }
+
+    @Test
+    void naoDeveAfetarOutrosClientes() {
+        // Given
+        BaldesCliente baldes = new BaldesCliente(config);
+        for (int i = 0; i < 3; i++) {
+            baldes.tentarConsumir("abusivo", 0);
+        }
+
+        // When / Then
+        assertTrue(baldes.tentarConsumir("abusivo", 0) > 0);
+        assertEquals(0, baldes.tentarConsumir("comportado", 0));
+    }
+
+    @Test
+    void naoDeveAcumularAlemDaRajada() {
+        // Given
+        BaldesCliente baldes = new BaldesCliente(config);
+        baldes.tentarConsumir("10.0.0.1", 0);
+
+        // When: muito tempo parado
+        long depois = 3600 * SEGUNDO;
+
+        // Then
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, baldes.tentarConsumir("10.0.0.1", depois));
+        }
+        assertTrue(baldes.tentarConsumir("10.0.0.1", depois) > 0);
+    }
+
+    @Test
+    void deveDescartarClientesMenosRecentesPorListra() {
+        // Given
+        config.setMaxClientes(8);
+        BaldesCliente baldes = new BaldesCliente(config);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            baldes.tentarConsumir("cliente-" + i, 0);
+        }
+
+        // Then: 4 listras com no máximo 2 baldes cada
+        assertTrue(baldes.clientes() <= 8);
+    }
+}
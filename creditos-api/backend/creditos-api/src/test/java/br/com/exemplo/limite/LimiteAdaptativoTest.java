@@ -0,0 +1,111 @@
+package br.com.exemplo.limite;
+
+import br.com.exemplo.config.CreditosProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteAdaptativoTest {
+
+    private static final long MS = 1_000_000L;
+
+    private CreditosProperties.Concorrencia config;
+
+    @BeforeEach
+    void setUp() {
+        config = new CreditosProperties().getLimite().getConcorrencia();
+        config.setLimiteInicial(10);
+        config.setLimiteMinimo(2);
+        config.setLimiteMaximo(50);
+        config.setAmostrasPorJanela(5);
+        config.setSuavizacao(1.0);
+    }
+
+    @Test
+    void deveRecusarAcimaDoLimiteEAceitarAposLiberar() {
+        // Given
+        config.setLimiteInicial(2);
+        LimiteAdaptativo limite = new LimiteAdaptativo(config);
+
+        // When / Then
+        assertEquals(1, limite.tentarAdquirir());
+        assertEquals(2, limite.tentarAdquirir());
+        assertEquals(0, limite.tentarAdquirir());
+        limite.liberar();
+        assertEquals(2, limite.tentarAdquirir());
+        assertEquals(2, limite.emAndamento());
+    }
+
+    @Test
+    void deveAumentarLimiteComLatenciaEstavelSobDemanda() {
+        // Given
+        LimiteAdaptativo limite = new LimiteAdaptativo(config);
+        janela(limite, 10 * MS, 10); // primeira janela: só define a referência
+
+        // When
+        janela(limite, 10 * MS, 10);
+
+        // Then: 10 * 1 + sqrt(10), arredondado para cima
+        assertEquals(14, limite.limite());
+    }
+
+    @Test
+    void deveReduzirLimiteQuandoLatenciaSobe() {
+        // Given
+        LimiteAdaptativo limite = new LimiteAdaptativo(config);
+        janela(limite, 10 * MS, 10);
+
+        // When: latência quatro vezes maior que a referência
+        janela(limite, 40 * MS, 10);
+
+        // Then: gradiente limitado a 0.5, 10 * 0.5 + sqrt(10) = 8.16
+        assertEquals(8, limite.limite());
+    }
+
+    @Test
+    void naoDeveAjustarLimiteSemDemanda() {
+        // Given
+        LimiteAdaptativo limite = new LimiteAdaptativo(config);
+        janela(limite, 10 * MS, 1);
+
+        // When: com uma requisição por vez a latência não diz nada sobre o limite
+        janela(limite, 40 * MS, 1);
+        janela(limite, 10 * MS, 1);
+
+        // Then
+        assertEquals(10, limite.limite());
+    }
+
+    @Test
+    void deveRespeitarLimitesMinimoEMaximo() {
+        // Given
+        config.setLimiteMaximo(12);
+        // Acima do ponto fixo de limite * 0.5 + sqrt(limite), que é 4
+        config.setLimiteMinimo(6);
+        LimiteAdaptativo limite = new LimiteAdaptativo(config);
+        janela(limite, 10 * MS, 10);
+
+        // When / Then
+        janela(limite, 10 * MS, 10);
+        assertEquals(12, limite.limite());
+        for (int i = 0; i < 10; i++) {
+            janela(limite, 1000 * MS, limite.limite());
+        }
+        assertEquals(6, limite.limite());
+    }
+
+    @Test
+    void deveRejeitarConfiguracaoInvalida() {
+        config.setLimiteMaximo(1);
+
+        assertThrows(IllegalArgumentException.class, () -> new LimiteAdaptativo(config));
+    }
+
+    private static void janela(LimiteAdaptativo limite, long latenciaNanos, int emAndamento) {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limite.tentarAdquirir() > 0);
+            limite.liberar(latenciaNanos, emAndamento);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package br.com.exemplo.limite;
+
+import br.com.exemplo.config.CreditosProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteCargaFilterTest {
+
+    private CreditosProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CreditosProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+    }
+
+    @Test
+    void deveRecusarComServicoIndisponivelQuandoLimiteDeConcorrenciaEsgotado() throws Exception {
+        // Given: o limite mínimo já está ocupado por outras requisições
+        properties.getLimite().getConcorrencia().setLimiteInicial(1);
+        properties.getLimite().getConcorrencia().setLimiteMinimo(1);
+        properties.getLimite().getConcorrencia().setTentarNovamenteEm(Duration.ofMillis(1500));
+        LimiteCargaFilter filtro = new LimiteCargaFilter(properties, objectMapper, meterRegistry);
+        filtro.limite().tentarAdquirir();
+        AtomicInteger chamadas = new AtomicInteger();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filtro.doFilter(requisicao("/api/creditos/123456", "10.0.0.1"), response,
+                (req, res) -> chamadas.incrementAndGet());
+
+        // Then
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertEquals(503, objectMapper.readTree(response.getContentAsByteArray()).get("status").asInt());
+        assertEquals(0, chamadas.get());
+        assertEquals(1.0, meterRegistry.get("creditos.limite.rejeicoes").tag("motivo", "concorrencia").counter().count());
+    }
+
+    @Test
+    void deveRecusarComMuitasRequisicoesQuandoClienteEsgotaBalde() throws Exception {
+        // Given
+        properties.getLimite().getCliente().setTaxa(1);
+        properties.getLimite().getCliente().setRajada(2);
+        properties.getLimite().getCliente().setCabecalho("X-Cliente");
+        LimiteCargaFilter filtro = new LimiteCargaFilter(properties, objectMapper, meterRegistry);
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = requisicao("/api/creditos/123456", "10.0.0.1");
+            request.addHeader("X-Cliente", "abusivo");
+            filtro.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        // When
+        MockHttpServletRequest abusivo = requisicao("/api/creditos/123456", "10.0.0.1");
+        abusivo.addHeader("X-Cliente", "abusivo");
+        MockHttpServletResponse recusada = new MockHttpServletResponse();
+        filtro.doFilter(abusivo, recusada, new MockFilterChain());
+        MockHttpServletRequest outro = requisicao("/api/creditos/123456", "10.0.0.1");
+        outro.addHeader("X-Cliente", "comportado");
+        MockHttpServletResponse aceita = new MockHttpServletResponse();
+        filtro.doFilter(outro, aceita, new MockFilterChain());
+
+        // Then
+        assertEquals(429, recusada.getStatus());
+        assertEquals("1", recusada.getHeader("Retry-After"));
+        assertEquals(200, aceita.getStatus());
+        assertEquals(1.0, meterRegistry.get("creditos.limite.rejeicoes").tag("motivo", "cliente").counter().count());
+    }
+
+    @Test
+    void deveLiberarVagaMesmoQuandoRequisicaoFalha() {
+        // Given
+        LimiteCargaFilter filtro = new LimiteCargaFilter(properties, objectMapper, meterRegistry);
+        FilterChain falha = (req, res) -> {
+            throw new IllegalStateException("erro no controller");
+        };
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> filtro.doFilter(
+                requisicao("/api/creditos/123456", "10.0.0.1"), new MockHttpServletResponse(), falha));
+        assertEquals(0, filtro.limite().emAndamento());
+    }
+
+    @Test
+    void naoDeveLimitarImportacaoNemOutrosCaminhos() throws Exception {
+        // Given
+        properties.getLimite().getConcorrencia().setLimiteInicial(1);
+        properties.getLimite().getConcorrencia().setLimiteMinimo(1);
+        LimiteCargaFilter filtro = new LimiteCargaFilter(properties, objectMapper, meterRegistry);
+        filtro.limite().tentarAdquirir();
+
+        // When
+        MockHttpServletResponse importacao = new MockHttpServletResponse();
+        filtro.doFilter(requisicao("/api/creditos/importacao", "10.0.0.1"), importacao, new MockFilterChain());
+        MockHttpServletResponse actuator = new MockHttpServletResponse();
+        filtro.doFilter(requisicao("/actuator/health", "10.0.0.1"), actuator, new MockFilterChain());
+
+        // Then
+        assertEquals(200, importacao.getStatus());
+        assertEquals(200, actuator.getStatus());
+    }
+
+    @Test
+    void naoDeveLimitarPreflightDoCors() throws Exception {
+        // Given: vagas de concorrência e fichas do cliente esgotadas
+        properties.getLimite().getConcorrencia().setLimiteInicial(1);
+        properties.getLimite().getConcorrencia().setLimiteMinimo(1);
+        properties.getLimite().getCliente().setRajada(1);
+        LimiteCargaFilter filtro = new LimiteCargaFilter(properties, objectMapper, meterRegistry);
+        filtro.doFilter(requisicao("/api/creditos/123456", "10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+        filtro.limite().tentarAdquirir();
+
+        // When
+        MockHttpServletRequest preflight = new MockHttpServletRequest("OPTIONS", "/api/creditos/123456");
+        preflight.setRemoteAddr("10.0.0.1");
+        preflight.addHeader("Origin", "https://creditos-ui.example");
+        preflight.addHeader("Access-Control-Request-Method", "GET");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(preflight, response, new MockFilterChain());
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals(1, filtro.limite().emAndamento());
+        assertEquals(0.0, meterRegistry.get("creditos.limite.rejeicoes").tag("motivo", "cliente").counter().count());
+    }
+
+    @Test
+    void naoDeveLimitarQuandoDesabilitado() throws Exception {
+        // Given
+        properties.getLimite().setHabilitado(false);
+        properties.getLimite().getConcorrencia().setLimiteInicial(1);
+        properties.getLimite().getConcorrencia().setLimiteMinimo(1);
+        LimiteCargaFilter filtro = new LimiteCargaFilter(properties, objectMapper, meterRegistry);
+        filtro.limite().tentarAdquirir();
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(requisicao("/api/creditos/123456", "10.0.0.1"), response, new MockFilterChain());
+
+        // Then
+        assertEquals(200, response.getStatus());
+    }
+
+    private static MockHttpServletRequest requisicao(String uri, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
@@ -1,21 +1,24 @@
 package br.com.exemplo.messaging;
 
+import br.com.exemplo.config.CreditosProperties;
 import br.com.exemplo.dto.ConsultaEventDTO;
+import br.com.exemplo.repository.OutboxConsultaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
-import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
@@ -27,7 +30,14 @@ class ConsultaPublisherTest {
     @Mock
     private KafkaTemplate<String, ConsultaEventDTO> kafkaTemplate;
 
-    @InjectMocks
+    @Mock
+    private SpoolEventosConsulta spool;
+
+    @Mock
+    private OutboxConsultaRepository outboxRepository;
+
+    private CreditosProperties properties;
+    private SimpleMeterRegistry meterRegistry;
     private ConsultaPublisher consultaPublisher;
 
     private ConsultaEventDTO consultaEventDTO;
@@ -35,6 +45,10 @@ class ConsultaPublisherTest {
 
     @BeforeEach
     void setUp() {
+        properties = new CreditosProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        consultaPublisher = new ConsultaPublisher(kafkaTemplate, properties, meterRegistry, spool, outboxRepository);
+
         consultaEventDTO = new ConsultaEventDTO();
         consultaEventDTO.setTipoConsulta("SPC");
         consultaEventDTO.setValorConsultado("1000");
@@ -44,26 +58,22 @@ class ConsultaPublisherTest {
         consultaEventDTO.setUserAgent("test-agent");
     }
 
-    @Test
-    void testPublishConsultaEvent_Success() {
-        // Arrange
-        CompletableFuture<SendResult<String, ConsultaEventDTO>> future = new CompletableFuture<>();
-        
-        // Criando um RecordMetadata mock
+    private CompletableFuture<SendResult<String, ConsultaEventDTO>> envioConfirmado() {
         TopicPartition topicPartition = new TopicPartition(TOPIC_CONSULTA_CREDITOS, 0);
         RecordMetadata recordMetadata = new RecordMetadata(topicPartition, 0L, 0L, 0L, 0L, 0, 0);
-        
-        // Criando um SendResult mock
-        SendResult<String, ConsultaEventDTO> sendResult = mock(SendResult.class);
-        when(sendResult.getRecordMetadata()).thenReturn(recordMetadata);
-        
-        future.complete(sendResult);
+        return CompletableFuture.completedFuture(new SendResult<>(
+                new ProducerRecord<>(TOPIC_CONSULTA_CREDITOS, consultaEventDTO), recordMetadata));
+    }
 
+    @Test
+    void testPublishConsultaEvent_Success() {
+        // Arrange
         when(kafkaTemplate.send(eq(TOPIC_CONSULTA_CREDITOS), anyString(), eq(consultaEventDTO)))
-                .thenReturn(future);
+                .thenReturn(envioConfirmado());
 
         // Act
         consultaPublisher.publishConsultaEvent(consultaEventDTO);
+        consultaPublisher.drenarFila();
 
         // Assert
         verify(kafkaTemplate, times(1)).send(
@@ -71,30 +81,49 @@ class ConsultaPublisherTest {
                 eq("SPC_2024-01-15T10:30"), 
                 eq(consultaEventDTO)
         );
+        assertEquals(1.0, meterRegistry.get("creditos.auditoria.eventos.enviados").counter().count());
+    }
+
+    @Test
+    void testPublishConsultaEvent_NaoEnviaNaThreadDaRequisicao() {
+        // Act
+        consultaPublisher.publishConsultaEvent(consultaEventDTO);
+
+        // Assert - o envio só acontece quando o enviador drena a fila
+        verifyNoInteractions(kafkaTemplate);
+        assertEquals(1, consultaPublisher.tamanhoFila());
+        assertEquals(1.0, meterRegistry.get("creditos.auditoria.fila.tamanho").gauge().value());
     }
 
     @Test
     void testPublishConsultaEvent_KafkaFailure() {
         // Arrange
         CompletableFuture<SendResult<String, ConsultaEventDTO>> future = new CompletableFuture<>();
-        RuntimeException kafkaException = new RuntimeException("Kafka connection failed");
-        future.completeExceptionally(kafkaException);
-
-        // Usando doReturn() conforme recomendação do roteiro
+        future.completeExceptionally(new RuntimeException("Kafka connection failed"));
         doReturn(future).when(kafkaTemplate).send(eq(TOPIC_CONSULTA_CREDITOS), anyString(), eq(consultaEventDTO));
 
-        // Act - O método agora apenas loga, não lança exceção imediatamente
+        // Act
         consultaPublisher.publishConsultaEvent(consultaEventDTO);
-        
-        // Assert - Verifica que o kafka foi chamado
-        verify(kafkaTemplate, times(1)).send(
-                eq(TOPIC_CONSULTA_CREDITOS), 
-                anyString(), 
-                eq(consultaEventDTO)
-        );
-        
-        // O callback de exceção é executado de forma assíncrona,
-        // então só verificamos se o método foi chamado sem erro direto
+        consultaPublisher.drenarFila();
+
+        // Assert - a falha é contabilizada, sem propagar para quem consultou
+        verify(kafkaTemplate, times(1)).send(eq(TOPIC_CONSULTA_CREDITOS), anyString(), eq(consultaEventDTO));
+        assertEquals(1.0, meterRegistry.get("creditos.auditoria.eventos.falhas").counter().count());
+        verify(spool).anexar(consultaEventDTO);
+    }
+
+    @Test
+    void testPublishConsultaEvent_GravaNoSpoolEnquantoHouverPendentes() {
+        // Arrange
+        when(spool.possuiPendentes()).thenReturn(true);
+
+        // Act
+        consultaPublisher.publishConsultaEvent(consultaEventDTO);
+        consultaPublisher.drenarFila();
+
+        // Assert - preserva a ordem: o evento vai para trás dos que já estão no spool
+        verifyNoInteractions(kafkaTemplate);
+        verify(spool).anexar(consultaEventDTO);
     }
 
     @Test
@@ -103,39 +132,26 @@ class ConsultaPublisherTest {
         when(kafkaTemplate.send(eq(TOPIC_CONSULTA_CREDITOS), anyString(), eq(consultaEventDTO)))
                 .thenThrow(new RuntimeException("Unexpected error"));
 
-        // Act & Assert - Verifica se a exceção é relançada
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+        // Act & Assert - a exceção do produtor não chega à requisição nem ao enviador
+        assertDoesNotThrow(() -> {
             consultaPublisher.publishConsultaEvent(consultaEventDTO);
+            consultaPublisher.drenarFila();
         });
-        
-        // Verifica a mensagem da exceção
-        assertEquals("Kafka indisponível", exception.getMessage());
 
-        // Assert
-        verify(kafkaTemplate, times(1)).send(
-                eq(TOPIC_CONSULTA_CREDITOS), 
-                anyString(), 
-                eq(consultaEventDTO)
-        );
+        verify(kafkaTemplate, times(1)).send(eq(TOPIC_CONSULTA_CREDITOS), anyString(), eq(consultaEventDTO));
+        assertEquals(1.0, meterRegistry.get("creditos.auditoria.eventos.falhas").counter().count());
+        verify(spool).anexar(consultaEventDTO);
     }
 
     @Test
     void testPublishConsultaEvent_KeyGeneration() {
         // Arrange
-        CompletableFuture<SendResult<String, ConsultaEventDTO>> future = new CompletableFuture<>();
-        
-        TopicPartition topicPartition = new TopicPartition(TOPIC_CONSULTA_CREDITOS, 0);
-        RecordMetadata recordMetadata = new RecordMetadata(topicPartition, 0L, 0L, 0L, 0L, 0, 0);
-        SendResult<String, ConsultaEventDTO> sendResult = mock(SendResult.class);
-        when(sendResult.getRecordMetadata()).thenReturn(recordMetadata);
-        
-        future.complete(sendResult);
-
         when(kafkaTemplate.send(eq(TOPIC_CONSULTA_CREDITOS), anyString(), eq(consultaEventDTO)))
-                .thenReturn(future);
+                .thenReturn(envioConfirmado());
 
         // Act
         consultaPublisher.publishConsultaEvent(consultaEventDTO);
+        consultaPublisher.drenarFila();
 
         // Assert - Verificar se a chave é gerada corretamente
         String expectedKey = "SPC_2024-01-15T10:30";
@@ -157,20 +173,12 @@ class ConsultaPublisherTest {
         differentEvent.setEnderecoIp("192.168.1.2");
         differentEvent.setUserAgent("test-agent-2");
 
-        CompletableFuture<SendResult<String, ConsultaEventDTO>> future = new CompletableFuture<>();
-        
-        TopicPartition topicPartition = new TopicPartition(TOPIC_CONSULTA_CREDITOS, 0);
-        RecordMetadata recordMetadata = new RecordMetadata(topicPartition, 0L, 0L, 0L, 0L, 0, 0);
-        SendResult<String, ConsultaEventDTO> sendResult = mock(SendResult.class);
-        when(sendResult.getRecordMetadata()).thenReturn(recordMetadata);
-        
-        future.complete(sendResult);
-
         when(kafkaTemplate.send(eq(TOPIC_CONSULTA_CREDITOS), anyString(), eq(differentEvent)))
-                .thenReturn(future);
+                .thenReturn(envioConfirmado());
 
         // Act
         consultaPublisher.publishConsultaEvent(differentEvent);
+        consultaPublisher.drenarFila();
 
         // Assert
         String expectedKey = "SERASA_2024-02-20T14:45:30";
@@ -192,12 +200,99 @@ class ConsultaPublisherTest {
         nullFieldEvent.setEnderecoIp("192.168.1.1");
         nullFieldEvent.setUserAgent("test-agent");
 
-        // Act & Assert - O método captura exceções internamente e não as relança
+        // Act & Assert - eventos inválidos são ignorados
         assertDoesNotThrow(() -> {
             consultaPublisher.publishConsultaEvent(nullFieldEvent);
+            consultaPublisher.drenarFila();
         });
         
-        // Assert - Kafka não deve ser chamado quando ocorre NullPointerException interno
+        // Assert - Kafka não deve ser chamado para eventos inválidos
         verify(kafkaTemplate, never()).send(anyString(), anyString(), any(ConsultaEventDTO.class));
     }
+
+    @Test
+    void testPublishConsultaEvent_DescartaMaisAntigoQuandoFilaCheia() {
+        // Arrange
+        properties.getAuditoria().setCapacidadeFila(1);
+        consultaPublisher = new ConsultaPublisher(kafkaTemplate, properties, meterRegistry, spool, outboxRepository);
+        ConsultaEventDTO maisNovo = new ConsultaEventDTO("NUMERO_NFSE", "2", 0, "localhost", "API");
+        when(kafkaTemplate.send(eq(TOPIC_CONSULTA_CREDITOS), anyString(), eq(maisNovo))).thenReturn(envioConfirmado());
+
+        // Act
+        consultaPublisher.publishConsultaEvent(consultaEventDTO);
+        consultaPublisher.publishConsultaEvent(maisNovo);
+        consultaPublisher.drenarFila();
+
+        // Assert
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), eq(consultaEventDTO));
+        verify(kafkaTemplate).send(eq(TOPIC_CONSULTA_CREDITOS), anyString(), eq(maisNovo));
+        assertEquals(1.0, meterRegistry.get("creditos.auditoria.eventos.descartados").counter().count());
+    }
+
+    @Test
+    void testPublishConsultaEvent_DescartaMaisNovoQuandoFilaCheia() {
+        // Arrange
+        properties.getAuditoria().setCapacidadeFila(1);
+        properties.getAuditoria().setPoliticaOverflow(PoliticaOverflow.DESCARTAR_MAIS_NOVO);
+        consultaPublisher = new ConsultaPublisher(kafkaTemplate, properties, new SimpleMeterRegistry(), spool, outboxRepository);
+        when(kafkaTemplate.send(eq(TOPIC_CONSULTA_CREDITOS), anyString(), eq(consultaEventDTO))).thenReturn(envioConfirmado());
+
+        // Act
+        consultaPublisher.publishConsultaEvent(consultaEventDTO);
+        consultaPublisher.publishConsultaEvent(new ConsultaEventDTO("NUMERO_NFSE", "2", 0, "localhost", "API"));
+        consultaPublisher.drenarFila();
+
+        // Assert
+        verify(kafkaTemplate, times(1)).send(anyString(), anyString(), any(ConsultaEventDTO.class));
+        verify(kafkaTemplate).send(eq(TOPIC_CONSULTA_CREDITOS), anyString(), eq(consultaEventDTO));
+    }
+
+    @Test
+    void testPublishConsultaEvent_BloqueiaAteTimeoutEDescarta() {
+        // Arrange
+        properties.getAuditoria().setCapacidadeFila(1);
+        properties.getAuditoria().setPoliticaOverflow(PoliticaOverflow.BLOQUEAR);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        consultaPublisher = new ConsultaPublisher(kafkaTemplate, properties, registry, spool, outboxRepository);
+
+        // Act
+        consultaPublisher.publishConsultaEvent(consultaEventDTO);
+        consultaPublisher.publishConsultaEvent(new ConsultaEventDTO("NUMERO_NFSE", "2", 0, "localhost", "API"));
+
+        // Assert
+        assertEquals(1, consultaPublisher.tamanhoFila());
+        assertEquals(1.0, registry.get("creditos.auditoria.eventos.descartados").counter().count());
+    }
+
+    @Test
+    void testPublishConsultaEvent_ModoOutboxGravaLoteNaTabela() {
+        // Arrange
+        properties.getAuditoria().setModo(ModoEntregaAuditoria.OUTBOX);
+        ConsultaEventDTO outro = new ConsultaEventDTO("NUMERO_NFSE", "2", 0, "localhost", "API");
+
+        // Act
+        consultaPublisher.publishConsultaEvent(consultaEventDTO);
+        consultaPublisher.publishConsultaEvent(outro);
+        consultaPublisher.drenarFila();
+
+        // Assert
+        verify(outboxRepository).inserir(List.of(consultaEventDTO, outro));
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void testPublishConsultaEvent_ModoOutboxEnviaDiretoQuandoTabelaFalha() {
+        // Arrange
+        properties.getAuditoria().setModo(ModoEntregaAuditoria.OUTBOX);
+        doThrow(new RuntimeException("banco indisponível")).when(outboxRepository).inserir(anyList());
+        when(kafkaTemplate.send(eq(TOPIC_CONSULTA_CREDITOS), anyString(), eq(consultaEventDTO)))
+                .thenReturn(envioConfirmado());
+
+        // Act
+        consultaPublisher.publishConsultaEvent(consultaEventDTO);
+        consultaPublisher.drenarFila();
+
+        // Assert
+        verify(kafkaTemplate).send(eq(TOPIC_CONSULTA_CREDITOS), anyString(), eq(consultaEventDTO));
+    }
 }
@@ -0,0 +1,141 @@
+package br.com.exemplo.messaging;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.ConsultaEventDTO;
+import br.com.exemplo.repository.OutboxConsultaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.ConfluentKafkaContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara a vazão (eventos/s) do envio direto pelo KafkaTemplate com a gravação
+ * em lote na outbox seguida da publicação pelos relays.
+ *
+ * Executar com: ./mvnw test -Dtest=OutboxConsultaBenchmarkTest -Dbenchmark=true
+ */
+@SpringBootTest
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OutboxConsultaBenchmarkTest {
+
+    private static final int EVENTOS = 200_000;
+    private static final int LOTE = 500;
+    private static final int WORKERS = 4;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.5")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Container
+    static ConfluentKafkaContainer kafka = new ConfluentKafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.4.0"));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
+        registry.add("creditos.cache.invalidacao.habilitada", () -> "false");
+    }
+
+    @Autowired
+    private KafkaTemplate<String, ConsultaEventDTO> kafkaTemplate;
+
+    @Autowired
+    private OutboxConsultaRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Hibernate só cria a tabela credito; a outbox vem do script de inicialização do banco
+        String schema = Files.readString(Path.of("../../infra/initdb/01-schema.sql"));
+        int inicio = schema.indexOf("CREATE TABLE IF NOT EXISTS outbox_consulta");
+        jdbcTemplate.execute(schema.substring(inicio, schema.indexOf(");", inicio) + 2));
+        jdbcTemplate.execute("TRUNCATE outbox_consulta");
+    }
+
+    private List<ConsultaEventDTO> gerarEventos() {
+        List<ConsultaEventDTO> eventos = new ArrayList<>(EVENTOS);
+        LocalDateTime inicio = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < EVENTOS; i++) {
+            ConsultaEventDTO evento = new ConsultaEventDTO("NUMERO_NFSE", "NF" + i, 1, "10.0.0.1", "bench");
+            evento.setTimestampConsulta(inicio.plusNanos(i * 1000L));
+            eventos.add(evento);
+        }
+        return eventos;
+    }
+
+    @Test
+    void compararEnvioDiretoComOutbox() throws Exception {
+        List<ConsultaEventDTO> eventos = gerarEventos();
+
+        long inicioDireto = System.nanoTime();
+        for (ConsultaEventDTO evento : eventos) {
+            kafkaTemplate.send(ConsultaPublisher.TOPIC_CONSULTA_CREDITOS, ConsultaPublisher.montarChave(evento), evento);
+        }
+        kafkaTemplate.flush();
+        double direto = eventos.size() / ((System.nanoTime() - inicioDireto) / 1e9);
+
+        long inicioGravacao = System.nanoTime();
+        for (int i = 0; i < eventos.size(); i += LOTE) {
+            outboxRepository.inserir(eventos.subList(i, Math.min(i + LOTE, eventos.size())));
+        }
+        double gravacao = eventos.size() / ((System.nanoTime() - inicioGravacao) / 1e9);
+
+        CreditosProperties properties = new CreditosProperties();
+        properties.getAuditoria().getOutbox().setTamanhoLote(2_000);
+        RelayOutboxConsulta relay = new RelayOutboxConsulta(kafkaTemplate, outboxRepository, transactionManager,
+                properties, new SimpleMeterRegistry());
+        ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+        long inicioRelay = System.nanoTime();
+        for (int w = 0; w < WORKERS; w++) {
+            executor.submit(() -> {
+                while (relay.publicarLote() > 0) {
+                    // publica até esvaziar a outbox
+                }
+                return null;
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        double relayEventosPorSegundo = eventos.size() / ((System.nanoTime() - inicioRelay) / 1e9);
+
+        System.out.printf("Direto (KafkaTemplate): %,.0f eventos/s%n", direto);
+        System.out.printf("Outbox - gravação em lote: %,.0f eventos/s%n", gravacao);
+        System.out.printf("Outbox - relay (%d workers): %,.0f eventos/s%n", WORKERS, relayEventosPorSegundo);
+
+        assertThat(outboxRepository.contar()).isZero();
+    }
+}
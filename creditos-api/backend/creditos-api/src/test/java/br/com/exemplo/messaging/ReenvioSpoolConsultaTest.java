@@ -0,0 +1,87 @@
+package br.com.exemplo.messaging;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.ConsultaEventDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReenvioSpoolConsultaTest {
+
+    @Mock
+    private KafkaTemplate<String, ConsultaEventDTO> kafkaTemplate;
+
+    @TempDir
+    Path diretorio;
+
+    private SpoolEventosConsulta spool;
+    private ReenvioSpoolConsulta reenvio;
+
+    @BeforeEach
+    void setUp() {
+        CreditosProperties properties = new CreditosProperties();
+        properties.getAuditoria().getSpool().setDiretorio(diretorio.toString());
+        properties.getAuditoria().getSpool().setTamanhoSegmento(64 * 1024);
+        spool = new SpoolEventosConsulta(properties);
+        reenvio = new ReenvioSpoolConsulta(kafkaTemplate, spool, properties, new SimpleMeterRegistry());
+    }
+
+    private ConsultaEventDTO evento(String valor) {
+        ConsultaEventDTO evento = new ConsultaEventDTO("NUMERO_NFSE", valor, 1, "localhost", "API");
+        evento.setTimestampConsulta(LocalDateTime.of(2024, 1, 15, 10, 30));
+        return evento;
+    }
+
+    @Test
+    void deveReenviarEConsumirEventosConfirmados() {
+        // Given
+        spool.anexar(evento("NF1"));
+        spool.anexar(evento("NF2"));
+        doReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+                .when(kafkaTemplate).send(anyString(), anyString(), any(ConsultaEventDTO.class));
+
+        // When
+        int reenviados = reenvio.reenviarPendentes();
+
+        // Then
+        assertThat(reenviados).isEqualTo(2);
+        assertThat(spool.possuiPendentes()).isFalse();
+        verify(kafkaTemplate, times(2)).send(eq(ConsultaPublisher.TOPIC_CONSULTA_CREDITOS), anyString(), any());
+    }
+
+    @Test
+    void deveManterNoSpoolAPartirDaPrimeiraFalha() {
+        // Given
+        spool.anexar(evento("NF1"));
+        spool.anexar(evento("NF2"));
+        spool.anexar(evento("NF3"));
+        doReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+                .doReturn(CompletableFuture.failedFuture(new RuntimeException("broker indisponível")))
+                .doReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+                .when(kafkaTemplate).send(anyString(), anyString(), any(ConsultaEventDTO.class));
+
+        // When
+        int reenviados = reenvio.reenviarPendentes();
+
+        // Then - NF3 foi aceito pelo broker, mas continua no spool para não quebrar a ordem
+        assertThat(reenviados).isEqualTo(1);
+        assertThat(spool.getPendentes()).isEqualTo(2);
+        assertThat(spool.lerProximos(10).getEventos())
+                .extracting(ConsultaEventDTO::getValorConsultado).containsExactly("NF2", "NF3");
+    }
+}
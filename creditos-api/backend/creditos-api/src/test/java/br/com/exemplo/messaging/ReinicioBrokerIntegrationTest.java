@@ -0,0 +1,157 @@
+package br.com.exemplo.messaging;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.ConsultaEventDTO;
+import br.com.exemplo.repository.OutboxConsultaRepository;
+import com.github.dockerjava.api.model.ExposedPort;
+import com.github.dockerjava.api.model.PortBinding;
+import com.github.dockerjava.api.model.Ports;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.ConfluentKafkaContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Entrega dos eventos de auditoria com o broker parado e reiniciado: os eventos
+ * publicados durante a queda vão para o spool e chegam ao tópico, em ordem, depois
+ * do reenvio.
+ */
+@Testcontainers
+class ReinicioBrokerIntegrationTest {
+
+    // Porta fixa: o endereço anunciado pelo broker precisa ser o mesmo depois do reinício
+    private static final int PORTA = portaLivre();
+
+    @Container
+    static ConfluentKafkaContainer kafka = new ConfluentKafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.4.0"))
+            .withCreateContainerCmdModifier(cmd -> cmd.getHostConfig()
+                    .withPortBindings(new PortBinding(Ports.Binding.bindPort(PORTA), new ExposedPort(9092))));
+
+    @TempDir
+    Path diretorio;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DefaultKafkaProducerFactory<String, ConsultaEventDTO> producerFactory;
+    private SpoolEventosConsulta spool;
+    private ConsultaPublisher publisher;
+    private ReenvioSpoolConsulta reenvio;
+
+    @BeforeEach
+    void setUp() {
+        CreditosProperties properties = new CreditosProperties();
+        properties.getAuditoria().getSpool().setDiretorio(diretorio.toString());
+        properties.getAuditoria().getSpool().setTimeoutReenvio(Duration.ofSeconds(5));
+
+        // Sem broker, cada envio falha em segundos, e não nos 2 minutos padrão
+        producerFactory = new DefaultKafkaProducerFactory<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBootstrapServers(),
+                ProducerConfig.LINGER_MS_CONFIG, 0,
+                ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 2_000,
+                ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 4_000,
+                ProducerConfig.MAX_BLOCK_MS_CONFIG, 2_000), new StringSerializer(), new JsonSerializer<>());
+        KafkaTemplate<String, ConsultaEventDTO> kafkaTemplate = new KafkaTemplate<>(producerFactory);
+
+        spool = new SpoolEventosConsulta(properties);
+        publisher = new ConsultaPublisher(kafkaTemplate, properties, meterRegistry, spool,
+                mock(OutboxConsultaRepository.class));
+        reenvio = new ReenvioSpoolConsulta(kafkaTemplate, spool, properties, meterRegistry);
+        publisher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.stop();
+        producerFactory.destroy();
+    }
+
+    @Test
+    void deveEntregarEmOrdemOsEventosPublicadosDuranteAQuedaDoBroker() {
+        // Given: eventos entregues com o broker no ar
+        publicar(0, 50);
+        await().atMost(Duration.ofSeconds(30))
+                .until(() -> meterRegistry.counter("creditos.auditoria.eventos.enviados").count() == 50);
+
+        // When: o broker para, recebe eventos durante a queda e volta
+        kafka.getDockerClient().stopContainerCmd(kafka.getContainerId()).exec();
+        publicar(50, 100);
+        await().atMost(Duration.ofSeconds(60)).until(() -> spool.getPendentes() == 50);
+        kafka.getDockerClient().startContainerCmd(kafka.getContainerId()).exec();
+        // Com eventos no spool, os novos também vão para ele, atrás dos anteriores
+        publicar(100, 150);
+        await().atMost(Duration.ofSeconds(30)).until(() -> spool.getPendentes() == 100);
+
+        await().atMost(Duration.ofMinutes(2)).pollInterval(Duration.ofSeconds(1)).until(() -> {
+            reenvio.reenviarPendentes();
+            return !spool.possuiPendentes();
+        });
+
+        // Then: todos os eventos na ordem de publicação (a entrega é pelo menos uma vez:
+        // um reenvio sem confirmação a tempo pode repetir eventos já gravados)
+        assertThat(consumirTopico(150).stream().distinct().toList()).containsExactlyElementsOf(
+                IntStream.range(0, 150).mapToObj(i -> "NF" + i).toList());
+    }
+
+    private void publicar(int inicio, int fim) {
+        for (int i = inicio; i < fim; i++) {
+            ConsultaEventDTO evento = new ConsultaEventDTO("NUMERO_NFSE", "NF" + i, 1, "127.0.0.1", "test-agent");
+            evento.setTimestampConsulta(LocalDateTime.of(2024, 1, 15, 10, 30).plusNanos(i));
+            publisher.publishConsultaEvent(evento);
+        }
+    }
+
+    private List<String> consumirTopico(int quantidade) {
+        List<String> valores = new ArrayList<>();
+        try (KafkaConsumer<String, ConsultaEventDTO> consumer = new KafkaConsumer<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBootstrapServers(),
+                ConsumerConfig.GROUP_ID_CONFIG, "reinicio-broker-test",
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest"),
+                new StringDeserializer(), new JsonDeserializer<>(ConsultaEventDTO.class, false))) {
+            consumer.subscribe(List.of(ConsultaPublisher.TOPIC_CONSULTA_CREDITOS));
+            long prazo = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+            while (valores.stream().distinct().count() < quantidade && System.nanoTime() < prazo) {
+                for (ConsumerRecord<String, ConsultaEventDTO> registro : consumer.poll(Duration.ofMillis(500))) {
+                    valores.add(registro.value().getValorConsultado());
+                }
+            }
+        }
+        return valores;
+    }
+
+    private static int portaLivre() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
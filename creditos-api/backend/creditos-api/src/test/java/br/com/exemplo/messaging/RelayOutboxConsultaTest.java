@@ -0,0 +1,93 @@
+package br.com.exemplo.messaging;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.ConsultaEventDTO;
+import br.com.exemplo.repository.OutboxConsultaRepository;
+import br.com.exemplo.repository.OutboxConsultaRepository.RegistroOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RelayOutboxConsultaTest {
+
+    @Mock
+    private KafkaTemplate<String, ConsultaEventDTO> kafkaTemplate;
+
+    @Mock
+    private OutboxConsultaRepository outboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RelayOutboxConsulta relay;
+
+    @BeforeEach
+    void setUp() {
+        CreditosProperties properties = new CreditosProperties();
+        properties.getAuditoria().getOutbox().setTamanhoLote(100);
+        relay = new RelayOutboxConsulta(kafkaTemplate, outboxRepository, transactionManager, properties,
+                new SimpleMeterRegistry());
+    }
+
+    private RegistroOutbox registro(long id) {
+        ConsultaEventDTO evento = new ConsultaEventDTO("NUMERO_NFSE", "NF" + id, 1, "localhost", "API");
+        evento.setTimestampConsulta(LocalDateTime.of(2024, 1, 15, 10, 30));
+        return new RegistroOutbox(id, evento);
+    }
+
+    @Test
+    void devePublicarERemoverLoteBloqueado() {
+        // Given
+        when(outboxRepository.bloquearProximos(100)).thenReturn(List.of(registro(1), registro(2)));
+        doReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+                .when(kafkaTemplate).send(anyString(), anyString(), any(ConsultaEventDTO.class));
+
+        // When
+        int publicados = relay.publicarLote();
+
+        // Then
+        assertThat(publicados).isEqualTo(2);
+        verify(kafkaTemplate, times(2)).send(eq(ConsultaPublisher.TOPIC_CONSULTA_CREDITOS), anyString(), any());
+        verify(outboxRepository).remover(List.of(1L, 2L));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void naoDeveRemoverQuandoBrokerFalha() {
+        // Given
+        when(outboxRepository.bloquearProximos(100)).thenReturn(List.of(registro(1)));
+        doReturn(CompletableFuture.failedFuture(new RuntimeException("broker indisponível")))
+                .when(kafkaTemplate).send(anyString(), anyString(), any(ConsultaEventDTO.class));
+
+        // When & Then - o rollback devolve as linhas para outro relay
+        assertThatThrownBy(() -> relay.publicarLote()).isInstanceOf(IllegalStateException.class);
+        verify(outboxRepository, never()).remover(anyList());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void deveRetornarZeroQuandoOutboxVazia() {
+        // Given
+        when(outboxRepository.bloquearProximos(100)).thenReturn(List.of());
+
+        // When & Then
+        assertThat(relay.publicarLote()).isZero();
+        verifyNoInteractions(kafkaTemplate);
+    }
+}
@@ -0,0 +1,150 @@
+package br.com.exemplo.messaging;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.ConsultaEventDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpoolEventosConsultaTest {
+
+    @TempDir
+    Path diretorio;
+
+    private CreditosProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CreditosProperties();
+        properties.getAuditoria().getSpool().setDiretorio(diretorio.toString());
+        properties.getAuditoria().getSpool().setTamanhoSegmento(4096);
+    }
+
+    private ConsultaEventDTO evento(int i) {
+        ConsultaEventDTO evento = new ConsultaEventDTO("NUMERO_NFSE", "NF" + i, i, "192.168.1.1", "test-agent");
+        evento.setTimestampConsulta(LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123456789));
+        return evento;
+    }
+
+    private long quantidadeSegmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.count();
+        }
+    }
+
+    @Test
+    void deveLerEventosNaOrdemDeGravacao() {
+        // Given
+        SpoolEventosConsulta spool = new SpoolEventosConsulta(properties);
+        spool.anexar(evento(1));
+        spool.anexar(evento(2));
+
+        // When
+        SpoolEventosConsulta.Lote lote = spool.lerProximos(10);
+
+        // Then
+        assertThat(lote.getEventos()).extracting(ConsultaEventDTO::getValorConsultado).containsExactly("NF1", "NF2");
+        assertThat(lote.getEventos().get(0).getTimestampConsulta()).isEqualTo(evento(1).getTimestampConsulta());
+        assertThat(lote.getEventos().get(0).getUserAgent()).isEqualTo("test-agent");
+        assertThat(spool.getPendentes()).isEqualTo(2);
+    }
+
+    @Test
+    void deveConsumirApenasOPrefixoConfirmado() {
+        // Given
+        SpoolEventosConsulta spool = new SpoolEventosConsulta(properties);
+        spool.anexar(evento(1));
+        spool.anexar(evento(2));
+        spool.anexar(evento(3));
+
+        // When
+        spool.confirmar(spool.lerProximos(10), 1);
+
+        // Then
+        assertThat(spool.getPendentes()).isEqualTo(2);
+        assertThat(spool.lerProximos(10).getEventos())
+                .extracting(ConsultaEventDTO::getValorConsultado).containsExactly("NF2", "NF3");
+    }
+
+    @Test
+    void deveRecuperarPendentesAposReinicio() {
+        // Given
+        SpoolEventosConsulta spool = new SpoolEventosConsulta(properties);
+        spool.anexar(evento(1));
+        spool.anexar(evento(2));
+        spool.confirmar(spool.lerProximos(1), 1);
+        spool.sincronizar();
+
+        // When
+        SpoolEventosConsulta recuperado = new SpoolEventosConsulta(properties);
+
+        // Then
+        assertThat(recuperado.getPendentes()).isEqualTo(1);
+        assertThat(recuperado.lerProximos(10).getEventos())
+                .extracting(ConsultaEventDTO::getValorConsultado).containsExactly("NF2");
+    }
+
+    @Test
+    void deveIgnorarRegistroCorrompidoNaRecuperacao() throws IOException {
+        // Given
+        SpoolEventosConsulta spool = new SpoolEventosConsulta(properties);
+        spool.anexar(evento(1));
+        spool.anexar(evento(2));
+        spool.sincronizar();
+
+        int tamanhoPrimeiro = SpoolEventosConsulta.codificar(evento(1)).length;
+        Path segmento = diretorio.resolve(String.format("%020d.seg", 0));
+        try (RandomAccessFile arquivo = new RandomAccessFile(segmento.toFile(), "rw")) {
+            // corrompe o payload do segundo registro
+            arquivo.seek(16 + 8 + tamanhoPrimeiro + 8 + 2);
+            arquivo.write(0x7F);
+        }
+
+        // When
+        SpoolEventosConsulta recuperado = new SpoolEventosConsulta(properties);
+
+        // Then
+        assertThat(recuperado.lerProximos(10).getEventos())
+                .extracting(ConsultaEventDTO::getValorConsultado).containsExactly("NF1");
+    }
+
+    @Test
+    void deveRotacionarEApagarSegmentosConsumidos() throws IOException {
+        // Given
+        SpoolEventosConsulta spool = new SpoolEventosConsulta(properties);
+        for (int i = 0; i < 100; i++) {
+            spool.anexar(evento(i));
+        }
+        assertThat(quantidadeSegmentos()).isGreaterThan(1);
+
+        // When
+        while (spool.possuiPendentes()) {
+            SpoolEventosConsulta.Lote lote = spool.lerProximos(30);
+            spool.confirmar(lote, lote.getEventos().size());
+        }
+
+        // Then
+        assertThat(quantidadeSegmentos()).isEqualTo(1);
+        assertThat(spool.lerProximos(10).isEmpty()).isTrue();
+    }
+
+    @Test
+    void naoDeveGravarQuandoDesabilitado() {
+        // Given
+        properties.getAuditoria().getSpool().setHabilitado(false);
+        SpoolEventosConsulta spool = new SpoolEventosConsulta(properties);
+
+        // When & Then
+        assertThat(spool.anexar(evento(1))).isFalse();
+        assertThat(spool.possuiPendentes()).isFalse();
+    }
+}
@@ -0,0 +1,62 @@
+package br.com.exemplo.metricas;
+
+import br.com.exemplo.metricas.MetricasCreditos.Endpoint;
+import br.com.exemplo.metricas.MetricasRepositorioPostProcessor.TemporizadorRepositorio;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class MetricasCreditosTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void devePublicarBucketsDeSloPorEndpoint() {
+        // Given
+        MetricasCreditos metricas = new MetricasCreditos(meterRegistry);
+
+        // When
+        metricas.registrarEndpoint(Endpoint.CREDITO, TimeUnit.MILLISECONDS.toNanos(3));
+
+        // Then
+        Timer timer = meterRegistry.get("creditos.http.endpoint").tag("endpoint", "credito").timer();
+        CountAtBucket[] buckets = timer.takeSnapshot().histogramCounts();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(buckets).hasSize(MetricasCreditos.SLOS.length);
+        assertThat(Arrays.stream(buckets).filter(b -> b.bucket(TimeUnit.MILLISECONDS) == 5).findFirst())
+                .hasValueSatisfying(b -> assertThat(b.count()).isEqualTo(1));
+        assertThat(meterRegistry.get("creditos.http.endpoint").tag("endpoint", "nfse").timer().count()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deveMedirMetodosDoRepositorio() throws Throwable {
+        // Given
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(meterRegistry);
+        TemporizadorRepositorio temporizador = new TemporizadorRepositorio(provider, "CreditoRepository");
+        MethodInvocation invocacao = mock(MethodInvocation.class);
+        when(invocacao.getMethod()).thenReturn(Object.class.getMethod("toString"));
+        when(invocacao.proceed()).thenReturn("ok");
+
+        // When
+        Object resultado = temporizador.invoke(invocacao);
+        temporizador.invoke(invocacao);
+
+        // Then
+        assertThat(resultado).isEqualTo("ok");
+        assertThat(meterRegistry.get("creditos.repositorio.consulta")
+                .tag("repositorio", "CreditoRepository").tag("metodo", "toString").timer().count()).isEqualTo(2);
+        verify(provider, times(1)).getObject();
+    }
+}
@@ -0,0 +1,140 @@
+package br.com.exemplo.replicas;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DataSourceReplicasTest {
+
+    private final DataSource primario = mock(DataSource.class);
+    private final DataSource pool1 = mock(DataSource.class);
+    private final DataSource pool2 = mock(DataSource.class);
+
+    private NoLeitura replica1;
+    private NoLeitura replica2;
+    private DataSourceReplicas replicas;
+
+    @BeforeEach
+    void setUp() {
+        replica1 = DataSourceReplicas.replica("replica-1", pool1);
+        replica2 = DataSourceReplicas.replica("replica-2", pool2);
+        replicas = new DataSourceReplicas(List.of(replica1, replica2), primario, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void deveAlternarEntreReplicasElegiveis() {
+        // Given
+        replica1.atualizar(true, 0);
+        replica2.atualizar(true, 0);
+
+        // When
+        Set<NoLeitura> escolhidas = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            escolhidas.add(replicas.escolher(null));
+        }
+
+        // Then
+        assertThat(escolhidas).containsExactlyInAnyOrder(replica1, replica2);
+    }
+
+    @Test
+    void deveRepassarCredenciaisAoNoEscolhido() throws SQLException {
+        // Given
+        replica1.atualizar(true, 0);
+        replica2.atualizar(false, 0);
+        Connection conexao = mock(Connection.class);
+        when(pool1.getConnection("leitor", "segredo")).thenReturn(conexao);
+
+        // When / Then
+        assertThat(replicas.getConnection("leitor", "segredo")).isSameAs(conexao);
+    }
+
+    @Test
+    void deveIgnorarReplicaComAtrasoAcimaDoLimite() {
+        // Given
+        replica1.atualizar(true, 5_000);
+        replica2.atualizar(true, 200);
+
+        // When / Then
+        for (int i = 0; i < 4; i++) {
+            assertThat(replicas.escolher(null)).isSameAs(replica2);
+        }
+    }
+
+    @Test
+    void deveCairNoPrimarioSemReplicaElegivel() {
+        // Given: replica-1 ainda não medida, replica-2 indisponível
+        replica2.atualizar(false, 0);
+
+        // When / Then
+        assertThat(replicas.escolher(null)).isSameAs(replicas.getPrimario());
+        assertThat(replicas.escolher(replicas.getPrimario())).isNull();
+    }
+
+    @Test
+    void deveEscolherOutroNoQuandoHaExclusao() {
+        // Given
+        replica1.atualizar(true, 0);
+
+        // When / Then
+        assertThat(replicas.escolher(replica1)).isSameAs(replicas.getPrimario());
+        assertThat(replicas.escolher(replicas.getPrimario())).isSameAs(replica1);
+    }
+
+    @Test
+    void deveUsarONoFixadoNaThread() throws SQLException {
+        // Given
+        replica1.atualizar(true, 0);
+        replica2.atualizar(true, 0);
+        Connection conexao = mock(Connection.class);
+        when(pool2.getConnection()).thenReturn(conexao);
+
+        // When
+        Connection obtida = replicas.executarEm(replica2, () -> {
+            try {
+                return replicas.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Then
+        assertThat(obtida).isSameAs(conexao);
+    }
+
+    @Test
+    void deveMedirAtrasoEMarcarReplicaInacessivel() throws SQLException {
+        // Given
+        Connection conexao = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultado = mock(ResultSet.class);
+        when(pool1.getConnection()).thenReturn(conexao);
+        when(conexao.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultado);
+        when(resultado.next()).thenReturn(true);
+        when(resultado.getDouble(1)).thenReturn(120.4);
+        when(pool2.getConnection()).thenThrow(new SQLException("conexão recusada"));
+
+        // When
+        replicas.verificarAtrasos();
+
+        // Then
+        assertThat(replica1.isDisponivel()).isTrue();
+        assertThat(replica1.getAtrasoMillis()).isEqualTo(120);
+        assertThat(replica2.isDisponivel()).isFalse();
+    }
+}
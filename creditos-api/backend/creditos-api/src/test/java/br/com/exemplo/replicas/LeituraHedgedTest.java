@@ -0,0 +1,130 @@
+package br.com.exemplo.replicas;
+
+import br.com.exemplo.config.CreditosProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LeituraHedgedTest {
+
+    private final DataSource pool1 = mock(DataSource.class);
+    private final DataSource pool2 = mock(DataSource.class);
+    private final DataSource poolPrimario = mock(DataSource.class);
+    private final Connection conexao1 = mock(Connection.class);
+    private final Connection conexao2 = mock(Connection.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DataSourceReplicas replicas;
+    private LeituraHedged leitura;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws SQLException {
+        NoLeitura replica1 = DataSourceReplicas.replica("replica-1", pool1);
+        NoLeitura replica2 = DataSourceReplicas.replica("replica-2", pool2);
+        replica1.atualizar(true, 0);
+        replica2.atualizar(true, 0);
+        replicas = new DataSourceReplicas(List.of(replica1, replica2), poolPrimario, Duration.ofSeconds(1));
+        when(pool1.getConnection()).thenReturn(conexao1);
+        when(pool2.getConnection()).thenReturn(conexao2);
+
+        CreditosProperties properties = new CreditosProperties();
+        properties.getReplicas().getHedge().setHabilitado(true);
+        properties.getReplicas().getHedge().setOrcamentoInicial(Duration.ofMillis(300));
+        ObjectProvider<DataSourceReplicas> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(replicas);
+        leitura = new LeituraHedged(properties, provider, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        leitura.destroy();
+    }
+
+    @Test
+    void deveResponderPelaSegundaTentativaQuandoAPrimeiraEstouraOOrcamento() {
+        // When
+        String resposta = leitura.executar(() -> consultar(3_000));
+
+        // Then
+        assertThat(resposta).isEqualTo("replica-2");
+        assertThat(meterRegistry.counter("creditos.replicas.hedge").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("creditos.replicas.hedge.vitorias").count()).isEqualTo(1);
+    }
+
+    @Test
+    void naoDeveEnviarSegundaTentativaDentroDoOrcamento() {
+        // When
+        String resposta = leitura.executar(() -> consultar(0));
+
+        // Then
+        assertThat(resposta).isEqualTo("replica-1");
+        assertThat(meterRegistry.counter("creditos.replicas.hedge").count()).isZero();
+    }
+
+    @Test
+    void devePropagarFalhaDaConsulta() {
+        // When / Then
+        assertThatThrownBy(() -> leitura.executar(() -> {
+            throw new IllegalArgumentException("consulta inválida");
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("consulta inválida");
+    }
+
+    @Test
+    void deveExecutarNoPrimarioMesmoComReplicasEmDia() throws SQLException {
+        // Given
+        Connection conexaoPrimario = mock(Connection.class);
+        when(poolPrimario.getConnection()).thenReturn(conexaoPrimario);
+
+        // When
+        Connection conexao = leitura.executarNoPrimario(() -> {
+            try {
+                return replicas.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Then
+        assertThat(conexao).isSameAs(conexaoPrimario);
+        assertThat(meterRegistry.counter("creditos.replicas.hedge").count()).isZero();
+    }
+
+    @Test
+    void deveUsarOrcamentoInicialEnquantoNaoHaAmostras() {
+        // When / Then
+        assertThat(leitura.orcamentoNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(300));
+    }
+
+    /**
+     * Simula uma consulta: a réplica 1 demora o tempo informado, a réplica 2 responde na hora.
+     */
+    private String consultar(long atrasoReplica1Millis) {
+        try (Connection conexao = replicas.getConnection()) {
+            if (conexao == conexao1) {
+                Thread.sleep(atrasoReplica1Millis);
+                return "replica-1";
+            }
+            return "replica-2";
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
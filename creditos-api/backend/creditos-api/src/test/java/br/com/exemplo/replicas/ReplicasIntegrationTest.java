@@ -0,0 +1,179 @@
+package br.com.exemplo.replicas;
+
+import br.com.exemplo.config.CreditosProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Roteamento de leituras com um primário e uma réplica em streaming replication.
+ */
+@Testcontainers
+class ReplicasIntegrationTest {
+
+    private static final Network REDE = Network.newNetwork();
+
+    @Container
+    static PostgreSQLContainer<?> primario = new PostgreSQLContainer<>("postgres:17.5")
+            .withNetwork(REDE)
+            .withNetworkAliases("primario")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withCopyToContainer(Transferable.of("echo 'host replication all all scram-sha-256' >> \"$PGDATA/pg_hba.conf\"\n"),
+                    "/docker-entrypoint-initdb.d/00-replicacao.sh")
+            .withCommand("postgres", "-c", "wal_level=replica", "-c", "max_wal_senders=4", "-c", "fsync=off");
+
+    @Container
+    static GenericContainer<?> replica = new GenericContainer<>("postgres:17.5")
+            .withNetwork(REDE)
+            .dependsOn(primario)
+            .withEnv("PGPASSWORD", "test")
+            .withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres"))
+            .withCommand("bash", "-c", "pg_basebackup -h primario -U test -D /tmp/replica -R -X stream"
+                    + " && chmod 700 /tmp/replica && exec postgres -D /tmp/replica")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*database system is ready to accept read-only connections.*", 1)
+                    .withStartupTimeout(Duration.ofMinutes(2)));
+
+    private static HikariDataSource poolPrimario;
+    private static HikariDataSource poolReplica;
+
+    @BeforeAll
+    static void setUp() {
+        poolPrimario = pool(primario.getJdbcUrl());
+        poolReplica = pool("jdbc:postgresql://" + replica.getHost() + ":" + replica.getMappedPort(5432) + "/testdb");
+        new JdbcTemplate(poolPrimario).execute("CREATE TABLE IF NOT EXISTS leitura (id INTEGER)");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        poolReplica.close();
+        poolPrimario.close();
+    }
+
+    @Test
+    void deveRotearTransacoesSomenteLeituraParaReplica() {
+        // Given
+        Roteamento roteamento = new Roteamento(Duration.ofSeconds(5));
+
+        // When
+        Boolean leitura = roteamento.somenteLeitura().execute(status ->
+                roteamento.jdbc.queryForObject("SELECT pg_is_in_recovery()", Boolean.class));
+        Boolean escrita = roteamento.escrita().execute(status ->
+                roteamento.jdbc.queryForObject("SELECT pg_is_in_recovery()", Boolean.class));
+
+        // Then
+        assertThat(leitura).isTrue();
+        assertThat(escrita).isFalse();
+    }
+
+    @Test
+    void deveUsarPrimarioQuandoReplicaEstaAtrasada() throws InterruptedException {
+        // Given: replicação pausada na réplica enquanto o primário recebe escritas
+        JdbcTemplate jdbcReplica = new JdbcTemplate(poolReplica);
+        jdbcReplica.execute("SELECT pg_wal_replay_pause()");
+        try {
+            new JdbcTemplate(poolPrimario).update("INSERT INTO leitura VALUES (1)");
+            Thread.sleep(500);
+            Roteamento roteamento = new Roteamento(Duration.ofMillis(100));
+
+            // When
+            Boolean leitura = roteamento.somenteLeitura().execute(status ->
+                    roteamento.jdbc.queryForObject("SELECT pg_is_in_recovery()", Boolean.class));
+
+            // Then
+            assertThat(roteamento.replicas.getReplicas().get(0).getAtrasoMillis()).isGreaterThan(100);
+            assertThat(leitura).isFalse();
+        } finally {
+            jdbcReplica.execute("SELECT pg_wal_replay_resume()");
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deveResponderPeloOutroNoQuandoReplicaDemora() {
+        // Given: a réplica leva 2s para responder, o primário responde na hora
+        Roteamento roteamento = new Roteamento(Duration.ofSeconds(5));
+        CreditosProperties properties = new CreditosProperties();
+        properties.getReplicas().getHedge().setHabilitado(true);
+        properties.getReplicas().getHedge().setOrcamentoInicial(Duration.ofMillis(200));
+        ObjectProvider<DataSourceReplicas> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(roteamento.replicas);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LeituraHedged leitura = new LeituraHedged(properties, provider, meterRegistry);
+
+        try {
+            // When
+            Boolean emRecuperacao = leitura.executar(() -> roteamento.somenteLeitura().execute(status ->
+                    roteamento.jdbc.queryForObject("SELECT pg_is_in_recovery() FROM "
+                            + "(SELECT pg_sleep(CASE WHEN pg_is_in_recovery() THEN 2 ELSE 0 END)) espera", Boolean.class)));
+
+            // Then
+            assertThat(emRecuperacao).isFalse();
+            assertThat(meterRegistry.counter("creditos.replicas.hedge").count()).isEqualTo(1);
+        } finally {
+            leitura.destroy();
+        }
+    }
+
+    private static HikariDataSource pool(String url) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(url);
+        pool.setUsername("test");
+        pool.setPassword("test");
+        pool.setMaximumPoolSize(4);
+        return pool;
+    }
+
+    /**
+     * Mesma montagem do ReplicasConfig, sem o contexto Spring.
+     */
+    private static final class Roteamento {
+
+        final DataSourceReplicas replicas;
+        final JdbcTemplate jdbc;
+        final DataSourceTransactionManager transactionManager;
+
+        Roteamento(Duration atrasoMaximo) {
+            replicas = new DataSourceReplicas(List.of(DataSourceReplicas.replica("replica-1", poolReplica)),
+                    poolPrimario, atrasoMaximo);
+            replicas.verificarAtrasos();
+            LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(poolPrimario);
+            dataSource.setReadOnlyDataSource(replicas);
+            jdbc = new JdbcTemplate(dataSource);
+            transactionManager = new DataSourceTransactionManager(dataSource);
+        }
+
+        TransactionTemplate somenteLeitura() {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(true);
+            return template;
+        }
+
+        TransactionTemplate escrita() {
+            return new TransactionTemplate(transactionManager);
+        }
+    }
+}
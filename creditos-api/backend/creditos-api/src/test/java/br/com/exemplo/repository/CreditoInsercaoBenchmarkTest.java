@@ -0,0 +1,170 @@
+package br.com.exemplo.repository;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.entity.Credito;
+import br.com.exemplo.service.GravacaoCreditoService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara inserções por segundo entre a estratégia antiga (IDENTITY) e a sequence
+ * com alocação em bloco + batches JDBC.
+ *
+ * Com IDENTITY o Hibernate precisa executar cada INSERT isoladamente para ler a chave
+ * gerada; o caminho IDENTITY é reproduzido aqui com o mesmo padrão de comandos (um
+ * INSERT por linha com getGeneratedKeys) em uma tabela equivalente.
+ *
+ * Executar com: ./mvnw test -Dtest=CreditoInsercaoBenchmarkTest -Dbenchmark=true
+ */
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({GravacaoCreditoService.class, CreditosProperties.class})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CreditoInsercaoBenchmarkTest {
+
+    private static final int LINHAS = 20_000;
+    private static final int RODADAS = 3;
+
+    private static final String CRIAR_TABELA_IDENTITY = """
+            CREATE TABLE IF NOT EXISTS credito_identity (
+                id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                numero_credito VARCHAR(50) NOT NULL UNIQUE,
+                numero_nfse VARCHAR(50) NOT NULL,
+                data_constituicao DATE NOT NULL,
+                valor_issqn DECIMAL(15, 2) NOT NULL,
+                tipo_credito VARCHAR(50) NOT NULL,
+                simples_nacional BOOLEAN NOT NULL,
+                aliquota DECIMAL(5, 2) NOT NULL,
+                valor_faturado DECIMAL(15, 2) NOT NULL,
+                valor_deducao DECIMAL(15, 2) NOT NULL,
+                base_calculo DECIMAL(15, 2) NOT NULL
+            )""";
+
+    private static final String INSERIR_IDENTITY = "INSERT INTO credito_identity (numero_credito, numero_nfse, "
+            + "data_constituicao, valor_issqn, tipo_credito, simples_nacional, aliquota, valor_faturado, "
+            + "valor_deducao, base_calculo) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.5")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Autowired
+    private GravacaoCreditoService gravacaoCreditoService;
+
+    @Autowired
+    private CreditoRepository creditoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compararIdentityComSequencePooled() {
+        jdbcTemplate.execute(CRIAR_TABELA_IDENTITY);
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+
+        double identity = 0;
+        double pooled = 0;
+        // A primeira rodada serve de aquecimento e não entra no resultado
+        for (int rodada = 0; rodada <= RODADAS; rodada++) {
+            jdbcTemplate.execute("TRUNCATE credito_identity");
+            creditoRepository.deleteAllInBatch();
+            List<Credito> creditos = criarCreditos(rodada);
+
+            long inicio = System.nanoTime();
+            transacao.executeWithoutResult(status -> inserirComIdentity(creditos));
+            double porSegundoIdentity = LINHAS / ((System.nanoTime() - inicio) / 1e9);
+
+            inicio = System.nanoTime();
+            gravacaoCreditoService.salvarEmLote(creditos);
+            double porSegundoPooled = LINHAS / ((System.nanoTime() - inicio) / 1e9);
+
+            if (rodada > 0) {
+                identity += porSegundoIdentity / RODADAS;
+                pooled += porSegundoPooled / RODADAS;
+            }
+        }
+
+        System.out.printf("%-10s %15s%n", "estrategia", "insercoes/s");
+        System.out.printf("%-10s %15.0f%n", "identity", identity);
+        System.out.printf("%-10s %15.0f%n", "pooled", pooled);
+
+        assertThat(creditoRepository.count()).isEqualTo(LINHAS);
+        assertThat(pooled).isGreaterThan(identity);
+    }
+
+    private void inserirComIdentity(List<Credito> creditos) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexao -> {
+            try (PreparedStatement insert = conexao.prepareStatement(INSERIR_IDENTITY, Statement.RETURN_GENERATED_KEYS)) {
+                for (Credito credito : creditos) {
+                    insert.setString(1, credito.getNumeroCredito());
+                    insert.setString(2, credito.getNumeroNfse());
+                    insert.setDate(3, Date.valueOf(credito.getDataConstituicao()));
+                    insert.setBigDecimal(4, credito.getValorIssqn());
+                    insert.setString(5, credito.getTipoCredito());
+                    insert.setBoolean(6, credito.isSimplesNacional());
+                    insert.setBigDecimal(7, credito.getAliquota());
+                    insert.setBigDecimal(8, credito.getValorFaturado());
+                    insert.setBigDecimal(9, credito.getValorDeducao());
+                    insert.setBigDecimal(10, credito.getBaseCalculo());
+                    insert.executeUpdate();
+                    try (ResultSet chaves = insert.getGeneratedKeys()) {
+                        chaves.next();
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static List<Credito> criarCreditos(int rodada) {
+        List<Credito> creditos = new ArrayList<>(LINHAS);
+        for (int i = 0; i < LINHAS; i++) {
+            creditos.add(new Credito("CR-INS-" + rodada + "-" + i, "NF-INS-" + (i / 10),
+                    LocalDate.of(2024, 1, 1).plusDays(i % 365), new BigDecimal("1500.75"), "ISSQN",
+                    i % 2 == 0, new BigDecimal("5.00"), new BigDecimal("30000.00"),
+                    new BigDecimal("5000.00"), new BigDecimal("25000.00")));
+        }
+        return creditos;
+    }
+}
@@ -0,0 +1,118 @@
+package br.com.exemplo.repository;
+
+import br.com.exemplo.dto.CreditoResponseDTO;
+import br.com.exemplo.entity.Credito;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara alocação e latência por requisição entre o caminho antigo (entidades
+ * gerenciadas + mapeamento campo a campo) e a projeção direta no DTO.
+ *
+ * Executar com: ./mvnw test -Dtest=CreditoProjecaoBenchmarkTest -Dbenchmark=true
+ */
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CreditoProjecaoBenchmarkTest {
+
+    private static final String NFSE = "NF-BENCH";
+    private static final int CREDITOS_POR_NFSE = 1_000;
+    private static final int AQUECIMENTO = 200;
+    private static final int MEDICOES = 1_000;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.5")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Autowired
+    private CreditoRepository creditoRepository;
+
+    @BeforeEach
+    void setUp() {
+        if (creditoRepository.count() > 0) {
+            return;
+        }
+        List<Credito> creditos = new ArrayList<>();
+        for (int i = 0; i < CREDITOS_POR_NFSE; i++) {
+            creditos.add(new Credito("CR-BENCH-" + i, NFSE, LocalDate.of(2024, 1, 1).plusDays(i % 365),
+                    new BigDecimal("1500.75"), "ISSQN", i % 2 == 0, new BigDecimal("5.00"),
+                    new BigDecimal("30000.00"), new BigDecimal("5000.00"), new BigDecimal("25000.00")));
+        }
+        creditoRepository.saveAll(creditos);
+    }
+
+    @Test
+    void compararEntidadeComProjecao() {
+        Medicao entidade = medir(() -> creditoRepository.findByNumeroNfse(NFSE).stream()
+                .map(CreditoProjecaoBenchmarkTest::mapToDTO)
+                .collect(Collectors.toList()));
+        Medicao projecao = medir(() -> creditoRepository.findDtoByNumeroNfse(NFSE));
+
+        System.out.printf("%-10s %15s %15s%n", "caminho", "bytes/req", "us/req");
+        System.out.printf("%-10s %15d %15.1f%n", "entidade", entidade.bytesPorRequisicao, entidade.microsPorRequisicao);
+        System.out.printf("%-10s %15d %15.1f%n", "projecao", projecao.bytesPorRequisicao, projecao.microsPorRequisicao);
+
+        assertThat(projecao.bytesPorRequisicao).isLessThan(entidade.bytesPorRequisicao);
+    }
+
+    private Medicao medir(Supplier<List<CreditoResponseDTO>> consulta) {
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            assertThat(consulta.get()).hasSize(CREDITOS_POR_NFSE);
+        }
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long bytesAntes = threadMXBean.getThreadAllocatedBytes(threadId);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < MEDICOES; i++) {
+            consulta.get();
+        }
+        long duracao = System.nanoTime() - inicio;
+        long bytes = threadMXBean.getThreadAllocatedBytes(threadId) - bytesAntes;
+
+        return new Medicao(bytes / MEDICOES, duracao / 1_000.0 / MEDICOES);
+    }
+
+    private static CreditoResponseDTO mapToDTO(Credito credito) {
+        return new CreditoResponseDTO(credito.getNumeroCredito(), credito.getNumeroNfse(), credito.getDataConstituicao(),
+                credito.getValorIssqn(), credito.getTipoCredito(), credito.isSimplesNacional(), credito.getAliquota(),
+                credito.getValorFaturado(), credito.getValorDeducao(), credito.getBaseCalculo());
+    }
+
+    private record Medicao(long bytesPorRequisicao, double microsPorRequisicao) {}
+}
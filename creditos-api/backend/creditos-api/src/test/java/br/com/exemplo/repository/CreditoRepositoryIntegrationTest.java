@@ -1,9 +1,11 @@
 package br.com.exemplo.repository;
 
+import br.com.exemplo.dto.CreditoResponseDTO;
 import br.com.exemplo.entity.Credito;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
@@ -205,4 +207,35 @@ class CreditoRepositoryIntegrationTest {
         // Then
         assertThat(count).isEqualTo(3);
     }
+
+    @Test
+    void devePaginarCreditosPorCursor() {
+        // When
+        List<Credito> primeira = creditoRepository.findPrimeiraPaginaByNumeroNfse("NF001", Limit.of(1));
+        Credito ultimo = primeira.get(0);
+        List<Credito> segunda = creditoRepository.findPaginaByNumeroNfseApos(
+                "NF001", ultimo.getDataConstituicao(), ultimo.getId(), Limit.of(1));
+        List<Credito> terceira = creditoRepository.findPaginaByNumeroNfseApos(
+                "NF001", segunda.get(0).getDataConstituicao(), segunda.get(0).getId(), Limit.of(1));
+
+        // Then
+        assertThat(primeira).extracting(Credito::getNumeroCredito).containsExactly("CR002");
+        assertThat(segunda).extracting(Credito::getNumeroCredito).containsExactly("CR001");
+        assertThat(terceira).isEmpty();
+    }
+
+    @Test
+    void deveProjetarCreditosDiretamenteNoDto() {
+        // When
+        List<CreditoResponseDTO> porNfse = creditoRepository.findDtoByNumeroNfse("NF001");
+        Optional<CreditoResponseDTO> porNumero = creditoRepository.findDtoByNumeroCredito("CR003");
+
+        // Then
+        assertThat(porNfse).extracting(CreditoResponseDTO::getNumeroCredito).containsExactly("CR002", "CR001");
+        assertThat(porNfse).extracting(CreditoResponseDTO::getSimplesNacional).containsExactly("Não", "Sim");
+        assertThat(porNumero).isPresent();
+        assertThat(porNumero.get().getBaseCalculo()).isEqualTo(new BigDecimal("85714.29"));
+        assertThat(creditoRepository.findDtoByNumeroNfseIn(List.of("NF001", "NF002"))).hasSize(3);
+        assertThat(creditoRepository.findDtoByNumeroCreditoIn(List.of("CR001", "CR999"))).hasSize(1);
+    }
 }
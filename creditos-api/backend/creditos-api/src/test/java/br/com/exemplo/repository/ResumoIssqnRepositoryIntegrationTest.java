@@ -0,0 +1,156 @@
+package br.com.exemplo.repository;
+
+import br.com.exemplo.dto.ResumoIssqnDTO;
+import br.com.exemplo.repository.ResumoIssqnRepository.Dimensao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Manutenção incremental do resumo_issqn pelos triggers do schema real (infra/initdb).
+ */
+@Testcontainers
+class ResumoIssqnRepositoryIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.5")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withCopyFileToContainer(MountableFile.forHostPath("../../infra/initdb/01-schema.sql"),
+                    "/docker-entrypoint-initdb.d/01-schema.sql");
+
+    // Diferença simétrica entre o resumo e a agregação completa da tabela credito
+    private static final String DIVERGENCIAS = """
+            WITH completo AS (
+                SELECT tipo_credito, date_trunc('month', data_constituicao)::date AS mes, simples_nacional,
+                       count(*) AS quantidade, sum(valor_issqn) AS total_valor_issqn,
+                       sum(valor_faturado) AS total_valor_faturado, sum(base_calculo) AS total_base_calculo
+                  FROM credito GROUP BY 1, 2, 3)
+            SELECT count(*) FROM (
+                (SELECT * FROM completo EXCEPT SELECT * FROM resumo_issqn)
+                UNION ALL
+                (SELECT * FROM resumo_issqn EXCEPT SELECT * FROM completo)) divergentes
+            """;
+
+    private JdbcTemplate jdbcTemplate;
+    private ResumoIssqnRepository resumoIssqnRepository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(postgres.getJdbcUrl(), "test", "test"));
+        jdbcTemplate.execute("TRUNCATE credito");
+        resumoIssqnRepository = new ResumoIssqnRepository();
+        ReflectionTestUtils.setField(resumoIssqnRepository, "jdbcTemplate", jdbcTemplate);
+
+        jdbcTemplate.update("""
+                INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn, tipo_credito,
+                                     simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo)
+                VALUES ('123456', '7891011', '2024-02-25', 1500.75, 'ISSQN', true, 5.0, 30000.00, 5000.00, 25000.00),
+                       ('789012', '7891011', '2024-02-26', 1200.50, 'ISSQN', false, 4.5, 25000.00, 4000.00, 21000.00),
+                       ('654321', '1122334', '2024-01-15', 800.50, 'Outros', true, 3.5, 20000.00, 3000.00, 17000.00),
+                       ('654322', '1122334', '2024-01-20', 199.50, 'Outros', true, 3.5, 5000.00, 0.00, 5000.00)
+                """);
+    }
+
+    @Test
+    void deveAcumularInsercoesPorGrupo() {
+        // Then
+        assertThat(divergencias()).isZero();
+        List<ResumoIssqnDTO> resumo = resumoIssqnRepository.totalizar(EnumSet.allOf(Dimensao.class), null, null, null, null);
+        assertThat(resumo).hasSize(3);
+        assertThat(resumo.get(0).getTipoCredito()).isEqualTo("ISSQN");
+        assertThat(resumo.get(0).getMes()).isEqualTo(YearMonth.of(2024, 2));
+        assertThat(resumo.get(0).getSimplesNacional()).isEqualTo("Não");
+        assertThat(resumo.get(2).getTipoCredito()).isEqualTo("Outros");
+        assertThat(resumo.get(2).getQuantidade()).isEqualTo(2);
+        assertThat(resumo.get(2).getTotalValorIssqn()).isEqualByComparingTo("1000.00");
+    }
+
+    @Test
+    void deveMoverTotaisEntreGruposNaAtualizacao() {
+        // When: muda de mês e de valor; a segunda atualização não toca colunas do resumo
+        jdbcTemplate.update("UPDATE credito SET data_constituicao = '2024-03-01', valor_issqn = 1600.75 WHERE numero_credito = '123456'");
+        jdbcTemplate.update("UPDATE credito SET aliquota = 6.0 WHERE numero_nfse = '1122334'");
+
+        // Then
+        assertThat(divergencias()).isZero();
+        List<ResumoIssqnDTO> marco = resumoIssqnRepository.totalizar(EnumSet.of(Dimensao.MES),
+                YearMonth.of(2024, 3), YearMonth.of(2024, 3), null, null);
+        assertThat(marco).hasSize(1);
+        assertThat(marco.get(0).getTotalValorIssqn()).isEqualByComparingTo("1600.75");
+    }
+
+    @Test
+    void deveRemoverGrupoQuandoUltimoCreditoEExcluido() {
+        // When
+        jdbcTemplate.update("DELETE FROM credito WHERE tipo_credito = 'Outros'");
+
+        // Then
+        assertThat(divergencias()).isZero();
+        assertThat(resumoIssqnRepository.totalizar(EnumSet.of(Dimensao.TIPO_CREDITO), null, null, "Outros", null)).isEmpty();
+    }
+
+    @Test
+    void deveAcompanharInsertComOnConflict() {
+        // When: mesmo comando da importação em massa (insere um, atualiza outro)
+        jdbcTemplate.update("""
+                INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn, tipo_credito,
+                                     simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo)
+                VALUES ('123456', '7891011', '2024-02-25', 2000.00, 'ISSQN', true, 5.0, 40000.00, 0.00, 40000.00),
+                       ('999999', '5555555', '2024-04-01', 10.00, 'ISSQN', false, 2.0, 500.00, 0.00, 500.00)
+                ON CONFLICT (numero_credito) DO UPDATE SET valor_issqn = EXCLUDED.valor_issqn,
+                    valor_faturado = EXCLUDED.valor_faturado, valor_deducao = EXCLUDED.valor_deducao,
+                    base_calculo = EXCLUDED.base_calculo
+                """);
+
+        // Then
+        assertThat(divergencias()).isZero();
+    }
+
+    @Test
+    void deveTotalizarSemAgrupamento() {
+        // When
+        List<ResumoIssqnDTO> total = resumoIssqnRepository.totalizar(EnumSet.noneOf(Dimensao.class), null, null, null, true);
+
+        // Then
+        assertThat(total).hasSize(1);
+        assertThat(total.get(0).getTipoCredito()).isNull();
+        assertThat(total.get(0).getQuantidade()).isEqualTo(3);
+        assertThat(total.get(0).getTotalValorIssqn()).isEqualByComparingTo(new BigDecimal("2500.75"));
+        assertThat(total.get(0).getTotalBaseCalculo()).isEqualByComparingTo(new BigDecimal("47000.00"));
+    }
+
+    @Test
+    void deveZerarResumoNoTruncateERecalcular() {
+        // When
+        jdbcTemplate.execute("TRUNCATE credito");
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM resumo_issqn", Long.class)).isZero();
+
+        jdbcTemplate.update("INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn, tipo_credito, "
+                + "simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo) "
+                + "VALUES ('1', '1', '2024-05-05', 1.00, 'ISSQN', true, 1.0, 1.00, 0.00, 1.00)");
+        jdbcTemplate.execute("DELETE FROM resumo_issqn");
+        jdbcTemplate.queryForList("SELECT recalcular_resumo_issqn()");
+        assertThat(divergencias()).isZero();
+    }
+
+    private long divergencias() {
+        return jdbcTemplate.queryForObject(DIVERGENCIAS, Long.class);
+    }
+}
@@ -0,0 +1,48 @@
+package br.com.exemplo.service;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.AnaliseConsultasDTO;
+import br.com.exemplo.dto.ConsultaEventDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AnaliseConsultasServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AnaliseConsultasService analiseConsultasService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        analiseConsultasService = new AnaliseConsultasService(new CreditosProperties(), meterRegistry);
+    }
+
+    @Test
+    void deveIgnorarRegistrosQueNaoDesserializaram() {
+        // Arrange
+        ConsultaEventDTO evento = new ConsultaEventDTO("NUMERO_NFSE", "7891011", 2, "localhost", "API");
+
+        // Act
+        analiseConsultasService.registrar(Arrays.asList(evento, null, evento));
+        AnaliseConsultasDTO resumo = analiseConsultasService.resumir(5);
+
+        // Assert
+        assertEquals(2, resumo.getTotalConsultas());
+        assertEquals("7891011", resumo.getMaisConsultadas().get(0).getValorConsultado());
+        assertEquals(2.0, meterRegistry.get("creditos.analise.eventos").counter().count());
+        assertEquals(1.0, meterRegistry.get("creditos.analise.eventos.invalidos").counter().count());
+    }
+
+    @Test
+    void deveRejeitarLimiteForaDoTopK() {
+        // Act / Assert
+        assertThrows(IllegalArgumentException.class, () -> analiseConsultasService.resumir(0));
+        assertThrows(IllegalArgumentException.class, () -> analiseConsultasService.resumir(101));
+    }
+}
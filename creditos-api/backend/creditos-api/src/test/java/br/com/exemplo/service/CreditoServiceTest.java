@@ -1,21 +1,47 @@
 package br.com.exemplo.service;
 
+import br.com.exemplo.cache.ConsultasEmAndamento;
+import br.com.exemplo.cache.CreditoCache;
+import br.com.exemplo.cache.FiltroExistencia;
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.ConsultaLoteRequestDTO;
+import br.com.exemplo.dto.ConsultaLoteResponseDTO;
 import br.com.exemplo.dto.CreditoResponseDTO;
+import br.com.exemplo.dto.PaginaCreditosDTO;
+import br.com.exemplo.dto.VersaoCreditoDTO;
 import br.com.exemplo.entity.Credito;
 import br.com.exemplo.messaging.ConsultaPublisher;
+import br.com.exemplo.metricas.MetricasCreditos;
+import br.com.exemplo.replicas.LeituraHedged;
+import br.com.exemplo.repository.ChavesCreditoRepository;
 import br.com.exemplo.repository.CreditoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,6 +57,33 @@ class CreditoServiceTest {
     @Mock
     private ConsultaPublisher consultaPublisher;
 
+    @Spy
+    private CreditosProperties properties = new CreditosProperties();
+
+    @Spy
+    private CreditoCache creditoCache = new CreditoCache(new CreditosProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private MetricasCreditos metricas = new MetricasCreditos(meterRegistry);
+
+    // Sem réplicas configuradas: executa as consultas direto na thread do teste
+    @Spy
+    @SuppressWarnings("unchecked")
+    private LeituraHedged leituraHedged = new LeituraHedged(new CreditosProperties(), mock(ObjectProvider.class), meterRegistry);
+
+    // Ainda não construído: não descarta nenhuma chave
+    @Spy
+    private FiltroExistencia filtroExistencia = new FiltroExistencia(mock(ChavesCreditoRepository.class),
+            new CreditosProperties(), meterRegistry);
+
+    @Spy
+    private ConsultasEmAndamento consultasEmAndamento = new ConsultasEmAndamento(new CreditosProperties(), meterRegistry);
+
     @InjectMocks
     private CreditoService creditoService;
 
@@ -50,12 +103,18 @@ class CreditoServiceTest {
         credito2.setId(2L);
     }
 
+    private CreditoResponseDTO dto(Credito credito) {
+        return new CreditoResponseDTO(credito.getNumeroCredito(), credito.getNumeroNfse(), credito.getDataConstituicao(),
+                credito.getValorIssqn(), credito.getTipoCredito(), credito.isSimplesNacional(), credito.getAliquota(),
+                credito.getValorFaturado(), credito.getValorDeducao(), credito.getBaseCalculo());
+    }
+
     @Test
     void obterCreditosPorNfse_DeveRetornarListaDeCreditos() {
         // Arrange
         String numeroNfse = "7891011";
-        List<Credito> creditos = Arrays.asList(credito1, credito2);
-        when(creditoRepository.findByNumeroNfse(numeroNfse)).thenReturn(creditos);
+        List<CreditoResponseDTO> creditos = Arrays.asList(dto(credito1), dto(credito2));
+        when(creditoRepository.findDtoByNumeroNfse(numeroNfse)).thenReturn(creditos);
 
         // Act
         List<CreditoResponseDTO> resultado = creditoService.buscarCreditosPorNfse(numeroNfse);
@@ -68,7 +127,7 @@ class CreditoServiceTest {
         assertEquals("Sim", resultado.get(0).getSimplesNacional());
         assertEquals("Não", resultado.get(1).getSimplesNacional());
 
-        verify(creditoRepository).findByNumeroNfse(numeroNfse);
+        verify(creditoRepository).findDtoByNumeroNfse(numeroNfse);
         verify(consultaPublisher).publishConsultaEvent(any());
     }
 
@@ -76,7 +135,7 @@ class CreditoServiceTest {
     void obterCreditosPorNfse_DeveRetornarListaVaziaQuandoNaoEncontrar() {
         // Arrange
         String numeroNfse = "inexistente";
-        when(creditoRepository.findByNumeroNfse(numeroNfse)).thenReturn(Arrays.asList());
+        when(creditoRepository.findDtoByNumeroNfse(numeroNfse)).thenReturn(Arrays.asList());
 
         // Act
         List<CreditoResponseDTO> resultado = creditoService.buscarCreditosPorNfse(numeroNfse);
@@ -85,7 +144,7 @@ class CreditoServiceTest {
         assertNotNull(resultado);
         assertTrue(resultado.isEmpty());
 
-        verify(creditoRepository).findByNumeroNfse(numeroNfse);
+        verify(creditoRepository).findDtoByNumeroNfse(numeroNfse);
         verify(consultaPublisher).publishConsultaEvent(any());
     }
 
@@ -93,7 +152,7 @@ class CreditoServiceTest {
     void obterCreditoPorNumero_DeveRetornarCredito() {
         // Arrange
         String numeroCredito = "123456";
-        when(creditoRepository.findByNumeroCredito(numeroCredito)).thenReturn(Optional.of(credito1));
+        when(creditoRepository.findDtoByNumeroCredito(numeroCredito)).thenReturn(Optional.of(dto(credito1)));
 
         // Act
         java.util.Optional<CreditoResponseDTO> resultado = creditoService.buscarCreditoPorNumero(numeroCredito);
@@ -107,7 +166,7 @@ class CreditoServiceTest {
         assertEquals("ISSQN", resultado.get().getTipoCredito());
         assertEquals("Sim", resultado.get().getSimplesNacional());
 
-        verify(creditoRepository).findByNumeroCredito(numeroCredito);
+        verify(creditoRepository).findDtoByNumeroCredito(numeroCredito);
         verify(consultaPublisher).publishConsultaEvent(any());
     }
 
@@ -115,7 +174,7 @@ class CreditoServiceTest {
     void buscarCreditoPorNumero_DeveRetornarVazioQuandoNaoEncontrar() {
         // Arrange
         String numeroCredito = "inexistente";
-        when(creditoRepository.findByNumeroCredito(numeroCredito)).thenReturn(Optional.empty());
+        when(creditoRepository.findDtoByNumeroCredito(numeroCredito)).thenReturn(Optional.empty());
 
         // Act
         java.util.Optional<CreditoResponseDTO> resultado = creditoService.buscarCreditoPorNumero(numeroCredito);
@@ -123,16 +182,45 @@ class CreditoServiceTest {
         // Assert
         assertTrue(resultado.isEmpty());
 
-        verify(creditoRepository).findByNumeroCredito(numeroCredito);
+        verify(creditoRepository).findDtoByNumeroCredito(numeroCredito);
         verify(consultaPublisher, never()).publishConsultaEvent(any());
     }
 
+    @Test
+    void buscarVersoesPorNfse_DeveUsarCacheLocalSemConsultarOBanco() {
+        // Arrange
+        when(creditoRepository.findDtoByNumeroNfse("7891011")).thenReturn(Arrays.asList(dto(credito1), dto(credito2)));
+        creditoService.buscarCreditosPorNfse("7891011");
+
+        // Act
+        List<VersaoCreditoDTO> versoes = creditoService.buscarVersoesPorNfse("7891011");
+
+        // Assert
+        assertEquals(List.of("123456", "789012"), versoes.stream().map(VersaoCreditoDTO::getNumeroCredito).toList());
+        verify(creditoRepository, never()).findVersoesByNumeroNfse(anyString());
+    }
+
+    @Test
+    void buscarVersaoPorNumero_DeveConsultarSoAVersaoForaDoCache() {
+        // Arrange
+        when(creditoRepository.findVersaoByNumeroCredito("123456"))
+                .thenReturn(Optional.of(new VersaoCreditoDTO("123456", 2, null)));
+
+        // Act
+        Optional<VersaoCreditoDTO> versao = creditoService.buscarVersaoPorNumero("123456");
+
+        // Assert
+        assertEquals(2, versao.orElseThrow().getVersao());
+        verify(creditoRepository, never()).findDtoByNumeroCredito(anyString());
+        assertNull(creditoCache.numeroPresente("123456"));
+    }
+
     @Test
     void obterCreditosPorNfse_DevePublicarEventoCorretamente() {
         // Arrange
         String numeroNfse = "7891011";
-        List<Credito> creditos = Arrays.asList(credito1);
-        when(creditoRepository.findByNumeroNfse(numeroNfse)).thenReturn(creditos);
+        List<CreditoResponseDTO> creditos = Arrays.asList(dto(credito1));
+        when(creditoRepository.findDtoByNumeroNfse(numeroNfse)).thenReturn(creditos);
 
         // Act
         creditoService.buscarCreditosPorNfse(numeroNfse);
@@ -144,4 +232,267 @@ class CreditoServiceTest {
             evento.getQuantidadeResultados() == 1
         ));
     }
+
+    @Test
+    void buscarEmLote_DeveAgruparResultadosPorChaveComUmaConsultaPorTipo() {
+        // Arrange
+        when(creditoRepository.findDtoByNumeroNfseIn(any())).thenReturn(Arrays.asList(dto(credito2), dto(credito1)));
+        when(creditoRepository.findDtoByNumeroCreditoIn(any())).thenReturn(Arrays.asList(dto(credito1)));
+        ConsultaLoteRequestDTO requisicao = new ConsultaLoteRequestDTO(
+                Arrays.asList("7891011", "inexistente", "7891011"),
+                Arrays.asList("123456", "999999"));
+
+        // Act
+        ConsultaLoteResponseDTO resultado = creditoService.buscarEmLote(requisicao);
+
+        // Assert
+        assertEquals(1, resultado.getCreditosPorNfse().size());
+        assertEquals(2, resultado.getCreditosPorNfse().get("7891011").size());
+        assertEquals(List.of("inexistente"), resultado.getNfseNaoEncontradas());
+        assertEquals("123456", resultado.getCreditosPorNumero().get("123456").getNumeroCredito());
+        assertEquals(List.of("999999"), resultado.getCreditosNaoEncontrados());
+
+        verify(creditoRepository, times(1)).findDtoByNumeroNfseIn(argThat(chaves -> chaves.size() == 2));
+        verify(creditoRepository, times(1)).findDtoByNumeroCreditoIn(argThat(chaves -> chaves.size() == 2));
+        verify(creditoRepository, never()).findDtoByNumeroNfse(anyString());
+        verify(creditoRepository, never()).findDtoByNumeroCredito(anyString());
+    }
+
+    @Test
+    void buscarEmLote_DeveRejeitarQuandoExcederLimiteDeChaves() {
+        // Arrange
+        properties.getLote().setMaxChaves(2);
+        ConsultaLoteRequestDTO requisicao = new ConsultaLoteRequestDTO(
+                Arrays.asList("1", "2"), Arrays.asList("3"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> creditoService.buscarEmLote(requisicao));
+        verifyNoInteractions(creditoRepository);
+    }
+
+    @Test
+    void buscarEmLote_DeveRejeitarRequisicaoSemChaves() {
+        ConsultaLoteRequestDTO requisicao = new ConsultaLoteRequestDTO(Arrays.asList(" ", null), null);
+
+        assertThrows(IllegalArgumentException.class, () -> creditoService.buscarEmLote(requisicao));
+        verifyNoInteractions(creditoRepository);
+    }
+
+    @Test
+    void buscarCreditosPorNfse_DeveUsarCacheNaSegundaConsulta() {
+        // Arrange
+        String numeroNfse = "7891011";
+        when(creditoRepository.findDtoByNumeroNfse(numeroNfse)).thenReturn(Arrays.asList(dto(credito1), dto(credito2)));
+
+        // Act
+        creditoService.buscarCreditosPorNfse(numeroNfse);
+        List<CreditoResponseDTO> resultado = creditoService.buscarCreditosPorNfse(numeroNfse);
+
+        // Assert - o banco é consultado uma única vez, mas toda consulta é auditada
+        assertEquals(2, resultado.size());
+        verify(creditoRepository, times(1)).findDtoByNumeroNfse(numeroNfse);
+        verify(consultaPublisher, times(2)).publishConsultaEvent(any());
+    }
+
+    @Test
+    void buscarCreditosPorNfse_DeveRegistrarLatenciaPorResultadoDoCache() {
+        // Arrange
+        String numeroNfse = "7891011";
+        when(creditoRepository.findDtoByNumeroNfse(numeroNfse)).thenReturn(Arrays.asList(dto(credito1), dto(credito2)));
+
+        // Act
+        creditoService.buscarCreditosPorNfse(numeroNfse);
+        creditoService.buscarCreditosPorNfse(numeroNfse);
+        creditoService.buscarCreditosPorNfse(numeroNfse);
+
+        // Assert
+        assertEquals(1, meterRegistry.get("creditos.consulta").tag("tipo", "nfse").tag("cache", "miss").timer().count());
+        assertEquals(2, meterRegistry.get("creditos.consulta").tag("tipo", "nfse").tag("cache", "hit").timer().count());
+    }
+
+    @Test
+    void buscarCreditoPorNumero_DeveArmazenarResultadoNaoEncontrado() {
+        // Arrange
+        String numeroCredito = "inexistente";
+        when(creditoRepository.findDtoByNumeroCredito(numeroCredito)).thenReturn(Optional.empty());
+
+        // Act
+        creditoService.buscarCreditoPorNumero(numeroCredito);
+        Optional<CreditoResponseDTO> resultado = creditoService.buscarCreditoPorNumero(numeroCredito);
+
+        // Assert
+        assertTrue(resultado.isEmpty());
+        verify(creditoRepository, times(1)).findDtoByNumeroCredito(numeroCredito);
+    }
+
+    @Test
+    void buscarCreditosPorNfse_DeveCompartilharConsultaEntreRequisicoesSimultaneas() throws Exception {
+        // Arrange: a primeira consulta fica presa no banco até as demais chegarem
+        CountDownLatch liberarBanco = new CountDownLatch(1);
+        when(creditoRepository.findDtoByNumeroNfse("7891011")).thenAnswer(invocacao -> {
+            liberarBanco.await(5, TimeUnit.SECONDS);
+            return Arrays.asList(dto(credito1), dto(credito2));
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            // Act
+            List<Future<List<CreditoResponseDTO>>> requisicoes = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                requisicoes.add(executor.submit(() -> creditoService.buscarCreditosPorNfse("7891011")));
+            }
+            while (meterRegistry.get("creditos.coalescencia.compartilhadas").counter().count() < 7) {
+                Thread.sleep(5);
+            }
+            liberarBanco.countDown();
+
+            // Assert
+            for (Future<List<CreditoResponseDTO>> requisicao : requisicoes) {
+                assertEquals(2, requisicao.get(5, TimeUnit.SECONDS).size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(creditoRepository, times(1)).findDtoByNumeroNfse("7891011");
+    }
+
+    @Test
+    void buscarCreditoPorNumero_NaoDeveConsultarBancoQuandoFiltroDescartaChave() {
+        // Arrange
+        doReturn(false).when(filtroExistencia).podeExistir(FiltroExistencia.Tipo.CREDITO, "inexistente");
+
+        // Act
+        Optional<CreditoResponseDTO> resultado = creditoService.buscarCreditoPorNumero("inexistente");
+
+        // Assert
+        assertTrue(resultado.isEmpty());
+        verifyNoInteractions(creditoRepository);
+    }
+
+    @Test
+    void buscarEmLote_DeveConsultarBancoApenasParaChavesQueOFiltroNaoDescarta() {
+        // Arrange
+        doAnswer(invocacao -> !"1122334".equals(invocacao.getArgument(1)))
+                .when(filtroExistencia).podeExistir(any(), anyString());
+        when(creditoRepository.findDtoByNumeroNfseIn(any())).thenReturn(Arrays.asList(dto(credito1), dto(credito2)));
+
+        // Act
+        ConsultaLoteResponseDTO resultado = creditoService.buscarEmLote(
+                new ConsultaLoteRequestDTO(Arrays.asList("7891011", "1122334"), null));
+
+        // Assert
+        assertEquals(2, resultado.getCreditosPorNfse().get("7891011").size());
+        assertEquals(List.of("1122334"), resultado.getNfseNaoEncontradas());
+        verify(creditoRepository).findDtoByNumeroNfseIn(argThat(chaves -> chaves.size() == 1 && chaves.contains("7891011")));
+    }
+
+    @Test
+    void buscarEmLote_DeveConsultarBancoApenasParaChavesForaDoCache() {
+        // Arrange
+        when(creditoRepository.findDtoByNumeroNfse("7891011")).thenReturn(Arrays.asList(dto(credito1), dto(credito2)));
+        creditoService.buscarCreditosPorNfse("7891011");
+        when(creditoRepository.findDtoByNumeroNfseIn(any())).thenReturn(List.of());
+
+        // Act
+        ConsultaLoteResponseDTO resultado = creditoService.buscarEmLote(
+                new ConsultaLoteRequestDTO(Arrays.asList("7891011", "1122334"), null));
+
+        // Assert
+        assertEquals(2, resultado.getCreditosPorNfse().get("7891011").size());
+        assertEquals(List.of("1122334"), resultado.getNfseNaoEncontradas());
+        verify(creditoRepository).findDtoByNumeroNfseIn(argThat(chaves -> chaves.size() == 1 && chaves.contains("1122334")));
+    }
+
+    @Test
+    void preCarregarNfse_DeveCarregarApenasChavesForaDoCacheSemPublicarEventos() {
+        // Arrange
+        creditoCache.armazenarNfse("1122334", List.of(), creditoCache.marca());
+        when(creditoRepository.findDtoByNumeroNfseIn(any())).thenReturn(Arrays.asList(dto(credito1), dto(credito2)));
+
+        // Act
+        int carregadas = creditoService.preCarregarNfse(Arrays.asList("7891011", "1122334", "7891011", " "));
+
+        // Assert
+        assertEquals(1, carregadas);
+        verify(creditoRepository).findDtoByNumeroNfseIn(argThat(chaves -> chaves.size() == 1 && chaves.contains("7891011")));
+        assertEquals(2, creditoService.buscarCreditosPorNfse("7891011").size());
+        verify(creditoRepository, never()).findDtoByNumeroNfse(anyString());
+        verify(consultaPublisher, times(1)).publishConsultaEvent(any());
+    }
+
+    @Test
+    void preCarregarCreditos_DeveArmazenarNaoEncontrados() {
+        // Arrange
+        when(creditoRepository.findDtoByNumeroCreditoIn(any())).thenReturn(List.of(dto(credito1)));
+
+        // Act
+        int carregados = creditoService.preCarregarCreditos(Arrays.asList("123456", "000000"));
+
+        // Assert
+        assertEquals(2, carregados);
+        assertTrue(creditoService.buscarCreditoPorNumero("000000").isEmpty());
+        verify(creditoRepository, never()).findDtoByNumeroCredito(anyString());
+    }
+
+    @Test
+    void escreverCreditosPorNfse_DeveEscreverUmJsonPorLinha() throws Exception {
+        // Arrange
+        String numeroNfse = "7891011";
+        when(creditoRepository.streamDtoByNumeroNfse(numeroNfse)).thenReturn(Stream.of(dto(credito2), dto(credito1)));
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        // Act
+        long quantidade = creditoService.escreverCreditosPorNfse(numeroNfse, saida);
+
+        // Assert
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, quantidade);
+        assertEquals(2, linhas.length);
+        assertEquals("789012", objectMapper.readTree(linhas[0]).get("numeroCredito").asText());
+        assertEquals("2024-02-25", objectMapper.readTree(linhas[1]).get("dataConstituicao").asText());
+        verify(consultaPublisher).publishConsultaEvent(argThat(evento -> evento.getQuantidadeResultados() == 2));
+    }
+
+    @Test
+    void buscarPaginaPorNfse_DeveRetornarCursorQuandoHouverMaisCreditos() {
+        // Arrange
+        String numeroNfse = "7891011";
+        when(creditoRepository.findPrimeiraPaginaByNumeroNfse(numeroNfse, Limit.of(2)))
+                .thenReturn(Arrays.asList(credito2, credito1));
+        when(creditoRepository.findPaginaByNumeroNfseApos(numeroNfse, LocalDate.of(2024, 2, 26), 2L, Limit.of(2)))
+                .thenReturn(Arrays.asList(credito1));
+
+        // Act
+        PaginaCreditosDTO primeira = creditoService.buscarPaginaPorNfse(numeroNfse, null, 1);
+        PaginaCreditosDTO segunda = creditoService.buscarPaginaPorNfse(numeroNfse, primeira.getProximoCursor(), 1);
+
+        // Assert
+        assertEquals(1, primeira.getCreditos().size());
+        assertEquals("789012", primeira.getCreditos().get(0).getNumeroCredito());
+        assertTrue(primeira.isPossuiMais());
+        assertEquals("123456", segunda.getCreditos().get(0).getNumeroCredito());
+        assertFalse(segunda.isPossuiMais());
+        assertNull(segunda.getProximoCursor());
+    }
+
+    @Test
+    void buscarPaginaPorNfse_DeveLimitarTamanhoDaPagina() {
+        // Arrange
+        properties.getPaginacao().setTamanhoMaximo(10);
+        when(creditoRepository.findPrimeiraPaginaByNumeroNfse("7891011", Limit.of(11))).thenReturn(List.of());
+
+        // Act
+        PaginaCreditosDTO pagina = creditoService.buscarPaginaPorNfse("7891011", null, 10_000);
+
+        // Assert
+        assertEquals(10, pagina.getTamanhoPagina());
+        assertTrue(pagina.getCreditos().isEmpty());
+    }
+
+    @Test
+    void buscarPaginaPorNfse_DeveRejeitarCursorInvalido() {
+        assertThrows(IllegalArgumentException.class,
+                () -> creditoService.buscarPaginaPorNfse("7891011", "cursor-invalido", null));
+        verifyNoInteractions(creditoRepository);
+    }
 }
@@ -0,0 +1,78 @@
+package br.com.exemplo.service;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.entity.Credito;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GravacaoCreditoServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private CreditosProperties properties = new CreditosProperties();
+
+    @InjectMocks
+    private GravacaoCreditoService gravacaoCreditoService;
+
+    @Test
+    void deveDescarregarELimparOContextoACadaLote() {
+        // Arrange
+        properties.getGravacao().setTamanhoLote(2);
+        List<Credito> creditos = criarCreditos(5);
+
+        // Act
+        int gravados = gravacaoCreditoService.salvarEmLote(creditos);
+
+        // Assert
+        assertEquals(5, gravados);
+        verify(entityManager, times(5)).persist(any(Credito.class));
+        // Dois lotes completos e o resto no final
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+
+        InOrder ordem = inOrder(entityManager);
+        ordem.verify(entityManager).persist(creditos.get(0));
+        ordem.verify(entityManager).persist(creditos.get(1));
+        ordem.verify(entityManager).flush();
+        ordem.verify(entityManager).clear();
+        ordem.verify(entityManager).persist(creditos.get(2));
+    }
+
+    @Test
+    void naoDeveDescarregarQuandoListaVazia() {
+        // Act
+        int gravados = gravacaoCreditoService.salvarEmLote(List.of());
+
+        // Assert
+        assertEquals(0, gravados);
+        verifyNoInteractions(entityManager);
+    }
+
+    private static List<Credito> criarCreditos(int quantidade) {
+        List<Credito> creditos = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            creditos.add(new Credito("CR" + i, "NF1", LocalDate.of(2024, 1, 1),
+                    new BigDecimal("1500.75"), "ISSQN", true, new BigDecimal("5.0"),
+                    new BigDecimal("30000.00"), new BigDecimal("5000.00"), new BigDecimal("25000.00")));
+        }
+        return creditos;
+    }
+}
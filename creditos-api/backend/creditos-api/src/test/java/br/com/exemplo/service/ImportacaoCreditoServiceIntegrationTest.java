@@ -0,0 +1,102 @@
+package br.com.exemplo.service;
+
+import br.com.exemplo.config.CreditosProperties;
+import br.com.exemplo.dto.ImportacaoResultadoDTO;
+import br.com.exemplo.service.ImportacaoCreditoService.Formato;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mescla da importação com o schema real (infra/initdb), incluindo o trigger de versão.
+ */
+@Testcontainers
+class ImportacaoCreditoServiceIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.5")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withCopyFileToContainer(MountableFile.forHostPath("../../infra/initdb/01-schema.sql"),
+                    "/docker-entrypoint-initdb.d/01-schema.sql");
+
+    private static final String CSV = """
+            numeroCredito,numeroNfse,dataConstituicao,valorIssqn,tipoCredito,simplesNacional,aliquota,valorFaturado,valorDeducao,baseCalculo
+            123456,7891011,2024-02-25,1500.75,ISSQN,true,5.00,30000.00,5000.00,25000.00
+            789012,7891011,2024-02-26,1200.50,ISSQN,false,4.50,25000.00,4000.00,21000.00
+            """;
+
+    private JdbcTemplate jdbcTemplate;
+    private ImportacaoCreditoService importacaoCreditoService;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), "test", "test");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("TRUNCATE credito");
+        importacaoCreditoService = new ImportacaoCreditoService();
+        ReflectionTestUtils.setField(importacaoCreditoService, "dataSource", dataSource);
+        ReflectionTestUtils.setField(importacaoCreditoService, "properties", new CreditosProperties());
+        ReflectionTestUtils.setField(importacaoCreditoService, "objectMapper", new ObjectMapper());
+    }
+
+    @Test
+    void naoDeveRegravarCreditosInalteradosAoReimportar() throws Exception {
+        // Given
+        ImportacaoResultadoDTO primeira = importar(CSV);
+        assertThat(primeira.getInseridos()).isEqualTo(2);
+        Map<String, Object> antes = versao("123456");
+
+        // When: o mesmo arquivo de novo
+        ImportacaoResultadoDTO segunda = importar(CSV);
+
+        // Then: nada inserido nem atualizado, versão e data de alteração preservadas
+        assertThat(segunda.getLinhasLidas()).isEqualTo(2);
+        assertThat(segunda.getInseridos()).isZero();
+        assertThat(segunda.getAtualizados()).isZero();
+        assertThat(versao("123456")).isEqualTo(antes);
+    }
+
+    @Test
+    void deveAtualizarApenasCreditosAlterados() throws Exception {
+        // Given
+        importar(CSV);
+        Map<String, Object> inalterado = versao("789012");
+        long versaoAnterior = ((Number) versao("123456").get("versao")).longValue();
+
+        // When: só o valor do primeiro crédito muda
+        ImportacaoResultadoDTO resultado = importar(CSV.replace("1500.75", "1600.00"));
+
+        // Then
+        assertThat(resultado.getInseridos()).isZero();
+        assertThat(resultado.getAtualizados()).isEqualTo(1);
+        assertThat(((Number) versao("123456").get("versao")).longValue()).isEqualTo(versaoAnterior + 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT valor_issqn FROM credito WHERE numero_credito = '123456'",
+                BigDecimal.class)).isEqualByComparingTo("1600.00");
+        assertThat(versao("789012")).isEqualTo(inalterado);
+    }
+
+    private ImportacaoResultadoDTO importar(String csv) throws Exception {
+        return importacaoCreditoService.importar(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), Formato.CSV);
+    }
+
+    private Map<String, Object> versao(String numeroCredito) {
+        return jdbcTemplate.queryForMap("SELECT versao, atualizado_em FROM credito WHERE numero_credito = ?", numeroCredito);
+    }
+}
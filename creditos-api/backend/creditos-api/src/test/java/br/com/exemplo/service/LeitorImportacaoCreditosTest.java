@@ -0,0 +1,115 @@
+package br.com.exemplo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeitorImportacaoCreditosTest {
+
+    private final List<String> enviados = new ArrayList<>();
+    private final List<String> rejeicoes = new ArrayList<>();
+
+    private LeitorImportacaoCreditos leitor(String conteudo, ImportacaoCreditoService.Formato formato) {
+        return new LeitorImportacaoCreditos(new BufferedReader(new StringReader(conteudo)), formato, new ObjectMapper());
+    }
+
+    private void ler(LeitorImportacaoCreditos leitor, int limite) throws Exception {
+        leitor.ler(new StringBuilder(), limite, buffer -> enviados.add(buffer.toString()),
+                (linha, motivo) -> rejeicoes.add(linha + ":" + motivo));
+    }
+
+    @Test
+    void deveConverterCsvParaFormatoCanonicoComNumeroDaLinha() throws Exception {
+        // Arrange - colunas fora de ordem e em snake_case
+        String csv = """
+                numero_nfse,numero_credito,data_constituicao,valor_issqn,tipo_credito,simples_nacional,aliquota,valor_faturado,valor_deducao,base_calculo
+                7891011,123456,2024-02-25,1500.75,ISSQN,Sim,5.0,30000.00,5000.00,25000.00
+                """;
+
+        // Act
+        LeitorImportacaoCreditos leitor = leitor(csv, ImportacaoCreditoService.Formato.CSV);
+        ler(leitor, 1024);
+
+        // Assert
+        assertEquals(List.of("2,123456,7891011,2024-02-25,1500.75,ISSQN,true,5.0,30000.00,5000.00,25000.00\n"), enviados);
+        assertTrue(rejeicoes.isEmpty());
+        assertEquals(1, leitor.getLinhasLidas());
+    }
+
+    @Test
+    void deveRejeitarLinhasInvalidasSemInterromperAImportacao() throws Exception {
+        // Arrange
+        String csv = """
+                numeroCredito,numeroNfse,dataConstituicao,valorIssqn,tipoCredito,simplesNacional,aliquota,valorFaturado,valorDeducao,baseCalculo
+                1,NF1,2024-13-01,10.00,ISSQN,true,5,200,0,200
+                2,NF1,2024-01-01,10.001,ISSQN,true,5,200,0,200
+                3,NF1,2024-01-01,10.00,ISSQN,talvez,5,200,0,200
+                ,NF1,2024-01-01,10.00,ISSQN,true,5,200,0,200
+
+                5,NF1,2024-01-01,10.00,"ISSQN, retido",false,5,200,0,200
+                """;
+
+        // Act
+        LeitorImportacaoCreditos leitor = leitor(csv, ImportacaoCreditoService.Formato.CSV);
+        ler(leitor, 1024);
+
+        // Assert - a linha em branco não conta como lida, mas conta na numeração
+        assertEquals(5, leitor.getLinhasLidas());
+        assertEquals(4, rejeicoes.size());
+        assertTrue(rejeicoes.get(0).startsWith("2:Data inválida"));
+        assertTrue(rejeicoes.get(1).startsWith("3:Mais de duas casas decimais"));
+        assertTrue(rejeicoes.get(2).startsWith("4:Valor inválido em simplesNacional"));
+        assertTrue(rejeicoes.get(3).startsWith("5:Campo obrigatório ausente: numeroCredito"));
+        assertEquals(List.of("7,5,NF1,2024-01-01,10.00,\"ISSQN, retido\",false,5,200,0,200\n"), enviados);
+    }
+
+    @Test
+    void deveLerNdjson() throws Exception {
+        // Arrange
+        String ndjson = """
+                {"numeroCredito":"123456","numeroNfse":"7891011","dataConstituicao":"2024-02-25","valorIssqn":1500.75,"tipoCredito":"ISSQN","simplesNacional":true,"aliquota":5.0,"valorFaturado":30000.00,"valorDeducao":5000.00,"baseCalculo":25000.00}
+                {"numeroCredito":"789012"
+                """;
+
+        // Act
+        ler(leitor(ndjson, ImportacaoCreditoService.Formato.NDJSON), 1024);
+
+        // Assert
+        assertEquals(1, enviados.size());
+        assertTrue(enviados.get(0).startsWith("1,123456,7891011,2024-02-25,1500.75,ISSQN,true,"));
+        assertEquals(List.of("2:JSON inválido"), rejeicoes);
+    }
+
+    @Test
+    void deveDescarregarBufferAoAtingirOLimite() throws Exception {
+        // Arrange
+        StringBuilder csv = new StringBuilder("numeroCredito,numeroNfse,dataConstituicao,valorIssqn,tipoCredito,"
+                + "simplesNacional,aliquota,valorFaturado,valorDeducao,baseCalculo\n");
+        for (int i = 0; i < 10; i++) {
+            csv.append(i).append(",NF1,2024-01-01,10.00,ISSQN,true,5,200,0,200\n");
+        }
+
+        // Act
+        ler(leitor(csv.toString(), ImportacaoCreditoService.Formato.CSV), 1);
+
+        // Assert - cada linha válida sai em um envio separado
+        assertEquals(10, enviados.size());
+    }
+
+    @Test
+    void deveRejeitarCabecalhoSemColunaObrigatoria() {
+        // Arrange
+        String csv = "numeroCredito,numeroNfse\n1,NF1\n";
+
+        // Act & Assert
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class,
+                () -> ler(leitor(csv, ImportacaoCreditoService.Formato.CSV), 1024));
+        assertTrue(erro.getMessage().contains("dataConstituicao"));
+    }
+}
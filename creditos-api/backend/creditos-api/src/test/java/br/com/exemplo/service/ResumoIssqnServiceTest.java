@@ -0,0 +1,64 @@
+package br.com.exemplo.service;
+
+import br.com.exemplo.repository.ResumoIssqnRepository;
+import br.com.exemplo.repository.ResumoIssqnRepository.Dimensao;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.YearMonth;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ResumoIssqnServiceTest {
+
+    @Mock
+    private ResumoIssqnRepository resumoIssqnRepository;
+
+    @InjectMocks
+    private ResumoIssqnService resumoIssqnService;
+
+    @Test
+    void deveAgruparPorTodasAsDimensoesQuandoNaoInformado() {
+        // Act
+        resumoIssqnService.totalizar(null, null, null, null, null);
+
+        // Assert
+        verify(resumoIssqnRepository).totalizar(EnumSet.allOf(Dimensao.class), null, null, null, null);
+    }
+
+    @Test
+    void deveInterpretarAgrupamentoInformado() {
+        // Arrange
+        YearMonth de = YearMonth.of(2024, 1);
+        YearMonth ate = YearMonth.of(2024, 6);
+
+        // Act
+        resumoIssqnService.totalizar(" mes, TipoCredito ", de, ate, "ISSQN", true);
+
+        // Assert
+        verify(resumoIssqnRepository).totalizar(EnumSet.of(Dimensao.TIPO_CREDITO, Dimensao.MES), de, ate, "ISSQN", true);
+    }
+
+    @Test
+    void deveRejeitarAgrupamentoDesconhecido() {
+        // Act / Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> resumoIssqnService.totalizar("mes,aliquota", null, null, null, null));
+        verifyNoInteractions(resumoIssqnRepository);
+    }
+
+    @Test
+    void deveRejeitarPeriodoInvertido() {
+        // Act / Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> resumoIssqnService.totalizar(null, YearMonth.of(2024, 6), YearMonth.of(2024, 1), null, null));
+        verifyNoInteractions(resumoIssqnRepository);
+    }
+}
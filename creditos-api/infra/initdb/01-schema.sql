@@ -1,6 +1,12 @@
+-- Sequence dos ids de crédito: o INCREMENT acompanha o allocationSize da entidade, de modo
+-- que o Hibernate reserva 50 ids por nextval (otimizador pooled) e consegue agrupar os INSERTs
+-- em batches JDBC, o que não é possível com IDENTITY. Linhas gravadas pelo DEFAULT (seed, COPY)
+-- ocupam só o valor devolvido pelo nextval, que nunca cai dentro de um bloco reservado pelo Hibernate
+CREATE SEQUENCE credito_id_seq START WITH 1 INCREMENT BY 50;
+
 -- Criação da tabela credito conforme especificação do desafio
 CREATE TABLE credito (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    id BIGINT NOT NULL DEFAULT nextval('credito_id_seq'),
     numero_credito VARCHAR(50) NOT NULL,
     numero_nfse VARCHAR(50) NOT NULL,
     data_constituicao DATE NOT NULL,
@@ -11,10 +17,260 @@ CREATE TABLE credito (
     valor_faturado DECIMAL(15, 2) NOT NULL,
     valor_deducao DECIMAL(15, 2) NOT NULL,
     base_calculo DECIMAL(15, 2) NOT NULL,
+    versao BIGINT NOT NULL DEFAULT 0,
+    atualizado_em TIMESTAMPTZ NOT NULL DEFAULT now(),
     
     PRIMARY KEY (id)
 );
 
+ALTER SEQUENCE credito_id_seq OWNED BY credito.id;
+
 -- Índices para otimização de consultas
-CREATE INDEX IF NOT EXISTS idx_credito_numero_nfse ON credito(numero_nfse);
-CREATE INDEX IF NOT EXISTS idx_credito_numero_credito ON credito(numero_credito);
+-- Composto para a paginação por cursor (numero_nfse, data_constituicao, id); também atende
+-- às buscas por igualdade em numero_nfse
+CREATE INDEX IF NOT EXISTS idx_credito_nfse_data_id ON credito(numero_nfse, data_constituicao DESC, id DESC);
+-- Único: chave de negócio usada no INSERT ... ON CONFLICT da importação em massa
+CREATE UNIQUE INDEX IF NOT EXISTS uk_credito_numero_credito ON credito(numero_credito);
+
+-- Invalidação de cache entre instâncias da API: cada comando que altera a tabela
+-- notifica o canal credito_invalidacao com as chaves afetadas (arrays JSON), divididas
+-- em quantos NOTIFY forem necessários para respeitar o limite de 8000 bytes do payload.
+-- Importações e cargas em massa invalidam só as chaves que alteraram, sem esvaziar os
+-- caches. '*' (esvaziar tudo) fica para TRUNCATE e para comandos acima de limite_linhas,
+-- cujas notificações poderiam esgotar a fila do servidor (8 GB) e fazer o COMMIT falhar
+CREATE OR REPLACE FUNCTION notificar_invalidacao_credito() RETURNS trigger AS $$
+DECLARE
+    limite_linhas CONSTANT BIGINT := 1000000;
+    -- Cada chave ocupa no máximo ~440 bytes (dois VARCHAR(50) em UTF-8): um lote que
+    -- começa abaixo deste total nunca passa de 8000
+    bytes_por_notificacao CONSTANT INTEGER := 7500;
+    total BIGINT;
+    payload TEXT;
+BEGIN
+    IF TG_OP = 'TRUNCATE' THEN
+        PERFORM pg_notify('credito_invalidacao', '*');
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'DELETE' THEN
+        SELECT count(*) INTO total FROM linhas_antigas;
+    ELSE
+        SELECT count(*) INTO total FROM linhas_novas;
+    END IF;
+    IF total > limite_linhas THEN
+        PERFORM pg_notify('credito_invalidacao', '*');
+        RETURN NULL;
+    END IF;
+
+    -- Lotes pelo total acumulado de bytes das chaves
+    IF TG_OP = 'INSERT' THEN
+        FOR payload IN
+            SELECT '[' || string_agg(chave, ',') || ']'
+              FROM (SELECT chave, sum(octet_length(chave) + 1) OVER (ORDER BY chave ROWS UNBOUNDED PRECEDING)
+                                  / bytes_por_notificacao AS lote
+                      FROM (SELECT json_build_object('numeroCredito', numero_credito, 'numeroNfse', numero_nfse)::text AS chave
+                              FROM linhas_novas) chaves) lotes
+             GROUP BY lote
+        LOOP
+            PERFORM pg_notify('credito_invalidacao', payload);
+        END LOOP;
+    ELSIF TG_OP = 'UPDATE' THEN
+        FOR payload IN
+            SELECT '[' || string_agg(chave, ',') || ']'
+              FROM (SELECT chave, sum(octet_length(chave) + 1) OVER (ORDER BY chave ROWS UNBOUNDED PRECEDING)
+                                  / bytes_por_notificacao AS lote
+                      FROM (SELECT json_build_object('numeroCredito', numero_credito, 'numeroNfse', numero_nfse)::text AS chave
+                              FROM (SELECT numero_credito, numero_nfse FROM linhas_antigas
+                                    UNION
+                                    SELECT numero_credito, numero_nfse FROM linhas_novas) alteradas) chaves) lotes
+             GROUP BY lote
+        LOOP
+            PERFORM pg_notify('credito_invalidacao', payload);
+        END LOOP;
+    ELSIF TG_OP = 'DELETE' THEN
+        FOR payload IN
+            SELECT '[' || string_agg(chave, ',') || ']'
+              FROM (SELECT chave, sum(octet_length(chave) + 1) OVER (ORDER BY chave ROWS UNBOUNDED PRECEDING)
+                                  / bytes_por_notificacao AS lote
+                      FROM (SELECT json_build_object('numeroCredito', numero_credito, 'numeroNfse', numero_nfse)::text AS chave
+                              FROM linhas_antigas) chaves) lotes
+             GROUP BY lote
+        LOOP
+            PERFORM pg_notify('credito_invalidacao', payload);
+        END LOOP;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_credito_invalidacao_insert
+    AFTER INSERT ON credito REFERENCING NEW TABLE AS linhas_novas
+    FOR EACH STATEMENT EXECUTE FUNCTION notificar_invalidacao_credito();
+
+CREATE TRIGGER trg_credito_invalidacao_update
+    AFTER UPDATE ON credito REFERENCING OLD TABLE AS linhas_antigas NEW TABLE AS linhas_novas
+    FOR EACH STATEMENT EXECUTE FUNCTION notificar_invalidacao_credito();
+
+CREATE TRIGGER trg_credito_invalidacao_delete
+    AFTER DELETE ON credito REFERENCING OLD TABLE AS linhas_antigas
+    FOR EACH STATEMENT EXECUTE FUNCTION notificar_invalidacao_credito();
+
+CREATE TRIGGER trg_credito_invalidacao_truncate
+    AFTER TRUNCATE ON credito
+    FOR EACH STATEMENT EXECUTE FUNCTION notificar_invalidacao_credito();
+
+-- Versão e data de alteração de cada crédito, base do ETag e do Last-Modified da API.
+-- Vale para qualquer UPDATE (JPA, importação em massa, manutenção manual); o UPDATE
+-- versionado do Hibernate já grava OLD.versao + 1, o que o trigger mantém
+CREATE OR REPLACE FUNCTION versionar_credito() RETURNS trigger AS $$
+BEGIN
+    NEW.versao := OLD.versao + 1;
+    NEW.atualizado_em := now();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_credito_versao
+    BEFORE UPDATE ON credito
+    FOR EACH ROW EXECUTE FUNCTION versionar_credito();
+
+-- Outbox dos eventos de auditoria de consulta (modo creditos.auditoria.modo=OUTBOX).
+-- A API grava em lote; os relays leem com FOR UPDATE SKIP LOCKED, publicam no tópico
+-- consulta-creditos e apagam as linhas publicadas
+CREATE TABLE IF NOT EXISTS outbox_consulta (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    tipo_consulta VARCHAR(50) NOT NULL,
+    valor_consultado VARCHAR(255),
+    quantidade_resultados INTEGER NOT NULL,
+    timestamp_consulta TIMESTAMP NOT NULL,
+    endereco_ip VARCHAR(100),
+    user_agent VARCHAR(500),
+
+    PRIMARY KEY (id)
+);
+
+-- Resumo de ISSQN por tipo de crédito, mês de constituição e Simples Nacional, base dos
+-- endpoints de totais (/api/creditos/resumos/issqn). Mantido incrementalmente pelos triggers
+-- de comando abaixo: cada INSERT/UPDATE/DELETE aplica só a diferença das linhas afetadas,
+-- agregada por grupo, em vez de recalcular sobre a tabela inteira. Grupos que ficam sem
+-- créditos são removidos
+CREATE TABLE IF NOT EXISTS resumo_issqn (
+    tipo_credito VARCHAR(50) NOT NULL,
+    mes DATE NOT NULL,
+    simples_nacional BOOLEAN NOT NULL,
+    quantidade BIGINT NOT NULL,
+    total_valor_issqn NUMERIC(20, 2) NOT NULL,
+    total_valor_faturado NUMERIC(20, 2) NOT NULL,
+    total_base_calculo NUMERIC(20, 2) NOT NULL,
+
+    PRIMARY KEY (tipo_credito, mes, simples_nacional)
+);
+
+CREATE OR REPLACE FUNCTION acumular_resumo_issqn() RETURNS trigger AS $$
+BEGIN
+    -- Diferença do comando por grupo: +1 para linhas novas, -1 para linhas antigas. A
+    -- ordenação pela chave faz transações concorrentes bloquearem os grupos na mesma
+    -- ordem, evitando deadlocks entre importações em paralelo
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO resumo_issqn AS r
+        SELECT tipo_credito, date_trunc('month', data_constituicao)::date, simples_nacional,
+               count(*), sum(valor_issqn), sum(valor_faturado), sum(base_calculo)
+          FROM linhas_novas
+         GROUP BY 1, 2, 3
+         ORDER BY 1, 2, 3
+        ON CONFLICT (tipo_credito, mes, simples_nacional) DO UPDATE
+           SET quantidade = r.quantidade + EXCLUDED.quantidade,
+               total_valor_issqn = r.total_valor_issqn + EXCLUDED.total_valor_issqn,
+               total_valor_faturado = r.total_valor_faturado + EXCLUDED.total_valor_faturado,
+               total_base_calculo = r.total_base_calculo + EXCLUDED.total_base_calculo;
+    ELSIF TG_OP = 'DELETE' THEN
+        -- Os grupos já existem; o INSERT só é usado para aplicar a diferença na mesma ordem
+        INSERT INTO resumo_issqn AS r
+        SELECT tipo_credito, date_trunc('month', data_constituicao)::date, simples_nacional,
+               -count(*), -sum(valor_issqn), -sum(valor_faturado), -sum(base_calculo)
+          FROM linhas_antigas
+         GROUP BY 1, 2, 3
+         ORDER BY 1, 2, 3
+        ON CONFLICT (tipo_credito, mes, simples_nacional) DO UPDATE
+           SET quantidade = r.quantidade + EXCLUDED.quantidade,
+               total_valor_issqn = r.total_valor_issqn + EXCLUDED.total_valor_issqn,
+               total_valor_faturado = r.total_valor_faturado + EXCLUDED.total_valor_faturado,
+               total_base_calculo = r.total_base_calculo + EXCLUDED.total_base_calculo;
+        DELETE FROM resumo_issqn WHERE quantidade = 0;
+    ELSIF TG_OP = 'UPDATE' THEN
+        -- Só as linhas em que alguma coluna do resumo mudou (o UPDATE de versão, por exemplo, não conta)
+        INSERT INTO resumo_issqn AS r
+        SELECT tipo_credito, mes, simples_nacional,
+               sum(sinal), sum(sinal * valor_issqn), sum(sinal * valor_faturado), sum(sinal * base_calculo)
+          FROM (SELECT n.tipo_credito, date_trunc('month', n.data_constituicao)::date AS mes, n.simples_nacional,
+                       1 AS sinal, n.valor_issqn, n.valor_faturado, n.base_calculo
+                  FROM linhas_novas n JOIN linhas_antigas o ON o.id = n.id
+                 WHERE (n.tipo_credito, n.data_constituicao, n.simples_nacional, n.valor_issqn, n.valor_faturado, n.base_calculo)
+                       IS DISTINCT FROM
+                       (o.tipo_credito, o.data_constituicao, o.simples_nacional, o.valor_issqn, o.valor_faturado, o.base_calculo)
+                UNION ALL
+                SELECT o.tipo_credito, date_trunc('month', o.data_constituicao)::date, o.simples_nacional,
+                       -1, o.valor_issqn, o.valor_faturado, o.base_calculo
+                  FROM linhas_antigas o JOIN linhas_novas n ON n.id = o.id
+                 WHERE (n.tipo_credito, n.data_constituicao, n.simples_nacional, n.valor_issqn, n.valor_faturado, n.base_calculo)
+                       IS DISTINCT FROM
+                       (o.tipo_credito, o.data_constituicao, o.simples_nacional, o.valor_issqn, o.valor_faturado, o.base_calculo)
+               ) alteradas
+         GROUP BY 1, 2, 3
+         ORDER BY 1, 2, 3
+        ON CONFLICT (tipo_credito, mes, simples_nacional) DO UPDATE
+           SET quantidade = r.quantidade + EXCLUDED.quantidade,
+               total_valor_issqn = r.total_valor_issqn + EXCLUDED.total_valor_issqn,
+               total_valor_faturado = r.total_valor_faturado + EXCLUDED.total_valor_faturado,
+               total_base_calculo = r.total_base_calculo + EXCLUDED.total_base_calculo;
+        DELETE FROM resumo_issqn WHERE quantidade = 0;
+    ELSIF TG_OP = 'TRUNCATE' THEN
+        TRUNCATE resumo_issqn;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_credito_resumo_insert
+    AFTER INSERT ON credito REFERENCING NEW TABLE AS linhas_novas
+    FOR EACH STATEMENT EXECUTE FUNCTION acumular_resumo_issqn();
+
+CREATE TRIGGER trg_credito_resumo_update
+    AFTER UPDATE ON credito REFERENCING OLD TABLE AS linhas_antigas NEW TABLE AS linhas_novas
+    FOR EACH STATEMENT EXECUTE FUNCTION acumular_resumo_issqn();
+
+CREATE TRIGGER trg_credito_resumo_delete
+    AFTER DELETE ON credito REFERENCING OLD TABLE AS linhas_antigas
+    FOR EACH STATEMENT EXECUTE FUNCTION acumular_resumo_issqn();
+
+CREATE TRIGGER trg_credito_resumo_truncate
+    AFTER TRUNCATE ON credito
+    FOR EACH STATEMENT EXECUTE FUNCTION acumular_resumo_issqn();
+
+-- Reconstrói o resumo a partir da tabela credito (carga inicial em uma base existente ou
+-- conferência). Bloqueia escritas em credito enquanto recalcula
+CREATE OR REPLACE FUNCTION recalcular_resumo_issqn() RETURNS void AS $$
+BEGIN
+    LOCK TABLE credito IN SHARE MODE;
+    DELETE FROM resumo_issqn;
+    INSERT INTO resumo_issqn
+    SELECT tipo_credito, date_trunc('month', data_constituicao)::date, simples_nacional,
+           count(*), sum(valor_issqn), sum(valor_faturado), sum(base_calculo)
+      FROM credito
+     GROUP BY 1, 2, 3;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Snapshot das chaves mais consultadas, gravado periodicamente por cada instância a partir
+-- das estatísticas do tópico consulta-creditos. Na subida, uma instância nova pré-carrega o
+-- cache com as chaves mais recentes daqui antes de se declarar pronta (readiness)
+CREATE TABLE IF NOT EXISTS chave_quente (
+    tipo_consulta VARCHAR(50) NOT NULL,
+    valor_consultado VARCHAR(255) NOT NULL,
+    consultas BIGINT NOT NULL,
+    atualizado_em TIMESTAMPTZ NOT NULL DEFAULT now(),
+
+    PRIMARY KEY (tipo_consulta, valor_consultado)
+);
+
+CREATE INDEX IF NOT EXISTS idx_chave_quente_atualizado_em ON chave_quente(atualizado_em);